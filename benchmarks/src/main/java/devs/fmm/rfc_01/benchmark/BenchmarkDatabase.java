@@ -0,0 +1,120 @@
+package devs.fmm.rfc_01.benchmark;
+
+import devs.fmm.rfc_01.dao.impl.WriteBehindUserStatsDao;
+import devs.fmm.rfc_01.db.DatabaseManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Base de datos SQLite temporal con un historial de retos completados del tamaño pedido, para los benchmarks que
+ * pasan por los DAOs y servicios reales. Cada una tiene su propio {@link DatabaseManager}, con el que el benchmark
+ * construye sus DAOs y servicios.
+ * <p>
+ * El historial lo genera {@link WorkloadGenerator} a partir de {@link #SPEC}, ajustado para que tenga en promedio el
+ * número de retos completados pedido; como es determinista, todas las ejecuciones miden los mismos datos. La primera
+ * vez que se pide un tamaño se guarda como plantilla en {@code java.io.tmpdir/rfc-benchmarks} y cada base de datos
+ * abierta trabaja sobre su propia copia, así que los benchmarks de escritura no alteran los datos de los demás.
+ */
+public final class BenchmarkDatabase {
+
+    /**
+     * Parámetros del historial de todos los tamaños; solo cambia la media de retos por día activo.
+     */
+    public static final WorkloadSpec SPEC = WorkloadSpec.DEFAULT;
+
+    /**
+     * Último día del historial; fijo para que todas las ejecuciones midan los mismos datos.
+     */
+    public static final LocalDate LAST_DAY = SPEC.getLastDay();
+
+    private static final Path TEMPLATE_DIR = Path.of(System.getProperty("java.io.tmpdir"), "rfc-benchmarks");
+
+    private final Path home;
+    private final int completions;
+    private final DatabaseManager dbManager;
+
+    private BenchmarkDatabase(Path home, int completions, DatabaseManager dbManager) {
+        this.home = home;
+        this.completions = completions;
+        this.dbManager = dbManager;
+    }
+
+    /**
+     * Abre una copia nueva de la base de datos con el número de retos completados indicado, generando la plantilla
+     * si hace falta.
+     *
+     * @param completions El número aproximado de retos completados del perfil predeterminado
+     * @return La base de datos abierta
+     */
+    public static BenchmarkDatabase open(int completions) {
+        try {
+            Path template = TEMPLATE_DIR.resolve("completions-" + completions + ".db");
+            synchronized (BenchmarkDatabase.class) {
+                if (!Files.exists(template)) {
+                    generateTemplate(template, completions);
+                }
+            }
+            Path home = Files.createTempDirectory("rfc-benchmark-");
+            Path dbPath = home.resolve("rfc_database.db");
+            Files.copy(template, dbPath);
+
+            return new BenchmarkDatabase(home, completions, new DatabaseManager(dbPath.toString()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Error generating benchmark database: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Cierra la base de datos y borra su copia. La plantilla se conserva.
+     */
+    public void close() {
+        WriteBehindUserStatsDao.forDatabase(dbManager).shutdown();
+        dbManager.shutdown();
+        try (Stream<Path> files = Files.walk(home)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            System.err.println("Error deleting benchmark database: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene el gestor de esta base de datos, del que se construyen los DAOs y servicios medidos.
+     *
+     * @return El gestor de la base de datos
+     */
+    public DatabaseManager getDatabaseManager() {
+        return dbManager;
+    }
+
+    /**
+     * Obtiene el número de retos completados pedido; el historial generado tiene aproximadamente ese tamaño.
+     *
+     * @return El número de retos completados
+     */
+    public int getCompletions() {
+        return completions;
+    }
+
+    /**
+     * Genera la plantilla de un tamaño con {@link WorkloadGenerator} y la deja en su sitio solo si se completa.
+     */
+    private static void generateTemplate(Path template, int completions) throws IOException, SQLException {
+        Files.createDirectories(TEMPLATE_DIR);
+        Path partial = Files.createTempFile(TEMPLATE_DIR, "completions-", ".partial");
+        Files.delete(partial);
+
+        WorkloadGenerator.Result result = new WorkloadGenerator(SPEC.withExpectedCompletions(completions)).generate(partial);
+        System.out.println("Generated benchmark database: " + result);
+        Files.move(partial, template, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
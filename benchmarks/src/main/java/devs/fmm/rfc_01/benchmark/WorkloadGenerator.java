@@ -0,0 +1,457 @@
+package devs.fmm.rfc_01.benchmark;
+
+import devs.fmm.rfc_01.db.migration.MigrationRunner;
+import devs.fmm.rfc_01.db.migration.Migrations;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Genera un catálogo y un historial de retos completados sintéticos a partir de un {@link WorkloadSpec}.
+ * <p>
+ * El resultado depende solo de los parámetros: cada usuario tiene su propio generador aleatorio derivado de la
+ * semilla, así que su historial no cambia aunque cambie el número de usuarios. Las filas se insertan por lotes en
+ * una sola transacción, sin pasar por los DAOs, y los resúmenes diarios y las estadísticas de cada usuario se
+ * calculan mientras se genera el historial en lugar de reconstruirse después con consultas sobre todo él.
+ * <p>
+ * Se puede usar desde los benchmarks o como programa para preparar una base de datos de pruebas de carga:
+ * {@code java -Drfc.workload.users=20 -cp target/benchmarks.jar devs.fmm.rfc_01.benchmark.WorkloadGenerator load.db}
+ */
+public class WorkloadGenerator {
+
+    private static final int BATCH_SIZE = 10_000;
+    private static final int SECONDS_PER_DAY = 86_400;
+
+    private static final String INSERT_CHALLENGE_SQL = "INSERT INTO challenges " +
+            "(id, name, description, category, difficulty, duration_minutes, image_path) VALUES (?, ?, ?, ?, ?, ?, NULL)";
+    private static final String INSERT_USER_SQL = "INSERT INTO users (id, name, created_at) VALUES (?, ?, ?)";
+    private static final String INSERT_USER_STATS_SQL = "INSERT INTO user_stats (user_id) VALUES (?)";
+    private static final String INSERT_COMPLETION_SQL =
+            "INSERT INTO completed_challenges (id, challenge_id, completion_date, user_id) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_DAY_SQL =
+            "INSERT INTO daily_activity (user_id, date, challenge_count, minutes) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_CATEGORY_SQL =
+            "INSERT INTO daily_category_activity (user_id, date, category, challenge_count) VALUES (?, ?, ?, ?)";
+    private static final String UPDATE_USER_STATS_SQL = "UPDATE user_stats SET total_challenges_completed = ?, " +
+            "total_minutes_exercised = ?, streak_days = ?, last_challenge_date = ?, last_completion_id = ? WHERE user_id = ?";
+
+    private final WorkloadSpec spec;
+
+    /**
+     * Constructor.
+     *
+     * @param spec Los parámetros del historial
+     */
+    public WorkloadGenerator(WorkloadSpec spec) {
+        this.spec = spec;
+    }
+
+    /**
+     * Genera una base de datos con los parámetros de las propiedades {@code rfc.workload.*}.
+     *
+     * @param args La ruta del fichero de base de datos
+     */
+    public static void main(String[] args) throws SQLException {
+        if (args.length != 1) {
+            System.err.println("Usage: WorkloadGenerator <database file>");
+            System.exit(1);
+        }
+
+        WorkloadSpec spec = WorkloadSpec.fromSystemProperties();
+        System.out.println("Generating " + spec);
+        System.out.println(new WorkloadGenerator(spec).generate(Path.of(args[0])));
+    }
+
+    /**
+     * Genera el historial en un fichero de base de datos, creándolo y llevando su esquema a la última versión si
+     * hace falta.
+     *
+     * @param dbPath La ruta del fichero
+     * @return El resumen de lo generado
+     * @throws SQLException Si ocurre un error SQL
+     */
+    public Result generate(Path dbPath) throws SQLException {
+        Path dir = dbPath.toAbsolutePath().getParent();
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + dbPath.toAbsolutePath())) {
+            // Nada de lo generado necesita sobrevivir a un corte: si falla se vuelve a generar
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("PRAGMA journal_mode = WAL");
+                stmt.execute("PRAGMA synchronous = OFF");
+                stmt.execute("PRAGMA cache_size = -65536");
+            }
+            new MigrationRunner(Migrations.all()).migrate(conn);
+            return generate(conn);
+        }
+    }
+
+    /**
+     * Genera el historial en una base de datos ya migrada. El catálogo sustituye a los retos existentes, así que la
+     * base de datos no debe tener historial ni más perfiles que el predeterminado.
+     *
+     * @param conn La conexión a la base de datos
+     * @return El resumen de lo generado
+     * @throws SQLException Si ocurre un error SQL
+     */
+    public Result generate(Connection conn) throws SQLException {
+        long start = System.nanoTime();
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+
+        try {
+            checkEmpty(conn);
+            SplittableRandom root = new SplittableRandom(spec.getSeed());
+            Catalog catalog = insertCatalog(conn, root.split());
+            insertUsers(conn);
+            Result result = insertHistory(conn, catalog, root, start);
+            conn.commit();
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static void checkEmpty(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT (SELECT COUNT(*) FROM completed_challenges), " +
+                     "(SELECT COUNT(*) FROM users)")) {
+            rs.next();
+            if (rs.getInt(1) > 0 || rs.getInt(2) > 1) {
+                throw new IllegalStateException("The database already has a history; generate into an empty one");
+            }
+        }
+    }
+
+    private Catalog insertCatalog(Connection conn, SplittableRandom rng) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM shown_challenges");
+            stmt.executeUpdate("DELETE FROM challenges");
+        }
+
+        int size = spec.getChallenges();
+        Catalog catalog = new Catalog(size);
+        int[] difficultyWeights = spec.getDifficultyWeights();
+        int totalWeight = Arrays.stream(difficultyWeights).sum();
+        int durationRange = spec.getMaxDurationMinutes() - spec.getMinDurationMinutes() + 1;
+
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_CHALLENGE_SQL)) {
+            for (int i = 0; i < size; i++) {
+                int category = i % spec.getCategories().size();
+                int duration = spec.getMinDurationMinutes() + rng.nextInt(durationRange);
+                catalog.category[i] = category;
+                catalog.duration[i] = duration;
+
+                String categoryName = spec.getCategories().get(category);
+                stmt.setInt(1, i + 1);
+                stmt.setString(2, categoryName + " " + (i + 1));
+                stmt.setString(3, "Reto sintético " + (i + 1) + " de " + categoryName);
+                stmt.setString(4, categoryName);
+                stmt.setInt(5, pickDifficulty(difficultyWeights, rng.nextInt(totalWeight)));
+                stmt.setInt(6, duration);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+
+        // Popularidad de Zipf por posición en el catálogo
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            total += 1.0 / Math.pow(i + 1, spec.getChallengeSkew());
+            catalog.cumulative[i] = total;
+        }
+        for (int i = 0; i < size; i++) {
+            catalog.cumulative[i] /= total;
+        }
+        return catalog;
+    }
+
+    private void insertUsers(Connection conn) throws SQLException {
+        String createdAt = spec.getFirstDay().atStartOfDay().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        try (PreparedStatement users = conn.prepareStatement(INSERT_USER_SQL);
+             PreparedStatement stats = conn.prepareStatement(INSERT_USER_STATS_SQL)) {
+            // El perfil predeterminado y sus estadísticas ya los crean las migraciones
+            for (int id = 2; id <= spec.getUsers(); id++) {
+                users.setInt(1, id);
+                users.setString(2, "Usuario " + id);
+                users.setString(3, createdAt);
+                users.addBatch();
+                stats.setInt(1, id);
+                stats.addBatch();
+            }
+            users.executeBatch();
+            stats.executeBatch();
+        }
+    }
+
+    private Result insertHistory(Connection conn, Catalog catalog, SplittableRandom root, long start) throws SQLException {
+        UserHistory[] users = new UserHistory[spec.getUsers()];
+        double totalWeight = 0;
+        for (int i = 0; i < users.length; i++) {
+            users[i] = new UserHistory(i + 1, root.split());
+            users[i].rate = 1.0 / Math.pow(i + 1, spec.getUserSkew());
+            totalWeight += users[i].rate;
+        }
+        // Normalizar para que la media entre usuarios sea la del spec
+        for (UserHistory user : users) {
+            user.rate *= spec.getCompletionsPerActiveDay() * users.length / totalWeight;
+        }
+
+        int categoryCount = spec.getCategories().size();
+        int[] categoryCounts = new int[categoryCount];
+        int[] seconds = new int[64];
+        long completionId = 0;
+        long activeDays = 0;
+        int pending = 0;
+
+        try (PreparedStatement completions = conn.prepareStatement(INSERT_COMPLETION_SQL);
+             PreparedStatement days = conn.prepareStatement(INSERT_DAY_SQL);
+             PreparedStatement categories = conn.prepareStatement(INSERT_CATEGORY_SQL)) {
+
+            LocalDate date = spec.getFirstDay();
+            for (int day = 0; day < spec.getDays(); day++, date = date.plusDays(1)) {
+                String dateText = date.toString();
+                for (UserHistory user : users) {
+                    if (!user.nextDay(day == 0)) {
+                        continue;
+                    }
+
+                    int count = Math.max(1, poisson(user.rng, user.rate));
+                    if (seconds.length < count) {
+                        seconds = new int[Math.max(count, seconds.length * 2)];
+                    }
+                    for (int i = 0; i < count; i++) {
+                        seconds[i] = user.rng.nextInt(SECONDS_PER_DAY);
+                    }
+                    // Ids crecientes con la hora, como los que asigna la aplicación
+                    Arrays.sort(seconds, 0, count);
+
+                    Arrays.fill(categoryCounts, 0);
+                    int minutes = 0;
+                    for (int i = 0; i < count; i++) {
+                        int challenge = catalog.pick(user.rng.nextDouble());
+                        minutes += catalog.duration[challenge];
+                        categoryCounts[catalog.category[challenge]]++;
+
+                        completions.setLong(1, ++completionId);
+                        completions.setInt(2, challenge + 1);
+                        completions.setString(3, timestamp(dateText, seconds[i]));
+                        completions.setInt(4, user.id);
+                        completions.addBatch();
+                        if (++pending == BATCH_SIZE) {
+                            completions.executeBatch();
+                            days.executeBatch();
+                            categories.executeBatch();
+                            pending = 0;
+                        }
+                    }
+
+                    days.setInt(1, user.id);
+                    days.setString(2, dateText);
+                    days.setInt(3, count);
+                    days.setInt(4, minutes);
+                    days.addBatch();
+                    for (int category = 0; category < categoryCount; category++) {
+                        if (categoryCounts[category] > 0) {
+                            categories.setInt(1, user.id);
+                            categories.setString(2, dateText);
+                            categories.setString(3, spec.getCategories().get(category));
+                            categories.setInt(4, categoryCounts[category]);
+                            categories.addBatch();
+                        }
+                    }
+
+                    user.completions += count;
+                    user.minutes += minutes;
+                    user.lastDay = dateText;
+                    user.lastCompletionId = completionId;
+                    user.lastStreak = user.run;
+                    activeDays++;
+                }
+            }
+            completions.executeBatch();
+            days.executeBatch();
+            categories.executeBatch();
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(UPDATE_USER_STATS_SQL)) {
+            for (UserHistory user : users) {
+                stmt.setLong(1, user.completions);
+                stmt.setLong(2, user.minutes);
+                stmt.setInt(3, user.lastStreak);
+                stmt.setString(4, user.lastDay);
+                stmt.setLong(5, user.lastCompletionId);
+                stmt.setInt(6, user.id);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+
+        return new Result(users.length, spec.getChallenges(), completionId, activeDays,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static int pickDifficulty(int[] weights, int value) {
+        for (int level = 0; level < weights.length; level++) {
+            value -= weights[level];
+            if (value < 0) {
+                return level + 1;
+            }
+        }
+        return weights.length;
+    }
+
+    /**
+     * Muestra una variable de Poisson; con medias grandes se aproxima con una normal.
+     */
+    private static int poisson(SplittableRandom rng, double mean) {
+        if (mean < 30) {
+            double limit = Math.exp(-mean);
+            double product = rng.nextDouble();
+            int count = 0;
+            while (product > limit) {
+                product *= rng.nextDouble();
+                count++;
+            }
+            return count;
+        }
+        return (int) Math.max(0, Math.round(mean + Math.sqrt(mean) * rng.nextGaussian()));
+    }
+
+    private static String timestamp(String date, int secondOfDay) {
+        char[] time = {'T', '0', '0', ':', '0', '0', ':', '0', '0'};
+        int hour = secondOfDay / 3600;
+        int minute = secondOfDay / 60 % 60;
+        int second = secondOfDay % 60;
+        time[1] += (char) (hour / 10);
+        time[2] += (char) (hour % 10);
+        time[4] += (char) (minute / 10);
+        time[5] += (char) (minute % 10);
+        time[7] += (char) (second / 10);
+        time[8] += (char) (second % 10);
+        return date.concat(new String(time));
+    }
+
+    /**
+     * Catálogo generado: categoría, duración y popularidad acumulada de cada reto, por posición.
+     */
+    private static final class Catalog {
+        private final int[] category;
+        private final int[] duration;
+        private final double[] cumulative;
+
+        private Catalog(int size) {
+            this.category = new int[size];
+            this.duration = new int[size];
+            this.cumulative = new double[size];
+        }
+
+        private int pick(double value) {
+            int index = Arrays.binarySearch(cumulative, value);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            return Math.min(index, cumulative.length - 1);
+        }
+    }
+
+    /**
+     * Estado de la cadena de rachas y totales de un usuario.
+     */
+    private final class UserHistory {
+        private final int id;
+        private final SplittableRandom rng;
+        private double rate;
+        private boolean active;
+        private int run;
+        private long completions;
+        private long minutes;
+        private int lastStreak;
+        private String lastDay;
+        private long lastCompletionId;
+
+        private UserHistory(int id, SplittableRandom rng) {
+            this.id = id;
+            this.rng = rng;
+        }
+
+        /**
+         * Avanza la cadena un día.
+         *
+         * @param first true para el primer día, que parte de la proporción de días activos a largo plazo
+         * @return true si el día es activo
+         */
+        private boolean nextDay(boolean first) {
+            double probability = first ? spec.getActiveDayRatio()
+                    : active ? spec.getStreakContinue() : spec.getStreakResume();
+            active = rng.nextDouble() < probability;
+            run = active ? run + 1 : 0;
+            return active;
+        }
+    }
+
+    /**
+     * Resumen de un historial generado.
+     */
+    public static class Result {
+        private final int users;
+        private final int challenges;
+        private final long completions;
+        private final long activeDays;
+        private final long elapsedMillis;
+
+        Result(int users, int challenges, long completions, long activeDays, long elapsedMillis) {
+            this.users = users;
+            this.challenges = challenges;
+            this.completions = completions;
+            this.activeDays = activeDays;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public int getUsers() {
+            return users;
+        }
+
+        public int getChallenges() {
+            return challenges;
+        }
+
+        public long getCompletions() {
+            return completions;
+        }
+
+        public long getActiveDays() {
+            return activeDays;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Result{users=%d, challenges=%d, completions=%d, activeDays=%d, elapsedMs=%d, rowsPerMinute=%d}",
+                    users, challenges, completions, activeDays, elapsedMillis,
+                    elapsedMillis == 0 ? completions : completions * 60_000 / elapsedMillis);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package devs.fmm.rfc_01.benchmark;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Parámetros de un historial sintético generado por {@link WorkloadGenerator}.
+ * <p>
+ * El catálogo tiene {@code challenges} retos repartidos entre las categorías en rotación, con una dificultad elegida
+ * según {@code difficultyWeights} (un peso por nivel, del 1 al 5) y una duración uniforme entre
+ * {@code minDurationMinutes} y {@code maxDurationMinutes}.
+ * <p>
+ * La actividad de cada usuario sigue una cadena de dos estados por día: tras un día activo el siguiente lo es con
+ * probabilidad {@code streakContinue}, y tras uno inactivo con probabilidad {@code streakResume}, de modo que las
+ * rachas tienen una longitud media de {@code 1 / (1 - streakContinue)} días. Cada día activo tiene un número de
+ * retos de Poisson (como mínimo uno) con media {@code completionsPerActiveDay}, escalada por usuario según
+ * {@code userSkew}. Los retos se eligen con una distribución de Zipf de exponente {@code challengeSkew}, así que
+ * unos pocos acumulan la mayoría de completados. Con 0 en cualquiera de los dos sesgos la distribución es uniforme.
+ * <p>
+ * Los valores por defecto pueden sobrescribirse con propiedades {@code rfc.workload.<nombre>} (por ejemplo
+ * {@code -Drfc.workload.users=50}).
+ */
+public class WorkloadSpec {
+
+    public static final WorkloadSpec DEFAULT = new WorkloadSpec(42L, 1, LocalDate.of(2024, 12, 31), 730,
+            40, List.of("Fuerza", "Cardio", "Mindfullness", "Stretching"), new int[]{30, 30, 20, 12, 8}, 1, 30,
+            3.0, 0.8, 0.3, 1.0, 1.0);
+
+    private static final String PROPERTY_PREFIX = "rfc.workload.";
+
+    private final long seed;
+    private final int users;
+    private final LocalDate lastDay;
+    private final int days;
+    private final int challenges;
+    private final List<String> categories;
+    private final int[] difficultyWeights;
+    private final int minDurationMinutes;
+    private final int maxDurationMinutes;
+    private final double completionsPerActiveDay;
+    private final double streakContinue;
+    private final double streakResume;
+    private final double challengeSkew;
+    private final double userSkew;
+
+    /**
+     * Constructor con todos los campos.
+     *
+     * @param seed La semilla; la misma semilla y los mismos parámetros producen siempre el mismo historial
+     * @param users El número de perfiles, incluido el predeterminado
+     * @param lastDay El último día del historial
+     * @param days Los días que abarca el historial, terminando en {@code lastDay}
+     * @param challenges El número de retos del catálogo
+     * @param categories Las categorías del catálogo
+     * @param difficultyWeights Los pesos relativos de las dificultades 1 a 5
+     * @param minDurationMinutes La duración mínima de un reto
+     * @param maxDurationMinutes La duración máxima de un reto
+     * @param completionsPerActiveDay La media de retos completados en un día activo
+     * @param streakContinue La probabilidad de que un día activo vaya seguido de otro
+     * @param streakResume La probabilidad de que un día inactivo vaya seguido de uno activo
+     * @param challengeSkew El exponente de Zipf de la popularidad de los retos
+     * @param userSkew El exponente de Zipf de la actividad de los usuarios
+     */
+    public WorkloadSpec(long seed, int users, LocalDate lastDay, int days, int challenges, List<String> categories,
+                        int[] difficultyWeights, int minDurationMinutes, int maxDurationMinutes,
+                        double completionsPerActiveDay, double streakContinue, double streakResume,
+                        double challengeSkew, double userSkew) {
+        if (users < 1 || days < 1 || challenges < 1 || categories.isEmpty()) {
+            throw new IllegalArgumentException("A workload needs at least one user, day, challenge and category");
+        }
+        if (difficultyWeights.length != 5 || Arrays.stream(difficultyWeights).sum() <= 0) {
+            throw new IllegalArgumentException("difficultyWeights needs one non-negative weight per level 1-5");
+        }
+        if (minDurationMinutes < 1 || maxDurationMinutes < minDurationMinutes) {
+            throw new IllegalArgumentException("Invalid duration range " + minDurationMinutes + "-" + maxDurationMinutes);
+        }
+        if (streakContinue < 0 || streakContinue > 1 || streakResume <= 0 || streakResume > 1) {
+            throw new IllegalArgumentException("streakContinue must be in [0, 1] and streakResume in (0, 1]");
+        }
+        this.seed = seed;
+        this.users = users;
+        this.lastDay = lastDay;
+        this.days = days;
+        this.challenges = challenges;
+        this.categories = List.copyOf(categories);
+        this.difficultyWeights = difficultyWeights.clone();
+        this.minDurationMinutes = minDurationMinutes;
+        this.maxDurationMinutes = maxDurationMinutes;
+        this.completionsPerActiveDay = completionsPerActiveDay;
+        this.streakContinue = streakContinue;
+        this.streakResume = streakResume;
+        this.challengeSkew = challengeSkew;
+        this.userSkew = userSkew;
+    }
+
+    /**
+     * Resuelve los parámetros a partir de las propiedades del sistema, partiendo de {@link #DEFAULT}.
+     *
+     * @return Los parámetros con las sobrescrituras aplicadas
+     */
+    public static WorkloadSpec fromSystemProperties() {
+        WorkloadSpec base = DEFAULT;
+        String lastDay = System.getProperty(PROPERTY_PREFIX + "lastDay");
+        String categories = System.getProperty(PROPERTY_PREFIX + "categories");
+        String difficultyWeights = System.getProperty(PROPERTY_PREFIX + "difficultyWeights");
+
+        return new WorkloadSpec(
+                Long.getLong(PROPERTY_PREFIX + "seed", base.seed),
+                Integer.getInteger(PROPERTY_PREFIX + "users", base.users),
+                lastDay != null ? LocalDate.parse(lastDay) : base.lastDay,
+                Integer.getInteger(PROPERTY_PREFIX + "days", base.days),
+                Integer.getInteger(PROPERTY_PREFIX + "challenges", base.challenges),
+                categories != null ? Arrays.stream(categories.split(",")).map(String::trim).toList() : base.categories,
+                difficultyWeights != null
+                        ? Arrays.stream(difficultyWeights.split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray()
+                        : base.difficultyWeights,
+                Integer.getInteger(PROPERTY_PREFIX + "minDurationMinutes", base.minDurationMinutes),
+                Integer.getInteger(PROPERTY_PREFIX + "maxDurationMinutes", base.maxDurationMinutes),
+                doubleOverride("completionsPerActiveDay", base.completionsPerActiveDay),
+                doubleOverride("streakContinue", base.streakContinue),
+                doubleOverride("streakResume", base.streakResume),
+                doubleOverride("challengeSkew", base.challengeSkew),
+                doubleOverride("userSkew", base.userSkew));
+    }
+
+    /**
+     * Devuelve una copia con la media de retos por día activo ajustada para que el historial tenga, en promedio,
+     * el número de retos completados indicado.
+     *
+     * @param completions El número de retos completados esperado entre todos los usuarios
+     * @return Los parámetros ajustados
+     */
+    public WorkloadSpec withExpectedCompletions(long completions) {
+        double activeDays = (double) users * days * getActiveDayRatio();
+        return new WorkloadSpec(seed, users, lastDay, days, challenges, categories, difficultyWeights,
+                minDurationMinutes, maxDurationMinutes, Math.max(1.0, completions / activeDays), streakContinue,
+                streakResume, challengeSkew, userSkew);
+    }
+
+    /**
+     * Obtiene la proporción de días activos a largo plazo de la cadena de rachas.
+     *
+     * @return La fracción de días en que un usuario completa al menos un reto
+     */
+    public double getActiveDayRatio() {
+        return streakResume / (streakResume + 1 - streakContinue);
+    }
+
+    private static double doubleOverride(String name, double defaultValue) {
+        String value = System.getProperty(PROPERTY_PREFIX + name);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+
+    // Getters
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public LocalDate getLastDay() {
+        return lastDay;
+    }
+
+    public LocalDate getFirstDay() {
+        return lastDay.minusDays(days - 1);
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public int getChallenges() {
+        return challenges;
+    }
+
+    public List<String> getCategories() {
+        return categories;
+    }
+
+    public int[] getDifficultyWeights() {
+        return difficultyWeights.clone();
+    }
+
+    public int getMinDurationMinutes() {
+        return minDurationMinutes;
+    }
+
+    public int getMaxDurationMinutes() {
+        return maxDurationMinutes;
+    }
+
+    public double getCompletionsPerActiveDay() {
+        return completionsPerActiveDay;
+    }
+
+    public double getStreakContinue() {
+        return streakContinue;
+    }
+
+    public double getStreakResume() {
+        return streakResume;
+    }
+
+    public double getChallengeSkew() {
+        return challengeSkew;
+    }
+
+    public double getUserSkew() {
+        return userSkew;
+    }
+
+    @Override
+    public String toString() {
+        return "WorkloadSpec{seed=" + seed +
+                ", users=" + users +
+                ", days=" + getFirstDay() + ".." + lastDay +
+                ", challenges=" + challenges +
+                ", categories=" + categories +
+                ", difficultyWeights=" + Arrays.toString(difficultyWeights) +
+                ", durationMinutes=" + minDurationMinutes + "-" + maxDurationMinutes +
+                ", completionsPerActiveDay=" + completionsPerActiveDay +
+                ", streakContinue=" + streakContinue +
+                ", streakResume=" + streakResume +
+                ", challengeSkew=" + challengeSkew +
+                ", userSkew=" + userSkew +
+                '}';
+    }
+}
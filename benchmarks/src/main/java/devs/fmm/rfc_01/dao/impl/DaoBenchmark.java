@@ -0,0 +1,108 @@
+package devs.fmm.rfc_01.dao.impl;
+
+import devs.fmm.rfc_01.benchmark.BenchmarkDatabase;
+import devs.fmm.rfc_01.dao.ChallengeDao;
+import devs.fmm.rfc_01.dao.CompletedChallengeDao;
+import devs.fmm.rfc_01.db.DatabaseManager;
+import devs.fmm.rfc_01.model.Challenge;
+import devs.fmm.rfc_01.model.CompletedChallenge;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide las consultas de los DAOs más usadas por la interfaz sobre un historial sembrado de distintos tamaños
+ * (ver {@link BenchmarkDatabase}).
+ * <p>
+ * Las consultas del catálogo van contra {@link ChallengeDaoImpl} directamente, sin la caché de
+ * {@link CachingChallengeDao}, para medir el acceso a SQLite.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DaoBenchmark {
+
+    // Una página del historial, como la que carga la lista paginada
+    private static final String PAGE_SQL = "SELECT " + RowMappers.COMPLETED_CHALLENGE_COLUMNS + " " +
+            "FROM completed_challenges JOIN challenges ON completed_challenges.challenge_id = challenges.id " +
+            "WHERE completed_challenges.user_id = 1 " +
+            "ORDER BY completed_challenges.completion_date DESC, completed_challenges.id DESC LIMIT 1000";
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int completions;
+
+    private BenchmarkDatabase database;
+    private ChallengeDao challengeDao;
+    private CompletedChallengeDao completedChallengeDao;
+    private LocalDate weekStart;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.open(completions);
+        challengeDao = new ChallengeDaoImpl(database.getDatabaseManager());
+        completedChallengeDao = new CompletedChallengeDaoImpl(database.getDatabaseManager());
+        weekStart = BenchmarkDatabase.LAST_DAY.minusDays(6);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public Optional<Challenge> getRandomChallenge() {
+        return challengeDao.getRandomChallenge();
+    }
+
+    @Benchmark
+    public List<Challenge> findAll() {
+        return challengeDao.findAll();
+    }
+
+    /**
+     * La última semana del historial, como la vista semanal de estadísticas.
+     */
+    @Benchmark
+    public List<CompletedChallenge> findByDateRange() {
+        return completedChallengeDao.findByDateRange(weekStart, BenchmarkDatabase.LAST_DAY);
+    }
+
+    /**
+     * Mapea una página de 1000 filas con {@link RowMappers#COMPLETED_CHALLENGE}. Incluye la consulta; el coste del
+     * mapeo aislado se compara en {@link RowMapperBenchmark}.
+     */
+    @Benchmark
+    public void mapCompletedChallengePage(Blackhole blackhole) throws SQLException {
+        DatabaseManager dbManager = database.getDatabaseManager();
+        try (Connection conn = dbManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(PAGE_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                blackhole.consume(RowMappers.COMPLETED_CHALLENGE.mapRow(rs));
+            }
+        }
+    }
+}
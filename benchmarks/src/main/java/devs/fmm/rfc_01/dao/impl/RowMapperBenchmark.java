@@ -0,0 +1,174 @@
+package devs.fmm.rfc_01.dao.impl;
+
+import devs.fmm.rfc_01.model.Challenge;
+import devs.fmm.rfc_01.model.CompletedChallenge;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el mapeo del historial de retos completados con el mapper anterior, que consultaba los metadatos
+ * del ResultSet en cada fila, y con {@link RowMappers#COMPLETED_CHALLENGE}.
+ * <p>
+ * Ejecutar con el perfilador de GC para ver la memoria reservada por operación:
+ * {@code java -jar target/benchmarks.jar RowMapperBenchmark -prof gc}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMapperBenchmark {
+
+    private static final String QUERY = "SELECT " + RowMappers.COMPLETED_CHALLENGE_COLUMNS + " " +
+            "FROM completed_challenges JOIN challenges ON completed_challenges.challenge_id = challenges.id " +
+            "ORDER BY completed_challenges.completion_date DESC";
+
+    @Param({"100", "10000"})
+    public int rows;
+
+    private Connection conn;
+    private PreparedStatement stmt;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement ddl = conn.createStatement()) {
+            ddl.execute("CREATE TABLE challenges (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT NOT NULL, " +
+                    "description TEXT NOT NULL, category TEXT NOT NULL, difficulty INTEGER NOT NULL, " +
+                    "duration_minutes INTEGER NOT NULL, image_path TEXT)");
+            ddl.execute("CREATE TABLE completed_challenges (id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                    "challenge_id INTEGER NOT NULL, completion_date TEXT NOT NULL)");
+        }
+
+        conn.setAutoCommit(false);
+        try (PreparedStatement insert = conn.prepareStatement("INSERT INTO challenges " +
+                "(name, description, category, difficulty, duration_minutes, image_path) VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= 20; i++) {
+                insert.setString(1, "Challenge " + i);
+                insert.setString(2, "Description of challenge " + i);
+                insert.setString(3, "Category " + (i % 4));
+                insert.setInt(4, 1 + i % 5);
+                insert.setInt(5, 5 + i);
+                insert.setString(6, "/images/" + i + ".jpg");
+                insert.executeUpdate();
+            }
+        }
+        try (PreparedStatement insert = conn.prepareStatement(
+                "INSERT INTO completed_challenges (challenge_id, completion_date) VALUES (?, ?)")) {
+            LocalDateTime date = LocalDateTime.of(2024, 1, 1, 8, 0);
+            for (int i = 0; i < rows; i++) {
+                insert.setInt(1, 1 + i % 20);
+                insert.setString(2, date.plusMinutes(37L * i).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        conn.commit();
+        conn.setAutoCommit(true);
+
+        stmt = conn.prepareStatement(QUERY);
+
+        // El mapper anterior imprime los nombres de columna en cada fila; se descarta la salida
+        // para medir el coste del mapeo y no el de la consola
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        System.setOut(originalOut);
+        stmt.close();
+        conn.close();
+    }
+
+    @Benchmark
+    public void metadataLookupPerRow(Blackhole blackhole) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                blackhole.consume(legacyMap(rs));
+            }
+        }
+    }
+
+    @Benchmark
+    public void fixedIndexRowMapper(Blackhole blackhole) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                blackhole.consume(RowMappers.COMPLETED_CHALLENGE.mapRow(rs));
+            }
+        }
+    }
+
+    /**
+     * Copia del mapeo anterior de CompletedChallengeDaoImpl (camino principal), como referencia.
+     */
+    private static CompletedChallenge legacyMap(ResultSet rs) throws SQLException {
+        CompletedChallenge completedChallenge = new CompletedChallenge();
+        completedChallenge.setId(rs.getInt("id"));
+        completedChallenge.setChallengeId(rs.getInt("challenge_id"));
+
+        String completionDateStr = rs.getString("completion_date");
+        if (completionDateStr != null) {
+            completedChallenge.setCompletionDate(LocalDateTime.parse(completionDateStr, DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        }
+
+        ResultSetMetaData metaData = rs.getMetaData();
+        int columnCount = metaData.getColumnCount();
+
+        System.out.println("Columnas disponibles en el ResultSet:");
+        for (int i = 1; i <= columnCount; i++) {
+            System.out.println(i + ": " + metaData.getColumnName(i));
+        }
+
+        Challenge challenge = new Challenge();
+        int challengeIdColumn = -1;
+        for (int i = 1; i <= columnCount; i++) {
+            if (metaData.getColumnName(i).equals("id") && i > 1) {
+                challengeIdColumn = i;
+                break;
+            }
+        }
+
+        if (challengeIdColumn > 0) {
+            challenge.setId(rs.getInt(challengeIdColumn));
+            challenge.setName(rs.getString(challengeIdColumn + 1));
+            challenge.setDescription(rs.getString(challengeIdColumn + 2));
+            challenge.setCategory(rs.getString(challengeIdColumn + 3));
+            challenge.setDifficulty(rs.getInt(challengeIdColumn + 4));
+            challenge.setDurationMinutes(rs.getInt(challengeIdColumn + 5));
+            if (challengeIdColumn + 6 <= columnCount) {
+                challenge.setImagePath(rs.getString(challengeIdColumn + 6));
+            }
+        }
+
+        completedChallenge.setChallenge(challenge);
+        return completedChallenge;
+    }
+}
@@ -0,0 +1,78 @@
+package devs.fmm.rfc_01.service.impl;
+
+import devs.fmm.rfc_01.benchmark.BenchmarkDatabase;
+import devs.fmm.rfc_01.service.ChallengeService;
+import devs.fmm.rfc_01.service.StatsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide los servicios que usan las estadísticas y el registro de retos completados sobre un historial sembrado de
+ * distintos tamaños (ver {@link BenchmarkDatabase}).
+ * <p>
+ * {@link #recordCompletedChallenge()} añade filas al historial de la copia; con los tamaños pequeños el historial crece
+ * de forma apreciable durante la medición.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int completions;
+
+    private BenchmarkDatabase database;
+    private ChallengeService challengeService;
+    private StatsService statsService;
+    private LocalDate monthStart;
+    private int challengeId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.open(completions);
+        challengeService = new ChallengeServiceImpl(database.getDatabaseManager());
+        statsService = new StatsServiceImpl(database.getDatabaseManager());
+        monthStart = BenchmarkDatabase.LAST_DAY.minusDays(29);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    /**
+     * Los últimos 30 días del historial, como el gráfico de minutos por día.
+     */
+    @Benchmark
+    public List<Object[]> getExerciseMinutesByDate() {
+        return challengeService.getExerciseMinutesByDate(monthStart, BenchmarkDatabase.LAST_DAY);
+    }
+
+    /**
+     * Registra un reto completado, rotando por los retos predeterminados. Incluye la espera a que el hilo escritor
+     * confirme la inserción.
+     */
+    @Benchmark
+    public boolean recordCompletedChallenge() {
+        challengeId = challengeId % 10 + 1;
+        return statsService.recordCompletedChallenge(challengeId, 10);
+    }
+}
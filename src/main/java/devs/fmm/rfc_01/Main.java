@@ -1,10 +1,23 @@
 package devs.fmm.rfc_01;
 
+import devs.fmm.rfc_01.db.DatabaseManager;
+import devs.fmm.rfc_01.service.impl.StatsServiceImpl;
+
+import java.util.Arrays;
+
 /* Para evitar los problemas que pueda dar que nuestra clase principal extienda de otra a la hora de generar el jar
  * usamos esta clase Main, que lo único que hace es llamar al método main de nuestra clase RandomFitnessChallengeApp
  */
 public class Main {
     public static void main(String[] args) {
+        // Comando de mantenimiento: recalcular el resumen de actividad diaria sin abrir la interfaz
+        if (Arrays.asList(args).contains("--rebuild-activity")) {
+            boolean rebuilt = new StatsServiceImpl().rebuildDailyActivity();
+            System.out.println(rebuilt ? "Daily activity rebuilt" : "Daily activity rebuild failed");
+            DatabaseManager.getInstance().shutdown();
+            System.exit(rebuilt ? 0 : 1);
+        }
+
         RandomFitnessChallengeApp.main(args);
     }
 }
\ No newline at end of file
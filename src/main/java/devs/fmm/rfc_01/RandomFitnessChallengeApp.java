@@ -1,8 +1,9 @@
 package devs.fmm.rfc_01;
 
-import devs.fmm.rfc_01.db.DatabaseInitializer;
+import devs.fmm.rfc_01.dao.impl.WriteBehindUserStatsDao;
 import devs.fmm.rfc_01.db.DatabaseManager;
 import devs.fmm.rfc_01.service.NotificationService;
+import devs.fmm.rfc_01.service.impl.AsyncExecutor;
 import devs.fmm.rfc_01.service.impl.NotificationServiceImpl;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
@@ -21,9 +22,8 @@ public class RandomFitnessChallengeApp extends Application {
 
     @Override
     public void start(Stage stage) throws IOException {
-        // Inicializar base de datos
+        // Inicializar base de datos (aplica las migraciones pendientes, incluidos los retos predeterminados)
         DatabaseManager.getInstance();
-        DatabaseInitializer.initializeData();
 
         // Inicializar servicio de notificaciones
         notificationService = new NotificationServiceImpl();
@@ -48,6 +48,17 @@ public class RandomFitnessChallengeApp extends Application {
         stage.show();
     }
 
+    @Override
+    public void stop() {
+        if (notificationService != null) {
+            notificationService.shutdown();
+        }
+        // Dejar terminar las consultas en curso y escribir las estadísticas pendientes antes de cerrar las conexiones
+        AsyncExecutor.getInstance().shutdown();
+        WriteBehindUserStatsDao.getInstance().shutdown();
+        DatabaseManager.getInstance().shutdown();
+    }
+
     /**
      * Gets the notification service.
      *
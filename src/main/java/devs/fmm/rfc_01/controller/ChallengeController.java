@@ -4,6 +4,7 @@ import devs.fmm.rfc_01.model.Challenge;
 import devs.fmm.rfc_01.service.ChallengeService;
 import devs.fmm.rfc_01.service.StatsService;
 import devs.fmm.rfc_01.service.TimerService;
+import devs.fmm.rfc_01.service.impl.AsyncExecutor;
 import devs.fmm.rfc_01.service.impl.ChallengeServiceImpl;
 import devs.fmm.rfc_01.service.impl.StatsServiceImpl;
 import devs.fmm.rfc_01.service.impl.TimerServiceImpl;
@@ -79,6 +80,7 @@ public class ChallengeController implements Initializable {
     private final ChallengeService challengeService;
     private final StatsService statsService;
     private final TimerService timerService;
+    private final AsyncExecutor asyncExecutor;
     private Challenge currentChallenge;
     private int actualExerciseTime = 0;
 
@@ -89,6 +91,7 @@ public class ChallengeController implements Initializable {
         this.challengeService = new ChallengeServiceImpl();
         this.statsService = new StatsServiceImpl();
         this.timerService = new TimerServiceImpl();
+        this.asyncExecutor = AsyncExecutor.getInstance();
     }
 
     @Override
@@ -180,14 +183,14 @@ public class ChallengeController implements Initializable {
         resetTimer();
 
         // Obtener un reto aleatorio sin repetición hasta que se hayan mostrado todos
-        Optional<Challenge> challengeOpt = challengeService.getRandomChallengeWithoutRepetition();
-
-        if (challengeOpt.isPresent()) {
-            Challenge newChallenge = challengeOpt.get();
-            setChallenge(newChallenge);
-        } else {
-            showNoChallenge();
-        }
+        asyncExecutor.supply(challengeService::getRandomChallengeWithoutRepetition).thenAccept(challengeOpt -> {
+            if (challengeOpt.isPresent()) {
+                Challenge newChallenge = challengeOpt.get();
+                setChallenge(newChallenge);
+            } else {
+                showNoChallenge();
+            }
+        });
     }
 
     /**
@@ -372,29 +375,11 @@ public class ChallengeController implements Initializable {
             // Convertir segundos a minutos, redondeando hacia arriba
             int minutesExercised = (int) Math.ceil(timeSpent / 60.0);
 
-            // Record the completed challenge
-            boolean success = statsService.recordCompletedChallenge(
-                    currentChallenge.getId(), minutesExercised);
-
-            if (success) {
-                // Show success message with time used
-                String message = "¡Excelente! Has completado el reto.";
-                message += "\nTiempo registrado: " + TimerServiceImpl.formatTime(timeSpent);
-
-                showAlert("Reto Completado", message, Alert.AlertType.INFORMATION);
+            // Show success message with time used
+            String message = "¡Excelente! Has completado el reto.";
+            message += "\nTiempo registrado: " + TimerServiceImpl.formatTime(timeSpent);
 
-                // Actualizar estadísticas en el controlador principal
-                if (mainController != null) {
-                    mainController.refreshStats();
-                }
-
-                // Load a new random challenge
-                loadRandomChallenge();
-            } else {
-                showAlert("Error",
-                        "Hubo un error al registrar tu reto completado.",
-                        Alert.AlertType.ERROR);
-            }
+            recordCompletion(minutesExercised, "Reto Completado", message);
         }
     }
 
@@ -480,34 +465,53 @@ public class ChallengeController implements Initializable {
             // Convert seconds to minutes, rounding up
             int minutesExercised = (int) Math.ceil(timeSpent / 60.0);
 
-            // Record the completed challenge
-            boolean success = statsService.recordCompletedChallenge(
-                    currentChallenge.getId(), minutesExercised);
-
-            if (success) {
-                // Show success message with time saved
-                int timeSaved = remainingTime;
-                String message = "¡Excelente! Has completado el reto antes de tiempo.";
-                message += "\nTiempo utilizado: " + TimerServiceImpl.formatTime(timeSpent);
-                message += "\nTiempo ahorrado: " + TimerServiceImpl.formatTime(timeSaved);
-
-                showAlert("Reto Completado Anticipadamente", message, Alert.AlertType.INFORMATION);
+            // Show success message with time saved
+            int timeSaved = remainingTime;
+            String message = "¡Excelente! Has completado el reto antes de tiempo.";
+            message += "\nTiempo utilizado: " + TimerServiceImpl.formatTime(timeSpent);
+            message += "\nTiempo ahorrado: " + TimerServiceImpl.formatTime(timeSaved);
 
-                // Refresh stats in main controller
-                if (mainController != null) {
-                    mainController.refreshStats();
-                }
-
-                // Load a new random challenge
-                loadRandomChallenge();
-            } else {
-                showAlert("Error",
-                        "Hubo un error al registrar tu reto completado.",
-                        Alert.AlertType.ERROR);
-            }
+            recordCompletion(minutesExercised, "Reto Completado Anticipadamente", message);
         }
     }
 
+    /**
+     * Registra el reto actual como completado en segundo plano y, cuando termina, muestra el resultado y carga
+     * otro reto. Los botones de completar quedan desactivados mientras tanto para no registrarlo dos veces.
+     *
+     * @param minutesExercised Los minutos ejercitados
+     * @param successTitle El título del mensaje de éxito
+     * @param successMessage El mensaje de éxito
+     */
+    private void recordCompletion(int minutesExercised, String successTitle, String successMessage) {
+        int challengeId = currentChallenge.getId();
+        completeButton.setDisable(true);
+        earlyCompletionButton.setDisable(true);
+
+        asyncExecutor.supply(() -> statsService.recordCompletedChallenge(challengeId, minutesExercised))
+                .exceptionally(e -> false)
+                .thenAccept(success -> {
+                    completeButton.setDisable(false);
+                    earlyCompletionButton.setDisable(false);
+
+                    if (success) {
+                        showAlert(successTitle, successMessage, Alert.AlertType.INFORMATION);
+
+                        // Actualizar estadísticas en el controlador principal
+                        if (mainController != null) {
+                            mainController.refreshStats();
+                        }
+
+                        // Load a new random challenge
+                        loadRandomChallenge();
+                    } else {
+                        showAlert("Error",
+                                "Hubo un error al registrar tu reto completado.",
+                                Alert.AlertType.ERROR);
+                    }
+                });
+    }
+
     /**
      * Shows an alert dialog.
      *
@@ -1,9 +1,10 @@
 package devs.fmm.rfc_01.controller;
 
 import devs.fmm.rfc_01.dao.ChallengeDao;
-import devs.fmm.rfc_01.dao.impl.ChallengeDaoImpl;
+import devs.fmm.rfc_01.dao.impl.CachingChallengeDao;
 import devs.fmm.rfc_01.model.Challenge;
 import devs.fmm.rfc_01.service.ChallengeService;
+import devs.fmm.rfc_01.service.impl.AsyncExecutor;
 import devs.fmm.rfc_01.service.impl.ChallengeServiceImpl;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -54,13 +55,15 @@ public class CreateChallengeController implements Initializable {
     private MainController mainController;
     private final ChallengeService challengeService;
     private final ChallengeDao challengeDao;
+    private final AsyncExecutor asyncExecutor;
 
     /**
      * Constructor.
      */
     public CreateChallengeController() {
         this.challengeService = new ChallengeServiceImpl();
-        this.challengeDao = new ChallengeDaoImpl();
+        this.challengeDao = CachingChallengeDao.getInstance();
+        this.asyncExecutor = AsyncExecutor.getInstance();
     }
 
     @Override
@@ -78,8 +81,12 @@ public class CreateChallengeController implements Initializable {
      * Carga las categorías existentes en el ComboBox.
      */
     private void loadCategories() {
-        categoryComboBox.getItems().clear();
-        categoryComboBox.getItems().addAll(challengeService.getAllCategories());
+        asyncExecutor.supply(challengeService::getAllCategories).thenAccept(categories -> {
+            // Conservar la categoría elegida mientras se cargaban
+            String selectedCategory = categoryComboBox.getValue();
+            categoryComboBox.getItems().setAll(categories);
+            categoryComboBox.setValue(selectedCategory);
+        });
     }
 
     /**
@@ -160,24 +167,29 @@ public class CreateChallengeController implements Initializable {
                 }
             }
             
-            // Guardar el reto en la base de datos
-            Challenge savedChallenge = challengeDao.save(challenge);
-            
-            if (savedChallenge != null) {
-                showAlert("Reto Guardado", 
-                        "El reto se ha guardado correctamente.", 
-                        Alert.AlertType.INFORMATION);
-                
-                // Limpiar el formulario
-                clearForm();
-                
-                // Recargar las categorías por si se añadió una nueva
-                loadCategories();
-            } else {
-                showAlert("Error", 
-                        "No se pudo guardar el reto. Por favor, inténtalo de nuevo.", 
-                        Alert.AlertType.ERROR);
-            }
+            // Guardar el reto en la base de datos; el botón queda desactivado para no guardarlo dos veces
+            saveButton.setDisable(true);
+            asyncExecutor.supply(() -> challengeDao.save(challenge))
+                    .exceptionally(e -> null)
+                    .thenAccept(savedChallenge -> {
+                        saveButton.setDisable(false);
+
+                        if (savedChallenge != null) {
+                            showAlert("Reto Guardado",
+                                    "El reto se ha guardado correctamente.",
+                                    Alert.AlertType.INFORMATION);
+
+                            // Limpiar el formulario
+                            clearForm();
+
+                            // Recargar las categorías por si se añadió una nueva
+                            loadCategories();
+                        } else {
+                            showAlert("Error",
+                                    "No se pudo guardar el reto. Por favor, inténtalo de nuevo.",
+                                    Alert.AlertType.ERROR);
+                        }
+                    });
         }
     }
 
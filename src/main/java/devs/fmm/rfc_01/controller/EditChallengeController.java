@@ -1,9 +1,10 @@
 package devs.fmm.rfc_01.controller;
 
 import devs.fmm.rfc_01.dao.ChallengeDao;
-import devs.fmm.rfc_01.dao.impl.ChallengeDaoImpl;
+import devs.fmm.rfc_01.dao.impl.CachingChallengeDao;
 import devs.fmm.rfc_01.model.Challenge;
 import devs.fmm.rfc_01.service.ChallengeService;
+import devs.fmm.rfc_01.service.impl.AsyncExecutor;
 import devs.fmm.rfc_01.service.impl.ChallengeServiceImpl;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleStringProperty;
@@ -18,7 +19,6 @@ import javafx.scene.control.cell.PropertyValueFactory;
 
 import java.io.IOException;
 import java.net.URL;
-import java.util.List;
 import java.util.ResourceBundle;
 
 /**
@@ -56,13 +56,15 @@ public class EditChallengeController implements Initializable {
     private MainController mainController;
     private final ChallengeService challengeService;
     private final ChallengeDao challengeDao;
+    private final AsyncExecutor asyncExecutor;
 
     /**
      * Constructor.
      */
     public EditChallengeController() {
         this.challengeService = new ChallengeServiceImpl();
-        this.challengeDao = new ChallengeDaoImpl();
+        this.challengeDao = CachingChallengeDao.getInstance();
+        this.asyncExecutor = AsyncExecutor.getInstance();
     }
 
     @Override
@@ -113,8 +115,8 @@ public class EditChallengeController implements Initializable {
      * Carga los retos en la tabla.
      */
     private void loadChallenges() {
-        List<Challenge> challenges = challengeDao.findAll();
-        challengesTable.setItems(FXCollections.observableArrayList(challenges));
+        asyncExecutor.supply(challengeDao::findAll)
+                .thenAccept(challenges -> challengesTable.setItems(FXCollections.observableArrayList(challenges)));
     }
 
     /**
@@ -180,25 +182,34 @@ public class EditChallengeController implements Initializable {
             confirmAlert.showAndWait().ifPresent(buttonType -> {
                 if (buttonType == buttonTypeYes) {
                     // Eliminar el reto
-                    boolean success = challengeDao.deleteById(selectedChallenge.getId());
-
-                    if (success) {
-                        showAlert("Reto Eliminado",
-                                "El reto se ha eliminado correctamente.",
-                                Alert.AlertType.INFORMATION);
-
-                        // Recargar la tabla
-                        loadChallenges();
-                    } else {
-                        showAlert("Error",
-                                "No se pudo eliminar el reto. Por favor, inténtalo de nuevo.",
-                                Alert.AlertType.ERROR);
-                    }
+                    asyncExecutor.supply(() -> challengeDao.deleteById(selectedChallenge.getId()))
+                            .exceptionally(e -> false)
+                            .thenAccept(this::challengeDeleted);
                 }
             });
         }
     }
 
+    /**
+     * Muestra el resultado de eliminar un reto y recarga la tabla si se eliminó.
+     *
+     * @param success true si el reto se eliminó
+     */
+    private void challengeDeleted(boolean success) {
+        if (success) {
+            showAlert("Reto Eliminado",
+                    "El reto se ha eliminado correctamente.",
+                    Alert.AlertType.INFORMATION);
+
+            // Recargar la tabla
+            loadChallenges();
+        } else {
+            showAlert("Error",
+                    "No se pudo eliminar el reto. Por favor, inténtalo de nuevo.",
+                    Alert.AlertType.ERROR);
+        }
+    }
+
     /**
      * Maneja el botón de volver.
      *
@@ -1,9 +1,10 @@
 package devs.fmm.rfc_01.controller;
 
 import devs.fmm.rfc_01.dao.ChallengeDao;
-import devs.fmm.rfc_01.dao.impl.ChallengeDaoImpl;
+import devs.fmm.rfc_01.dao.impl.CachingChallengeDao;
 import devs.fmm.rfc_01.model.Challenge;
 import devs.fmm.rfc_01.service.ChallengeService;
+import devs.fmm.rfc_01.service.impl.AsyncExecutor;
 import devs.fmm.rfc_01.service.impl.ChallengeServiceImpl;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -54,6 +55,7 @@ public class EditChallengeFormController implements Initializable {
     private MainController mainController;
     private final ChallengeService challengeService;
     private final ChallengeDao challengeDao;
+    private final AsyncExecutor asyncExecutor;
     private Challenge challenge;
 
     /**
@@ -61,7 +63,8 @@ public class EditChallengeFormController implements Initializable {
      */
     public EditChallengeFormController() {
         this.challengeService = new ChallengeServiceImpl();
-        this.challengeDao = new ChallengeDaoImpl();
+        this.challengeDao = CachingChallengeDao.getInstance();
+        this.asyncExecutor = AsyncExecutor.getInstance();
     }
 
     @Override
@@ -79,8 +82,12 @@ public class EditChallengeFormController implements Initializable {
      * Carga las categorías existentes en el ComboBox.
      */
     private void loadCategories() {
-        categoryComboBox.getItems().clear();
-        categoryComboBox.getItems().addAll(challengeService.getAllCategories());
+        asyncExecutor.supply(challengeService::getAllCategories).thenAccept(categories -> {
+            // Conservar la categoría elegida mientras se cargaban
+            String selectedCategory = categoryComboBox.getValue();
+            categoryComboBox.getItems().setAll(categories);
+            categoryComboBox.setValue(selectedCategory);
+        });
     }
 
     /**
@@ -170,21 +177,26 @@ public class EditChallengeFormController implements Initializable {
                 challenge.setImagePath(null);
             }
             
-            // Actualizar el reto en la base de datos
-            boolean success = challengeDao.update(challenge);
-            
-            if (success) {
-                showAlert("Reto Actualizado", 
-                        "El reto se ha actualizado correctamente.", 
-                        Alert.AlertType.INFORMATION);
-                
-                // Volver a la vista de edición de retos
-                mainController.loadEditChallengeView();
-            } else {
-                showAlert("Error", 
-                        "No se pudo actualizar el reto. Por favor, inténtalo de nuevo.", 
-                        Alert.AlertType.ERROR);
-            }
+            // Actualizar el reto en la base de datos; el botón queda desactivado hasta que termine
+            updateButton.setDisable(true);
+            asyncExecutor.supply(() -> challengeDao.update(challenge))
+                    .exceptionally(e -> false)
+                    .thenAccept(success -> {
+                        updateButton.setDisable(false);
+
+                        if (success) {
+                            showAlert("Reto Actualizado",
+                                    "El reto se ha actualizado correctamente.",
+                                    Alert.AlertType.INFORMATION);
+
+                            // Volver a la vista de edición de retos
+                            mainController.loadEditChallengeView();
+                        } else {
+                            showAlert("Error",
+                                    "No se pudo actualizar el reto. Por favor, inténtalo de nuevo.",
+                                    Alert.AlertType.ERROR);
+                        }
+                    });
         }
     }
 
@@ -6,6 +6,7 @@ import devs.fmm.rfc_01.model.UserStats;
 import devs.fmm.rfc_01.service.ChallengeService;
 import devs.fmm.rfc_01.service.NotificationService;
 import devs.fmm.rfc_01.service.StatsService;
+import devs.fmm.rfc_01.service.impl.AsyncExecutor;
 import devs.fmm.rfc_01.service.impl.ChallengeServiceImpl;
 import devs.fmm.rfc_01.service.impl.StatsServiceImpl;
 import javafx.application.Platform;
@@ -24,6 +25,7 @@ import devs.fmm.rfc_01.service.impl.TimerServiceImpl;
 
 import java.io.IOException;
 import java.net.URL;
+import java.time.Instant;
 import java.util.Optional;
 import java.util.ResourceBundle;
 
@@ -57,6 +59,7 @@ public class MainController implements Initializable {
     private final ChallengeService challengeService;
     private final StatsService statsService;
     private final NotificationService notificationService;
+    private final AsyncExecutor asyncExecutor;
 
     private Timeline notificationTimeline;
 
@@ -67,6 +70,7 @@ public class MainController implements Initializable {
         this.challengeService = new ChallengeServiceImpl();
         this.statsService = new StatsServiceImpl();
         this.notificationService = RandomFitnessChallengeApp.getNotificationService();
+        this.asyncExecutor = AsyncExecutor.getInstance();
     }
 
     @Override
@@ -82,7 +86,8 @@ public class MainController implements Initializable {
     }
 
     /**
-     * Inicializa la barra de progreso de notificaciones y comienza el temporizador de cuenta regresiva.
+     * Inicializa la barra de progreso de notificaciones. La cuenta regresiva se lee del programador de recordatorios,
+     * así que refleja los cambios de configuración y los aplazamientos sin reiniciarse.
      */
     private void initializeNotificationProgressBar() {
         // Siempre detener cualquier timeline existente primero
@@ -104,36 +109,33 @@ public class MainController implements Initializable {
             return;
         }
 
-        // Get the notification interval in minutes
-        int intervalMinutes = notificationService.getNotificationInterval();
-
-        // Convert to seconds for the countdown
-        int totalSeconds = intervalMinutes * 60;
-        final int[] remainingSeconds = {totalSeconds};
-
-        // Create a new timeline that updates every second
-        notificationTimeline = new Timeline(new KeyFrame(Duration.seconds(1), event -> {
-            // Decrease remaining time
-            remainingSeconds[0]--;
-
-            // If we've reached zero, reset the countdown
-            if (remainingSeconds[0] <= 0) {
-                remainingSeconds[0] = totalSeconds;
-            }
-
-            // Update progress bar and time label
-            double progress = 1.0 - ((double) remainingSeconds[0] / totalSeconds);
-            notificationProgressBar.setProgress(progress);
-            notificationTimeLabel.setText(TimerServiceImpl.formatTime(remainingSeconds[0]));
-        }));
-
-        // Set the timeline to run indefinitely
+        // Refresh the display every second from the scheduler's next fire time
+        updateNotificationCountdown();
+        notificationTimeline = new Timeline(new KeyFrame(Duration.seconds(1), event -> updateNotificationCountdown()));
         notificationTimeline.setCycleCount(Timeline.INDEFINITE);
-
-        // Start the timeline
         notificationTimeline.play();
     }
 
+    /**
+     * Muestra el tiempo que falta para el próximo recordatorio.
+     */
+    private void updateNotificationCountdown() {
+        Optional<Instant> next = notificationService.getNextNotificationTime();
+        if (next.isEmpty()) {
+            notificationProgressBar.setProgress(0);
+            notificationTimeLabel.setText("--:--");
+            return;
+        }
+
+        // The wait is not always one interval long: fixed times, snoozes, quiet hours and skipped days change it
+        Instant start = notificationService.getNotificationWaitStart().orElse(Instant.now());
+        long totalSeconds = java.time.Duration.between(start, next.get()).getSeconds();
+        long remainingSeconds = Math.max(0, java.time.Duration.between(Instant.now(), next.get()).getSeconds());
+        double progress = totalSeconds > 0 ? 1.0 - ((double) remainingSeconds / totalSeconds) : 1.0;
+        notificationProgressBar.setProgress(Math.max(0, Math.min(1, progress)));
+        notificationTimeLabel.setText(TimerServiceImpl.formatTime((int) Math.min(remainingSeconds, Integer.MAX_VALUE)));
+    }
+
     // El método initializeNotificationControls se ha eliminado ya que los controles
     // de notificación se han movido a la vista de configuración
 
@@ -143,8 +145,15 @@ public class MainController implements Initializable {
      * Updates the stats display.
      */
     private void updateStatsDisplay() {
-        Optional<UserStats> userStatsOpt = statsService.getUserStats();
+        asyncExecutor.supply(statsService::getUserStats).thenAccept(this::showStats);
+    }
 
+    /**
+     * Shows the loaded stats.
+     *
+     * @param userStatsOpt The user stats, or empty if they could not be loaded
+     */
+    private void showStats(Optional<UserStats> userStatsOpt) {
         if (userStatsOpt.isPresent()) {
             UserStats userStats = userStatsOpt.get();
             streakLabel.setText(String.valueOf(userStats.getStreakDays()));
@@ -1,9 +1,10 @@
 package devs.fmm.rfc_01.controller;
 
 import devs.fmm.rfc_01.dao.ChallengeDao;
-import devs.fmm.rfc_01.dao.impl.ChallengeDaoImpl;
+import devs.fmm.rfc_01.dao.impl.CachingChallengeDao;
 import devs.fmm.rfc_01.model.Challenge;
 import devs.fmm.rfc_01.service.ChallengeService;
+import devs.fmm.rfc_01.service.impl.AsyncExecutor;
 import devs.fmm.rfc_01.service.impl.ChallengeServiceImpl;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
@@ -17,7 +18,6 @@ import javafx.scene.control.cell.PropertyValueFactory;
 
 import java.io.IOException;
 import java.net.URL;
-import java.util.List;
 import java.util.ResourceBundle;
 
 /**
@@ -55,13 +55,15 @@ public class ManageChallengesController implements Initializable {
     private MainController mainController;
     private final ChallengeService challengeService;
     private final ChallengeDao challengeDao;
+    private final AsyncExecutor asyncExecutor;
 
     /**
      * Constructor.
      */
     public ManageChallengesController() {
         this.challengeService = new ChallengeServiceImpl();
-        this.challengeDao = new ChallengeDaoImpl();
+        this.challengeDao = CachingChallengeDao.getInstance();
+        this.asyncExecutor = AsyncExecutor.getInstance();
     }
 
     @Override
@@ -107,8 +109,8 @@ public class ManageChallengesController implements Initializable {
      * Carga los retos en la tabla.
      */
     private void loadChallenges() {
-        List<Challenge> challenges = challengeDao.findAll();
-        challengesTable.setItems(FXCollections.observableArrayList(challenges));
+        asyncExecutor.supply(challengeDao::findAll)
+                .thenAccept(challenges -> challengesTable.setItems(FXCollections.observableArrayList(challenges)));
     }
 
     /**
@@ -186,25 +188,34 @@ public class ManageChallengesController implements Initializable {
             confirmAlert.showAndWait().ifPresent(buttonType -> {
                 if (buttonType == buttonTypeYes) {
                     // Eliminar el reto
-                    boolean success = challengeDao.deleteById(selectedChallenge.getId());
-
-                    if (success) {
-                        showAlert("Reto Eliminado",
-                                "El reto se ha eliminado correctamente.",
-                                Alert.AlertType.INFORMATION);
-
-                        // Recargar la tabla
-                        loadChallenges();
-                    } else {
-                        showAlert("Error",
-                                "No se pudo eliminar el reto. Por favor, inténtalo de nuevo.",
-                                Alert.AlertType.ERROR);
-                    }
+                    asyncExecutor.supply(() -> challengeDao.deleteById(selectedChallenge.getId()))
+                            .exceptionally(e -> false)
+                            .thenAccept(this::challengeDeleted);
                 }
             });
         }
     }
 
+    /**
+     * Muestra el resultado de eliminar un reto y recarga la tabla si se eliminó.
+     *
+     * @param success true si el reto se eliminó
+     */
+    private void challengeDeleted(boolean success) {
+        if (success) {
+            showAlert("Reto Eliminado",
+                    "El reto se ha eliminado correctamente.",
+                    Alert.AlertType.INFORMATION);
+
+            // Recargar la tabla
+            loadChallenges();
+        } else {
+            showAlert("Error",
+                    "No se pudo eliminar el reto. Por favor, inténtalo de nuevo.",
+                    Alert.AlertType.ERROR);
+        }
+    }
+
     /**
      * Maneja el botón de volver.
      *
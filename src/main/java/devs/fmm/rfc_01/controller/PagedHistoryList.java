@@ -0,0 +1,235 @@
+package devs.fmm.rfc_01.controller;
+
+import devs.fmm.rfc_01.model.CompletedChallenge;
+import devs.fmm.rfc_01.model.CompletionKey;
+import devs.fmm.rfc_01.service.ChallengeService;
+import devs.fmm.rfc_01.service.impl.AsyncExecutor;
+import javafx.collections.ObservableListBase;
+
+import java.util.AbstractList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Lista observable del historial de retos completados que solo mantiene en memoria unas pocas páginas.
+ * <p>
+ * El tamaño se obtiene con un COUNT y cada página se carga bajo demanda en segundo plano cuando la tabla pide
+ * una fila que no está en memoria; mientras tanto {@link #get(int)} devuelve null, así que las celdas deben
+ * tolerar filas vacías. Hasta que llega el COUNT la lista está vacía. Las páginas se piden por clave (ver
+ * {@link CompletionKey}) y se descartan las menos usadas recientemente, de modo que la memoria no crece con la
+ * longitud del historial.
+ * <p>
+ * Una página que no se puede cargar no se vuelve a pedir hasta el siguiente {@link #refresh()}; sus filas se quedan
+ * vacías y el primer error de cada refresco se entrega al manejador de {@link #setOnLoadError(Consumer)}.
+ * <p>
+ * Debe usarse desde el hilo de JavaFX.
+ */
+public class PagedHistoryList extends ObservableListBase<CompletedChallenge> {
+
+    private static final int PAGE_SIZE = 100;
+    private static final int MAX_CACHED_PAGES = 8;
+    private static final int MAX_CACHED_KEYS = 1_000;
+
+    private final ChallengeService challengeService;
+    private final AsyncExecutor asyncExecutor;
+
+    // Páginas cargadas, en orden de uso para descartar la menos reciente
+    private final Map<Integer, List<CompletedChallenge>> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<CompletedChallenge>> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+
+    // Clave del último elemento de la página anterior a cada página, para pedirla sin tener que saltar filas
+    private final Map<Integer, CompletionKey> pageStartKeys = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, CompletionKey> eldest) {
+            return size() > MAX_CACHED_KEYS;
+        }
+    };
+
+    private final Set<Integer> pendingPages = new HashSet<>();
+    private final Set<Integer> failedPages = new HashSet<>();
+    private int size;
+    private Consumer<Throwable> onLoadError;
+    private boolean errorReported;
+
+    // Cambia con cada refresco para descartar las páginas que se pidieron antes
+    private int generation = 0;
+
+    /**
+     * Constructor. Pide el tamaño del historial; las filas se cargan cuando se piden.
+     *
+     * @param challengeService El servicio del que se lee el historial
+     * @param asyncExecutor El ejecutor en el que se hacen las consultas
+     */
+    public PagedHistoryList(ChallengeService challengeService, AsyncExecutor asyncExecutor) {
+        this.challengeService = challengeService;
+        this.asyncExecutor = asyncExecutor;
+        refresh();
+    }
+
+    @Override
+    public CompletedChallenge get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+
+        int pageIndex = index / PAGE_SIZE;
+        List<CompletedChallenge> page = pages.get(pageIndex);
+        if (page == null) {
+            requestPage(pageIndex);
+            return null;
+        }
+
+        int offset = index % PAGE_SIZE;
+        return offset < page.size() ? page.get(offset) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Establece el manejador de los errores de carga. Recibe como mucho un error por refresco.
+     *
+     * @param onLoadError El manejador, que se ejecuta en el hilo de JavaFX, o null para ninguno
+     */
+    public void setOnLoadError(Consumer<Throwable> onLoadError) {
+        this.onLoadError = onLoadError;
+    }
+
+    /**
+     * Descarta las páginas cargadas, vuelve a permitir las que fallaron y vuelve a leer el tamaño del historial.
+     */
+    public void refresh() {
+        generation++;
+        pages.clear();
+        pageStartKeys.clear();
+        pendingPages.clear();
+        failedPages.clear();
+        errorReported = false;
+
+        int requestGeneration = generation;
+        asyncExecutor.supply(challengeService::getCompletedChallengeCount).whenComplete((count, error) -> {
+            if (requestGeneration != generation) {
+                return;
+            }
+            if (error != null) {
+                loadFailed("Error loading history size", error);
+            } else {
+                sizeLoaded(count);
+            }
+        });
+    }
+
+    private void sizeLoaded(int newSize) {
+        int oldSize = size;
+        size = newSize;
+        if (oldSize == 0 && newSize == 0) {
+            return;
+        }
+
+        beginChange();
+        if (oldSize > 0) {
+            nextRemove(0, new PlaceholderList(oldSize));
+        }
+        if (size > 0) {
+            nextAdd(0, size);
+        }
+        endChange();
+    }
+
+    private void requestPage(int pageIndex) {
+        if (failedPages.contains(pageIndex) || !pendingPages.add(pageIndex)) {
+            return;
+        }
+
+        int requestGeneration = generation;
+        CompletionKey startKey = pageIndex == 0 ? null : pageStartKeys.get(pageIndex);
+
+        asyncExecutor.supply(() -> {
+            CompletionKey after = startKey;
+            if (pageIndex > 0 && after == null) {
+                // No conocemos el final de la página anterior: saltar hasta él recorriendo solo el índice
+                int lastIndex = pageIndex * PAGE_SIZE - 1;
+                Optional<CompletionKey> key = challengeService.getCompletionKeyAt(lastIndex);
+                if (key.isEmpty()) {
+                    // El historial ha encogido desde el COUNT
+                    throw new IllegalStateException("History row " + lastIndex + " no longer exists");
+                }
+                after = key.get();
+            }
+            return challengeService.getCompletedChallengePage(after, PAGE_SIZE);
+        }).whenComplete((page, error) -> {
+            if (requestGeneration != generation) {
+                return;
+            }
+            pendingPages.remove(pageIndex);
+            if (error != null) {
+                // Sin esto la tabla la volvería a pedir en cada repintado
+                failedPages.add(pageIndex);
+                loadFailed("Error loading history page " + pageIndex, error);
+            } else {
+                pageLoaded(pageIndex, page);
+            }
+        });
+    }
+
+    private void loadFailed(String message, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        System.err.println(message + ": " + cause.getMessage());
+        if (!errorReported && onLoadError != null) {
+            errorReported = true;
+            onLoadError.accept(cause);
+        }
+    }
+
+    private void pageLoaded(int pageIndex, List<CompletedChallenge> page) {
+        pages.put(pageIndex, page);
+        if (!page.isEmpty()) {
+            pageStartKeys.put(pageIndex + 1, CompletionKey.of(page.get(page.size() - 1)));
+        }
+
+        // Avisar a la tabla de que las filas de la página ya tienen contenido
+        int from = pageIndex * PAGE_SIZE;
+        int to = Math.min(from + page.size(), size);
+        if (from >= to) {
+            return;
+        }
+        beginChange();
+        for (int i = from; i < to; i++) {
+            nextSet(i, null);
+        }
+        endChange();
+    }
+
+    /**
+     * Lista de nulls para describir las filas eliminadas sin materializarlas.
+     */
+    private static final class PlaceholderList extends AbstractList<CompletedChallenge> {
+        private final int size;
+
+        private PlaceholderList(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public CompletedChallenge get(int index) {
+            return null;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package devs.fmm.rfc_01.controller;
 import devs.fmm.rfc_01.RandomFitnessChallengeApp;
 import devs.fmm.rfc_01.service.NotificationService;
 import devs.fmm.rfc_01.service.StatsService;
+import devs.fmm.rfc_01.service.impl.AsyncExecutor;
 import devs.fmm.rfc_01.service.impl.StatsServiceImpl;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -36,6 +37,7 @@ public class SettingsController implements Initializable {
     private MainController mainController;
     private final NotificationService notificationService;
     private final StatsService statsService;
+    private final AsyncExecutor asyncExecutor;
 
     /**
      * Constructor.
@@ -43,6 +45,7 @@ public class SettingsController implements Initializable {
     public SettingsController() {
         this.notificationService = RandomFitnessChallengeApp.getNotificationService();
         this.statsService = new StatsServiceImpl();
+        this.asyncExecutor = AsyncExecutor.getInstance();
     }
 
     @Override
@@ -83,21 +86,13 @@ public class SettingsController implements Initializable {
             notificationStatusLabel.setText("Las notificaciones no son compatibles con esta plataforma.");
         }
 
-        // Añadir listener para cambios en el intervalo de notificación
+        // Añadir listener para cambios en el intervalo de notificación. El servicio guarda el valor y reprograma los
+        // recordatorios cuando deja de cambiar; la barra de progreso principal lo refleja sola
         notificationIntervalSpinner.valueProperty().addListener((obs, oldValue, newValue) -> {
-            if (notificationService.isNotificationEnabled()) {
-                notificationService.startScheduler(newValue);
-            } else {
-                notificationService.setNotificationInterval(newValue);
-            }
+            notificationService.setNotificationInterval(newValue);
 
             // Actualizar la etiqueta de estado
             updateNotificationStatusLabel();
-
-            // Actualizar la barra de progreso en el controlador principal
-            if (mainController != null) {
-                mainController.refreshStats();
-            }
         });
     }
 
@@ -168,22 +163,22 @@ public class SettingsController implements Initializable {
         Optional<ButtonType> result = confirmAlert.showAndWait();
 
         if (result.isPresent() && result.get() == ButtonType.OK) {
-            boolean success = statsService.resetStats();
-
-            if (success) {
-                showAlert("Estadísticas Reiniciadas",
-                        "Tus estadísticas han sido reiniciadas con éxito.",
-                        Alert.AlertType.INFORMATION);
-
-                // Refrescar estadísticas en el controlador principal
-                if (mainController != null) {
-                    mainController.refreshStats();
+            asyncExecutor.supply(statsService::resetStats).exceptionally(e -> false).thenAccept(success -> {
+                if (success) {
+                    showAlert("Estadísticas Reiniciadas",
+                            "Tus estadísticas han sido reiniciadas con éxito.",
+                            Alert.AlertType.INFORMATION);
+
+                    // Refrescar estadísticas en el controlador principal
+                    if (mainController != null) {
+                        mainController.refreshStats();
+                    }
+                } else {
+                    showAlert("Error",
+                            "Hubo un error al reiniciar tus estadísticas.",
+                            Alert.AlertType.ERROR);
                 }
-            } else {
-                showAlert("Error",
-                        "Hubo un error al reiniciar tus estadísticas.",
-                        Alert.AlertType.ERROR);
-            }
+            });
         }
     }
 
@@ -204,26 +199,26 @@ public class SettingsController implements Initializable {
         Optional<ButtonType> result = confirmAlert.showAndWait();
 
         if (result.isPresent() && result.get() == ButtonType.OK) {
-            boolean success = statsService.resetApplication();
-
-            if (success) {
-                showAlert("Aplicación Reiniciada",
-                        "La aplicación ha sido reiniciada con éxito a su estado inicial. " +
-                        "Todos los retos han sido restablecidos a los valores predeterminados.",
-                        Alert.AlertType.INFORMATION);
-
-                // Actualizar UI para reflejar los cambios
-                initializeNotificationControls();
-
-                // Refrescar estadísticas en el controlador principal
-                if (mainController != null) {
-                    mainController.refreshStats();
+            asyncExecutor.supply(statsService::resetApplication).exceptionally(e -> false).thenAccept(success -> {
+                if (success) {
+                    showAlert("Aplicación Reiniciada",
+                            "La aplicación ha sido reiniciada con éxito a su estado inicial. " +
+                            "Todos los retos han sido restablecidos a los valores predeterminados.",
+                            Alert.AlertType.INFORMATION);
+
+                    // Actualizar UI para reflejar los cambios
+                    initializeNotificationControls();
+
+                    // Refrescar estadísticas en el controlador principal
+                    if (mainController != null) {
+                        mainController.refreshStats();
+                    }
+                } else {
+                    showAlert("Error",
+                            "Hubo un error al reiniciar la aplicación.",
+                            Alert.AlertType.ERROR);
                 }
-            } else {
-                showAlert("Error",
-                        "Hubo un error al reiniciar la aplicación.",
-                        Alert.AlertType.ERROR);
-            }
+            });
         }
     }
 
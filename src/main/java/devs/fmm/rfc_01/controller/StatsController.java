@@ -1,14 +1,15 @@
 package devs.fmm.rfc_01.controller;
 
+import devs.fmm.rfc_01.model.Challenge;
 import devs.fmm.rfc_01.model.CompletedChallenge;
+import devs.fmm.rfc_01.model.DailyActivity;
 import devs.fmm.rfc_01.model.UserStats;
 import devs.fmm.rfc_01.service.ChallengeService;
 import devs.fmm.rfc_01.service.StatsService;
+import devs.fmm.rfc_01.service.impl.AsyncExecutor;
 import devs.fmm.rfc_01.service.impl.ChallengeServiceImpl;
 import devs.fmm.rfc_01.service.impl.StatsServiceImpl;
 import javafx.beans.property.SimpleStringProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
@@ -23,9 +24,6 @@ import java.net.URL;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.ResourceBundle;
 
@@ -66,9 +64,12 @@ public class StatsController implements Initializable {
     @FXML
     private LineChart<String, Number> activityLineChart;
 
+    private static final DateTimeFormatter HISTORY_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
     private MainController mainController;
     private final ChallengeService challengeService;
     private final StatsService statsService;
+    private final AsyncExecutor asyncExecutor;
 
     /**
      * Constructor.
@@ -76,6 +77,7 @@ public class StatsController implements Initializable {
     public StatsController() {
         this.challengeService = new ChallengeServiceImpl();
         this.statsService = new StatsServiceImpl();
+        this.asyncExecutor = AsyncExecutor.getInstance();
     }
 
     @Override
@@ -91,9 +93,8 @@ public class StatsController implements Initializable {
         // Load history data
         loadHistoryData();
 
-        // Load charts with date range from earliest record to today
-        loadMinutesChart();
-        loadActivityChart();
+        // Load charts with date range from earliest record to today; both charts share one query
+        loadCharts();
     }
 
     /**
@@ -109,27 +110,63 @@ public class StatsController implements Initializable {
      * Initializes the table columns.
      */
     private void initializeTableColumns() {
+        // Rows are loaded page by page, so a row may still be null while its page is being fetched,
+        // and a completion whose challenge was deleted has no challenge
         dateColumn.setCellValueFactory(cellData -> {
-            LocalDateTime dateTime = cellData.getValue().getCompletionDate();
-            return new SimpleStringProperty(dateTime.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")));
+            CompletedChallenge completedChallenge = cellData.getValue();
+            if (completedChallenge == null) {
+                return new SimpleStringProperty("");
+            }
+            LocalDateTime dateTime = completedChallenge.getCompletionDate();
+            return new SimpleStringProperty(dateTime.format(HISTORY_DATE_FORMATTER));
         });
 
-        nameColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(cellData.getValue().getChallenge().getName()));
+        nameColumn.setCellValueFactory(cellData -> {
+            Challenge challenge = challengeOf(cellData.getValue());
+            return new SimpleStringProperty(challenge != null ? challenge.getName() : "");
+        });
 
-        categoryColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(cellData.getValue().getChallenge().getCategory()));
+        categoryColumn.setCellValueFactory(cellData -> {
+            Challenge challenge = challengeOf(cellData.getValue());
+            return new SimpleStringProperty(challenge != null ? challenge.getCategory() : "");
+        });
 
-        durationColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(cellData.getValue().getChallenge().getDurationMinutes() + " min"));
+        durationColumn.setCellValueFactory(cellData -> {
+            Challenge challenge = challengeOf(cellData.getValue());
+            return new SimpleStringProperty(challenge != null ? challenge.getDurationMinutes() + " min" : "");
+        });
+
+        // The paged list is read-only and always newest first: sorting it would copy every row, one query
+        // per page, and then fail to write the sorted rows back
+        dateColumn.setSortable(false);
+        nameColumn.setSortable(false);
+        categoryColumn.setSortable(false);
+        durationColumn.setSortable(false);
+    }
+
+    /**
+     * Gets the challenge of a history row.
+     *
+     * @param completedChallenge The row, which may not be loaded yet
+     * @return The challenge, or null if the row is not loaded or the challenge no longer exists
+     */
+    private static Challenge challengeOf(CompletedChallenge completedChallenge) {
+        return completedChallenge != null ? completedChallenge.getChallenge() : null;
     }
 
     /**
      * Updates the stats display.
      */
     private void updateStatsDisplay() {
-        Optional<UserStats> userStatsOpt = statsService.getUserStats();
+        asyncExecutor.supply(statsService::getUserStats).thenAccept(this::showStats);
+    }
 
+    /**
+     * Shows the loaded stats.
+     *
+     * @param userStatsOpt The user stats, or empty if they could not be loaded
+     */
+    private void showStats(Optional<UserStats> userStatsOpt) {
         if (userStatsOpt.isPresent()) {
             UserStats userStats = userStatsOpt.get();
             streakLabel.setText(String.valueOf(userStats.getStreakDays()));
@@ -143,39 +180,38 @@ public class StatsController implements Initializable {
     }
 
     /**
-     * Loads the history data.
+     * Loads the history data. Only the pages the table shows are kept in memory.
      */
     private void loadHistoryData() {
-        List<CompletedChallenge> completedChallenges = challengeService.getAllCompletedChallenges();
-        ObservableList<CompletedChallenge> data = FXCollections.observableArrayList(completedChallenges);
-        historyTableView.setItems(data);
+        PagedHistoryList history = new PagedHistoryList(challengeService, asyncExecutor);
+        history.setOnLoadError(error -> showAlert("Error",
+                "No se ha podido cargar parte del historial. Vuelve a abrir las estadísticas para intentarlo de nuevo.",
+                Alert.AlertType.ERROR));
+        historyTableView.setItems(history);
     }
 
     /**
      * Finds the date range for the charts.
      * Shows from the earliest record date to today, with a maximum of 30 days.
+     * Runs in the background, since it queries the database.
      *
      * @return An array with [startDate, endDate]
      */
     private LocalDate[] findChartDateRange() {
-        // Get all completed challenges
-        List<CompletedChallenge> allChallenges = challengeService.getAllCompletedChallenges();
-
         // Today's date will be the end date (no future dates)
         LocalDate today = LocalDate.now();
-        LocalDate earliestDate = today;
 
-        if (allChallenges.isEmpty()) {
+        // Find the earliest date with records (a single indexed MIN query)
+        Optional<LocalDateTime> earliestCompletion = challengeService.getEarliestCompletionDate();
+
+        if (earliestCompletion.isEmpty()) {
             // If no records exist, just return today as both start and end
             return new LocalDate[] {today, today};
         }
 
-        // Find the earliest date with records
-        for (CompletedChallenge challenge : allChallenges) {
-            LocalDate challengeDate = challenge.getCompletionDate().toLocalDate();
-            if (challengeDate.isBefore(earliestDate)) {
-                earliestDate = challengeDate;
-            }
+        LocalDate earliestDate = earliestCompletion.get().toLocalDate();
+        if (earliestDate.isAfter(today)) {
+            earliestDate = today;
         }
 
         // Calculate the date range (max 30 days)
@@ -190,44 +226,32 @@ public class StatsController implements Initializable {
     }
 
     /**
-     * Loads the minutes by date chart showing only days from earliest record to today.
+     * Loads both charts from a single daily activity query over the chart date range.
      */
-    private void loadMinutesChart() {
-        // Get the date range (from earliest record to today, max 30 days)
-        LocalDate[] dateRange = findChartDateRange();
-        LocalDate startDate = dateRange[0];
-        LocalDate endDate = dateRange[1];
-
-        // Calculate number of days in the range (inclusive)
-        int numDays = (int) java.time.temporal.ChronoUnit.DAYS.between(startDate, endDate) + 1;
-
-        // Get exercise minutes data
-        List<Object[]> dateMinutes = challengeService.getExerciseMinutesByDate(startDate, endDate);
-
-        // Create a map to store minutes for each day in the range
-        Map<LocalDate, Integer> minutesByDay = new HashMap<>();
-
-        // Initialize all days in the range with zero minutes
-        for (int i = 0; i < numDays; i++) {
-            minutesByDay.put(startDate.plusDays(i), 0);
-        }
-
-        // Fill in actual data where available
-        for (Object[] dateMinute : dateMinutes) {
-            LocalDate date = (LocalDate) dateMinute[0];
-            int minutes = (int) dateMinute[1];
-            minutesByDay.put(date, minutes);
-        }
+    private void loadCharts() {
+        asyncExecutor.supply(() -> {
+            // Get the date range (from earliest record to today, max 30 days)
+            LocalDate[] dateRange = findChartDateRange();
+            return challengeService.getDailyActivity(dateRange[0], dateRange[1]);
+        }).thenAccept(activity -> {
+            loadMinutesChart(activity);
+            loadActivityChart(activity);
+        });
+    }
 
+    /**
+     * Loads the minutes by date chart showing only days from earliest record to today.
+     *
+     * @param activity The daily activity for the chart date range
+     */
+    private void loadMinutesChart(DailyActivity activity) {
         // Create the chart series
         XYChart.Series<String, Number> series = new XYChart.Series<>();
         series.setName("Minutos de Ejercicio");
 
         // Add data points in chronological order
-        for (int i = 0; i < numDays; i++) {
-            LocalDate date = startDate.plusDays(i);
-            int minutes = minutesByDay.getOrDefault(date, 0);
-            series.getData().add(new XYChart.Data<>(date.toString(), Integer.valueOf(minutes)));
+        for (int day = 0; day < activity.getDayCount(); day++) {
+            series.getData().add(new XYChart.Data<>(activity.getDate(day).toString(), activity.getMinutes(day)));
         }
 
         // Update the chart
@@ -239,12 +263,7 @@ public class StatsController implements Initializable {
         NumberAxis yAxis = (NumberAxis) minutesLineChart.getYAxis();
 
         // Find the maximum minutes value in the data
-        int maxMinutes = 0;
-        for (Map.Entry<LocalDate, Integer> entry : minutesByDay.entrySet()) {
-            if (entry.getValue() > maxMinutes) {
-                maxMinutes = entry.getValue();
-            }
-        }
+        int maxMinutes = activity.getMaxMinutes();
 
         // Set Y-axis range: default 0-100 with tick unit 10, but adapt if max exceeds 100
         yAxis.setAutoRanging(false);
@@ -279,43 +298,17 @@ public class StatsController implements Initializable {
 
     /**
      * Loads the activity chart showing only days from earliest record to today.
+     *
+     * @param activity The daily activity for the chart date range
      */
-    private void loadActivityChart() {
-        // Get the date range (from earliest record to today, max 30 days)
-        LocalDate[] dateRange = findChartDateRange();
-        LocalDate startDate = dateRange[0];
-        LocalDate endDate = dateRange[1];
-
-        // Calculate number of days in the range (inclusive)
-        int numDays = (int) java.time.temporal.ChronoUnit.DAYS.between(startDate, endDate) + 1;
-
-        // Get activity data
-        List<Object[]> dateCounts = challengeService.getCompletedChallengeCountsByDate(startDate, endDate);
-
-        // Create a map to store counts for each day in the range
-        Map<LocalDate, Integer> countsByDay = new HashMap<>();
-
-        // Initialize all days in the range with zero counts
-        for (int i = 0; i < numDays; i++) {
-            countsByDay.put(startDate.plusDays(i), 0);
-        }
-
-        // Fill in actual data where available
-        for (Object[] dateCount : dateCounts) {
-            LocalDate date = (LocalDate) dateCount[0];
-            int count = (int) dateCount[1];
-            countsByDay.put(date, count);
-        }
-
+    private void loadActivityChart(DailyActivity activity) {
         // Create the chart series
         XYChart.Series<String, Number> series = new XYChart.Series<>();
         series.setName("Retos Completados");
 
         // Add data points in chronological order
-        for (int i = 0; i < numDays; i++) {
-            LocalDate date = startDate.plusDays(i);
-            int count = countsByDay.getOrDefault(date, 0);
-            series.getData().add(new XYChart.Data<>(date.toString(), Integer.valueOf(count)));
+        for (int day = 0; day < activity.getDayCount(); day++) {
+            series.getData().add(new XYChart.Data<>(activity.getDate(day).toString(), activity.getChallengeCount(day)));
         }
 
         // Update the chart
@@ -327,12 +320,7 @@ public class StatsController implements Initializable {
         NumberAxis yAxis = (NumberAxis) activityLineChart.getYAxis();
 
         // Find the maximum challenge count in the data
-        int maxCount = 0;
-        for (Map.Entry<LocalDate, Integer> entry : countsByDay.entrySet()) {
-            if (entry.getValue() > maxCount) {
-                maxCount = entry.getValue();
-            }
-        }
+        int maxCount = activity.getMaxChallengeCount();
 
         // Set Y-axis range: default 0-10 with tick unit 1, but adapt if max exceeds 10
         yAxis.setAutoRanging(false);
@@ -379,4 +367,19 @@ public class StatsController implements Initializable {
             mainController.loadChallengeView(null);
         }
     }
+
+    /**
+     * Shows an alert dialog.
+     *
+     * @param title The alert title
+     * @param message The alert message
+     * @param alertType The alert type
+     */
+    private void showAlert(String title, String message, Alert.AlertType alertType) {
+        Alert alert = new Alert(alertType);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.show();
+    }
 }
@@ -1,7 +1,9 @@
 package devs.fmm.rfc_01.dao;
 
 import devs.fmm.rfc_01.model.CompletedChallenge;
+import devs.fmm.rfc_01.model.CompletionKey;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,6 +12,15 @@ import java.util.Optional;
  */
 public interface CompletedChallengeDao {
 
+    /**
+     * Obtiene un DAO con las mismas operaciones restringidas al historial de un perfil.
+     * Las operaciones de este DAO se aplican al perfil para el que se obtuvo (el predeterminado si no se indica).
+     *
+     * @param userId El ID del perfil
+     * @return El DAO del perfil
+     */
+    CompletedChallengeDao forUser(int userId);
+
     /**
      * Encuentra un reto completado por su ID.
      *
@@ -58,6 +69,16 @@ public interface CompletedChallengeDao {
      */
     CompletedChallenge save(CompletedChallenge completedChallenge);
 
+    /**
+     * Registra un reto completado y lo suma al resumen diario en una única transacción, sin leer antes el reto.
+     *
+     * @param challengeId El ID del reto completado
+     * @param completionDate La fecha y hora de completado
+     * @return Un Optional con el reto completado guardado y su ID generado, o vacío si el reto no existe o la
+     *         operación falla
+     */
+    Optional<CompletedChallenge> recordCompletion(int challengeId, LocalDateTime completionDate);
+
     /**
      * Elimina un reto completado por su ID.
      *
@@ -83,7 +104,90 @@ public interface CompletedChallengeDao {
     List<Object[]> getCompletedChallengeCountsByDate(LocalDate startDate, LocalDate endDate);
 
     /**
-     * Elimina todos los retos completados de la base de datos.
+     * Obtiene, en una sola consulta agrupada, los retos completados y los minutos de ejercicio de cada día con
+     * actividad en un rango de fechas. Los días sin actividad no aparecen.
+     *
+     * @param startDate La fecha de inicio (inclusiva)
+     * @param endDate La fecha de fin (inclusiva)
+     * @return Una lista de tripletas fecha-conteo-minutos ordenada por fecha
+     */
+    List<Object[]> getDailyActivity(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Obtiene los retos completados con un ID mayor que el dado, en orden de ID, junto con la duración del reto.
+     * Sirve para recuperar las completaciones que aún no se habían sumado a las estadísticas del usuario.
+     *
+     * @param completedChallengeId El ID del último reto completado ya incluido
+     * @return Una lista de tripletas ID-fecha-duración; la duración es 0 si el reto ya no existe
+     */
+    List<Object[]> getCompletionsAfter(int completedChallengeId);
+
+    /**
+     * Obtiene los días en los que el perfil completó al menos un reto, leídos del resumen diario.
+     *
+     * @return Una lista de fechas sin repetidos ordenada de la más antigua a la más reciente
+     */
+    List<LocalDate> getActiveDates();
+
+    /**
+     * Obtiene una página del historial, de más reciente a más antiguo, empezando justo después de una clave.
+     * Las completaciones de retos eliminados se incluyen sin reto asociado.
+     *
+     * @param after La clave del último elemento de la página anterior, o null para la primera página
+     * @param limit El número máximo de elementos
+     * @return Los retos completados de la página
+     */
+    List<CompletedChallenge> findPage(CompletionKey after, int limit);
+
+    /**
+     * Obtiene la clave del elemento que ocupa una posición del historial, ordenado de más reciente a más antiguo.
+     * Permite saltar a una página sin haber leído las anteriores.
+     *
+     * @param offset La posición, desde 0
+     * @return Un Optional con la clave, o vacío si la posición está fuera del historial
+     */
+    Optional<CompletionKey> findKeyAt(int offset);
+
+    /**
+     * Obtiene la fecha del primer reto completado.
+     *
+     * @return Un Optional con la fecha y hora más antigua, o vacío si no hay retos completados
+     */
+    Optional<LocalDateTime> findEarliestCompletionDate();
+
+    /**
+     * Obtiene la fecha del último reto completado.
+     *
+     * @return Un Optional con la fecha y hora más reciente, o vacío si no hay retos completados
+     */
+    Optional<LocalDateTime> findLatestCompletionDate();
+
+    /**
+     * Cuenta todos los retos completados.
+     *
+     * @return El número de retos completados
+     */
+    int countAll();
+
+    /**
+     * Cuenta los retos completados en un rango de fechas.
+     *
+     * @param startDate La fecha de inicio (inclusiva)
+     * @param endDate La fecha de fin (inclusiva)
+     * @return El número de retos completados en el rango
+     */
+    int countByDateRange(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Recalcula desde cero el resumen de actividad diaria de todos los perfiles a partir del historial de retos
+     * completados.
+     *
+     * @return true si la reconstrucción fue exitosa, false en caso contrario
+     */
+    boolean rebuildDailyActivity();
+
+    /**
+     * Elimina todos los retos completados del perfil.
      *
      * @return true si la eliminación fue exitosa, false en caso contrario
      */
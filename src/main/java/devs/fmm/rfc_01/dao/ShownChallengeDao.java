@@ -0,0 +1,37 @@
+package devs.fmm.rfc_01.dao;
+
+/**
+ * Interfaz de Objeto de Acceso a Datos para los retos ya mostrados en el ciclo actual sin repetición.
+ */
+public interface ShownChallengeDao {
+
+    /**
+     * Obtiene los IDs de los retos mostrados en el ciclo actual.
+     *
+     * @return Los IDs de los retos mostrados
+     */
+    int[] findAllIds();
+
+    /**
+     * Marca un reto como mostrado.
+     *
+     * @param challengeId El ID del reto mostrado
+     * @return true si la operación fue exitosa, false en caso contrario
+     */
+    boolean markShown(int challengeId);
+
+    /**
+     * Quita un reto de los mostrados, por ejemplo porque se ha eliminado.
+     *
+     * @param challengeId El ID del reto
+     * @return true si la operación fue exitosa, false en caso contrario
+     */
+    boolean deleteById(int challengeId);
+
+    /**
+     * Vacía los retos mostrados para empezar un ciclo nuevo.
+     *
+     * @return true si la operación fue exitosa, false en caso contrario
+     */
+    boolean deleteAll();
+}
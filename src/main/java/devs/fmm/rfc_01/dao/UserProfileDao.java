@@ -0,0 +1,52 @@
+package devs.fmm.rfc_01.dao;
+
+import devs.fmm.rfc_01.model.UserProfile;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Interfaz de Objeto de Acceso a Datos para entidades UserProfile.
+ */
+public interface UserProfileDao {
+
+    /**
+     * Busca un perfil por su ID.
+     *
+     * @param id El ID del perfil
+     * @return Un Optional que contiene el perfil si se encuentra, o vacío si no
+     */
+    Optional<UserProfile> findById(int id);
+
+    /**
+     * Busca un perfil por su nombre.
+     *
+     * @param name El nombre del perfil
+     * @return Un Optional que contiene el perfil si se encuentra, o vacío si no
+     */
+    Optional<UserProfile> findByName(String name);
+
+    /**
+     * Obtiene todos los perfiles ordenados por nombre.
+     *
+     * @return Una lista de todos los perfiles
+     */
+    List<UserProfile> findAll();
+
+    /**
+     * Guarda un nuevo perfil junto con sus estadísticas iniciales.
+     *
+     * @param userProfile El perfil a guardar
+     * @return Un Optional con el perfil guardado y su ID generado, o vacío si el nombre ya existe o la operación falla
+     */
+    Optional<UserProfile> save(UserProfile userProfile);
+
+    /**
+     * Elimina un perfil con su historial, sus resúmenes diarios y sus estadísticas.
+     * El perfil predeterminado no se puede eliminar.
+     *
+     * @param id El ID del perfil a eliminar
+     * @return true si la eliminación fue exitosa, false en caso contrario
+     */
+    boolean deleteById(int id);
+}
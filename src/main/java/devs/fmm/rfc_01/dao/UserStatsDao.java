@@ -1,6 +1,8 @@
 package devs.fmm.rfc_01.dao;
 
 import devs.fmm.rfc_01.model.UserStats;
+
+import java.time.LocalDate;
 import java.util.Optional;
 
 /**
@@ -8,9 +10,17 @@ import java.util.Optional;
  */
 public interface UserStatsDao {
 
+    /**
+     * Obtiene un DAO con las mismas operaciones sobre las estadísticas de un perfil.
+     * Las operaciones de este DAO se aplican al perfil para el que se obtuvo (el predeterminado si no se indica).
+     *
+     * @param userId El ID del perfil
+     * @return El DAO del perfil
+     */
+    UserStatsDao forUser(int userId);
+
     /**
      * Obtiene las estadísticas del usuario.
-     * Como solo hay un usuario en la aplicación, esto retorna el único registro UserStats.
      *
      * @return Un Optional que contiene las estadísticas del usuario, o vacío si no se encuentran
      */
@@ -32,6 +42,17 @@ public interface UserStatsDao {
      */
     boolean incrementChallengesCompleted(int additionalMinutes);
 
+    /**
+     * Suma un reto completado a las estadísticas y actualiza la racha con su fecha.
+     *
+     * @param completedChallengeId El ID del reto completado; la marca del último incluido en las estadísticas pasa a
+     *                             ser el mayor entre ella y este ID, pues los retos pueden sumarse desordenados
+     * @param completionDate La fecha de completado
+     * @param minutesExercised Los minutos a añadir al total de minutos ejercitados
+     * @return true si la actualización fue exitosa, false en caso contrario
+     */
+    boolean recordCompletion(int completedChallengeId, LocalDate completionDate, int minutesExercised);
+
     /**
      * Actualiza la racha basada en la fecha actual.
      *
@@ -45,4 +66,12 @@ public interface UserStatsDao {
      * @return true si el reinicio fue exitoso, false en caso contrario
      */
     boolean resetStats();
+
+    /**
+     * Descarta el estado en memoria de un perfil eliminado. Por defecto no hay nada que descartar.
+     *
+     * @param userId El ID del perfil eliminado
+     */
+    default void discardProfile(int userId) {
+    }
 }
@@ -0,0 +1,411 @@
+package devs.fmm.rfc_01.dao.impl;
+
+import devs.fmm.rfc_01.dao.ChallengeDao;
+import devs.fmm.rfc_01.db.DatabaseManager;
+import devs.fmm.rfc_01.model.Challenge;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Decorador de {@link ChallengeDao} que mantiene en memoria una instantánea inmutable del catálogo de retos.
+ * <p>
+ * Las lecturas se sirven desde la instantánea sin tocar la base de datos. Cada escritura se delega y, si tiene
+ * éxito, se sustituye la instantánea por una copia con el cambio aplicado (copy-on-write), de modo que los
+ * lectores nunca ven un estado a medias. Los retos devueltos son copias: quien los modifique no altera la caché.
+ * <p>
+ * Si el catálogo supera el tamaño máximo configurado no se cachea y todas las lecturas se delegan.
+ * <p>
+ * Otros componentes pueden suscribirse con {@link #addListener(CatalogListener)} para enterarse de los
+ * cambios del catálogo sin tener que volver a leerlo entero.
+ */
+public class CachingChallengeDao implements ChallengeDao {
+
+    private static final int DEFAULT_MAX_ENTRIES = Integer.getInteger("rfc.cache.challenges.maxEntries", 50_000);
+
+    private final ChallengeDao delegate;
+    private final int maxEntries;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final Object loadLock = new Object();
+
+    // Se incrementa con cada escritura para descartar cargas que empezaron antes de ella
+    private final AtomicLong generation = new AtomicLong();
+    private volatile long oversizedGeneration = -1;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private final List<CatalogListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Recibe los cambios del catálogo que pasan por este DAO. Los avisos llegan en el hilo que hizo la escritura,
+     * después de que la escritura haya tenido éxito.
+     */
+    public interface CatalogListener {
+
+        /**
+         * Se ha creado un reto nuevo.
+         *
+         * @param challenge Una copia del reto creado
+         */
+        void challengeAdded(Challenge challenge);
+
+        /**
+         * Se ha eliminado un reto.
+         *
+         * @param id El ID del reto eliminado
+         */
+        void challengeRemoved(int id);
+
+        /**
+         * El catálogo ha cambiado de forma que no se puede describir reto a reto (por ejemplo, un borrado total);
+         * hay que volver a leerlo.
+         */
+        void catalogInvalidated();
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param delegate El DAO que accede a la base de datos
+     * @param maxEntries El número máximo de retos que se cachean
+     */
+    public CachingChallengeDao(ChallengeDao delegate, int maxEntries) {
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Obtiene la instancia compartida por toda la aplicación, de modo que todas las vistas usan la misma caché.
+     *
+     * @return La instancia compartida
+     */
+    public static CachingChallengeDao getInstance() {
+        return forDatabase(DatabaseManager.getInstance());
+    }
+
+    /**
+     * Obtiene la caché compartida del catálogo de una base de datos.
+     *
+     * @param dbManager El gestor de la base de datos
+     * @return La caché de esa base de datos
+     */
+    public static CachingChallengeDao forDatabase(DatabaseManager dbManager) {
+        return dbManager.getShared(CachingChallengeDao.class,
+                manager -> new CachingChallengeDao(new ChallengeDaoImpl(manager), DEFAULT_MAX_ENTRIES));
+    }
+
+    @Override
+    public Optional<Challenge> findById(int id) {
+        Snapshot current = currentSnapshot();
+        if (current == null) {
+            return delegate.findById(id);
+        }
+        return Optional.ofNullable(current.byId.get(id)).map(CachingChallengeDao::copyOf);
+    }
+
+    @Override
+    public List<Challenge> findAll() {
+        Snapshot current = currentSnapshot();
+        if (current == null) {
+            return delegate.findAll();
+        }
+        return copyOf(current.all);
+    }
+
+    @Override
+    public List<Challenge> findByCategory(String category) {
+        Snapshot current = currentSnapshot();
+        if (current == null) {
+            return delegate.findByCategory(category);
+        }
+        return copyOf(current.byCategory.getOrDefault(category, Collections.emptyList()));
+    }
+
+    @Override
+    public List<Challenge> findByDifficulty(int difficulty) {
+        Snapshot current = currentSnapshot();
+        if (current == null) {
+            return delegate.findByDifficulty(difficulty);
+        }
+
+        List<Challenge> challenges = new ArrayList<>();
+        for (Challenge challenge : current.all) {
+            if (challenge.getDifficulty() == difficulty) {
+                challenges.add(copyOf(challenge));
+            }
+        }
+        return challenges;
+    }
+
+    @Override
+    public List<Challenge> findByDurationRange(int minDuration, int maxDuration) {
+        Snapshot current = currentSnapshot();
+        if (current == null) {
+            return delegate.findByDurationRange(minDuration, maxDuration);
+        }
+
+        List<Challenge> challenges = new ArrayList<>();
+        for (Challenge challenge : current.all) {
+            if (challenge.getDurationMinutes() >= minDuration && challenge.getDurationMinutes() <= maxDuration) {
+                challenges.add(copyOf(challenge));
+            }
+        }
+        return challenges;
+    }
+
+    @Override
+    public Optional<Challenge> getRandomChallenge() {
+        Snapshot current = currentSnapshot();
+        if (current == null) {
+            return delegate.getRandomChallenge();
+        }
+        return randomFrom(current.all);
+    }
+
+    @Override
+    public Optional<Challenge> getRandomChallengeByCategory(String category) {
+        Snapshot current = currentSnapshot();
+        if (current == null) {
+            return delegate.getRandomChallengeByCategory(category);
+        }
+        return randomFrom(current.byCategory.getOrDefault(category, Collections.emptyList()));
+    }
+
+    @Override
+    public Challenge save(Challenge challenge) {
+        int previousId = challenge.getId();
+        Challenge saved = delegate.save(challenge);
+
+        // El DAO devuelve el reto sin ID nuevo si la inserción falla
+        if (saved.getId() > 0 && saved.getId() != previousId) {
+            applyWrite(current -> current.with(copyOf(saved)));
+            for (CatalogListener listener : listeners) {
+                listener.challengeAdded(copyOf(saved));
+            }
+        }
+        return saved;
+    }
+
+    @Override
+    public boolean update(Challenge challenge) {
+        boolean updated = delegate.update(challenge);
+        if (updated) {
+            applyWrite(current -> current.with(copyOf(challenge)));
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean deleteById(int id) {
+        boolean deleted = delegate.deleteById(id);
+        if (deleted) {
+            applyWrite(current -> current.without(id));
+            for (CatalogListener listener : listeners) {
+                listener.challengeRemoved(id);
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public boolean deleteAll() {
+        boolean deleted = delegate.deleteAll();
+        if (deleted) {
+            // Tras un borrado total se reinsertan los retos predeterminados sin pasar por el DAO,
+            // así que se descarta la instantánea en lugar de dejarla vacía
+            invalidate();
+        }
+        return deleted;
+    }
+
+    /**
+     * Descarta la instantánea; la siguiente lectura la volverá a cargar desde la base de datos.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot.set(null);
+        for (CatalogListener listener : listeners) {
+            listener.catalogInvalidated();
+        }
+    }
+
+    /**
+     * Registra un oyente de cambios del catálogo.
+     *
+     * @param listener El oyente a registrar
+     */
+    public void addListener(CatalogListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Elimina un oyente registrado previamente.
+     *
+     * @param listener El oyente a eliminar
+     */
+    public void removeListener(CatalogListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Obtiene el número de lecturas servidas desde memoria.
+     *
+     * @return El número de aciertos
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Obtiene el número de lecturas que tuvieron que ir a la base de datos.
+     *
+     * @return El número de fallos
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Obtiene el número de retos en la instantánea actual.
+     *
+     * @return El tamaño de la caché, o 0 si no hay instantánea cargada
+     */
+    public int getSize() {
+        Snapshot current = snapshot.get();
+        return current == null ? 0 : current.all.size();
+    }
+
+    /**
+     * Obtiene el número máximo de retos que se cachean.
+     *
+     * @return El límite de tamaño
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Devuelve la instantánea vigente, cargándola si hace falta.
+     *
+     * @return La instantánea, o null si el catálogo no cabe en la caché
+     */
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot.get();
+        if (current != null) {
+            hits.incrementAndGet();
+            return current;
+        }
+
+        misses.incrementAndGet();
+        synchronized (loadLock) {
+            current = snapshot.get();
+            if (current != null) {
+                return current;
+            }
+
+            long loadGeneration = generation.get();
+            if (oversizedGeneration == loadGeneration) {
+                // Ya sabemos que el catálogo no cabe; no tiene sentido volver a leerlo hasta la próxima escritura
+                return null;
+            }
+
+            List<Challenge> challenges = delegate.findAll();
+            if (challenges.size() > maxEntries) {
+                oversizedGeneration = loadGeneration;
+                System.err.println("Challenge catalog has " + challenges.size() +
+                        " entries, above the cache limit of " + maxEntries + "; reads will go to the database");
+                return null;
+            }
+
+            Snapshot loaded = Snapshot.of(challenges);
+            // Si hubo una escritura mientras se cargaba, la instantánea podría estar obsoleta: se usa una vez y no se guarda
+            if (generation.get() == loadGeneration) {
+                snapshot.compareAndSet(null, loaded);
+            }
+            return loaded;
+        }
+    }
+
+    private void applyWrite(UnaryOperator<Snapshot> change) {
+        generation.incrementAndGet();
+        Snapshot updated = snapshot.updateAndGet(current -> current == null ? null : change.apply(current));
+        if (updated != null && updated.all.size() > maxEntries) {
+            snapshot.set(null);
+        }
+    }
+
+    private static Optional<Challenge> randomFrom(List<Challenge> challenges) {
+        if (challenges.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(copyOf(challenges.get(ThreadLocalRandom.current().nextInt(challenges.size()))));
+    }
+
+    private static List<Challenge> copyOf(List<Challenge> challenges) {
+        List<Challenge> copies = new ArrayList<>(challenges.size());
+        for (Challenge challenge : challenges) {
+            copies.add(copyOf(challenge));
+        }
+        return copies;
+    }
+
+    private static Challenge copyOf(Challenge challenge) {
+        return new Challenge(challenge.getId(), challenge.getName(), challenge.getDescription(), challenge.getCategory(),
+                challenge.getDifficulty(), challenge.getDurationMinutes(), challenge.getImagePath());
+    }
+
+    /**
+     * Estado inmutable del catálogo en un momento dado.
+     */
+    private static final class Snapshot {
+        private final List<Challenge> all;
+        private final Map<Integer, Challenge> byId;
+        private final Map<String, List<Challenge>> byCategory;
+
+        private Snapshot(Map<Integer, Challenge> byId) {
+            this.byId = byId;
+            this.all = List.copyOf(byId.values());
+
+            Map<String, List<Challenge>> categories = new HashMap<>();
+            for (Challenge challenge : all) {
+                categories.computeIfAbsent(challenge.getCategory(), key -> new ArrayList<>()).add(challenge);
+            }
+            categories.replaceAll((category, challenges) -> List.copyOf(challenges));
+            this.byCategory = categories;
+        }
+
+        static Snapshot of(List<Challenge> challenges) {
+            Map<Integer, Challenge> byId = new LinkedHashMap<>();
+            for (Challenge challenge : challenges) {
+                byId.put(challenge.getId(), challenge);
+            }
+            return new Snapshot(byId);
+        }
+
+        Snapshot with(Challenge challenge) {
+            Map<Integer, Challenge> byId = new LinkedHashMap<>(this.byId);
+            byId.put(challenge.getId(), challenge);
+            return new Snapshot(byId);
+        }
+
+        Snapshot without(int id) {
+            if (!byId.containsKey(id)) {
+                return this;
+            }
+            Map<Integer, Challenge> byId = new LinkedHashMap<>(this.byId);
+            byId.remove(id);
+            return new Snapshot(byId);
+        }
+    }
+}
@@ -7,8 +7,9 @@ import devs.fmm.rfc_01.model.Challenge;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Arrays;
 import java.util.Optional;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Implementation of the ChallengeDao interface.
@@ -16,29 +17,36 @@ import java.util.Random;
 public class ChallengeDaoImpl implements ChallengeDao {
 
     private final DatabaseManager dbManager;
-    private final Random random;
+    // Compartido por todas las instancias de la misma base de datos, ya que los controladores crean sus propios DAO
+    private final ChallengeIdIndex idIndex;
 
     // SQL queries
-    private static final String FIND_BY_ID_SQL = "SELECT * FROM challenges WHERE id = ?";
-    private static final String FIND_ALL_SQL = "SELECT * FROM challenges";
-    private static final String FIND_BY_CATEGORY_SQL = "SELECT * FROM challenges WHERE category = ?";
-    private static final String FIND_BY_DIFFICULTY_SQL = "SELECT * FROM challenges WHERE difficulty = ?";
-    private static final String FIND_BY_DURATION_RANGE_SQL = "SELECT * FROM challenges WHERE duration_minutes BETWEEN ? AND ?";
-    private static final String COUNT_ALL_SQL = "SELECT COUNT(*) FROM challenges";
-    private static final String COUNT_BY_CATEGORY_SQL = "SELECT COUNT(*) FROM challenges WHERE category = ?";
-    private static final String GET_BY_OFFSET_SQL = "SELECT * FROM challenges LIMIT 1 OFFSET ?";
-    private static final String GET_BY_CATEGORY_OFFSET_SQL = "SELECT * FROM challenges WHERE category = ? LIMIT 1 OFFSET ?";
+    private static final String FIND_BY_ID_SQL = "SELECT " + RowMappers.CHALLENGE_COLUMNS + " FROM challenges WHERE id = ?";
+    private static final String FIND_ALL_SQL = "SELECT " + RowMappers.CHALLENGE_COLUMNS + " FROM challenges";
+    private static final String FIND_BY_CATEGORY_SQL = "SELECT " + RowMappers.CHALLENGE_COLUMNS + " FROM challenges WHERE category = ?";
+    private static final String FIND_BY_DIFFICULTY_SQL = "SELECT " + RowMappers.CHALLENGE_COLUMNS + " FROM challenges WHERE difficulty = ?";
+    private static final String FIND_BY_DURATION_RANGE_SQL = "SELECT " + RowMappers.CHALLENGE_COLUMNS + " FROM challenges WHERE duration_minutes BETWEEN ? AND ?";
+    private static final String LOAD_ID_INDEX_SQL = "SELECT id, category FROM challenges";
     private static final String INSERT_SQL = "INSERT INTO challenges (name, description, category, difficulty, duration_minutes, image_path) VALUES (?, ?, ?, ?, ?, ?)";
     private static final String UPDATE_SQL = "UPDATE challenges SET name = ?, description = ?, category = ?, difficulty = ?, duration_minutes = ?, image_path = ? WHERE id = ?";
     private static final String DELETE_SQL = "DELETE FROM challenges WHERE id = ?";
     private static final String DELETE_ALL_SQL = "DELETE FROM challenges";
 
     /**
-     * Constructor.
+     * Constructor. Usa la base de datos compartida de la aplicación.
      */
     public ChallengeDaoImpl() {
-        this.dbManager = DatabaseManager.getInstance();
-        this.random = new Random();
+        this(DatabaseManager.getInstance());
+    }
+
+    /**
+     * Constructor con la base de datos a usar.
+     *
+     * @param dbManager El gestor de la base de datos
+     */
+    public ChallengeDaoImpl(DatabaseManager dbManager) {
+        this.dbManager = dbManager;
+        this.idIndex = dbManager.getShared(ChallengeIdIndex.class, manager -> new ChallengeIdIndex());
     }
 
     @Override
@@ -48,13 +56,13 @@ public class ChallengeDaoImpl implements ChallengeDao {
         ResultSet rs = null;
 
         try {
-            conn = dbManager.getConnection();
+            conn = dbManager.getReadConnection();
             stmt = conn.prepareStatement(FIND_BY_ID_SQL);
             stmt.setInt(1, id);
             rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return Optional.of(mapResultSetToChallenge(rs));
+                return Optional.of(RowMappers.CHALLENGE.mapRow(rs));
             }
 
             return Optional.empty();
@@ -74,12 +82,12 @@ public class ChallengeDaoImpl implements ChallengeDao {
         List<Challenge> challenges = new ArrayList<>();
 
         try {
-            conn = dbManager.getConnection();
+            conn = dbManager.getReadConnection();
             stmt = conn.prepareStatement(FIND_ALL_SQL);
             rs = stmt.executeQuery();
 
             while (rs.next()) {
-                challenges.add(mapResultSetToChallenge(rs));
+                challenges.add(RowMappers.CHALLENGE.mapRow(rs));
             }
 
             return challenges;
@@ -99,13 +107,13 @@ public class ChallengeDaoImpl implements ChallengeDao {
         List<Challenge> challenges = new ArrayList<>();
 
         try {
-            conn = dbManager.getConnection();
+            conn = dbManager.getReadConnection();
             stmt = conn.prepareStatement(FIND_BY_CATEGORY_SQL);
             stmt.setString(1, category);
             rs = stmt.executeQuery();
 
             while (rs.next()) {
-                challenges.add(mapResultSetToChallenge(rs));
+                challenges.add(RowMappers.CHALLENGE.mapRow(rs));
             }
 
             return challenges;
@@ -125,13 +133,13 @@ public class ChallengeDaoImpl implements ChallengeDao {
         List<Challenge> challenges = new ArrayList<>();
 
         try {
-            conn = dbManager.getConnection();
+            conn = dbManager.getReadConnection();
             stmt = conn.prepareStatement(FIND_BY_DIFFICULTY_SQL);
             stmt.setInt(1, difficulty);
             rs = stmt.executeQuery();
 
             while (rs.next()) {
-                challenges.add(mapResultSetToChallenge(rs));
+                challenges.add(RowMappers.CHALLENGE.mapRow(rs));
             }
 
             return challenges;
@@ -151,14 +159,14 @@ public class ChallengeDaoImpl implements ChallengeDao {
         List<Challenge> challenges = new ArrayList<>();
 
         try {
-            conn = dbManager.getConnection();
+            conn = dbManager.getReadConnection();
             stmt = conn.prepareStatement(FIND_BY_DURATION_RANGE_SQL);
             stmt.setInt(1, minDuration);
             stmt.setInt(2, maxDuration);
             rs = stmt.executeQuery();
 
             while (rs.next()) {
-                challenges.add(mapResultSetToChallenge(rs));
+                challenges.add(RowMappers.CHALLENGE.mapRow(rs));
             }
 
             return challenges;
@@ -172,203 +180,176 @@ public class ChallengeDaoImpl implements ChallengeDao {
 
     @Override
     public Optional<Challenge> getRandomChallenge() {
-        Connection conn = null;
-        PreparedStatement countStmt = null;
-        PreparedStatement selectStmt = null;
-        ResultSet countRs = null;
-        ResultSet selectRs = null;
-
-        try {
-            conn = dbManager.getConnection();
-
-            // Get the total count of challenges
-            countStmt = conn.prepareStatement(COUNT_ALL_SQL);
-            countRs = countStmt.executeQuery();
-
-            if (countRs.next()) {
-                int totalCount = countRs.getInt(1);
+        return findRandom(null);
+    }
 
-                if (totalCount == 0) {
-                    return Optional.empty();
-                }
+    @Override
+    public Optional<Challenge> getRandomChallengeByCategory(String category) {
+        return findRandom(category);
+    }
 
-                // Generate a random offset
-                int randomOffset = random.nextInt(totalCount);
+    /**
+     * Elige un ID al azar del índice en memoria y lo carga con una única búsqueda por clave primaria.
+     * Si el índice no tiene candidatos o el ID ya no existe (la tabla se modificó sin pasar por este DAO),
+     * se recarga el índice y se reintenta una vez.
+     *
+     * @param category La categoría por la cual filtrar, o null para elegir entre todos los retos
+     * @return Un Optional con el reto elegido, o vacío si no hay ninguno
+     */
+    private Optional<Challenge> findRandom(String category) {
+        boolean reloaded = false;
+        if (!idIndex.isLoaded()) {
+            if (!loadIdIndex()) {
+                return Optional.empty();
+            }
+            reloaded = true;
+        }
 
-                // Get the challenge at the random offset
-                selectStmt = conn.prepareStatement(GET_BY_OFFSET_SQL);
-                selectStmt.setInt(1, randomOffset);
-                selectRs = selectStmt.executeQuery();
+        while (true) {
+            int id = category == null
+                    ? idIndex.randomId(ThreadLocalRandom.current())
+                    : idIndex.randomIdInCategory(category, ThreadLocalRandom.current());
 
-                if (selectRs.next()) {
-                    return Optional.of(mapResultSetToChallenge(selectRs));
+            if (id != ChallengeIdIndex.NO_ID) {
+                Optional<Challenge> challenge = findById(id);
+                if (challenge.isPresent()) {
+                    return challenge;
                 }
             }
 
-            return Optional.empty();
-        } catch (SQLException e) {
-            System.err.println("Error getting random challenge: " + e.getMessage());
-            return Optional.empty();
-        } finally {
-            closeResources(null, countStmt, countRs);
-            closeResources(conn, selectStmt, selectRs);
+            if (reloaded || !loadIdIndex()) {
+                return Optional.empty();
+            }
+            reloaded = true;
         }
     }
 
-    @Override
-    public Optional<Challenge> getRandomChallengeByCategory(String category) {
+    /**
+     * Carga el índice de IDs desde la base de datos. La consulta solo lee el índice por categoría. Si otra
+     * instancia modifica la tabla mientras tanto, el resultado se usa para esta consulta y se vuelve a cargar en
+     * la siguiente, para no perder el cambio.
+     *
+     * @return true si el índice se cargó correctamente, false en caso contrario
+     */
+    private boolean loadIdIndex() {
         Connection conn = null;
-        PreparedStatement countStmt = null;
-        PreparedStatement selectStmt = null;
-        ResultSet countRs = null;
-        ResultSet selectRs = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
 
         try {
-            conn = dbManager.getConnection();
-
-            // Get the count of challenges in the category
-            countStmt = conn.prepareStatement(COUNT_BY_CATEGORY_SQL);
-            countStmt.setString(1, category);
-            countRs = countStmt.executeQuery();
-
-            if (countRs.next()) {
-                int categoryCount = countRs.getInt(1);
-
-                if (categoryCount == 0) {
-                    return Optional.empty();
-                }
-
-                // Generate a random offset
-                int randomOffset = random.nextInt(categoryCount);
-
-                // Get the challenge at the random offset
-                selectStmt = conn.prepareStatement(GET_BY_CATEGORY_OFFSET_SQL);
-                selectStmt.setString(1, category);
-                selectStmt.setInt(2, randomOffset);
-                selectRs = selectStmt.executeQuery();
+            long version = idIndex.version();
+            conn = dbManager.getReadConnection();
+            stmt = conn.prepareStatement(LOAD_ID_INDEX_SQL);
+            rs = stmt.executeQuery();
 
-                if (selectRs.next()) {
-                    return Optional.of(mapResultSetToChallenge(selectRs));
+            int[] ids = new int[256];
+            String[] categories = new String[256];
+            int count = 0;
+            while (rs.next()) {
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
+                    categories = Arrays.copyOf(categories, count * 2);
                 }
+                ids[count] = rs.getInt(1);
+                categories[count] = rs.getString(2);
+                count++;
             }
 
-            return Optional.empty();
+            idIndex.load(ids, categories, count, version);
+            return true;
         } catch (SQLException e) {
-            System.err.println("Error getting random challenge by category: " + e.getMessage());
-            return Optional.empty();
+            System.err.println("Error loading challenge id index: " + e.getMessage());
+            return false;
         } finally {
-            closeResources(null, countStmt, countRs);
-            closeResources(conn, selectStmt, selectRs);
+            closeResources(conn, stmt, rs);
         }
     }
 
     @Override
     public Challenge save(Challenge challenge) {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
-
         try {
-            conn = dbManager.getConnection();
-            stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS);
-
-            stmt.setString(1, challenge.getName());
-            stmt.setString(2, challenge.getDescription());
-            stmt.setString(3, challenge.getCategory());
-            stmt.setInt(4, challenge.getDifficulty());
-            stmt.setInt(5, challenge.getDurationMinutes());
-            stmt.setString(6, challenge.getImagePath());
-
-            int affectedRows = stmt.executeUpdate();
-
-            if (affectedRows == 0) {
-                throw new SQLException("Creating challenge failed, no rows affected.");
-            }
-
-            rs = stmt.getGeneratedKeys();
-            if (rs.next()) {
-                challenge.setId(rs.getInt(1));
-            } else {
-                throw new SQLException("Creating challenge failed, no ID obtained.");
-            }
+            int id = dbManager.write(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                    stmt.setString(1, challenge.getName());
+                    stmt.setString(2, challenge.getDescription());
+                    stmt.setString(3, challenge.getCategory());
+                    stmt.setInt(4, challenge.getDifficulty());
+                    stmt.setInt(5, challenge.getDurationMinutes());
+                    stmt.setString(6, challenge.getImagePath());
+
+                    int affectedRows = stmt.executeUpdate();
+
+                    if (affectedRows == 0) {
+                        throw new SQLException("Creating challenge failed, no rows affected.");
+                    }
+
+                    try (ResultSet rs = stmt.getGeneratedKeys()) {
+                        if (!rs.next()) {
+                            throw new SQLException("Creating challenge failed, no ID obtained.");
+                        }
+                        return rs.getInt(1);
+                    }
+                }
+            });
 
+            // The index only learns about the row once it is committed
+            challenge.setId(id);
+            idIndex.add(id, challenge.getCategory());
             return challenge;
         } catch (SQLException e) {
             System.err.println("Error saving challenge: " + e.getMessage());
             return challenge;
-        } finally {
-            closeResources(conn, stmt, rs);
         }
     }
 
     @Override
     public boolean update(Challenge challenge) {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-
         try {
-            conn = dbManager.getConnection();
-            stmt = conn.prepareStatement(UPDATE_SQL);
-
-            stmt.setString(1, challenge.getName());
-            stmt.setString(2, challenge.getDescription());
-            stmt.setString(3, challenge.getCategory());
-            stmt.setInt(4, challenge.getDifficulty());
-            stmt.setInt(5, challenge.getDurationMinutes());
-            stmt.setString(6, challenge.getImagePath());
-            stmt.setInt(7, challenge.getId());
+            int affectedRows = dbManager.write(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(UPDATE_SQL)) {
+                    stmt.setString(1, challenge.getName());
+                    stmt.setString(2, challenge.getDescription());
+                    stmt.setString(3, challenge.getCategory());
+                    stmt.setInt(4, challenge.getDifficulty());
+                    stmt.setInt(5, challenge.getDurationMinutes());
+                    stmt.setString(6, challenge.getImagePath());
+                    stmt.setInt(7, challenge.getId());
+                    return stmt.executeUpdate();
+                }
+            });
 
-            int affectedRows = stmt.executeUpdate();
+            if (affectedRows > 0) {
+                idIndex.update(challenge.getId(), challenge.getCategory());
+            }
 
             return affectedRows > 0;
         } catch (SQLException e) {
             System.err.println("Error updating challenge: " + e.getMessage());
             return false;
-        } finally {
-            closeResources(conn, stmt, null);
         }
     }
 
     @Override
     public boolean deleteById(int id) {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-
         try {
-            conn = dbManager.getConnection();
-            stmt = conn.prepareStatement(DELETE_SQL);
-            stmt.setInt(1, id);
+            int affectedRows = dbManager.write(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(DELETE_SQL)) {
+                    stmt.setInt(1, id);
+                    return stmt.executeUpdate();
+                }
+            });
 
-            int affectedRows = stmt.executeUpdate();
+            if (affectedRows > 0) {
+                idIndex.remove(id);
+            }
 
             return affectedRows > 0;
         } catch (SQLException e) {
             System.err.println("Error deleting challenge: " + e.getMessage());
             return false;
-        } finally {
-            closeResources(conn, stmt, null);
         }
     }
 
-    /**
-     * Maps a ResultSet row to a Challenge object.
-     *
-     * @param rs The ResultSet containing challenge data
-     * @return A Challenge object
-     * @throws SQLException If an SQL error occurs
-     */
-    private Challenge mapResultSetToChallenge(ResultSet rs) throws SQLException {
-        Challenge challenge = new Challenge();
-        challenge.setId(rs.getInt("id"));
-        challenge.setName(rs.getString("name"));
-        challenge.setDescription(rs.getString("description"));
-        challenge.setCategory(rs.getString("category"));
-        challenge.setDifficulty(rs.getInt("difficulty"));
-        challenge.setDurationMinutes(rs.getInt("duration_minutes"));
-        challenge.setImagePath(rs.getString("image_path"));
-        return challenge;
-    }
-
     /**
      * Closes database resources.
      *
@@ -400,21 +381,21 @@ public class ChallengeDaoImpl implements ChallengeDao {
 
     @Override
     public boolean deleteAll() {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-
         try {
-            conn = dbManager.getConnection();
-            stmt = conn.prepareStatement(DELETE_ALL_SQL);
+            int affectedRows = dbManager.write(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(DELETE_ALL_SQL)) {
+                    return stmt.executeUpdate();
+                }
+            });
 
-            int affectedRows = stmt.executeUpdate();
+            // Tras un borrado total se suelen reinsertar los retos predeterminados directamente,
+            // así que se fuerza una recarga en lugar de dejar el índice vacío
+            idIndex.invalidate();
 
             return affectedRows >= 0; // Consider success even if no rows were deleted
         } catch (SQLException e) {
             System.err.println("Error deleting all challenges: " + e.getMessage());
             return false;
-        } finally {
-            closeResources(conn, stmt, null);
         }
     }
 }
@@ -0,0 +1,198 @@
+package devs.fmm.rfc_01.dao.impl;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Índice en memoria de los IDs de reto, global y por categoría, para elegir un reto aleatorio
+ * uniforme en tiempo constante.
+ * <p>
+ * Cada lista guarda los IDs en un array compacto junto con la posición de cada ID, de modo que
+ * altas, bajas y cambios de categoría son O(1) (la baja intercambia el elemento con el último).
+ * El índice empieza sin cargar y se rellena la primera vez que se necesita. Cada cambio incrementa una versión,
+ * de modo que una carga que coincide con un cambio se detecta y no se da por buena.
+ */
+class ChallengeIdIndex {
+
+    /**
+     * No hay ningún reto que elegir.
+     */
+    static final int NO_ID = -1;
+
+    private final IdList allIds = new IdList();
+    private final Map<String, IdList> idsByCategory = new HashMap<>();
+    private final Map<Integer, String> categoryById = new HashMap<>();
+    private boolean loaded = false;
+    // Cuenta los cambios registrados, también los que llegan sin cargar, para detectar cargas desfasadas
+    private long version = 0;
+
+    /**
+     * Indica si el índice refleja el contenido de la tabla.
+     *
+     * @return true si el índice está cargado
+     */
+    synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Obtiene la versión actual, que debe leerse antes de consultar la tabla para {@link #load}.
+     *
+     * @return El número de cambios registrados hasta ahora
+     */
+    synchronized long version() {
+        return version;
+    }
+
+    /**
+     * Sustituye el contenido del índice. Si se registró algún cambio después de leer la versión, la consulta puede
+     * no incluirlo: el contenido se usa igualmente, pero el índice queda sin cargar para que se vuelva a leer.
+     *
+     * @param ids Los IDs de todos los retos
+     * @param categories La categoría de cada reto, en el mismo orden que los IDs
+     * @param count El número de retos
+     * @param expectedVersion La versión leída antes de la consulta
+     * @return true si el índice queda cargado, false si la carga coincidió con un cambio
+     */
+    synchronized boolean load(int[] ids, String[] categories, int count, long expectedVersion) {
+        clear();
+        for (int i = 0; i < count; i++) {
+            addInternal(ids[i], categories[i]);
+        }
+        loaded = version == expectedVersion;
+        return loaded;
+    }
+
+    /**
+     * Registra un reto nuevo. Se ignora si el índice todavía no está cargado.
+     */
+    synchronized void add(int id, String category) {
+        version++;
+        if (loaded && !categoryById.containsKey(id)) {
+            addInternal(id, category);
+        }
+    }
+
+    /**
+     * Actualiza la categoría de un reto existente.
+     */
+    synchronized void update(int id, String category) {
+        version++;
+        if (!loaded) {
+            return;
+        }
+        String previousCategory = categoryById.get(id);
+        if (previousCategory == null) {
+            addInternal(id, category);
+        } else if (!previousCategory.equals(category)) {
+            removeInternal(id);
+            addInternal(id, category);
+        }
+    }
+
+    /**
+     * Elimina un reto del índice.
+     */
+    synchronized void remove(int id) {
+        version++;
+        if (loaded) {
+            removeInternal(id);
+        }
+    }
+
+    /**
+     * Descarta el contenido; la próxima consulta volverá a cargarlo desde la base de datos.
+     */
+    synchronized void invalidate() {
+        version++;
+        clear();
+        loaded = false;
+    }
+
+    /**
+     * Elige un ID de reto uniformemente entre todos.
+     *
+     * @param random La fuente de aleatoriedad
+     * @return Un ID, o {@link #NO_ID} si no hay retos
+     */
+    synchronized int randomId(Random random) {
+        return allIds.random(random);
+    }
+
+    /**
+     * Elige un ID de reto uniformemente dentro de una categoría.
+     *
+     * @param category La categoría
+     * @param random La fuente de aleatoriedad
+     * @return Un ID, o {@link #NO_ID} si la categoría no tiene retos
+     */
+    synchronized int randomIdInCategory(String category, Random random) {
+        IdList ids = idsByCategory.get(category);
+        return ids == null ? NO_ID : ids.random(random);
+    }
+
+    private void addInternal(int id, String category) {
+        allIds.add(id);
+        idsByCategory.computeIfAbsent(category, key -> new IdList()).add(id);
+        categoryById.put(id, category);
+    }
+
+    private void removeInternal(int id) {
+        String category = categoryById.remove(id);
+        if (category == null) {
+            return;
+        }
+        allIds.remove(id);
+        IdList ids = idsByCategory.get(category);
+        ids.remove(id);
+        if (ids.size == 0) {
+            idsByCategory.remove(category);
+        }
+    }
+
+    private void clear() {
+        allIds.clear();
+        idsByCategory.clear();
+        categoryById.clear();
+    }
+
+    /**
+     * Lista de IDs con borrado O(1) por intercambio con el último elemento.
+     */
+    private static final class IdList {
+        private int[] ids = new int[16];
+        private int size = 0;
+        private final Map<Integer, Integer> positions = new HashMap<>();
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            positions.put(id, size);
+            ids[size++] = id;
+        }
+
+        void remove(int id) {
+            Integer position = positions.remove(id);
+            if (position == null) {
+                return;
+            }
+            int last = ids[--size];
+            if (position != size) {
+                ids[position] = last;
+                positions.put(last, position);
+            }
+        }
+
+        int random(Random random) {
+            return size == 0 ? NO_ID : ids[random.nextInt(size)];
+        }
+
+        void clear() {
+            size = 0;
+            positions.clear();
+        }
+    }
+}
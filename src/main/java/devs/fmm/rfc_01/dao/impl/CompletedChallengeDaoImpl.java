@@ -2,8 +2,9 @@ package devs.fmm.rfc_01.dao.impl;
 
 import devs.fmm.rfc_01.dao.CompletedChallengeDao;
 import devs.fmm.rfc_01.db.DatabaseManager;
-import devs.fmm.rfc_01.model.Challenge;
 import devs.fmm.rfc_01.model.CompletedChallenge;
+import devs.fmm.rfc_01.model.CompletionKey;
+import devs.fmm.rfc_01.model.UserProfile;
 
 import java.sql.*;
 import java.time.LocalDate;
@@ -19,41 +20,98 @@ import java.util.Optional;
 public class CompletedChallengeDaoImpl implements CompletedChallengeDao {
 
     private final DatabaseManager dbManager;
+    private final int userId;
 
     // SQL queries
-    private static final String FIND_BY_ID_SQL = "SELECT completed_challenges.id, completed_challenges.challenge_id, completed_challenges.completion_date, " +
-            "challenges.id, challenges.name, challenges.description, challenges.category, challenges.difficulty, challenges.duration_minutes, challenges.image_path " +
-            "FROM completed_challenges JOIN challenges ON completed_challenges.challenge_id = challenges.id WHERE completed_challenges.id = ?";
-    private static final String FIND_ALL_SQL = "SELECT completed_challenges.id, completed_challenges.challenge_id, completed_challenges.completion_date, " +
-            "challenges.id, challenges.name, challenges.description, challenges.category, challenges.difficulty, challenges.duration_minutes, challenges.image_path " +
-            "FROM completed_challenges JOIN challenges ON completed_challenges.challenge_id = challenges.id ORDER BY completed_challenges.completion_date DESC";
-    private static final String FIND_BY_DATE_RANGE_SQL = "SELECT completed_challenges.id, completed_challenges.challenge_id, completed_challenges.completion_date, " +
-            "challenges.id, challenges.name, challenges.description, challenges.category, challenges.difficulty, challenges.duration_minutes, challenges.image_path " +
+    // Las fechas se guardan como texto ISO (yyyy-MM-ddTHH:mm:ss), así que los filtros por día se expresan como
+    // rangos semiabiertos [día, día siguiente) sobre la columna sin envolver, lo que permite usar su índice.
+    private static final String SELECT_WITH_CHALLENGE = "SELECT " + RowMappers.COMPLETED_CHALLENGE_COLUMNS + " " +
             "FROM completed_challenges JOIN challenges ON completed_challenges.challenge_id = challenges.id " +
-            "WHERE date(completed_challenges.completion_date) BETWEEN ? AND ? ORDER BY completed_challenges.completion_date DESC";
-    private static final String FIND_BY_DATE_SQL = "SELECT completed_challenges.id, completed_challenges.challenge_id, completed_challenges.completion_date, " +
-            "challenges.id, challenges.name, challenges.description, challenges.category, challenges.difficulty, challenges.duration_minutes, challenges.image_path " +
-            "FROM completed_challenges JOIN challenges ON completed_challenges.challenge_id = challenges.id " +
-            "WHERE date(completed_challenges.completion_date) = ? ORDER BY completed_challenges.completion_date DESC";
-    private static final String FIND_BY_CHALLENGE_ID_SQL = "SELECT completed_challenges.id, completed_challenges.challenge_id, completed_challenges.completion_date, " +
-            "challenges.id, challenges.name, challenges.description, challenges.category, challenges.difficulty, challenges.duration_minutes, challenges.image_path " +
-            "FROM completed_challenges JOIN challenges ON completed_challenges.challenge_id = challenges.id " +
-            "WHERE completed_challenges.challenge_id = ? ORDER BY completed_challenges.completion_date DESC";
-    private static final String INSERT_SQL = "INSERT INTO completed_challenges (challenge_id, completion_date) VALUES (?, ?)";
-    private static final String DELETE_SQL = "DELETE FROM completed_challenges WHERE id = ?";
-    private static final String COUNT_BY_CATEGORY_SQL = "SELECT challenges.category, COUNT(*) as count FROM completed_challenges " +
-            "JOIN challenges ON completed_challenges.challenge_id = challenges.id " +
-            "GROUP BY challenges.category ORDER BY count DESC";
-    private static final String COUNT_BY_DATE_SQL = "SELECT date(completed_challenges.completion_date) as date, COUNT(*) as count FROM completed_challenges " +
-            "WHERE date(completed_challenges.completion_date) BETWEEN ? AND ? " +
-            "GROUP BY date(completed_challenges.completion_date) ORDER BY date";
-    private static final String DELETE_ALL_SQL = "DELETE FROM completed_challenges";
+            "WHERE completed_challenges.user_id = ?";
+    private static final String FIND_BY_ID_SQL = SELECT_WITH_CHALLENGE + " AND completed_challenges.id = ?";
+    private static final String FIND_ALL_SQL = SELECT_WITH_CHALLENGE + " ORDER BY completed_challenges.completion_date DESC";
+    private static final String FIND_BY_DATE_RANGE_SQL = SELECT_WITH_CHALLENGE + " " +
+            "AND completed_challenges.completion_date >= ? AND completed_challenges.completion_date < ? ORDER BY completed_challenges.completion_date DESC";
+    private static final String FIND_BY_DATE_SQL = SELECT_WITH_CHALLENGE + " " +
+            "AND completed_challenges.completion_date >= ? AND completed_challenges.completion_date < ? ORDER BY completed_challenges.completion_date DESC";
+    private static final String FIND_BY_CHALLENGE_ID_SQL = SELECT_WITH_CHALLENGE + " " +
+            "AND completed_challenges.challenge_id = ? ORDER BY completed_challenges.completion_date DESC";
+    // Paginación por clave (completion_date, id): el índice (user_id, completion_date) incluye implícitamente el
+    // rowid, así que cada página es una búsqueda en el índice sin importar lo lejos que esté
+    private static final String PAGE_ORDER = " ORDER BY completed_challenges.completion_date DESC, completed_challenges.id DESC LIMIT ?";
+    private static final String SELECT_WITH_OPTIONAL_CHALLENGE = "SELECT " + RowMappers.COMPLETED_CHALLENGE_COLUMNS + " " +
+            "FROM completed_challenges LEFT JOIN challenges ON completed_challenges.challenge_id = challenges.id " +
+            "WHERE completed_challenges.user_id = ?";
+    private static final String FIND_FIRST_PAGE_SQL = SELECT_WITH_OPTIONAL_CHALLENGE + PAGE_ORDER;
+    private static final String FIND_PAGE_AFTER_SQL = SELECT_WITH_OPTIONAL_CHALLENGE +
+            " AND (completed_challenges.completion_date, completed_challenges.id) < (?, ?)" + PAGE_ORDER;
+    private static final String FIND_KEY_AT_SQL = "SELECT completion_date, id FROM completed_challenges " +
+            "WHERE user_id = ? ORDER BY completion_date DESC, id DESC LIMIT 1 OFFSET ?";
+    private static final String INSERT_SQL = "INSERT INTO completed_challenges (user_id, challenge_id, completion_date) VALUES (?, ?, ?)";
+    // Solo inserta si el reto existe, así no hace falta leerlo antes
+    private static final String INSERT_IF_CHALLENGE_EXISTS_SQL = "INSERT INTO completed_challenges (user_id, challenge_id, completion_date) " +
+            "SELECT ?, id, ? FROM challenges WHERE id = ? RETURNING id";
+    private static final String DELETE_SQL = "DELETE FROM completed_challenges WHERE user_id = ? AND id = ?";
+    // Los conteos y minutos se leen del resumen diario (ver DailyActivityRollup), cuyo tamaño depende
+    // del número de días con actividad y no del número de retos completados
+    private static final String COUNT_BY_CATEGORY_SQL = "SELECT category, SUM(challenge_count) as count FROM daily_category_activity " +
+            "WHERE user_id = ? GROUP BY category ORDER BY count DESC";
+    private static final String COUNT_BY_DATE_SQL = "SELECT date, challenge_count FROM daily_activity " +
+            "WHERE user_id = ? AND date >= ? AND date < ? ORDER BY date";
+    private static final String DAILY_ACTIVITY_SQL = "SELECT date, challenge_count, minutes FROM daily_activity " +
+            "WHERE user_id = ? AND date >= ? AND date < ? ORDER BY date";
+    private static final String ACTIVE_DATES_SQL = "SELECT date FROM daily_activity WHERE user_id = ? ORDER BY date";
+    private static final String COMPLETIONS_AFTER_SQL = "SELECT completed_challenges.id, " +
+            "substr(completed_challenges.completion_date, 1, 10), COALESCE(challenges.duration_minutes, 0) " +
+            "FROM completed_challenges LEFT JOIN challenges ON completed_challenges.challenge_id = challenges.id " +
+            "WHERE completed_challenges.user_id = ? AND completed_challenges.id > ? ORDER BY completed_challenges.id";
+    // MIN, MAX y COUNT sobre completion_date se resuelven solo con el índice (user_id, completion_date)
+    private static final String EARLIEST_COMPLETION_SQL = "SELECT MIN(completion_date) FROM completed_challenges WHERE user_id = ?";
+    private static final String LATEST_COMPLETION_SQL = "SELECT MAX(completion_date) FROM completed_challenges WHERE user_id = ?";
+    private static final String COUNT_ALL_SQL = "SELECT COUNT(*) FROM completed_challenges WHERE user_id = ?";
+    private static final String COUNT_BY_DATE_RANGE_SQL = "SELECT COUNT(*) FROM completed_challenges " +
+            "WHERE user_id = ? AND completion_date >= ? AND completion_date < ?";
+    private static final String DELETE_ALL_SQL = "DELETE FROM completed_challenges WHERE user_id = ?";
 
     /**
-     * Constructor.
+     * Constructor. Opera sobre el historial del perfil predeterminado.
      */
     public CompletedChallengeDaoImpl() {
-        this.dbManager = DatabaseManager.getInstance();
+        this(UserProfile.DEFAULT_ID);
+    }
+
+    /**
+     * Constructor para el historial de un perfil.
+     *
+     * @param userId El ID del perfil
+     */
+    public CompletedChallengeDaoImpl(int userId) {
+        this(DatabaseManager.getInstance(), userId);
+    }
+
+    /**
+     * Constructor con la base de datos a usar. Opera sobre el historial del perfil predeterminado.
+     *
+     * @param dbManager El gestor de la base de datos
+     */
+    public CompletedChallengeDaoImpl(DatabaseManager dbManager) {
+        this(dbManager, UserProfile.DEFAULT_ID);
+    }
+
+    /**
+     * Constructor con la base de datos a usar y el perfil.
+     *
+     * @param dbManager El gestor de la base de datos
+     * @param userId El ID del perfil
+     */
+    public CompletedChallengeDaoImpl(DatabaseManager dbManager, int userId) {
+        this.dbManager = dbManager;
+        this.userId = userId;
+    }
+
+    @Override
+    public CompletedChallengeDao forUser(int userId) {
+        return userId == this.userId ? this : new CompletedChallengeDaoImpl(dbManager, userId);
     }
 
     @Override
@@ -63,13 +121,14 @@ public class CompletedChallengeDaoImpl implements CompletedChallengeDao {
         ResultSet rs = null;
 
         try {
-            conn = dbManager.getConnection();
+            conn = dbManager.getReadConnection();
             stmt = conn.prepareStatement(FIND_BY_ID_SQL);
-            stmt.setInt(1, id);
+            stmt.setInt(1, userId);
+            stmt.setInt(2, id);
             rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return Optional.of(mapResultSetToCompletedChallenge(rs));
+                return Optional.of(RowMappers.COMPLETED_CHALLENGE.mapRow(rs));
             }
 
             return Optional.empty();
@@ -89,12 +148,13 @@ public class CompletedChallengeDaoImpl implements CompletedChallengeDao {
         List<CompletedChallenge> completedChallenges = new ArrayList<>();
 
         try {
-            conn = dbManager.getConnection();
+            conn = dbManager.getReadConnection();
             stmt = conn.prepareStatement(FIND_ALL_SQL);
+            stmt.setInt(1, userId);
             rs = stmt.executeQuery();
 
             while (rs.next()) {
-                completedChallenges.add(mapResultSetToCompletedChallenge(rs));
+                completedChallenges.add(RowMappers.COMPLETED_CHALLENGE.mapRow(rs));
             }
 
             return completedChallenges;
@@ -114,14 +174,14 @@ public class CompletedChallengeDaoImpl implements CompletedChallengeDao {
         List<CompletedChallenge> completedChallenges = new ArrayList<>();
 
         try {
-            conn = dbManager.getConnection();
+            conn = dbManager.getReadConnection();
             stmt = conn.prepareStatement(FIND_BY_DATE_RANGE_SQL);
-            stmt.setString(1, startDate.toString());
-            stmt.setString(2, endDate.toString());
+            stmt.setInt(1, userId);
+            bindDayRange(stmt, 2, startDate, endDate);
             rs = stmt.executeQuery();
 
             while (rs.next()) {
-                completedChallenges.add(mapResultSetToCompletedChallenge(rs));
+                completedChallenges.add(RowMappers.COMPLETED_CHALLENGE.mapRow(rs));
             }
 
             return completedChallenges;
@@ -141,13 +201,14 @@ public class CompletedChallengeDaoImpl implements CompletedChallengeDao {
         List<CompletedChallenge> completedChallenges = new ArrayList<>();
 
         try {
-            conn = dbManager.getConnection();
+            conn = dbManager.getReadConnection();
             stmt = conn.prepareStatement(FIND_BY_DATE_SQL);
-            stmt.setString(1, date.toString());
+            stmt.setInt(1, userId);
+            bindDayRange(stmt, 2, date, date);
             rs = stmt.executeQuery();
 
             while (rs.next()) {
-                completedChallenges.add(mapResultSetToCompletedChallenge(rs));
+                completedChallenges.add(RowMappers.COMPLETED_CHALLENGE.mapRow(rs));
             }
 
             return completedChallenges;
@@ -167,13 +228,14 @@ public class CompletedChallengeDaoImpl implements CompletedChallengeDao {
         List<CompletedChallenge> completedChallenges = new ArrayList<>();
 
         try {
-            conn = dbManager.getConnection();
+            conn = dbManager.getReadConnection();
             stmt = conn.prepareStatement(FIND_BY_CHALLENGE_ID_SQL);
-            stmt.setInt(1, challengeId);
+            stmt.setInt(1, userId);
+            stmt.setInt(2, challengeId);
             rs = stmt.executeQuery();
 
             while (rs.next()) {
-                completedChallenges.add(mapResultSetToCompletedChallenge(rs));
+                completedChallenges.add(RowMappers.COMPLETED_CHALLENGE.mapRow(rs));
             }
 
             return completedChallenges;
@@ -187,57 +249,88 @@ public class CompletedChallengeDaoImpl implements CompletedChallengeDao {
 
     @Override
     public CompletedChallenge save(CompletedChallenge completedChallenge) {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
-
         try {
-            conn = dbManager.getConnection();
-            stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS);
-
-            stmt.setInt(1, completedChallenge.getChallengeId());
-            stmt.setString(2, completedChallenge.getCompletionDate().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
-
-            int affectedRows = stmt.executeUpdate();
+            // La fila y el resumen diario se escriben en el mismo comando, así que se confirman juntos
+            int id = dbManager.write(conn -> {
+                int generatedId;
+                try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                    stmt.setInt(1, userId);
+                    stmt.setInt(2, completedChallenge.getChallengeId());
+                    stmt.setString(3, completedChallenge.getCompletionDate().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+
+                    int affectedRows = stmt.executeUpdate();
+
+                    if (affectedRows == 0) {
+                        throw new SQLException("Creating completed challenge failed, no rows affected.");
+                    }
+
+                    try (ResultSet rs = stmt.getGeneratedKeys()) {
+                        if (!rs.next()) {
+                            throw new SQLException("Creating completed challenge failed, no ID obtained.");
+                        }
+                        generatedId = rs.getInt(1);
+                    }
+                }
 
-            if (affectedRows == 0) {
-                throw new SQLException("Creating completed challenge failed, no rows affected.");
-            }
-
-            rs = stmt.getGeneratedKeys();
-            if (rs.next()) {
-                completedChallenge.setId(rs.getInt(1));
-            } else {
-                throw new SQLException("Creating completed challenge failed, no ID obtained.");
-            }
+                DailyActivityRollup.add(conn, userId, completedChallenge.getCompletionDate().toLocalDate().toString(),
+                        completedChallenge.getChallengeId());
+                return generatedId;
+            });
 
+            completedChallenge.setId(id);
             return completedChallenge;
         } catch (SQLException e) {
             System.err.println("Error saving completed challenge: " + e.getMessage());
             return completedChallenge;
-        } finally {
-            closeResources(conn, stmt, rs);
         }
     }
 
     @Override
-    public boolean deleteById(int id) {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-
+    public Optional<CompletedChallenge> recordCompletion(int challengeId, LocalDateTime completionDate) {
         try {
-            conn = dbManager.getConnection();
-            stmt = conn.prepareStatement(DELETE_SQL);
-            stmt.setInt(1, id);
+            // Inserción y resumen diario en un solo comando: se confirman juntos, sin un commit propio
+            Integer id = dbManager.write(conn -> {
+                int insertedId;
+                try (PreparedStatement stmt = conn.prepareStatement(INSERT_IF_CHALLENGE_EXISTS_SQL)) {
+                    stmt.setInt(1, userId);
+                    stmt.setString(2, completionDate.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+                    stmt.setInt(3, challengeId);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        if (!rs.next()) {
+                            // El reto no existe: no se ha insertado nada
+                            return null;
+                        }
+                        insertedId = rs.getInt(1);
+                    }
+                }
 
-            int affectedRows = stmt.executeUpdate();
+                DailyActivityRollup.add(conn, userId, completionDate.toLocalDate().toString(), challengeId);
+                return insertedId;
+            });
 
-            return affectedRows > 0;
+            return id == null ? Optional.empty() : Optional.of(new CompletedChallenge(id, challengeId, completionDate));
+        } catch (SQLException e) {
+            System.err.println("Error recording completed challenge: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public boolean deleteById(int id) {
+        try {
+            return dbManager.write(conn -> {
+                // Restar del resumen antes de borrar, mientras la fila todavía existe
+                DailyActivityRollup.remove(conn, userId, id);
+
+                try (PreparedStatement stmt = conn.prepareStatement(DELETE_SQL)) {
+                    stmt.setInt(1, userId);
+                    stmt.setInt(2, id);
+                    return stmt.executeUpdate() > 0;
+                }
+            });
         } catch (SQLException e) {
             System.err.println("Error deleting completed challenge: " + e.getMessage());
             return false;
-        } finally {
-            closeResources(conn, stmt, null);
         }
     }
 
@@ -249,13 +342,14 @@ public class CompletedChallengeDaoImpl implements CompletedChallengeDao {
         List<Object[]> categoryCounts = new ArrayList<>();
 
         try {
-            conn = dbManager.getConnection();
+            conn = dbManager.getReadConnection();
             stmt = conn.prepareStatement(COUNT_BY_CATEGORY_SQL);
+            stmt.setInt(1, userId);
             rs = stmt.executeQuery();
 
             while (rs.next()) {
-                String category = rs.getString("category");
-                int count = rs.getInt("count");
+                String category = rs.getString(1);
+                int count = rs.getInt(2);
                 categoryCounts.add(new Object[]{category, count});
             }
 
@@ -276,15 +370,15 @@ public class CompletedChallengeDaoImpl implements CompletedChallengeDao {
         List<Object[]> dateCounts = new ArrayList<>();
 
         try {
-            conn = dbManager.getConnection();
+            conn = dbManager.getReadConnection();
             stmt = conn.prepareStatement(COUNT_BY_DATE_SQL);
-            stmt.setString(1, startDate.toString());
-            stmt.setString(2, endDate.toString());
+            stmt.setInt(1, userId);
+            bindDayRange(stmt, 2, startDate, endDate);
             rs = stmt.executeQuery();
 
             while (rs.next()) {
-                LocalDate date = LocalDate.parse(rs.getString("date"));
-                int count = rs.getInt("count");
+                LocalDate date = LocalDate.parse(rs.getString(1));
+                int count = rs.getInt(2);
                 dateCounts.add(new Object[]{date, count});
             }
 
@@ -297,110 +391,259 @@ public class CompletedChallengeDaoImpl implements CompletedChallengeDao {
         }
     }
 
-    /**
-     * Maps a ResultSet row to a CompletedChallenge object.
-     *
-     * @param rs The ResultSet containing completed challenge data
-     * @return A CompletedChallenge object
-     * @throws SQLException If an SQL error occurs
-     */
-    private CompletedChallenge mapResultSetToCompletedChallenge(ResultSet rs) throws SQLException {
-        CompletedChallenge completedChallenge = new CompletedChallenge();
+    @Override
+    public List<Object[]> getDailyActivity(LocalDate startDate, LocalDate endDate) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<Object[]> dailyActivity = new ArrayList<>();
 
         try {
-            // Intentar obtener las columnas sin alias primero
-            completedChallenge.setId(rs.getInt("id"));
-            completedChallenge.setChallengeId(rs.getInt("challenge_id"));
+            conn = dbManager.getReadConnection();
+            stmt = conn.prepareStatement(DAILY_ACTIVITY_SQL);
+            stmt.setInt(1, userId);
+            bindDayRange(stmt, 2, startDate, endDate);
+            rs = stmt.executeQuery();
 
-            String completionDateStr = rs.getString("completion_date");
-            if (completionDateStr != null) {
-                completedChallenge.setCompletionDate(LocalDateTime.parse(completionDateStr, DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            while (rs.next()) {
+                LocalDate date = LocalDate.parse(rs.getString(1));
+                dailyActivity.add(new Object[]{date, rs.getInt(2), rs.getInt(3)});
             }
 
-            // Obtener los metadatos para ver las columnas disponibles
-            ResultSetMetaData metaData = rs.getMetaData();
-            int columnCount = metaData.getColumnCount();
+            return dailyActivity;
+        } catch (SQLException e) {
+            System.err.println("Error getting daily activity: " + e.getMessage());
+            return dailyActivity;
+        } finally {
+            closeResources(conn, stmt, rs);
+        }
+    }
 
-            // Imprimir nombres de columnas para depuración
-            System.out.println("Columnas disponibles en el ResultSet:");
-            for (int i = 1; i <= columnCount; i++) {
-                System.out.println(i + ": " + metaData.getColumnName(i));
+    @Override
+    public List<Object[]> getCompletionsAfter(int completedChallengeId) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<Object[]> completions = new ArrayList<>();
+
+        try {
+            conn = dbManager.getReadConnection();
+            stmt = conn.prepareStatement(COMPLETIONS_AFTER_SQL);
+            stmt.setInt(1, userId);
+            stmt.setInt(2, completedChallengeId);
+            rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                LocalDate date = LocalDate.parse(rs.getString(2));
+                completions.add(new Object[]{rs.getInt(1), date, rs.getInt(3)});
             }
 
-            // Map the associated Challenge
-            // Asumimos que hay dos conjuntos de columnas con nombres similares debido al JOIN
-            // Intentamos usar el segundo conjunto para el Challenge
-            Challenge challenge = new Challenge();
-
-            // Buscar el segundo 'id' en el ResultSet (debería ser el id del Challenge)
-            int challengeIdColumn = -1;
-            for (int i = 1; i <= columnCount; i++) {
-                if (metaData.getColumnName(i).equals("id") && i > 1) {
-                    challengeIdColumn = i;
-                    break;
-                }
+            return completions;
+        } catch (SQLException e) {
+            System.err.println("Error getting completions after " + completedChallengeId + ": " + e.getMessage());
+            return completions;
+        } finally {
+            closeResources(conn, stmt, rs);
+        }
+    }
+
+    @Override
+    public List<LocalDate> getActiveDates() {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<LocalDate> activeDates = new ArrayList<>();
+
+        try {
+            conn = dbManager.getReadConnection();
+            stmt = conn.prepareStatement(ACTIVE_DATES_SQL);
+            stmt.setInt(1, userId);
+            rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                activeDates.add(LocalDate.parse(rs.getString(1)));
             }
 
-            if (challengeIdColumn > 0) {
-                challenge.setId(rs.getInt(challengeIdColumn));
-                // Asumimos que las columnas del Challenge están en orden después del id
-                challenge.setName(rs.getString(challengeIdColumn + 1)); // name
-                challenge.setDescription(rs.getString(challengeIdColumn + 2)); // description
-                challenge.setCategory(rs.getString(challengeIdColumn + 3)); // category
-                challenge.setDifficulty(rs.getInt(challengeIdColumn + 4)); // difficulty
-                challenge.setDurationMinutes(rs.getInt(challengeIdColumn + 5)); // duration_minutes
-                if (challengeIdColumn + 6 <= columnCount) {
-                    challenge.setImagePath(rs.getString(challengeIdColumn + 6)); // image_path
-                }
+            return activeDates;
+        } catch (SQLException e) {
+            System.err.println("Error getting active dates: " + e.getMessage());
+            return activeDates;
+        } finally {
+            closeResources(conn, stmt, rs);
+        }
+    }
+
+    @Override
+    public List<CompletedChallenge> findPage(CompletionKey after, int limit) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<CompletedChallenge> completedChallenges = new ArrayList<>(limit);
+
+        try {
+            conn = dbManager.getReadConnection();
+            if (after == null) {
+                stmt = conn.prepareStatement(FIND_FIRST_PAGE_SQL);
+                stmt.setInt(1, userId);
+                stmt.setInt(2, limit);
             } else {
-                // Si no podemos encontrar el segundo id, intentamos con nombres específicos
-                // Esto puede fallar si los nombres de columna no son exactamente como esperamos
-                try {
-                    challenge.setId(rs.getInt("id"));
-                    challenge.setName(rs.getString("name"));
-                    challenge.setDescription(rs.getString("description"));
-                    challenge.setCategory(rs.getString("category"));
-                    challenge.setDifficulty(rs.getInt("difficulty"));
-                    challenge.setDurationMinutes(rs.getInt("duration_minutes"));
-                    challenge.setImagePath(rs.getString("image_path"));
-                } catch (SQLException ex) {
-                    System.err.println("Error mapping challenge data: " + ex.getMessage());
-                }
+                stmt = conn.prepareStatement(FIND_PAGE_AFTER_SQL);
+                stmt.setInt(1, userId);
+                stmt.setString(2, after.getCompletionDate().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+                stmt.setInt(3, after.getId());
+                stmt.setInt(4, limit);
             }
+            rs = stmt.executeQuery();
 
-            completedChallenge.setChallenge(challenge);
+            while (rs.next()) {
+                completedChallenges.add(RowMappers.COMPLETED_CHALLENGE.mapRow(rs));
+            }
+
+            return completedChallenges;
         } catch (SQLException e) {
-            // Si falla el enfoque anterior, intentamos con los alias explícitos
-            try {
-                completedChallenge.setId(rs.getInt(1)); // Primera columna debería ser id
-                completedChallenge.setChallengeId(rs.getInt(2)); // Segunda columna debería ser challenge_id
+            System.err.println("Error finding completed challenge page: " + e.getMessage());
+            return completedChallenges;
+        } finally {
+            closeResources(conn, stmt, rs);
+        }
+    }
 
-                String completionDateStr = rs.getString(3); // Tercera columna debería ser completion_date
-                if (completionDateStr != null) {
-                    completedChallenge.setCompletionDate(LocalDateTime.parse(completionDateStr, DateTimeFormatter.ISO_LOCAL_DATE_TIME));
-                }
+    @Override
+    public Optional<CompletionKey> findKeyAt(int offset) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
 
-                // Para el Challenge, usamos índices de columna en lugar de nombres
-                Challenge challenge = new Challenge();
-                challenge.setId(rs.getInt(4)); // Cuarta columna debería ser el id del Challenge
-                challenge.setName(rs.getString(5));
-                challenge.setDescription(rs.getString(6));
-                challenge.setCategory(rs.getString(7));
-                challenge.setDifficulty(rs.getInt(8));
-                challenge.setDurationMinutes(rs.getInt(9));
-                if (rs.getMetaData().getColumnCount() > 9) {
-                    challenge.setImagePath(rs.getString(10));
-                }
+        try {
+            conn = dbManager.getReadConnection();
+            stmt = conn.prepareStatement(FIND_KEY_AT_SQL);
+            stmt.setInt(1, userId);
+            stmt.setInt(2, offset);
+            rs = stmt.executeQuery();
 
-                completedChallenge.setChallenge(challenge);
-            } catch (SQLException ex) {
-                System.err.println("Error en el mapeo alternativo: " + ex.getMessage());
-                // Si todo falla, lanzamos la excepción original
-                throw e;
+            if (rs.next()) {
+                LocalDateTime completionDate = LocalDateTime.parse(rs.getString(1), DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+                return Optional.of(new CompletionKey(completionDate, rs.getInt(2)));
             }
+
+            return Optional.empty();
+        } catch (SQLException e) {
+            System.err.println("Error finding history key: " + e.getMessage());
+            return Optional.empty();
+        } finally {
+            closeResources(conn, stmt, rs);
         }
+    }
 
-        return completedChallenge;
+    @Override
+    public Optional<LocalDateTime> findEarliestCompletionDate() {
+        return findCompletionDate(EARLIEST_COMPLETION_SQL);
+    }
+
+    @Override
+    public Optional<LocalDateTime> findLatestCompletionDate() {
+        return findCompletionDate(LATEST_COMPLETION_SQL);
+    }
+
+    @Override
+    public int countAll() {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbManager.getReadConnection();
+            stmt = conn.prepareStatement(COUNT_ALL_SQL);
+            stmt.setInt(1, userId);
+            rs = stmt.executeQuery();
+
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            System.err.println("Error counting completed challenges: " + e.getMessage());
+            return 0;
+        } finally {
+            closeResources(conn, stmt, rs);
+        }
+    }
+
+    @Override
+    public int countByDateRange(LocalDate startDate, LocalDate endDate) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbManager.getReadConnection();
+            stmt = conn.prepareStatement(COUNT_BY_DATE_RANGE_SQL);
+            stmt.setInt(1, userId);
+            bindDayRange(stmt, 2, startDate, endDate);
+            rs = stmt.executeQuery();
+
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            System.err.println("Error counting completed challenges by date range: " + e.getMessage());
+            return 0;
+        } finally {
+            closeResources(conn, stmt, rs);
+        }
+    }
+
+    @Override
+    public boolean rebuildDailyActivity() {
+        try {
+            return dbManager.write(conn -> {
+                DailyActivityRollup.rebuild(conn);
+                return true;
+            });
+        } catch (SQLException e) {
+            System.err.println("Error rebuilding daily activity: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Runs a single-value query that returns a completion date, such as MIN or MAX.
+     *
+     * @param sql The query to run
+     * @return The date, or empty if there are no completed challenges
+     */
+    private Optional<LocalDateTime> findCompletionDate(String sql) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbManager.getReadConnection();
+            stmt = conn.prepareStatement(sql);
+            stmt.setInt(1, userId);
+            rs = stmt.executeQuery();
+
+            // MIN y MAX devuelven una fila con NULL si la tabla está vacía
+            if (rs.next() && rs.getString(1) != null) {
+                return Optional.of(LocalDateTime.parse(rs.getString(1), DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            }
+
+            return Optional.empty();
+        } catch (SQLException e) {
+            System.err.println("Error finding completion date bound: " + e.getMessage());
+            return Optional.empty();
+        } finally {
+            closeResources(conn, stmt, rs);
+        }
+    }
+
+    /**
+     * Binds an inclusive range of days as the half-open range [startDate, endDate + 1 day).
+     *
+     * @param stmt The statement to bind
+     * @param firstIndex The index of the lower bound parameter; the upper bound goes right after it
+     * @param startDate The first day (inclusive)
+     * @param endDate The last day (inclusive)
+     * @throws SQLException If an SQL error occurs
+     */
+    private void bindDayRange(PreparedStatement stmt, int firstIndex, LocalDate startDate, LocalDate endDate) throws SQLException {
+        stmt.setString(firstIndex, startDate.toString());
+        stmt.setString(firstIndex + 1, endDate.plusDays(1).toString());
     }
 
     /**
@@ -438,21 +681,19 @@ public class CompletedChallengeDaoImpl implements CompletedChallengeDao {
      * @return true if the deletion was successful, false otherwise
      */
     public boolean deleteAll() {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-
         try {
-            conn = dbManager.getConnection();
-            stmt = conn.prepareStatement(DELETE_ALL_SQL);
-
-            int affectedRows = stmt.executeUpdate();
-
-            return affectedRows >= 0; // Consider success even if no rows were deleted
+            return dbManager.write(conn -> {
+                int affectedRows;
+                try (PreparedStatement stmt = conn.prepareStatement(DELETE_ALL_SQL)) {
+                    stmt.setInt(1, userId);
+                    affectedRows = stmt.executeUpdate();
+                }
+                DailyActivityRollup.clear(conn, userId);
+                return affectedRows >= 0; // Consider success even if no rows were deleted
+            });
         } catch (SQLException e) {
             System.err.println("Error deleting all completed challenges: " + e.getMessage());
             return false;
-        } finally {
-            closeResources(conn, stmt, null);
         }
     }
 }
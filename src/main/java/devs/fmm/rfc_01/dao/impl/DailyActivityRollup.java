@@ -0,0 +1,163 @@
+package devs.fmm.rfc_01.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Mantiene las tablas de resumen diario {@code daily_activity} (retos y minutos por perfil y día) y
+ * {@code daily_category_activity} (retos por perfil, día y categoría).
+ * <p>
+ * Las tablas se actualizan en la misma transacción que la escritura sobre {@code completed_challenges}, así que
+ * nunca se desincronizan por un fallo a medias. Los minutos y la categoría se toman del reto en el momento de
+ * completarlo; si después se edita el reto, {@link #rebuild(Connection)} recalcula todo con los valores actuales.
+ * Todos los métodos usan la transacción de quien llama.
+ */
+final class DailyActivityRollup {
+
+    // INSERT ... SELECT con upsert necesita un WHERE para que SQLite no confunda el ON CONFLICT con un JOIN
+    private static final String ADD_DAY_SQL = "INSERT INTO daily_activity (user_id, date, challenge_count, minutes) " +
+            "SELECT ?, ?, 1, COALESCE((SELECT duration_minutes FROM challenges WHERE id = ?), 0) WHERE true " +
+            "ON CONFLICT(user_id, date) DO UPDATE SET challenge_count = challenge_count + 1, minutes = minutes + excluded.minutes";
+    private static final String ADD_CATEGORY_SQL = "INSERT INTO daily_category_activity (user_id, date, category, challenge_count) " +
+            "SELECT ?, ?, category, 1 FROM challenges WHERE id = ? " +
+            "ON CONFLICT(user_id, date, category) DO UPDATE SET challenge_count = challenge_count + 1";
+    private static final String FIND_COMPLETION_SQL = "SELECT substr(completed_challenges.completion_date, 1, 10), " +
+            "challenges.duration_minutes, challenges.category FROM completed_challenges " +
+            "LEFT JOIN challenges ON completed_challenges.challenge_id = challenges.id " +
+            "WHERE completed_challenges.user_id = ? AND completed_challenges.id = ?";
+    private static final String REMOVE_DAY_SQL = "UPDATE daily_activity SET challenge_count = challenge_count - 1, " +
+            "minutes = MAX(minutes - ?, 0) WHERE user_id = ? AND date = ?";
+    private static final String REMOVE_CATEGORY_SQL = "UPDATE daily_category_activity SET challenge_count = challenge_count - 1 " +
+            "WHERE user_id = ? AND date = ? AND category = ?";
+    private static final String PRUNE_DAY_SQL = "DELETE FROM daily_activity WHERE user_id = ? AND date = ? AND challenge_count <= 0";
+    private static final String PRUNE_CATEGORY_SQL = "DELETE FROM daily_category_activity WHERE user_id = ? AND date = ? AND challenge_count <= 0";
+    private static final String CLEAR_USER_DAYS_SQL = "DELETE FROM daily_activity WHERE user_id = ?";
+    private static final String CLEAR_USER_CATEGORIES_SQL = "DELETE FROM daily_category_activity WHERE user_id = ?";
+    private static final String CLEAR_DAYS_SQL = "DELETE FROM daily_activity";
+    private static final String CLEAR_CATEGORIES_SQL = "DELETE FROM daily_category_activity";
+    private static final String REBUILD_DAYS_SQL = "INSERT INTO daily_activity (user_id, date, challenge_count, minutes) " +
+            "SELECT completed_challenges.user_id, substr(completed_challenges.completion_date, 1, 10), COUNT(*), COALESCE(SUM(challenges.duration_minutes), 0) " +
+            "FROM completed_challenges LEFT JOIN challenges ON completed_challenges.challenge_id = challenges.id " +
+            "GROUP BY 1, 2";
+    private static final String REBUILD_CATEGORIES_SQL = "INSERT INTO daily_category_activity (user_id, date, category, challenge_count) " +
+            "SELECT completed_challenges.user_id, substr(completed_challenges.completion_date, 1, 10), challenges.category, COUNT(*) " +
+            "FROM completed_challenges JOIN challenges ON completed_challenges.challenge_id = challenges.id " +
+            "GROUP BY 1, 2, 3";
+
+    private DailyActivityRollup() {
+    }
+
+    /**
+     * Suma una completación al resumen de su día.
+     *
+     * @param conn La conexión de escritura, dentro de una transacción
+     * @param userId El ID del perfil que completó el reto
+     * @param date El día de la completación (yyyy-MM-dd)
+     * @param challengeId El ID del reto completado
+     * @throws SQLException Si ocurre un error SQL
+     */
+    static void add(Connection conn, int userId, String date, int challengeId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(ADD_DAY_SQL)) {
+            stmt.setInt(1, userId);
+            stmt.setString(2, date);
+            stmt.setInt(3, challengeId);
+            stmt.executeUpdate();
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(ADD_CATEGORY_SQL)) {
+            stmt.setInt(1, userId);
+            stmt.setString(2, date);
+            stmt.setInt(3, challengeId);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Resta una completación del resumen de su día. Debe llamarse antes de borrar la fila.
+     *
+     * @param conn La conexión de escritura, dentro de una transacción
+     * @param userId El ID del perfil al que pertenece la completación
+     * @param completedChallengeId El ID del reto completado que se va a borrar
+     * @throws SQLException Si ocurre un error SQL
+     */
+    static void remove(Connection conn, int userId, int completedChallengeId) throws SQLException {
+        String date;
+        int minutes;
+        String category;
+        try (PreparedStatement stmt = conn.prepareStatement(FIND_COMPLETION_SQL)) {
+            stmt.setInt(1, userId);
+            stmt.setInt(2, completedChallengeId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return;
+                }
+                date = rs.getString(1);
+                minutes = rs.getInt(2);
+                category = rs.getString(3);
+            }
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(REMOVE_DAY_SQL)) {
+            stmt.setInt(1, minutes);
+            stmt.setInt(2, userId);
+            stmt.setString(3, date);
+            stmt.executeUpdate();
+        }
+        if (category != null) {
+            try (PreparedStatement stmt = conn.prepareStatement(REMOVE_CATEGORY_SQL)) {
+                stmt.setInt(1, userId);
+                stmt.setString(2, date);
+                stmt.setString(3, category);
+                stmt.executeUpdate();
+            }
+        }
+
+        // Quitar los días que se han quedado sin completaciones
+        try (PreparedStatement stmt = conn.prepareStatement(PRUNE_DAY_SQL)) {
+            stmt.setInt(1, userId);
+            stmt.setString(2, date);
+            stmt.executeUpdate();
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(PRUNE_CATEGORY_SQL)) {
+            stmt.setInt(1, userId);
+            stmt.setString(2, date);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Vacía el resumen de un perfil.
+     *
+     * @param conn La conexión de escritura, dentro de una transacción
+     * @param userId El ID del perfil
+     * @throws SQLException Si ocurre un error SQL
+     */
+    static void clear(Connection conn, int userId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(CLEAR_USER_DAYS_SQL)) {
+            stmt.setInt(1, userId);
+            stmt.executeUpdate();
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(CLEAR_USER_CATEGORIES_SQL)) {
+            stmt.setInt(1, userId);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Recalcula el resumen completo de todos los perfiles a partir de {@code completed_challenges} y los retos
+     * actuales.
+     *
+     * @param conn La conexión de escritura, dentro de una transacción
+     * @throws SQLException Si ocurre un error SQL
+     */
+    static void rebuild(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(CLEAR_DAYS_SQL);
+            stmt.executeUpdate(CLEAR_CATEGORIES_SQL);
+            stmt.executeUpdate(REBUILD_DAYS_SQL);
+            stmt.executeUpdate(REBUILD_CATEGORIES_SQL);
+        }
+    }
+}
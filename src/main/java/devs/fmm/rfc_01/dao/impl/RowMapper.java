@@ -0,0 +1,25 @@
+package devs.fmm.rfc_01.dao.impl;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Convierte la fila actual de un ResultSet en un objeto.
+ * <p>
+ * Las implementaciones leen las columnas por posición, así que solo deben usarse con consultas cuya lista de
+ * columnas coincida con la que espera el mapper (ver {@link RowMappers}).
+ *
+ * @param <T> El tipo de objeto que se construye
+ */
+@FunctionalInterface
+interface RowMapper<T> {
+
+    /**
+     * Mapea la fila actual sin mover el cursor.
+     *
+     * @param rs El ResultSet posicionado en la fila a mapear
+     * @return El objeto construido
+     * @throws SQLException Si ocurre un error SQL
+     */
+    T mapRow(ResultSet rs) throws SQLException;
+}
@@ -0,0 +1,127 @@
+package devs.fmm.rfc_01.dao.impl;
+
+import devs.fmm.rfc_01.model.Challenge;
+import devs.fmm.rfc_01.model.CompletedChallenge;
+import devs.fmm.rfc_01.model.UserProfile;
+import devs.fmm.rfc_01.model.UserStats;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Listas de columnas y mappers por posición compartidos por los DAO.
+ * <p>
+ * Cada consulta selecciona exactamente las columnas de la constante correspondiente, en ese orden, de modo que
+ * las posiciones se conocen de antemano y el mapeo de una fila no consulta metadatos ni busca columnas por nombre.
+ * Si se cambia una lista de columnas hay que cambiar también su mapper.
+ */
+final class RowMappers {
+
+    /**
+     * Columnas de un reto, en el orden que espera {@link #challenge(int)}.
+     */
+    static final String CHALLENGE_COLUMNS = "challenges.id, challenges.name, challenges.description, challenges.category, " +
+            "challenges.difficulty, challenges.duration_minutes, challenges.image_path";
+
+    /**
+     * Columnas de un reto completado seguidas de las de su reto, en el orden que espera {@link #COMPLETED_CHALLENGE}.
+     */
+    static final String COMPLETED_CHALLENGE_COLUMNS = "completed_challenges.id, completed_challenges.challenge_id, " +
+            "completed_challenges.completion_date, " + CHALLENGE_COLUMNS;
+
+    /**
+     * Columnas de las estadísticas de usuario, en el orden que espera {@link #USER_STATS}.
+     */
+    static final String USER_STATS_COLUMNS = "id, total_challenges_completed, total_minutes_exercised, streak_days, last_challenge_date, " +
+            "last_completion_id";
+
+    /**
+     * Columnas de los perfiles de usuario, en el orden que espera {@link #USER_PROFILE}.
+     */
+    static final String USER_PROFILE_COLUMNS = "id, name, created_at";
+
+    /**
+     * Mapea una fila de {@link #CHALLENGE_COLUMNS}.
+     */
+    static final RowMapper<Challenge> CHALLENGE = challenge(1);
+
+    /**
+     * Mapea una fila de {@link #COMPLETED_CHALLENGE_COLUMNS}, incluido el reto asociado.
+     */
+    static final RowMapper<CompletedChallenge> COMPLETED_CHALLENGE = completedChallenge(1);
+
+    /**
+     * Mapea una fila de {@link #USER_STATS_COLUMNS}.
+     */
+    static final RowMapper<UserStats> USER_STATS = rs -> {
+        UserStats userStats = new UserStats();
+        userStats.setId(rs.getInt(1));
+        userStats.setTotalChallengesCompleted(rs.getInt(2));
+        userStats.setTotalMinutesExercised(rs.getInt(3));
+        userStats.setStreakDays(rs.getInt(4));
+
+        String lastChallengeDateStr = rs.getString(5);
+        if (lastChallengeDateStr != null) {
+            userStats.setLastChallengeDate(LocalDate.parse(lastChallengeDateStr));
+        }
+        userStats.setLastCompletionId(rs.getInt(6));
+
+        return userStats;
+    };
+
+    /**
+     * Mapea una fila de {@link #USER_PROFILE_COLUMNS}.
+     */
+    static final RowMapper<UserProfile> USER_PROFILE = rs -> new UserProfile(
+            rs.getInt(1),
+            rs.getString(2),
+            LocalDateTime.parse(rs.getString(3), DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+
+    private RowMappers() {
+    }
+
+    /**
+     * Crea un mapper de reto cuyas columnas empiezan en la posición indicada, para poder reutilizarlo en un JOIN.
+     *
+     * @param firstColumn La posición (desde 1) de {@code challenges.id}
+     * @return El mapper
+     */
+    static RowMapper<Challenge> challenge(int firstColumn) {
+        return rs -> new Challenge(
+                rs.getInt(firstColumn),
+                rs.getString(firstColumn + 1),
+                rs.getString(firstColumn + 2),
+                rs.getString(firstColumn + 3),
+                rs.getInt(firstColumn + 4),
+                rs.getInt(firstColumn + 5),
+                rs.getString(firstColumn + 6));
+    }
+
+    /**
+     * Crea un mapper de reto completado cuyas columnas empiezan en la posición indicada.
+     *
+     * @param firstColumn La posición (desde 1) de {@code completed_challenges.id}
+     * @return El mapper
+     */
+    static RowMapper<CompletedChallenge> completedChallenge(int firstColumn) {
+        RowMapper<Challenge> challengeMapper = challenge(firstColumn + 3);
+        return rs -> {
+            CompletedChallenge completedChallenge = new CompletedChallenge();
+            completedChallenge.setId(rs.getInt(firstColumn));
+            completedChallenge.setChallengeId(rs.getInt(firstColumn + 1));
+
+            String completionDateStr = rs.getString(firstColumn + 2);
+            if (completionDateStr != null) {
+                completedChallenge.setCompletionDate(LocalDateTime.parse(completionDateStr, DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            }
+
+            // Con LEFT JOIN, un reto ya eliminado llega con todas sus columnas a NULL
+            rs.getInt(firstColumn + 3);
+            if (!rs.wasNull()) {
+                completedChallenge.setChallenge(challengeMapper.mapRow(rs));
+            }
+            return completedChallenge;
+        };
+    }
+}
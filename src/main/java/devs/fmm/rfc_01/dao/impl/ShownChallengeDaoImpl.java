@@ -0,0 +1,137 @@
+package devs.fmm.rfc_01.dao.impl;
+
+import devs.fmm.rfc_01.dao.ShownChallengeDao;
+import devs.fmm.rfc_01.db.DatabaseManager;
+
+import java.sql.*;
+import java.util.Arrays;
+
+/**
+ * Implementation of the ShownChallengeDao interface.
+ */
+public class ShownChallengeDaoImpl implements ShownChallengeDao {
+
+    private final DatabaseManager dbManager;
+
+    // SQL queries
+    private static final String FIND_ALL_IDS_SQL = "SELECT challenge_id FROM shown_challenges";
+    private static final String INSERT_SQL = "INSERT OR IGNORE INTO shown_challenges (challenge_id) VALUES (?)";
+    private static final String DELETE_SQL = "DELETE FROM shown_challenges WHERE challenge_id = ?";
+    private static final String DELETE_ALL_SQL = "DELETE FROM shown_challenges";
+
+    /**
+     * Constructor. Usa la base de datos compartida de la aplicación.
+     */
+    public ShownChallengeDaoImpl() {
+        this(DatabaseManager.getInstance());
+    }
+
+    /**
+     * Constructor con la base de datos a usar.
+     *
+     * @param dbManager El gestor de la base de datos
+     */
+    public ShownChallengeDaoImpl(DatabaseManager dbManager) {
+        this.dbManager = dbManager;
+    }
+
+    @Override
+    public int[] findAllIds() {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        int[] ids = new int[64];
+        int count = 0;
+
+        try {
+            conn = dbManager.getReadConnection();
+            stmt = conn.prepareStatement(FIND_ALL_IDS_SQL);
+            rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
+                }
+                ids[count++] = rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error finding shown challenges: " + e.getMessage());
+        } finally {
+            closeResources(conn, stmt, rs);
+        }
+
+        return Arrays.copyOf(ids, count);
+    }
+
+    @Override
+    public boolean markShown(int challengeId) {
+        return executeUpdate(INSERT_SQL, challengeId, "Error marking challenge as shown: ");
+    }
+
+    @Override
+    public boolean deleteById(int challengeId) {
+        return executeUpdate(DELETE_SQL, challengeId, "Error removing shown challenge: ");
+    }
+
+    @Override
+    public boolean deleteAll() {
+        try {
+            return dbManager.write(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(DELETE_ALL_SQL)) {
+                    stmt.executeUpdate();
+                    return true;
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("Error clearing shown challenges: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Ejecuta una sentencia de escritura con el ID de reto como único parámetro.
+     */
+    private boolean executeUpdate(String sql, int challengeId, String errorMessage) {
+        try {
+            return dbManager.write(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setInt(1, challengeId);
+                    stmt.executeUpdate();
+                    return true;
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println(errorMessage + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Closes database resources.
+     *
+     * @param conn The database connection
+     * @param stmt The prepared statement
+     * @param rs The result set
+     */
+    private void closeResources(Connection conn, PreparedStatement stmt, ResultSet rs) {
+        if (rs != null) {
+            try {
+                rs.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing ResultSet: " + e.getMessage());
+            }
+        }
+
+        if (stmt != null) {
+            try {
+                stmt.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing PreparedStatement: " + e.getMessage());
+            }
+        }
+
+        if (conn != null) {
+            dbManager.closeConnection(conn);
+        }
+    }
+}
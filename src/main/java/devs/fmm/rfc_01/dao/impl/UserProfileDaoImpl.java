@@ -0,0 +1,218 @@
+package devs.fmm.rfc_01.dao.impl;
+
+import devs.fmm.rfc_01.dao.UserProfileDao;
+import devs.fmm.rfc_01.db.DatabaseManager;
+import devs.fmm.rfc_01.model.UserProfile;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Implementation of the UserProfileDao interface.
+ */
+public class UserProfileDaoImpl implements UserProfileDao {
+
+    private final DatabaseManager dbManager;
+
+    // SQL queries
+    private static final String SELECT_PROFILE = "SELECT " + RowMappers.USER_PROFILE_COLUMNS + " FROM users";
+    private static final String FIND_BY_ID_SQL = SELECT_PROFILE + " WHERE id = ?";
+    private static final String FIND_BY_NAME_SQL = SELECT_PROFILE + " WHERE name = ?";
+    private static final String FIND_ALL_SQL = SELECT_PROFILE + " ORDER BY name";
+    private static final String INSERT_SQL = "INSERT INTO users (name, created_at) VALUES (?, ?) RETURNING id";
+    private static final String INSERT_STATS_SQL = "INSERT INTO user_stats (user_id, total_challenges_completed, " +
+            "total_minutes_exercised, streak_days) VALUES (?, 0, 0, 0)";
+    // Todo lo que pertenece al perfil, de las tablas dependientes a la de perfiles
+    private static final String[] DELETE_SQL = {
+            "DELETE FROM completed_challenges WHERE user_id = ?",
+            "DELETE FROM daily_activity WHERE user_id = ?",
+            "DELETE FROM daily_category_activity WHERE user_id = ?",
+            "DELETE FROM user_stats WHERE user_id = ?",
+            "DELETE FROM users WHERE id = ?"
+    };
+
+    /**
+     * Constructor. Usa la base de datos compartida de la aplicación.
+     */
+    public UserProfileDaoImpl() {
+        this(DatabaseManager.getInstance());
+    }
+
+    /**
+     * Constructor con la base de datos a usar.
+     *
+     * @param dbManager El gestor de la base de datos
+     */
+    public UserProfileDaoImpl(DatabaseManager dbManager) {
+        this.dbManager = dbManager;
+    }
+
+    @Override
+    public Optional<UserProfile> findById(int id) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbManager.getReadConnection();
+            stmt = conn.prepareStatement(FIND_BY_ID_SQL);
+            stmt.setInt(1, id);
+            rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                return Optional.of(RowMappers.USER_PROFILE.mapRow(rs));
+            }
+
+            return Optional.empty();
+        } catch (SQLException e) {
+            System.err.println("Error finding user profile by ID: " + e.getMessage());
+            return Optional.empty();
+        } finally {
+            closeResources(conn, stmt, rs);
+        }
+    }
+
+    @Override
+    public Optional<UserProfile> findByName(String name) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = dbManager.getReadConnection();
+            stmt = conn.prepareStatement(FIND_BY_NAME_SQL);
+            stmt.setString(1, name);
+            rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                return Optional.of(RowMappers.USER_PROFILE.mapRow(rs));
+            }
+
+            return Optional.empty();
+        } catch (SQLException e) {
+            System.err.println("Error finding user profile by name: " + e.getMessage());
+            return Optional.empty();
+        } finally {
+            closeResources(conn, stmt, rs);
+        }
+    }
+
+    @Override
+    public List<UserProfile> findAll() {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<UserProfile> userProfiles = new ArrayList<>();
+
+        try {
+            conn = dbManager.getReadConnection();
+            stmt = conn.prepareStatement(FIND_ALL_SQL);
+            rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                userProfiles.add(RowMappers.USER_PROFILE.mapRow(rs));
+            }
+
+            return userProfiles;
+        } catch (SQLException e) {
+            System.err.println("Error finding all user profiles: " + e.getMessage());
+            return userProfiles;
+        } finally {
+            closeResources(conn, stmt, rs);
+        }
+    }
+
+    @Override
+    public Optional<UserProfile> save(UserProfile userProfile) {
+        LocalDateTime createdAt = userProfile.getCreatedAt() != null
+                ? userProfile.getCreatedAt()
+                : LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+        try {
+            // El perfil y sus estadísticas iniciales se crean en el mismo comando, así que se confirman juntos
+            int id = dbManager.write(conn -> {
+                int insertedId;
+                try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+                    stmt.setString(1, userProfile.getName());
+                    stmt.setString(2, createdAt.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        if (!rs.next()) {
+                            throw new SQLException("Creating user profile failed, no ID obtained.");
+                        }
+                        insertedId = rs.getInt(1);
+                    }
+                }
+
+                try (PreparedStatement stmt = conn.prepareStatement(INSERT_STATS_SQL)) {
+                    stmt.setInt(1, insertedId);
+                    stmt.executeUpdate();
+                }
+                return insertedId;
+            });
+
+            return Optional.of(new UserProfile(id, userProfile.getName(), createdAt));
+        } catch (SQLException e) {
+            System.err.println("Error saving user profile: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public boolean deleteById(int id) {
+        if (id == UserProfile.DEFAULT_ID) {
+            return false;
+        }
+
+        try {
+            return dbManager.write(conn -> {
+                int affectedRows = 0;
+                for (String sql : DELETE_SQL) {
+                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        stmt.setInt(1, id);
+                        affectedRows = stmt.executeUpdate();
+                    }
+                }
+
+                // La última sentencia borra el perfil: si no existía, las anteriores tampoco han borrado nada
+                return affectedRows > 0;
+            });
+        } catch (SQLException e) {
+            System.err.println("Error deleting user profile: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Closes database resources.
+     *
+     * @param conn The database connection
+     * @param stmt The prepared statement
+     * @param rs The result set
+     */
+    private void closeResources(Connection conn, PreparedStatement stmt, ResultSet rs) {
+        if (rs != null) {
+            try {
+                rs.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing ResultSet: " + e.getMessage());
+            }
+        }
+
+        if (stmt != null) {
+            try {
+                stmt.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing PreparedStatement: " + e.getMessage());
+            }
+        }
+
+        if (conn != null) {
+            dbManager.closeConnection(conn);
+        }
+    }
+}
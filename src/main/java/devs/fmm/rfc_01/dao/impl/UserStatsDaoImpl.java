@@ -2,6 +2,7 @@ package devs.fmm.rfc_01.dao.impl;
 
 import devs.fmm.rfc_01.dao.UserStatsDao;
 import devs.fmm.rfc_01.db.DatabaseManager;
+import devs.fmm.rfc_01.model.UserProfile;
 import devs.fmm.rfc_01.model.UserStats;
 
 import java.sql.*;
@@ -14,18 +15,65 @@ import java.util.Optional;
 public class UserStatsDaoImpl implements UserStatsDao {
     
     private final DatabaseManager dbManager;
+    private final int userId;
     
     // SQL queries
-    private static final String GET_USER_STATS_SQL = "SELECT * FROM user_stats WHERE id = 1";
-    private static final String UPDATE_USER_STATS_SQL = "UPDATE user_stats SET total_challenges_completed = ?, total_minutes_exercised = ?, streak_days = ?, last_challenge_date = ? WHERE id = 1";
-    private static final String INCREMENT_CHALLENGES_SQL = "UPDATE user_stats SET total_challenges_completed = total_challenges_completed + 1, total_minutes_exercised = total_minutes_exercised + ? WHERE id = 1";
-    private static final String RESET_STATS_SQL = "UPDATE user_stats SET total_challenges_completed = 0, total_minutes_exercised = 0, streak_days = 0, last_challenge_date = NULL WHERE id = 1";
+    private static final String GET_USER_STATS_SQL = "SELECT " + RowMappers.USER_STATS_COLUMNS + " FROM user_stats WHERE user_id = ?";
+    private static final String UPDATE_USER_STATS_SQL = "UPDATE user_stats SET total_challenges_completed = ?, total_minutes_exercised = ?, streak_days = ?, last_challenge_date = ?, last_completion_id = MAX(last_completion_id, ?) WHERE user_id = ?";
+    private static final String INCREMENT_CHALLENGES_SQL = "UPDATE user_stats SET total_challenges_completed = total_challenges_completed + 1, total_minutes_exercised = total_minutes_exercised + ? WHERE user_id = ?";
+    // Suma la completación y actualiza la racha con las mismas reglas que UserStats.updateStreak. Las
+    // completaciones pueden llegar desordenadas, así que la marca solo avanza
+    private static final String RECORD_COMPLETION_SQL = "UPDATE user_stats SET " +
+            "total_challenges_completed = total_challenges_completed + 1, " +
+            "total_minutes_exercised = total_minutes_exercised + ?, " +
+            "streak_days = CASE " +
+            "WHEN last_challenge_date = ? THEN streak_days " +
+            "WHEN last_challenge_date = ? THEN streak_days + 1 " +
+            "ELSE 1 END, " +
+            "last_challenge_date = ?, " +
+            "last_completion_id = MAX(last_completion_id, ?) " +
+            "WHERE user_id = ?";
+    private static final String RESET_STATS_SQL = "UPDATE user_stats SET total_challenges_completed = 0, total_minutes_exercised = 0, streak_days = 0, last_challenge_date = NULL WHERE user_id = ?";
     
     /**
-     * Constructor.
+     * Constructor. Opera sobre las estadísticas del perfil predeterminado.
      */
     public UserStatsDaoImpl() {
-        this.dbManager = DatabaseManager.getInstance();
+        this(UserProfile.DEFAULT_ID);
+    }
+
+    /**
+     * Constructor para las estadísticas de un perfil.
+     *
+     * @param userId El ID del perfil
+     */
+    public UserStatsDaoImpl(int userId) {
+        this(DatabaseManager.getInstance(), userId);
+    }
+
+    /**
+     * Constructor con la base de datos a usar. Opera sobre las estadísticas del perfil predeterminado.
+     *
+     * @param dbManager El gestor de la base de datos
+     */
+    public UserStatsDaoImpl(DatabaseManager dbManager) {
+        this(dbManager, UserProfile.DEFAULT_ID);
+    }
+
+    /**
+     * Constructor con la base de datos a usar y el perfil.
+     *
+     * @param dbManager El gestor de la base de datos
+     * @param userId El ID del perfil
+     */
+    public UserStatsDaoImpl(DatabaseManager dbManager, int userId) {
+        this.dbManager = dbManager;
+        this.userId = userId;
+    }
+
+    @Override
+    public UserStatsDao forUser(int userId) {
+        return userId == this.userId ? this : new UserStatsDaoImpl(dbManager, userId);
     }
     
     @Override
@@ -35,12 +83,13 @@ public class UserStatsDaoImpl implements UserStatsDao {
         ResultSet rs = null;
         
         try {
-            conn = dbManager.getConnection();
+            conn = dbManager.getReadConnection();
             stmt = conn.prepareStatement(GET_USER_STATS_SQL);
+            stmt.setInt(1, userId);
             rs = stmt.executeQuery();
             
             if (rs.next()) {
-                return Optional.of(mapResultSetToUserStats(rs));
+                return Optional.of(RowMappers.USER_STATS.mapRow(rs));
             }
             
             return Optional.empty();
@@ -54,52 +103,63 @@ public class UserStatsDaoImpl implements UserStatsDao {
     
     @Override
     public boolean updateUserStats(UserStats userStats) {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        
         try {
-            conn = dbManager.getConnection();
-            stmt = conn.prepareStatement(UPDATE_USER_STATS_SQL);
-            
-            stmt.setInt(1, userStats.getTotalChallengesCompleted());
-            stmt.setInt(2, userStats.getTotalMinutesExercised());
-            stmt.setInt(3, userStats.getStreakDays());
-            
-            if (userStats.getLastChallengeDate() != null) {
-                stmt.setString(4, userStats.getLastChallengeDate().toString());
-            } else {
-                stmt.setNull(4, Types.VARCHAR);
-            }
-            
-            int affectedRows = stmt.executeUpdate();
-            
-            return affectedRows > 0;
+            return dbManager.write(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(UPDATE_USER_STATS_SQL)) {
+                    stmt.setInt(1, userStats.getTotalChallengesCompleted());
+                    stmt.setInt(2, userStats.getTotalMinutesExercised());
+                    stmt.setInt(3, userStats.getStreakDays());
+                    
+                    if (userStats.getLastChallengeDate() != null) {
+                        stmt.setString(4, userStats.getLastChallengeDate().toString());
+                    } else {
+                        stmt.setNull(4, Types.VARCHAR);
+                    }
+                    stmt.setInt(5, userStats.getLastCompletionId());
+                    stmt.setInt(6, userId);
+                    
+                    return stmt.executeUpdate() > 0;
+                }
+            });
         } catch (SQLException e) {
             System.err.println("Error updating user stats: " + e.getMessage());
             return false;
-        } finally {
-            closeResources(conn, stmt, null);
         }
     }
     
     @Override
     public boolean incrementChallengesCompleted(int additionalMinutes) {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        
         try {
-            conn = dbManager.getConnection();
-            stmt = conn.prepareStatement(INCREMENT_CHALLENGES_SQL);
-            stmt.setInt(1, additionalMinutes);
-            
-            int affectedRows = stmt.executeUpdate();
-            
-            return affectedRows > 0;
+            return dbManager.write(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(INCREMENT_CHALLENGES_SQL)) {
+                    stmt.setInt(1, additionalMinutes);
+                    stmt.setInt(2, userId);
+                    return stmt.executeUpdate() > 0;
+                }
+            });
         } catch (SQLException e) {
             System.err.println("Error incrementing challenges completed: " + e.getMessage());
             return false;
-        } finally {
-            closeResources(conn, stmt, null);
+        }
+    }
+    
+    @Override
+    public boolean recordCompletion(int completedChallengeId, LocalDate completionDate, int minutesExercised) {
+        try {
+            return dbManager.write(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(RECORD_COMPLETION_SQL)) {
+                    stmt.setInt(1, minutesExercised);
+                    stmt.setString(2, completionDate.toString());
+                    stmt.setString(3, completionDate.minusDays(1).toString());
+                    stmt.setString(4, completionDate.toString());
+                    stmt.setInt(5, completedChallengeId);
+                    stmt.setInt(6, userId);
+                    return stmt.executeUpdate() > 0;
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("Error recording completion in user stats: " + e.getMessage());
+            return false;
         }
     }
     
@@ -121,44 +181,17 @@ public class UserStatsDaoImpl implements UserStatsDao {
     
     @Override
     public boolean resetStats() {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        
         try {
-            conn = dbManager.getConnection();
-            stmt = conn.prepareStatement(RESET_STATS_SQL);
-            
-            int affectedRows = stmt.executeUpdate();
-            
-            return affectedRows > 0;
+            return dbManager.write(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(RESET_STATS_SQL)) {
+                    stmt.setInt(1, userId);
+                    return stmt.executeUpdate() > 0;
+                }
+            });
         } catch (SQLException e) {
             System.err.println("Error resetting user stats: " + e.getMessage());
             return false;
-        } finally {
-            closeResources(conn, stmt, null);
-        }
-    }
-    
-    /**
-     * Maps a ResultSet row to a UserStats object.
-     * 
-     * @param rs The ResultSet containing user stats data
-     * @return A UserStats object
-     * @throws SQLException If an SQL error occurs
-     */
-    private UserStats mapResultSetToUserStats(ResultSet rs) throws SQLException {
-        UserStats userStats = new UserStats();
-        userStats.setId(rs.getInt("id"));
-        userStats.setTotalChallengesCompleted(rs.getInt("total_challenges_completed"));
-        userStats.setTotalMinutesExercised(rs.getInt("total_minutes_exercised"));
-        userStats.setStreakDays(rs.getInt("streak_days"));
-        
-        String lastChallengeDateStr = rs.getString("last_challenge_date");
-        if (lastChallengeDateStr != null) {
-            userStats.setLastChallengeDate(LocalDate.parse(lastChallengeDateStr));
         }
-        
-        return userStats;
     }
     
     /**
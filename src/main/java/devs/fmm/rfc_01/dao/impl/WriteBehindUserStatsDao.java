@@ -0,0 +1,374 @@
+package devs.fmm.rfc_01.dao.impl;
+
+import devs.fmm.rfc_01.dao.CompletedChallengeDao;
+import devs.fmm.rfc_01.dao.UserStatsDao;
+import devs.fmm.rfc_01.db.DatabaseManager;
+import devs.fmm.rfc_01.model.UserProfile;
+import devs.fmm.rfc_01.model.UserStats;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Decorador de {@link UserStatsDao} que mantiene en memoria las estadísticas del usuario y las escribe en la base
+ * de datos en diferido (write-behind).
+ * <p>
+ * Las lecturas se sirven desde memoria sin tocar la base de datos. Las actualizaciones se aplican en memoria de
+ * forma atómica y se escriben cada cierto intervalo, cuando se acumulan suficientes cambios pendientes y siempre
+ * al llamar a {@link #shutdown()}. Las estadísticas devueltas son copias.
+ * <p>
+ * Si la aplicación termina sin escribir los cambios pendientes, la siguiente carga suma de nuevo los retos
+ * completados posteriores al último incluido en {@code user_stats} (ver {@link UserStats#getLastCompletionId()}).
+ * Como el historial no guarda el tiempo real empleado, los minutos recuperados son la duración de cada reto.
+ * Los retos completados en paralelo pueden sumarse en distinto orden que sus IDs, así que esa marca solo se usa en la
+ * carga: en el resto de casos se descartan exactamente los retos ya recuperados del historial.
+ * <p>
+ * Cada perfil tiene su propio estado en memoria, que se carga la primera vez que se pide con
+ * {@link #forUser(int)}; todos comparten el mismo hilo de escritura.
+ * <p>
+ * Si las estadísticas no se pueden cargar, todas las operaciones se delegan hasta que la carga tenga éxito.
+ */
+public class WriteBehindUserStatsDao implements UserStatsDao {
+
+    private static final long DEFAULT_FLUSH_INTERVAL_SECONDS = Long.getLong("rfc.stats.flushIntervalSeconds", 30L);
+    private static final int DEFAULT_FLUSH_BATCH_SIZE = Integer.getInteger("rfc.stats.flushBatchSize", 10);
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    private final Store store;
+    private final int userId;
+    private final UserStatsDao delegate;
+    private final CompletedChallengeDao completedChallengeDao;
+
+    // Estado vigente; se sustituye entero en cada actualización, nunca se modifica
+    private final AtomicReference<UserStats> state = new AtomicReference<>();
+    private final AtomicInteger pendingUpdates = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    // Retos sumados durante la carga cuyo registro aún puede llegar por recordCompletion
+    private final Set<Integer> recovered = ConcurrentHashMap.newKeySet();
+    private final Object loadLock = new Object();
+    private final Object flushLock = new Object();
+
+    /**
+     * Lo que comparten todos los perfiles: la configuración, el hilo de escritura y el estado de cada perfil cargado.
+     */
+    private static final class Store {
+        private final int flushBatchSize;
+        private final ScheduledExecutorService flusher;
+        private final Map<Integer, WriteBehindUserStatsDao> profiles = new ConcurrentHashMap<>();
+        private volatile boolean shutDown;
+
+        private Store(int flushBatchSize) {
+            this.flushBatchSize = Math.max(1, flushBatchSize);
+            this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "rfc-stats-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Constructor. La instancia creada corresponde al perfil predeterminado; el resto se obtiene con
+     * {@link #forUser(int)}.
+     *
+     * @param delegate El DAO que accede a la base de datos
+     * @param completedChallengeDao El DAO del historial, del que se recuperan los cambios no escritos
+     * @param flushIntervalSeconds Los segundos entre escrituras periódicas
+     * @param flushBatchSize El número de cambios pendientes de un perfil que provoca una escritura inmediata
+     */
+    public WriteBehindUserStatsDao(UserStatsDao delegate, CompletedChallengeDao completedChallengeDao,
+                                   long flushIntervalSeconds, int flushBatchSize) {
+        this(new Store(flushBatchSize), UserProfile.DEFAULT_ID, delegate.forUser(UserProfile.DEFAULT_ID),
+                completedChallengeDao.forUser(UserProfile.DEFAULT_ID));
+        store.profiles.put(userId, this);
+        store.flusher.scheduleWithFixedDelay(this::flushAll, flushIntervalSeconds, flushIntervalSeconds,
+                TimeUnit.SECONDS);
+    }
+
+    private WriteBehindUserStatsDao(Store store, int userId, UserStatsDao delegate,
+                                    CompletedChallengeDao completedChallengeDao) {
+        this.store = store;
+        this.userId = userId;
+        this.delegate = delegate;
+        this.completedChallengeDao = completedChallengeDao;
+    }
+
+    /**
+     * Obtiene la instancia compartida por toda la aplicación, de modo que todas las vistas ven las mismas
+     * estadísticas. Corresponde al perfil predeterminado.
+     *
+     * @return La instancia compartida
+     */
+    public static WriteBehindUserStatsDao getInstance() {
+        return forDatabase(DatabaseManager.getInstance());
+    }
+
+    /**
+     * Obtiene la instancia compartida de una base de datos. Debe cerrarse con {@link #shutdown()} antes que la base
+     * de datos.
+     *
+     * @param dbManager El gestor de la base de datos
+     * @return La instancia de esa base de datos, correspondiente al perfil predeterminado
+     */
+    public static WriteBehindUserStatsDao forDatabase(DatabaseManager dbManager) {
+        return dbManager.getShared(WriteBehindUserStatsDao.class, manager -> {
+            WriteBehindUserStatsDao dao = new WriteBehindUserStatsDao(new UserStatsDaoImpl(manager),
+                    new CompletedChallengeDaoImpl(manager), DEFAULT_FLUSH_INTERVAL_SECONDS, DEFAULT_FLUSH_BATCH_SIZE);
+            // Cargar ya, para recuperar los cambios no escritos antes de que se registren retos nuevos
+            dao.currentState();
+            return dao;
+        });
+    }
+
+    @Override
+    public UserStatsDao forUser(int userId) {
+        WriteBehindUserStatsDao profile = store.profiles.computeIfAbsent(userId, id ->
+                new WriteBehindUserStatsDao(store, id, delegate.forUser(id), completedChallengeDao.forUser(id)));
+        // Cargar ya, para recuperar los cambios no escritos antes de que se registren retos nuevos
+        profile.currentState();
+        return profile;
+    }
+
+    @Override
+    public Optional<UserStats> getUserStats() {
+        UserStats current = currentState();
+        if (current == null) {
+            return delegate.getUserStats();
+        }
+        return Optional.of(copyOf(current));
+    }
+
+    @Override
+    public boolean updateUserStats(UserStats userStats) {
+        if (currentState() == null) {
+            return delegate.updateUserStats(userStats);
+        }
+        update(stats -> {
+            stats.setTotalChallengesCompleted(userStats.getTotalChallengesCompleted());
+            stats.setTotalMinutesExercised(userStats.getTotalMinutesExercised());
+            stats.setStreakDays(userStats.getStreakDays());
+            stats.setLastChallengeDate(userStats.getLastChallengeDate());
+            stats.setLastCompletionId(Math.max(stats.getLastCompletionId(), userStats.getLastCompletionId()));
+        });
+        return true;
+    }
+
+    @Override
+    public boolean incrementChallengesCompleted(int additionalMinutes) {
+        if (currentState() == null) {
+            return delegate.incrementChallengesCompleted(additionalMinutes);
+        }
+        update(stats -> {
+            stats.setTotalChallengesCompleted(stats.getTotalChallengesCompleted() + 1);
+            stats.setTotalMinutesExercised(stats.getTotalMinutesExercised() + additionalMinutes);
+        });
+        return true;
+    }
+
+    @Override
+    public boolean recordCompletion(int completedChallengeId, LocalDate completionDate, int minutesExercised) {
+        if (currentState() == null) {
+            return delegate.recordCompletion(completedChallengeId, completionDate, minutesExercised);
+        }
+        if (recovered.remove(completedChallengeId)) {
+            // Ya incluido al recuperarlo del historial durante la carga
+            return true;
+        }
+        update(stats -> applyCompletion(stats, completedChallengeId, completionDate, minutesExercised));
+        return true;
+    }
+
+    @Override
+    public boolean updateStreak() {
+        if (currentState() == null) {
+            return delegate.updateStreak();
+        }
+        LocalDate currentDate = LocalDate.now();
+        update(stats -> stats.updateStreak(currentDate));
+        return true;
+    }
+
+    @Override
+    public boolean resetStats() {
+        if (currentState() == null) {
+            return delegate.resetStats();
+        }
+        // El reinicio se escribe en el acto: quien reinicia espera que el cambio sea definitivo
+        update(stats -> {
+            stats.setTotalChallengesCompleted(0);
+            stats.setTotalMinutesExercised(0);
+            stats.setStreakDays(0);
+            stats.setLastChallengeDate(null);
+        });
+        return flush();
+    }
+
+    /**
+     * Escribe en la base de datos los cambios pendientes de este perfil, si los hay.
+     *
+     * @return true si no había cambios pendientes o se escribieron correctamente, false en caso contrario
+     */
+    public boolean flush() {
+        synchronized (flushLock) {
+            flushRequested.set(false);
+
+            // Leer los pendientes antes que el estado: un cambio que llegue entre medias se escribe ahora y se
+            // vuelve a escribir en la siguiente pasada, pero nunca se pierde
+            int pending = pendingUpdates.get();
+            UserStats current = state.get();
+            if (pending == 0 || current == null) {
+                return true;
+            }
+
+            if (!delegate.updateUserStats(current)) {
+                System.err.println("Error flushing stats of user " + userId + ", " + pending + " updates still pending");
+                return false;
+            }
+            pendingUpdates.addAndGet(-pending);
+            return true;
+        }
+    }
+
+    /**
+     * Escribe en la base de datos los cambios pendientes de todos los perfiles cargados.
+     *
+     * @return true si todos los perfiles quedaron escritos, false en caso contrario
+     */
+    public boolean flushAll() {
+        boolean flushed = true;
+        for (WriteBehindUserStatsDao profile : store.profiles.values()) {
+            flushed &= profile.flush();
+        }
+        return flushed;
+    }
+
+    /**
+     * Olvida el estado en memoria de un perfil eliminado, sin escribir sus cambios pendientes.
+     *
+     * @param userId El ID del perfil eliminado
+     */
+    @Override
+    public void discardProfile(int userId) {
+        if (userId != UserProfile.DEFAULT_ID) {
+            store.profiles.remove(userId);
+        }
+    }
+
+    /**
+     * Detiene las escrituras periódicas y escribe los cambios pendientes de todos los perfiles. Las actualizaciones
+     * posteriores se escriben en el acto. Debe llamarse antes de cerrar la base de datos.
+     */
+    public void shutdown() {
+        store.shutDown = true;
+        store.flusher.shutdown();
+        try {
+            if (!store.flusher.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                System.err.println("Stats flusher did not stop in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushAll();
+    }
+
+    /**
+     * Obtiene el número de actualizaciones aplicadas en memoria que aún no se han escrito.
+     *
+     * @return El número de actualizaciones pendientes
+     */
+    public int getPendingUpdateCount() {
+        return pendingUpdates.get();
+    }
+
+    /**
+     * Aplica un cambio sobre una copia del estado vigente, la publica y programa la escritura si toca.
+     *
+     * @param change El cambio a aplicar
+     */
+    private void update(Consumer<UserStats> change) {
+        state.updateAndGet(current -> {
+            UserStats next = copyOf(current);
+            change.accept(next);
+            return next;
+        });
+
+        int pending = pendingUpdates.incrementAndGet();
+        if (store.shutDown) {
+            flush();
+        } else if (pending >= store.flushBatchSize && flushRequested.compareAndSet(false, true)) {
+            try {
+                store.flusher.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                // Se está cerrando: escribir desde este hilo
+                flush();
+            }
+        }
+    }
+
+    /**
+     * Devuelve el estado vigente, cargándolo y recuperando los cambios no escritos si hace falta.
+     *
+     * @return El estado, o null si no se pudo cargar
+     */
+    private UserStats currentState() {
+        UserStats current = state.get();
+        if (current != null) {
+            return current;
+        }
+
+        synchronized (loadLock) {
+            current = state.get();
+            if (current != null) {
+                return current;
+            }
+
+            Optional<UserStats> stored = delegate.getUserStats();
+            if (stored.isEmpty()) {
+                return null;
+            }
+            UserStats loaded = stored.get();
+
+            // Retos completados que no llegaron a sumarse antes de un cierre inesperado
+            List<Object[]> missing = completedChallengeDao.getCompletionsAfter(loaded.getLastCompletionId());
+            for (Object[] completion : missing) {
+                applyCompletion(loaded, (Integer) completion[0], (LocalDate) completion[1], (Integer) completion[2]);
+                recovered.add((Integer) completion[0]);
+            }
+
+            state.set(loaded);
+            if (!missing.isEmpty()) {
+                System.out.println("Recovered " + missing.size() + " completed challenges missing from the stats of user " + userId);
+                pendingUpdates.addAndGet(missing.size());
+                flush();
+            }
+            return loaded;
+        }
+    }
+
+    private static void applyCompletion(UserStats stats, int completedChallengeId, LocalDate completionDate,
+                                        int minutesExercised) {
+        stats.setTotalChallengesCompleted(stats.getTotalChallengesCompleted() + 1);
+        stats.setTotalMinutesExercised(stats.getTotalMinutesExercised() + minutesExercised);
+        stats.updateStreak(completionDate);
+        stats.setLastCompletionId(Math.max(stats.getLastCompletionId(), completedChallengeId));
+    }
+
+    private static UserStats copyOf(UserStats userStats) {
+        UserStats copy = new UserStats(userStats.getId(), userStats.getTotalChallengesCompleted(),
+                userStats.getTotalMinutesExercised(), userStats.getStreakDays(), userStats.getLastChallengeDate());
+        copy.setLastCompletionId(userStats.getLastCompletionId());
+        return copy;
+    }
+}
@@ -0,0 +1,306 @@
+package devs.fmm.rfc_01.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool acotado de conexiones SQLite de larga duración.
+ * <p>
+ * Las conexiones físicas se abren bajo demanda hasta {@code maxSize} y se reutilizan entre préstamos.
+ * Cada préstamo devuelve un proxy cuyo {@code close()} devuelve la conexión al pool en lugar de cerrarla,
+ * de modo que los DAO pueden seguir usando {@link DatabaseManager#closeConnection(Connection)} como hasta ahora.
+ */
+class ConnectionPool {
+
+    /**
+     * Configuración aplicada a cada conexión física recién abierta.
+     */
+    @FunctionalInterface
+    interface ConnectionInitializer {
+        void initialize(Connection conn) throws SQLException;
+    }
+
+    private static final long VALIDATION_IDLE_MILLIS = 30_000;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final String name;
+    private final String url;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final boolean captureLeakTraces;
+    private final ConnectionInitializer initializer;
+
+    private final LinkedBlockingDeque<PhysicalConnection> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final Set<Lease> activeLeases = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong totalCreated = new AtomicLong();
+    private final AtomicLong totalBorrowed = new AtomicLong();
+    private final AtomicLong totalTimeouts = new AtomicLong();
+    private final AtomicLong totalLeaks = new AtomicLong();
+    private final AtomicLong totalValidationFailures = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    private volatile boolean closed = false;
+
+    ConnectionPool(String name, String url, int maxSize, long borrowTimeoutMillis, long leakThresholdMillis,
+                   boolean captureLeakTraces, ConnectionInitializer initializer) {
+        this.name = name;
+        this.url = url;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.captureLeakTraces = captureLeakTraces;
+        this.initializer = initializer;
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    /**
+     * Toma prestada una conexión del pool, esperando como máximo el tiempo configurado.
+     *
+     * @return Una conexión que vuelve al pool al cerrarse
+     * @throws SQLException Si el pool está cerrado, se agota la espera o no se puede abrir la conexión
+     */
+    Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool '" + name + "' is closed");
+        }
+
+        long waitStart = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                totalTimeouts.incrementAndGet();
+                throw new SQLException("Timed out after " + borrowTimeoutMillis + " ms waiting for a '" + name + "' connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a '" + name + "' connection", e);
+        }
+        recordWait(System.nanoTime() - waitStart);
+
+        try {
+            PhysicalConnection physical = takeHealthyIdleConnection();
+            if (physical == null) {
+                physical = open();
+            }
+
+            Lease lease = new Lease(physical, captureLeakTraces ? new Throwable("Connection borrowed here") : null);
+            activeLeases.add(lease);
+            totalBorrowed.incrementAndGet();
+            return lease.proxy;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Busca una conexión inactiva válida, descartando las que no superen la comprobación de salud.
+     */
+    private PhysicalConnection takeHealthyIdleConnection() {
+        PhysicalConnection physical;
+        while ((physical = idle.pollFirst()) != null) {
+            if (isHealthy(physical)) {
+                return physical;
+            }
+            totalValidationFailures.incrementAndGet();
+            System.err.println("Discarding unhealthy '" + name + "' connection");
+            closeQuietly(physical.connection);
+        }
+        return null;
+    }
+
+    private boolean isHealthy(PhysicalConnection physical) {
+        try {
+            if (physical.connection.isClosed()) {
+                return false;
+            }
+            // Solo validamos las conexiones que llevan tiempo sin usarse para no pagar el coste en cada préstamo
+            if (System.currentTimeMillis() - physical.lastReturnedAt < VALIDATION_IDLE_MILLIS) {
+                return true;
+            }
+            return physical.connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PhysicalConnection open() throws SQLException {
+        Connection conn = DriverManager.getConnection(url);
+        try {
+            if (initializer != null) {
+                initializer.initialize(conn);
+            }
+        } catch (SQLException e) {
+            closeQuietly(conn);
+            throw e;
+        }
+        totalCreated.incrementAndGet();
+        return new PhysicalConnection(conn);
+    }
+
+    /**
+     * Devuelve una conexión al pool. Si quedó una transacción abierta se deshace antes de reutilizarla.
+     */
+    private void release(Lease lease) {
+        activeLeases.remove(lease);
+        PhysicalConnection physical = lease.physical;
+
+        try {
+            if (closed || physical.connection.isClosed()) {
+                closeQuietly(physical.connection);
+                return;
+            }
+
+            if (!physical.connection.getAutoCommit()) {
+                System.err.println("Connection returned to pool '" + name + "' with an open transaction; rolling back");
+                physical.connection.rollback();
+                physical.connection.setAutoCommit(true);
+            }
+
+            physical.lastReturnedAt = System.currentTimeMillis();
+            // LIFO: reutilizar primero la conexión más reciente mantiene caliente su caché de páginas
+            idle.offerFirst(physical);
+        } catch (SQLException e) {
+            System.err.println("Discarding '" + name + "' connection after failed reset: " + e.getMessage());
+            closeQuietly(physical.connection);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Revisa los préstamos activos e informa de los que superan el umbral de fuga.
+     */
+    void detectLeaks() {
+        long now = System.currentTimeMillis();
+        for (Lease lease : activeLeases) {
+            long heldMillis = now - lease.borrowedAt;
+            if (heldMillis > leakThresholdMillis && !lease.reportedAsLeak) {
+                lease.reportedAsLeak = true;
+                totalLeaks.incrementAndGet();
+                System.err.println("Possible connection leak in pool '" + name + "': held for " + heldMillis +
+                        " ms by thread " + lease.borrowerThread);
+                if (lease.borrowTrace != null) {
+                    lease.borrowTrace.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Obtiene una instantánea de las métricas del pool.
+     *
+     * @return Las métricas actuales
+     */
+    PoolStats stats() {
+        long borrowed = totalBorrowed.get();
+        return new PoolStats(name, maxSize, activeLeases.size(), idle.size(), totalCreated.get(), borrowed,
+                totalTimeouts.get(), totalLeaks.get(), totalValidationFailures.get(),
+                borrowed == 0 ? 0 : totalWaitNanos.get() / borrowed / 1_000, maxWaitNanos.get() / 1_000);
+    }
+
+    /**
+     * Cierra todas las conexiones inactivas. Las conexiones prestadas se cierran al devolverse.
+     */
+    void close() {
+        closed = true;
+        PhysicalConnection physical;
+        while ((physical = idle.pollFirst()) != null) {
+            closeQuietly(physical.connection);
+        }
+        if (!activeLeases.isEmpty()) {
+            System.err.println("Closing pool '" + name + "' with " + activeLeases.size() + " connection(s) still borrowed");
+        }
+    }
+
+    private void recordWait(long waitNanos) {
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    private static void closeQuietly(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing pooled connection: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Conexión física gestionada por el pool.
+     */
+    private static final class PhysicalConnection {
+        private final Connection connection;
+        private volatile long lastReturnedAt = System.currentTimeMillis();
+
+        private PhysicalConnection(Connection connection) {
+            this.connection = connection;
+        }
+    }
+
+    /**
+     * Un préstamo concreto de una conexión física, expuesto a los DAO mediante un proxy.
+     */
+    private final class Lease implements InvocationHandler {
+        private final PhysicalConnection physical;
+        private final Throwable borrowTrace;
+        private final long borrowedAt = System.currentTimeMillis();
+        private final String borrowerThread = Thread.currentThread().getName();
+        private final Connection proxy;
+        private volatile boolean returned = false;
+        private volatile boolean reportedAsLeak = false;
+
+        private Lease(PhysicalConnection physical, Throwable borrowTrace) {
+            this.physical = physical;
+            this.borrowTrace = borrowTrace;
+            this.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(this);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || physical.connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + name + "]";
+                default:
+                    break;
+            }
+
+            if (returned) {
+                throw new SQLException("Connection has already been returned to pool '" + name + "'");
+            }
+
+            try {
+                return method.invoke(physical.connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -13,51 +13,39 @@ public class DatabaseInitializer {
     private static final String CHECK_CHALLENGES_SQL = "SELECT COUNT(*) FROM challenges";
 
     /**
-     * Inicializa la base de datos con datos predeterminados si es necesario.
+     * Puebla la tabla challenges con los retos predeterminados si está vacía.
+     * Se ejecuta como migración de esquema, dentro de la transacción que abre {@code MigrationRunner}.
+     *
+     * @param conn La conexión a la base de datos
+     * @throws SQLException Si ocurre un error SQL
      */
-    public static void initializeData() {
-        DatabaseManager dbManager = DatabaseManager.getInstance();
-        Connection conn = null;
-
-        try {
-            conn = dbManager.getConnection();
-
-            // Verificar si la tabla challenges está vacía
-            if (isChallengesTableEmpty(conn)) {
-                populateChallengesTable(conn);
-            }
-
-        } catch (SQLException e) {
-            System.err.println("Error initializing database data: " + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            dbManager.closeConnection(conn);
+    public static void seedDefaultChallengesIfEmpty(Connection conn) throws SQLException {
+        // Verificar si la tabla challenges está vacía
+        if (isChallengesTableEmpty(conn)) {
+            insertDefaultChallenges(conn);
+            System.out.println("Challenges table populated with default data");
         }
     }
 
     /**
-     * Reinicializa la base de datos con retos predeterminados.
-     * Este método elimina todos los retos existentes y repuebla la tabla con los predeterminados.
+     * Repuebla la tabla challenges de una base de datos concreta con los retos predeterminados.
      *
+     * @param dbManager El gestor de la base de datos
      * @return true si la reinicialización fue exitosa, false en caso contrario
      */
-    public static boolean reinitializeDefaultChallenges() {
-        DatabaseManager dbManager = DatabaseManager.getInstance();
-        Connection conn = null;
-
+    public static boolean reinitializeDefaultChallenges(DatabaseManager dbManager) {
         try {
-            conn = dbManager.getConnection();
-
-            // Poblar la tabla challenges con datos predeterminados
-            populateChallengesTable(conn);
-
+            // Como escritura, los retos predeterminados se insertan en la transacción de su grupo
+            dbManager.write(conn -> {
+                insertDefaultChallenges(conn);
+                return null;
+            });
+            System.out.println("Challenges table populated with default data");
             return true;
         } catch (SQLException e) {
             System.err.println("Error reinitializing default challenges: " + e.getMessage());
             e.printStackTrace();
             return false;
-        } finally {
-            dbManager.closeConnection(conn);
         }
     }
 
@@ -79,18 +67,15 @@ public class DatabaseInitializer {
     }
 
     /**
-     * Puebla la tabla challenges con retos predeterminados.
+     * Inserta los retos predeterminados. La transacción la gestiona quien llama.
      *
      * @param conn La conexión a la base de datos
      * @throws SQLException Si ocurre un error SQL
      */
-    private static void populateChallengesTable(Connection conn) throws SQLException {
+    private static void insertDefaultChallenges(Connection conn) throws SQLException {
         String insertSQL = "INSERT INTO challenges (name, description, category, difficulty, duration_minutes, image_path) VALUES (?, ?, ?, ?, ?, ?)";
 
         try (PreparedStatement stmt = conn.prepareStatement(insertSQL)) {
-            // Deshabilitar auto-commit para operaciones en lote
-            conn.setAutoCommit(false);
-
             addChallenge(stmt, "Dominadas", "Haz 10 dominadas", "Fuerza", 3, 1, "/devs/fmm/rfc_01/images/exercises/dominada.jpg");
             addChallenge(stmt, "Flexiones", "Haz 30 dominadas", "Fuerza", 3, 2, "/devs/fmm/rfc_01/images/exercises/flexion.jpg");
             addChallenge(stmt, "Meditación", "Medita durante 10 minutos", "Mindfullness", 2, 11, "/devs/fmm/rfc_01/images/exercises/meditacion.jpg");
@@ -129,16 +114,6 @@ public class DatabaseInitializer {
             addChallenge(stmt, "Posture Reset", "Shoulder rolls, chest opener, and standing back bend.", "Mixed", 1, 3, null);
             addChallenge(stmt, "Core Express", "30s plank, 15 crunches, 10 bicycle crunches.", "Mixed", 2, 4, null);
 */
-            // Commit the batch
-            conn.commit();
-            conn.setAutoCommit(true);
-
-            System.out.println("Challenges table populated with default data");
-        } catch (SQLException e) {
-            // Rollback in case of error
-            conn.rollback();
-            conn.setAutoCommit(true);
-            throw e;
         }
     }
 
@@ -1,125 +1,326 @@
 package devs.fmm.rfc_01.db;
 
+import devs.fmm.rfc_01.db.migration.MigrationRunner;
+import devs.fmm.rfc_01.db.migration.Migrations;
+
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.io.File;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.prefs.Preferences;
 
 /**
  * Gestiona las conexiones y operaciones de base de datos para la aplicación Random Fitness Challenge.
+ * <p>
+ * Las conexiones son de larga duración y se reparten desde dos pools acotados: uno de escritura con una
+ * única conexión (SQLite solo admite un escritor a la vez) y otro de lectura con varias conexiones.
+ * Cada conexión se configura al abrirse con el {@link PragmaProfile} activo.
+ * <p>
+ * Los DAOs no toman la conexión de escritura: envían sus escrituras con {@link #write(WriteCommand)} a un único
+ * hilo escritor que las confirma en grupos (ver {@link DatabaseWriter}).
+ * <p>
+ * Cada instancia gestiona una base de datos independiente, así que pueden convivir varias en la misma JVM (pruebas
+ * en paralelo, benchmarks...). Además de una ruta de fichero, la ubicación puede ser {@link #IN_MEMORY}, una base de
+ * datos en memoria que se pierde al cerrarla, o {@link #TEMPORARY}, un fichero temporal que se borra al cerrarla.
+ * La aplicación usa la instancia compartida de {@link #getInstance()}, cuya ubicación se toma de la propiedad
+ * {@code rfc.db.path}, la variable de entorno {@code RFC_DB_PATH} o la preferencia guardada con
+ * {@link #setPreferredLocation(String)}, por ese orden, y por defecto es {@code ~/.rfc/rfc_database.db}.
+ * <p>
+ * Las cachés y el estado en memoria que deben ser únicos por base de datos (estadísticas en diferido, rachas,
+ * perfil activo...) se obtienen con {@link #getShared(Class, Function)}, así que los servicios creados sobre la
+ * misma instancia los comparten y los de instancias distintas nunca se mezclan.
  */
 public class DatabaseManager {
+
+    /**
+     * Ubicación de una base de datos en memoria. Usa una sola conexión para lecturas y escrituras, ya que cada
+     * conexión a {@code :memory:} abre una base de datos distinta.
+     */
+    public static final String IN_MEMORY = ":memory:";
+
+    /**
+     * Ubicación de una base de datos en un fichero temporal nuevo que se borra al cerrar el gestor.
+     */
+    public static final String TEMPORARY = ":temp:";
+
     private static final String DB_NAME = "rfc_database.db";
-    private static final String DB_PATH = System.getProperty("user.home") + File.separator + ".rfc" + File.separator + DB_NAME;
-    private static final String DB_URL = "jdbc:sqlite:" + DB_PATH;
+    private static final String DEFAULT_DB_PATH = System.getProperty("user.home") + File.separator + ".rfc" + File.separator + DB_NAME;
+    private static final String LOCATION_PROPERTY = "rfc.db.path";
+    private static final String LOCATION_ENV = "RFC_DB_PATH";
+    private static final String LOCATION_PREFERENCE = "dbPath";
+
+    // Configuración del pool (sobrescribible con propiedades del sistema)
+    private static final int READER_POOL_SIZE = Integer.getInteger("rfc.db.pool.readers", 3);
+    private static final long BORROW_TIMEOUT_MILLIS = Long.getLong("rfc.db.pool.borrowTimeoutMillis", 10_000L);
+    private static final long LEAK_THRESHOLD_MILLIS = Long.getLong("rfc.db.pool.leakThresholdMillis", 30_000L);
+    private static final boolean CAPTURE_LEAK_TRACES = Boolean.getBoolean("rfc.db.pool.leakTraces");
+    private static final long LEAK_CHECK_INTERVAL_SECONDS = 10;
+    private static final int WRITER_MAX_BATCH_SIZE = Integer.getInteger("rfc.db.writer.maxBatchSize", 64);
+    private static final long WRITER_MAX_DELAY_MILLIS = Long.getLong("rfc.db.writer.maxDelayMillis", 2L);
+    private static final long WRITE_TIMEOUT_MILLIS = Long.getLong("rfc.db.writer.timeoutMillis", 30_000L);
 
     private static DatabaseManager instance;
 
-    private DatabaseManager() {
-        // Constructor privado para aplicar el patrón singleton
+    private final String location;
+    private final Path dbPath;
+    private final boolean temporary;
+    private final PragmaProfile profile;
+    private final ConnectionPool writerPool;
+    private final ConnectionPool readerPool;
+    private final ScheduledExecutorService maintenanceExecutor;
+    private final DatabaseWriter writer;
+    private final Map<Class<?>, Object> shared = new HashMap<>();
+    private final Object sharedLock = new Object();
+
+    /**
+     * Constructor. Abre la base de datos de la ubicación indicada y aplica las migraciones pendientes.
+     *
+     * @param location La ruta del fichero, {@link #IN_MEMORY} o {@link #TEMPORARY}
+     */
+    public DatabaseManager(String location) {
+        boolean inMemory = IN_MEMORY.equals(location);
+        this.temporary = TEMPORARY.equals(location);
+        this.dbPath = inMemory ? null : temporary ? createTemporaryFile() : Path.of(location).toAbsolutePath();
+        this.location = inMemory ? IN_MEMORY : dbPath.toString();
+        String url = "jdbc:sqlite:" + this.location;
+
+        // En memoria no hay WAL: SQLite usa siempre su propio diario en memoria
+        PragmaProfile configured = PragmaProfile.fromSystemProperties();
+        this.profile = inMemory ? configured.withJournalMode("MEMORY") : configured;
+        System.out.println("Database profile: " + profile);
+
+        this.writerPool = new ConnectionPool("writer", url, 1, BORROW_TIMEOUT_MILLIS,
+                LEAK_THRESHOLD_MILLIS, CAPTURE_LEAK_TRACES, this::configureWriterConnection);
+        this.readerPool = inMemory ? writerPool : new ConnectionPool("reader", url, READER_POOL_SIZE,
+                BORROW_TIMEOUT_MILLIS, LEAK_THRESHOLD_MILLIS, CAPTURE_LEAK_TRACES, this::configureReaderConnection);
+
+        this.maintenanceExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rfc-db-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.maintenanceExecutor.scheduleWithFixedDelay(() -> {
+            writerPool.detectLeaks();
+            readerPool.detectLeaks();
+        }, LEAK_CHECK_INTERVAL_SECONDS, LEAK_CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+
+        int checkpointInterval = profile.getCheckpointIntervalSeconds();
+        if (checkpointInterval > 0) {
+            this.maintenanceExecutor.scheduleWithFixedDelay(() -> checkpoint("PASSIVE"),
+                    checkpointInterval, checkpointInterval, TimeUnit.SECONDS);
+        }
+
         initializeDatabase();
+
+        // Las migraciones ya han usado la conexión de escritura directamente; a partir de aquí escribe el hilo escritor
+        this.writer = new DatabaseWriter(writerPool, WRITER_MAX_BATCH_SIZE, WRITER_MAX_DELAY_MILLIS);
     }
 
     /**
-     * Obtiene la instancia singleton del DatabaseManager.
+     * Obtiene la instancia compartida por la aplicación, abierta en la ubicación configurada.
      *
      * @return La instancia de DatabaseManager
      */
     public static synchronized DatabaseManager getInstance() {
         if (instance == null) {
-            instance = new DatabaseManager();
+            instance = new DatabaseManager(resolveLocation());
         }
         return instance;
     }
 
     /**
-     * Inicializa la base de datos creando el directorio necesario y el archivo de base de datos si no existen.
+     * Resuelve la ubicación de la instancia compartida: propiedad del sistema, variable de entorno, preferencia
+     * guardada y, si no hay ninguna, la ruta por defecto en el directorio del usuario.
+     *
+     * @return La ubicación configurada
+     */
+    public static String resolveLocation() {
+        String location = System.getProperty(LOCATION_PROPERTY);
+        if (isBlank(location)) {
+            location = System.getenv(LOCATION_ENV);
+        }
+        if (isBlank(location)) {
+            location = preferences().get(LOCATION_PREFERENCE, null);
+        }
+        return isBlank(location) ? DEFAULT_DB_PATH : location.trim();
+    }
+
+    /**
+     * Guarda la ubicación de la base de datos en las preferencias del usuario. Se aplica en el siguiente arranque y
+     * solo si no se ha fijado otra con la propiedad o la variable de entorno.
+     *
+     * @param location La ruta del fichero, {@link #IN_MEMORY} o {@link #TEMPORARY}; null para volver a la ruta por defecto
+     */
+    public static void setPreferredLocation(String location) {
+        if (isBlank(location)) {
+            preferences().remove(LOCATION_PREFERENCE);
+        } else {
+            preferences().put(LOCATION_PREFERENCE, location.trim());
+        }
+    }
+
+    private static Preferences preferences() {
+        return Preferences.userNodeForPackage(DatabaseManager.class);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static Path createTemporaryFile() {
+        try {
+            Path file = Files.createTempFile("rfc-", ".db");
+            // SQLite crea la base de datos si el fichero no existe; uno vacío también lo acepta
+            Files.delete(file);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create a temporary database file", e);
+        }
+    }
+
+    /**
+     * Inicializa la base de datos creando el directorio necesario y aplicando las migraciones de esquema pendientes.
      */
     private void initializeDatabase() {
         try {
             // Crear directorio si no existe
-            File dbDir = new File(System.getProperty("user.home") + File.separator + ".rfc");
-            if (!dbDir.exists()) {
-                dbDir.mkdirs();
+            if (dbPath != null && dbPath.getParent() != null) {
+                Files.createDirectories(dbPath.getParent());
             }
 
-            // Crear archivo de base de datos si no existe
-            File dbFile = new File(DB_PATH);
-            if (!dbFile.exists()) {
-                // Obtener una conexión para crear el archivo de base de datos
-                try (Connection conn = getConnection()) {
-                    System.out.println("Database created successfully at: " + DB_PATH);
-
-                    // Inicializar esquema de base de datos
-                    createTables(conn);
+            // Abrir la conexión de escritura antes que cualquier lector para que fije el modo de diario;
+            // si el archivo no existía, esta misma conexión lo crea
+            boolean isNewDatabase = dbPath == null || !Files.exists(dbPath);
+            try (Connection conn = getWriteConnection()) {
+                if (isNewDatabase) {
+                    System.out.println("Database created successfully at: " + location);
                 }
+
+                // Llevar el esquema a la última versión
+                new MigrationRunner(Migrations.all()).migrate(conn);
             }
-        } catch (SQLException e) {
+        } catch (SQLException | IOException e) {
             System.err.println("Error initializing database: " + e.getMessage());
             e.printStackTrace();
         }
     }
 
     /**
-     * Crea las tablas necesarias en la base de datos.
+     * Configura la conexión de escritura recién abierta.
      *
-     * @param conn La conexión a la base de datos
+     * @param conn La conexión a configurar
      * @throws SQLException Si ocurre un error SQL
      */
-    private void createTables(Connection conn) throws SQLException {
+    private void configureWriterConnection(Connection conn) throws SQLException {
+        profile.applyTo(conn, true);
+    }
+
+    /**
+     * Configura una conexión de lectura recién abierta.
+     *
+     * @param conn La conexión a configurar
+     * @throws SQLException Si ocurre un error SQL
+     */
+    private void configureReaderConnection(Connection conn) throws SQLException {
+        profile.applyTo(conn, false);
         try (Statement stmt = conn.createStatement()) {
-            // Crear tabla challenges
-            stmt.execute("CREATE TABLE IF NOT EXISTS challenges (" +
-                    "id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                    "name TEXT NOT NULL," +
-                    "description TEXT NOT NULL," +
-                    "category TEXT NOT NULL," +
-                    "difficulty INTEGER NOT NULL," +
-                    "duration_minutes INTEGER NOT NULL," +
-                    "image_path TEXT" +
-                    ")");
-
-            // Crear tabla user_stats
-            stmt.execute("CREATE TABLE IF NOT EXISTS user_stats (" +
-                    "id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                    "total_challenges_completed INTEGER DEFAULT 0," +
-                    "total_minutes_exercised INTEGER DEFAULT 0," +
-                    "streak_days INTEGER DEFAULT 0," +
-                    "last_challenge_date TEXT" +
-                    ")");
-
-            // Crear tabla completed_challenges
-            stmt.execute("CREATE TABLE IF NOT EXISTS completed_challenges (" +
-                    "id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                    "challenge_id INTEGER NOT NULL," +
-                    "completion_date TEXT NOT NULL," +
-                    "FOREIGN KEY (challenge_id) REFERENCES challenges(id)" +
-                    ")");
-
-            // Insertar registro de estadísticas de usuario por defecto si no existe
-            stmt.execute("INSERT OR IGNORE INTO user_stats (id, total_challenges_completed, total_minutes_exercised, streak_days) " +
-                    "VALUES (1, 0, 0, 0)");
-
-            System.out.println("Database tables created successfully");
+            // Las conexiones de lectura nunca deben escribir: así un error en un DAO no puede saltarse el escritor
+            stmt.execute("PRAGMA query_only = ON");
         }
     }
 
     /**
      * Obtiene una conexión a la base de datos.
+     * Equivale a {@link #getWriteConnection()}; se mantiene por compatibilidad.
      *
      * @return Un objeto Connection
      * @throws SQLException Si ocurre un error de acceso a la base de datos
      */
     public Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(DB_URL);
+        return getWriteConnection();
+    }
+
+    /**
+     * Toma prestada la conexión de escritura. Solo existe una, por lo que debe devolverse cuanto antes
+     * con {@link #closeConnection(Connection)}. Está pensada para migraciones y mantenimiento; las escrituras
+     * de los DAOs deben ir por {@link #write(WriteCommand)}.
+     *
+     * @return La conexión de escritura
+     * @throws SQLException Si ocurre un error de acceso a la base de datos o se agota la espera
+     */
+    public Connection getWriteConnection() throws SQLException {
+        return writerPool.borrow();
+    }
+
+    /**
+     * Ejecuta una escritura en el hilo escritor y espera a que se confirme.
+     *
+     * @param command La escritura; no debe gestionar la transacción (ver {@link WriteCommand})
+     * @param <T> El tipo del resultado
+     * @return El resultado de la escritura, ya confirmada
+     * @throws SQLException Si falla la escritura o la confirmación de su grupo, o si no se confirma dentro de
+     *                      {@code rfc.db.writer.timeoutMillis} (30 s por defecto); en ese caso aún puede confirmarse
+     */
+    public <T> T write(WriteCommand<T> command) throws SQLException {
+        try {
+            return writer.submit(command).get(WRITE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new SQLException("Timed out after " + WRITE_TIMEOUT_MILLIS + " ms waiting for a write to commit", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new SQLException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a write to commit", e);
+        }
+    }
+
+    /**
+     * Encola una escritura en el hilo escritor sin esperar a que se confirme.
+     *
+     * @param command La escritura; no debe gestionar la transacción (ver {@link WriteCommand})
+     * @param <T> El tipo del resultado
+     * @return Un futuro que se completa con el resultado cuando la escritura se ha confirmado
+     */
+    public <T> CompletableFuture<T> submitWrite(WriteCommand<T> command) {
+        return writer.submit(command);
+    }
+
+    /**
+     * Toma prestada una conexión de solo lectura del pool de lectores.
+     *
+     * @return Una conexión de solo lectura
+     * @throws SQLException Si ocurre un error de acceso a la base de datos o se agota la espera
+     */
+    public Connection getReadConnection() throws SQLException {
+        return readerPool.borrow();
     }
 
     /**
-     * Cierra una conexión de base de datos.
+     * Cierra una conexión de base de datos. Las conexiones del pool se devuelven al pool en lugar de cerrarse.
      *
      * @param conn La conexión a cerrar
      */
@@ -132,4 +333,114 @@ public class DatabaseManager {
             }
         }
     }
+
+    /**
+     * Obtiene las métricas del pool de escritura.
+     *
+     * @return Las métricas actuales del pool de escritura
+     */
+    public PoolStats getWriterPoolStats() {
+        return writerPool.stats();
+    }
+
+    /**
+     * Obtiene las métricas del pool de lectura.
+     *
+     * @return Las métricas actuales del pool de lectura
+     */
+    public PoolStats getReaderPoolStats() {
+        return readerPool.stats();
+    }
+
+    /**
+     * Obtiene la ubicación de la base de datos.
+     *
+     * @return La ruta absoluta del fichero, o {@link #IN_MEMORY}
+     */
+    public String getLocation() {
+        return location;
+    }
+
+    /**
+     * Obtiene el componente compartido de un tipo para esta base de datos, creándolo la primera vez. La fábrica
+     * puede pedir a su vez otros componentes compartidos.
+     *
+     * @param type El tipo del componente, que lo identifica
+     * @param factory La fábrica del componente a partir de este gestor
+     * @param <T> El tipo del componente
+     * @return El componente compartido
+     */
+    public <T> T getShared(Class<T> type, Function<DatabaseManager, ? extends T> factory) {
+        synchronized (sharedLock) {
+            // Sin computeIfAbsent: la fábrica puede registrar otros componentes de forma anidada
+            Object component = shared.get(type);
+            if (component == null) {
+                component = factory.apply(this);
+                shared.put(type, component);
+            }
+            return type.cast(component);
+        }
+    }
+
+    /**
+     * Obtiene el perfil de PRAGMA con el que se configuran las conexiones.
+     *
+     * @return El perfil activo
+     */
+    public PragmaProfile getActiveProfile() {
+        return profile;
+    }
+
+    /**
+     * Lanza un checkpoint del WAL sobre la conexión de escritura.
+     *
+     * @param mode El modo de checkpoint (PASSIVE, FULL, RESTART o TRUNCATE)
+     * @return true si el checkpoint se completó sin quedar bloqueado, false en caso contrario
+     */
+    public boolean checkpoint(String mode) {
+        Connection conn = null;
+        try {
+            conn = getWriteConnection();
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("PRAGMA wal_checkpoint(" + mode + ")")) {
+                // La primera columna es 1 si el checkpoint no pudo completarse por un bloqueo
+                return rs.next() && rs.getInt(1) == 0;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error running WAL checkpoint: " + e.getMessage());
+            return false;
+        } finally {
+            closeConnection(conn);
+        }
+    }
+
+    /**
+     * Cierra los pools de conexiones. Debe llamarse al salir de la aplicación o al terminar de usar la base de
+     * datos. Las bases de datos en memoria y temporales se pierden.
+     */
+    public void shutdown() {
+        maintenanceExecutor.shutdownNow();
+        // Confirmar las escrituras que queden en cola antes de cerrar la conexión de escritura
+        writer.shutdown();
+        // Vaciar el WAL para que el fichero principal quede completo al salir
+        checkpoint("TRUNCATE");
+        // En memoria ambos pools son el mismo
+        boolean sharedPool = readerPool == writerPool;
+        System.out.println("Database pools at shutdown: " + writerPool.stats() + ", "
+                + (sharedPool ? "" : readerPool.stats() + ", ") + writer);
+        if (!sharedPool) {
+            readerPool.close();
+        }
+        writerPool.close();
+
+        if (temporary) {
+            for (String suffix : new String[]{"", "-wal", "-shm"}) {
+                try {
+                    Files.deleteIfExists(Path.of(location + suffix));
+                } catch (IOException e) {
+                    System.err.println("Error deleting temporary database: " + e.getMessage());
+                }
+            }
+        }
+    }
 }
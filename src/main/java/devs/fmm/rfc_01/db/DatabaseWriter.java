@@ -0,0 +1,321 @@
+package devs.fmm.rfc_01.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hilo único que ejecuta todas las escrituras de los DAOs con confirmación en grupo.
+ * <p>
+ * Las escrituras se encolan como {@link WriteCommand} y el hilo las ejecuta en orden de llegada. Cada vez que
+ * toma una, sigue recogiendo las que ya esperan (o llegan dentro de un pequeño margen de latencia) hasta un tamaño
+ * máximo, las ejecuta todas en una sola transacción y la confirma una vez. Así nunca hay dos escritores compitiendo
+ * por el bloqueo de SQLite y, con ráfagas de escrituras, el coste de cada confirmación se reparte entre el grupo.
+ * <p>
+ * Cada comando va dentro de su propio SAVEPOINT, de modo que uno que falla se deshace sin afectar al resto del
+ * grupo. El futuro de cada comando se completa solo después de la confirmación, cuando su escritura ya es durable.
+ * Cualquier error de un comando o de un grupo, incluidos los {@link Error}, se entrega a los futuros afectados y el
+ * hilo sigue atendiendo la cola; si aun así se detiene, falla todas las escrituras pendientes y rechaza las nuevas.
+ * La conexión de escritura se toma del pool para cada grupo, así que las tareas de mantenimiento (checkpoints,
+ * migraciones) pueden seguir usándola entre grupos.
+ */
+class DatabaseWriter {
+
+    // Marca de fin de cola: todo lo encolado antes se confirma, nada se encola después
+    private static final PendingWrite<Void> STOP = new PendingWrite<>(conn -> null);
+
+    private final ConnectionPool pool;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final BlockingQueue<PendingWrite<?>> queue = new LinkedBlockingQueue<>();
+    private final Thread thread;
+    private boolean shutDown;
+
+    private final AtomicLong totalWrites = new AtomicLong();
+    private final AtomicLong totalFailedWrites = new AtomicLong();
+    private final AtomicLong totalCommits = new AtomicLong();
+    private final AtomicLong maxGroupSize = new AtomicLong();
+
+    /**
+     * Constructor. Arranca el hilo escritor.
+     *
+     * @param pool El pool de la conexión de escritura
+     * @param maxBatchSize El número máximo de escrituras por transacción
+     * @param maxDelayMillis Lo que se espera a que lleguen más escrituras antes de confirmar un grupo incompleto;
+     *                       con 0 solo se agrupan las que ya estaban en cola
+     */
+    DatabaseWriter(ConnectionPool pool, int maxBatchSize, long maxDelayMillis) {
+        this.pool = pool;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxDelayMillis));
+        this.thread = new Thread(this::run, "rfc-db-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Encola una escritura.
+     *
+     * @param command La escritura
+     * @param <T> El tipo del resultado
+     * @return Un futuro que se completa con el resultado cuando la escritura se ha confirmado, o con la excepción
+     *         si falla ella o la confirmación de su grupo
+     */
+    <T> CompletableFuture<T> submit(WriteCommand<T> command) {
+        if (Thread.currentThread() == thread) {
+            // El escritor estaría esperándose a sí mismo
+            return CompletableFuture.failedFuture(new SQLException("A write command cannot submit another write"));
+        }
+
+        PendingWrite<T> pending = new PendingWrite<>(command);
+        synchronized (this) {
+            if (shutDown) {
+                return CompletableFuture.failedFuture(new SQLException("The database writer is shut down"));
+            }
+            queue.add(pending);
+        }
+        return pending.future;
+    }
+
+    /**
+     * Deja de aceptar escrituras, confirma las que ya estaban en cola y detiene el hilo.
+     */
+    void shutdown() {
+        synchronized (this) {
+            if (shutDown) {
+                return;
+            }
+            shutDown = true;
+            queue.add(STOP);
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Obtiene el número de escrituras ejecutadas, hayan fallado o no.
+     *
+     * @return El número de escrituras
+     */
+    long getTotalWrites() {
+        return totalWrites.get();
+    }
+
+    /**
+     * Obtiene el número de transacciones confirmadas, una por grupo.
+     *
+     * @return El número de confirmaciones
+     */
+    long getTotalCommits() {
+        return totalCommits.get();
+    }
+
+    @Override
+    public String toString() {
+        long commits = totalCommits.get();
+        long writes = totalWrites.get();
+        return String.format("writer[writes=%d, failed=%d, commits=%d, avgGroup=%.1f, maxGroup=%d]",
+                writes, totalFailedWrites.get(), commits, commits == 0 ? 0.0 : (double) writes / commits,
+                maxGroupSize.get());
+    }
+
+    private void run() {
+        List<PendingWrite<?>> group = new ArrayList<>(maxBatchSize);
+        boolean running = true;
+
+        try {
+            while (running) {
+                try {
+                    PendingWrite<?> first = queue.take();
+                    if (first == STOP) {
+                        break;
+                    }
+                    group.add(first);
+                    running = fillGroup(group);
+                } catch (InterruptedException e) {
+                    // Solo la marca de fin de cola detiene el hilo; confirmar lo que ya se haya recogido
+                }
+
+                if (!group.isEmpty()) {
+                    try {
+                        commitGroup(group);
+                    } catch (Throwable t) {
+                        // Un fallo inesperado no debe dejar a nadie esperando ni parar el hilo
+                        System.err.println("Unexpected error in a group of " + group.size() + " write(s): " + t);
+                        for (PendingWrite<?> pending : group) {
+                            pending.fail(t);
+                        }
+                    }
+                    group.clear();
+                }
+            }
+        } catch (Throwable t) {
+            System.err.println("Database writer stopped unexpectedly: " + t);
+            for (PendingWrite<?> pending : group) {
+                pending.fail(t);
+            }
+            throw t;
+        } finally {
+            abandonQueued();
+        }
+    }
+
+    /**
+     * Rechaza las escrituras nuevas y falla las que siguen en cola. Tras la marca de fin no queda ninguna.
+     */
+    private void abandonQueued() {
+        synchronized (this) {
+            shutDown = true;
+        }
+        SQLException stopped = new SQLException("The database writer stopped before running this write");
+        PendingWrite<?> pending;
+        while ((pending = queue.poll()) != null) {
+            if (pending != STOP) {
+                pending.fail(stopped);
+            }
+        }
+    }
+
+    /**
+     * Añade al grupo las escrituras que esperan en cola o llegan dentro del margen de latencia.
+     *
+     * @return false si se ha llegado a la marca de fin de cola
+     */
+    private boolean fillGroup(List<PendingWrite<?>> group) throws InterruptedException {
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (group.size() < maxBatchSize) {
+            PendingWrite<?> next = queue.poll();
+            if (next == null) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return true;
+                }
+                next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    return true;
+                }
+            }
+            if (next == STOP) {
+                return false;
+            }
+            group.add(next);
+        }
+        return true;
+    }
+
+    /**
+     * Ejecuta un grupo de escrituras en una transacción, cada una en su SAVEPOINT, y completa sus futuros tras
+     * confirmarla.
+     */
+    private void commitGroup(List<PendingWrite<?>> group) {
+        Connection conn = null;
+        try {
+            conn = pool.borrow();
+            conn.setAutoCommit(false);
+
+            for (PendingWrite<?> pending : group) {
+                Savepoint savepoint = conn.setSavepoint();
+                try {
+                    pending.execute(conn);
+                    conn.releaseSavepoint(savepoint);
+                } catch (Throwable t) {
+                    pending.error = t;
+                    rollbackTo(conn, savepoint);
+                }
+            }
+
+            conn.commit();
+        } catch (SQLException e) {
+            // No se pudo abrir o confirmar la transacción: no se ha escrito nada del grupo
+            System.err.println("Error committing a group of " + group.size() + " write(s): " + e.getMessage());
+            rollback(conn);
+            for (PendingWrite<?> pending : group) {
+                if (pending.error == null) {
+                    pending.error = e;
+                }
+            }
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                } catch (SQLException e) {
+                    System.err.println("Error restoring auto-commit: " + e.getMessage());
+                }
+                try {
+                    conn.close();
+                } catch (SQLException e) {
+                    System.err.println("Error returning the write connection: " + e.getMessage());
+                }
+            }
+        }
+
+        totalCommits.incrementAndGet();
+        totalWrites.addAndGet(group.size());
+        maxGroupSize.accumulateAndGet(group.size(), Math::max);
+        for (PendingWrite<?> pending : group) {
+            if (pending.error != null) {
+                totalFailedWrites.incrementAndGet();
+            }
+            pending.complete();
+        }
+    }
+
+    private static void rollbackTo(Connection conn, Savepoint savepoint) {
+        try {
+            conn.rollback(savepoint);
+            conn.releaseSavepoint(savepoint);
+        } catch (SQLException e) {
+            System.err.println("Error rolling back a failed write: " + e.getMessage());
+        }
+    }
+
+    private static void rollback(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.rollback();
+            } catch (SQLException e) {
+                System.err.println("Error rolling back transaction: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Una escritura en cola junto con su resultado.
+     */
+    private static final class PendingWrite<T> {
+        private final WriteCommand<T> command;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private T result;
+        private Throwable error;
+
+        private PendingWrite(WriteCommand<T> command) {
+            this.command = command;
+        }
+
+        private void execute(Connection conn) throws SQLException {
+            result = command.execute(conn);
+        }
+
+        private void complete() {
+            if (error == null) {
+                future.complete(result);
+            } else {
+                future.completeExceptionally(error);
+            }
+        }
+
+        private void fail(Throwable t) {
+            future.completeExceptionally(t);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package devs.fmm.rfc_01.db;
+
+/**
+ * Instantánea inmutable de las métricas de un pool de conexiones.
+ */
+public class PoolStats {
+    private final String poolName;
+    private final int maxSize;
+    private final int activeConnections;
+    private final int idleConnections;
+    private final long totalCreated;
+    private final long totalBorrowed;
+    private final long totalTimeouts;
+    private final long totalLeaks;
+    private final long totalValidationFailures;
+    private final long averageWaitMicros;
+    private final long maxWaitMicros;
+
+    public PoolStats(String poolName, int maxSize, int activeConnections, int idleConnections, long totalCreated,
+                     long totalBorrowed, long totalTimeouts, long totalLeaks, long totalValidationFailures,
+                     long averageWaitMicros, long maxWaitMicros) {
+        this.poolName = poolName;
+        this.maxSize = maxSize;
+        this.activeConnections = activeConnections;
+        this.idleConnections = idleConnections;
+        this.totalCreated = totalCreated;
+        this.totalBorrowed = totalBorrowed;
+        this.totalTimeouts = totalTimeouts;
+        this.totalLeaks = totalLeaks;
+        this.totalValidationFailures = totalValidationFailures;
+        this.averageWaitMicros = averageWaitMicros;
+        this.maxWaitMicros = maxWaitMicros;
+    }
+
+    // Getters
+
+    public String getPoolName() {
+        return poolName;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getActiveConnections() {
+        return activeConnections;
+    }
+
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+
+    public long getTotalCreated() {
+        return totalCreated;
+    }
+
+    public long getTotalBorrowed() {
+        return totalBorrowed;
+    }
+
+    public long getTotalTimeouts() {
+        return totalTimeouts;
+    }
+
+    public long getTotalLeaks() {
+        return totalLeaks;
+    }
+
+    public long getTotalValidationFailures() {
+        return totalValidationFailures;
+    }
+
+    public long getAverageWaitMicros() {
+        return averageWaitMicros;
+    }
+
+    public long getMaxWaitMicros() {
+        return maxWaitMicros;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStats{" +
+                "pool='" + poolName + '\'' +
+                ", max=" + maxSize +
+                ", active=" + activeConnections +
+                ", idle=" + idleConnections +
+                ", created=" + totalCreated +
+                ", borrowed=" + totalBorrowed +
+                ", timeouts=" + totalTimeouts +
+                ", leaks=" + totalLeaks +
+                ", validationFailures=" + totalValidationFailures +
+                ", avgWaitUs=" + averageWaitMicros +
+                ", maxWaitUs=" + maxWaitMicros +
+                '}';
+    }
+}
@@ -0,0 +1,203 @@
+package devs.fmm.rfc_01.db;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+
+/**
+ * Perfil con nombre de los PRAGMA de SQLite que se aplican a cada conexión al abrirla.
+ * <p>
+ * Hay tres perfiles predefinidos que cambian durabilidad por rendimiento de escritura:
+ * <ul>
+ *     <li>{@link #DURABLE}: WAL con {@code synchronous=FULL}; cada commit se sincroniza con disco.</li>
+ *     <li>{@link #BALANCED}: WAL con {@code synchronous=NORMAL}; un corte de luz puede perder los últimos
+ *     commits pero nunca corrompe la base de datos. Es el perfil por defecto.</li>
+ *     <li>{@link #THROUGHPUT}: WAL con {@code synchronous=OFF} y cachés grandes, para importaciones y pruebas de carga.</li>
+ * </ul>
+ * El perfil se elige con la propiedad {@code rfc.db.profile} y cada valor puede sobrescribirse
+ * individualmente con {@code rfc.db.pragma.<nombre>} (por ejemplo {@code -Drfc.db.pragma.synchronous=FULL}).
+ */
+public class PragmaProfile {
+
+    public static final PragmaProfile DURABLE =
+            new PragmaProfile("DURABLE", "WAL", "FULL", -8_000, 0L, "MEMORY", 5_000, 1_000, 0);
+    public static final PragmaProfile BALANCED =
+            new PragmaProfile("BALANCED", "WAL", "NORMAL", -16_000, 64L * 1024 * 1024, "MEMORY", 5_000, 1_000, 300);
+    public static final PragmaProfile THROUGHPUT =
+            new PragmaProfile("THROUGHPUT", "WAL", "OFF", -65_536, 256L * 1024 * 1024, "MEMORY", 10_000, 4_000, 60);
+
+    private static final String PROFILE_PROPERTY = "rfc.db.profile";
+    private static final String PRAGMA_PROPERTY_PREFIX = "rfc.db.pragma.";
+
+    private final String name;
+    private final String journalMode;
+    private final String synchronous;
+    private final int cacheSize;
+    private final long mmapSize;
+    private final String tempStore;
+    private final int busyTimeoutMillis;
+    private final int walAutocheckpointPages;
+    private final int checkpointIntervalSeconds;
+
+    /**
+     * Constructor con todos los campos.
+     *
+     * @param name El nombre del perfil
+     * @param journalMode El modo de diario (WAL, DELETE, TRUNCATE...)
+     * @param synchronous El nivel de sincronización (OFF, NORMAL, FULL, EXTRA)
+     * @param cacheSize El tamaño de caché; negativo en KiB, positivo en páginas
+     * @param mmapSize Los bytes a mapear en memoria (0 para desactivar)
+     * @param tempStore Dónde guardar tablas temporales (DEFAULT, FILE, MEMORY)
+     * @param busyTimeoutMillis Cuánto esperar a que se libere un bloqueo antes de fallar
+     * @param walAutocheckpointPages Páginas de WAL tras las que SQLite hace un checkpoint automático (0 para desactivar)
+     * @param checkpointIntervalSeconds Cada cuántos segundos lanzar un checkpoint pasivo en segundo plano (0 para desactivar)
+     */
+    public PragmaProfile(String name, String journalMode, String synchronous, int cacheSize, long mmapSize,
+                         String tempStore, int busyTimeoutMillis, int walAutocheckpointPages, int checkpointIntervalSeconds) {
+        this.name = name;
+        this.journalMode = journalMode;
+        this.synchronous = synchronous;
+        this.cacheSize = cacheSize;
+        this.mmapSize = mmapSize;
+        this.tempStore = tempStore;
+        this.busyTimeoutMillis = busyTimeoutMillis;
+        this.walAutocheckpointPages = walAutocheckpointPages;
+        this.checkpointIntervalSeconds = checkpointIntervalSeconds;
+    }
+
+    /**
+     * Resuelve el perfil activo a partir de las propiedades del sistema.
+     *
+     * @return El perfil elegido con las sobrescrituras aplicadas
+     */
+    public static PragmaProfile fromSystemProperties() {
+        String profileName = System.getProperty(PROFILE_PROPERTY, BALANCED.name).trim().toUpperCase(Locale.ROOT);
+        PragmaProfile base;
+        switch (profileName) {
+            case "DURABLE":
+                base = DURABLE;
+                break;
+            case "THROUGHPUT":
+                base = THROUGHPUT;
+                break;
+            case "BALANCED":
+                base = BALANCED;
+                break;
+            default:
+                System.err.println("Unknown database profile '" + profileName + "', using " + BALANCED.name);
+                base = BALANCED;
+        }
+
+        return new PragmaProfile(
+                base.name,
+                stringOverride("journal_mode", base.journalMode),
+                stringOverride("synchronous", base.synchronous),
+                Integer.getInteger(PRAGMA_PROPERTY_PREFIX + "cache_size", base.cacheSize),
+                Long.getLong(PRAGMA_PROPERTY_PREFIX + "mmap_size", base.mmapSize),
+                stringOverride("temp_store", base.tempStore),
+                Integer.getInteger(PRAGMA_PROPERTY_PREFIX + "busy_timeout", base.busyTimeoutMillis),
+                Integer.getInteger(PRAGMA_PROPERTY_PREFIX + "wal_autocheckpoint", base.walAutocheckpointPages),
+                Integer.getInteger(PRAGMA_PROPERTY_PREFIX + "checkpoint_interval", base.checkpointIntervalSeconds));
+    }
+
+    private static String stringOverride(String pragma, String defaultValue) {
+        String value = System.getProperty(PRAGMA_PROPERTY_PREFIX + pragma);
+        // Solo se aceptan identificadores simples: el valor se concatena en la sentencia PRAGMA
+        if (value == null || !value.matches("[A-Za-z_]+")) {
+            return defaultValue;
+        }
+        return value.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Aplica el perfil a una conexión recién abierta.
+     * El modo de diario es persistente en el fichero, por lo que solo lo fija la conexión de escritura.
+     *
+     * @param conn La conexión a configurar
+     * @param writer true si es la conexión de escritura
+     * @throws SQLException Si ocurre un error SQL
+     */
+    void applyTo(Connection conn, boolean writer) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = " + busyTimeoutMillis);
+            if (writer) {
+                try (ResultSet rs = stmt.executeQuery("PRAGMA journal_mode = " + journalMode)) {
+                    if (rs.next() && !journalMode.equalsIgnoreCase(rs.getString(1))) {
+                        System.err.println("Requested journal_mode=" + journalMode + " but SQLite is using " + rs.getString(1));
+                    }
+                }
+                stmt.execute("PRAGMA wal_autocheckpoint = " + walAutocheckpointPages);
+            }
+            stmt.execute("PRAGMA synchronous = " + synchronous);
+            stmt.execute("PRAGMA cache_size = " + cacheSize);
+            stmt.execute("PRAGMA mmap_size = " + mmapSize);
+            stmt.execute("PRAGMA temp_store = " + tempStore);
+        }
+    }
+
+    /**
+     * Devuelve una copia del perfil con otro modo de diario, para bases de datos que no admiten el configurado.
+     *
+     * @param journalMode El modo de diario
+     * @return El perfil con el modo de diario cambiado
+     */
+    public PragmaProfile withJournalMode(String journalMode) {
+        return new PragmaProfile(name, journalMode, synchronous, cacheSize, mmapSize, tempStore, busyTimeoutMillis,
+                walAutocheckpointPages, checkpointIntervalSeconds);
+    }
+
+    // Getters
+
+    public String getName() {
+        return name;
+    }
+
+    public String getJournalMode() {
+        return journalMode;
+    }
+
+    public String getSynchronous() {
+        return synchronous;
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    public long getMmapSize() {
+        return mmapSize;
+    }
+
+    public String getTempStore() {
+        return tempStore;
+    }
+
+    public int getBusyTimeoutMillis() {
+        return busyTimeoutMillis;
+    }
+
+    public int getWalAutocheckpointPages() {
+        return walAutocheckpointPages;
+    }
+
+    public int getCheckpointIntervalSeconds() {
+        return checkpointIntervalSeconds;
+    }
+
+    @Override
+    public String toString() {
+        return "PragmaProfile{" +
+                "name='" + name + '\'' +
+                ", journal_mode=" + journalMode +
+                ", synchronous=" + synchronous +
+                ", cache_size=" + cacheSize +
+                ", mmap_size=" + mmapSize +
+                ", temp_store=" + tempStore +
+                ", busy_timeout=" + busyTimeoutMillis +
+                ", wal_autocheckpoint=" + walAutocheckpointPages +
+                ", checkpoint_interval=" + checkpointIntervalSeconds + "s" +
+                '}';
+    }
+}
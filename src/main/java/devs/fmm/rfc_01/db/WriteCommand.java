@@ -0,0 +1,27 @@
+package devs.fmm.rfc_01.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Una escritura que el hilo escritor ejecuta sobre la conexión de escritura (ver
+ * {@link DatabaseManager#write(WriteCommand)}).
+ * <p>
+ * El comando se ejecuta dentro de la transacción del grupo en el que se confirma, protegido por su propio
+ * SAVEPOINT: si lanza una excepción se deshacen solo sus cambios. Por eso no debe confirmar ni deshacer la
+ * transacción, ni cambiar el modo auto-commit, ni pedir otra escritura.
+ *
+ * @param <T> El tipo del resultado
+ */
+@FunctionalInterface
+public interface WriteCommand<T> {
+
+    /**
+     * Ejecuta la escritura.
+     *
+     * @param conn La conexión de escritura, con una transacción abierta
+     * @return El resultado de la escritura
+     * @throws SQLException Si ocurre un error SQL; los cambios del comando se deshacen
+     */
+    T execute(Connection conn) throws SQLException;
+}
@@ -0,0 +1,84 @@
+package devs.fmm.rfc_01.db.migration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Un cambio de esquema numerado. Las migraciones se aplican en orden de versión y cada una dentro de
+ * su propia transacción, junto con la actualización de {@code PRAGMA user_version}.
+ * <p>
+ * Los pasos deben trabajar con SQL sobre el conjunto completo ({@code CREATE INDEX}, {@code INSERT ... SELECT},
+ * {@code UPDATE}) en lugar de recorrer filas desde Java, para que el coste no dependa de la memoria de la JVM.
+ */
+public class Migration {
+
+    /**
+     * El trabajo que realiza una migración sobre la conexión de escritura.
+     */
+    @FunctionalInterface
+    public interface Step {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    private final int version;
+    private final String description;
+    private final Step step;
+
+    /**
+     * Constructor.
+     *
+     * @param version La versión de esquema que alcanza la base de datos tras aplicar la migración (mayor que 0)
+     * @param description Una descripción breve para los registros
+     * @param step El trabajo a realizar
+     */
+    public Migration(int version, String description, Step step) {
+        if (version <= 0) {
+            throw new IllegalArgumentException("Migration version must be positive: " + version);
+        }
+        this.version = version;
+        this.description = description;
+        this.step = step;
+    }
+
+    /**
+     * Crea una migración formada por una lista de sentencias SQL.
+     *
+     * @param version La versión de esquema de la migración
+     * @param description Una descripción breve para los registros
+     * @param statements Las sentencias a ejecutar en orden
+     * @return La migración
+     */
+    public static Migration sql(int version, String description, String... statements) {
+        return new Migration(version, description, conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                for (String sql : statements) {
+                    stmt.execute(sql);
+                }
+            }
+        });
+    }
+
+    /**
+     * Aplica la migración. La transacción la gestiona {@link MigrationRunner}.
+     *
+     * @param conn La conexión de escritura, con auto-commit desactivado
+     * @throws SQLException Si ocurre un error SQL
+     */
+    void apply(Connection conn) throws SQLException {
+        step.apply(conn);
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public String toString() {
+        return "V" + version + " (" + description + ")";
+    }
+}
@@ -0,0 +1,117 @@
+package devs.fmm.rfc_01.db.migration;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Aplica en orden las migraciones pendientes usando {@code PRAGMA user_version} como versión del esquema.
+ */
+public class MigrationRunner {
+
+    private final List<Migration> migrations;
+
+    /**
+     * Constructor.
+     *
+     * @param migrations Las migraciones conocidas; sus versiones deben ser únicas
+     */
+    public MigrationRunner(List<Migration> migrations) {
+        List<Migration> sorted = new ArrayList<>(migrations);
+        sorted.sort(Comparator.comparingInt(Migration::getVersion));
+
+        for (int i = 1; i < sorted.size(); i++) {
+            if (sorted.get(i).getVersion() == sorted.get(i - 1).getVersion()) {
+                throw new IllegalArgumentException("Duplicate migration version " + sorted.get(i).getVersion());
+            }
+        }
+
+        this.migrations = List.copyOf(sorted);
+    }
+
+    /**
+     * Obtiene la versión más alta que conoce este runner.
+     *
+     * @return La última versión de esquema, o 0 si no hay migraciones
+     */
+    public int getLatestVersion() {
+        return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).getVersion();
+    }
+
+    /**
+     * Lee la versión de esquema actual de la base de datos.
+     *
+     * @param conn La conexión a la base de datos
+     * @return El valor de {@code PRAGMA user_version}
+     * @throws SQLException Si ocurre un error SQL
+     */
+    public static int getCurrentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Aplica todas las migraciones con versión mayor que la actual. Cada una se ejecuta en su propia
+     * transacción; si falla, se deshace y no se aplica ninguna de las siguientes.
+     *
+     * @param conn La conexión de escritura
+     * @return El número de migraciones aplicadas
+     * @throws SQLException Si alguna migración falla
+     */
+    public int migrate(Connection conn) throws SQLException {
+        int currentVersion = getCurrentVersion(conn);
+        int latestVersion = getLatestVersion();
+
+        if (currentVersion > latestVersion) {
+            System.err.println("Database schema version " + currentVersion +
+                    " is newer than the latest known version " + latestVersion + "; skipping migrations");
+            return 0;
+        }
+
+        int applied = 0;
+        long totalStart = System.nanoTime();
+
+        for (Migration migration : migrations) {
+            if (migration.getVersion() <= currentVersion) {
+                continue;
+            }
+
+            long start = System.nanoTime();
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                migration.apply(conn);
+                try (Statement stmt = conn.createStatement()) {
+                    // user_version forma parte de la cabecera del fichero y se confirma con la misma transacción
+                    stmt.execute("PRAGMA user_version = " + migration.getVersion());
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw new SQLException("Migration " + migration + " failed: " + e.getMessage(), e);
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+
+            applied++;
+            System.out.println("Applied migration " + migration + " in " + elapsedMillis(start) + " ms");
+        }
+
+        if (applied > 0) {
+            System.out.println("Database schema migrated from version " + currentVersion + " to " + latestVersion +
+                    " in " + elapsedMillis(totalStart) + " ms");
+        }
+
+        return applied;
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
@@ -0,0 +1,147 @@
+package devs.fmm.rfc_01.db.migration;
+
+import devs.fmm.rfc_01.db.DatabaseInitializer;
+
+import java.util.List;
+
+/**
+ * Catálogo ordenado de las migraciones de esquema de la aplicación.
+ * <p>
+ * Las migraciones publicadas no deben modificarse nunca: cualquier cambio nuevo se añade como una
+ * versión adicional al final de la lista.
+ */
+public final class Migrations {
+
+    private Migrations() {
+    }
+
+    /**
+     * Obtiene todas las migraciones conocidas.
+     *
+     * @return La lista de migraciones en orden de versión
+     */
+    public static List<Migration> all() {
+        return List.of(
+                // Esquema original. Usa IF NOT EXISTS porque las instalaciones anteriores al sistema de
+                // migraciones ya tienen estas tablas pero su user_version es 0.
+                Migration.sql(1, "create base tables",
+                        "CREATE TABLE IF NOT EXISTS challenges (" +
+                                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                                "name TEXT NOT NULL," +
+                                "description TEXT NOT NULL," +
+                                "category TEXT NOT NULL," +
+                                "difficulty INTEGER NOT NULL," +
+                                "duration_minutes INTEGER NOT NULL," +
+                                "image_path TEXT" +
+                                ")",
+                        "CREATE TABLE IF NOT EXISTS user_stats (" +
+                                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                                "total_challenges_completed INTEGER DEFAULT 0," +
+                                "total_minutes_exercised INTEGER DEFAULT 0," +
+                                "streak_days INTEGER DEFAULT 0," +
+                                "last_challenge_date TEXT" +
+                                ")",
+                        "CREATE TABLE IF NOT EXISTS completed_challenges (" +
+                                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                                "challenge_id INTEGER NOT NULL," +
+                                "completion_date TEXT NOT NULL," +
+                                "FOREIGN KEY (challenge_id) REFERENCES challenges(id)" +
+                                ")",
+                        "INSERT OR IGNORE INTO user_stats (id, total_challenges_completed, total_minutes_exercised, streak_days) " +
+                                "VALUES (1, 0, 0, 0)"),
+
+                // Índices secundarios para los filtros por fecha, reto, categoría y dificultad
+                Migration.sql(2, "add secondary indexes",
+                        "CREATE INDEX IF NOT EXISTS idx_completed_challenges_completion_date " +
+                                "ON completed_challenges (completion_date)",
+                        "CREATE INDEX IF NOT EXISTS idx_completed_challenges_challenge_id " +
+                                "ON completed_challenges (challenge_id, completion_date)",
+                        "CREATE INDEX IF NOT EXISTS idx_challenges_category ON challenges (category)",
+                        "CREATE INDEX IF NOT EXISTS idx_challenges_difficulty ON challenges (difficulty)"),
+
+                // Retos predeterminados para las instalaciones nuevas
+                new Migration(3, "seed default challenges", DatabaseInitializer::seedDefaultChallengesIfEmpty),
+
+                // Retos ya mostrados en el ciclo sin repetición, para que el ciclo sobreviva a un reinicio
+                Migration.sql(4, "track shown challenges",
+                        "CREATE TABLE IF NOT EXISTS shown_challenges (" +
+                                "challenge_id INTEGER PRIMARY KEY" +
+                                ")"),
+
+                // Resumen diario de actividad, rellenado a partir del historial existente
+                Migration.sql(5, "add daily activity rollup",
+                        "CREATE TABLE IF NOT EXISTS daily_activity (" +
+                                "date TEXT PRIMARY KEY," +
+                                "challenge_count INTEGER NOT NULL DEFAULT 0," +
+                                "minutes INTEGER NOT NULL DEFAULT 0" +
+                                ") WITHOUT ROWID",
+                        "CREATE TABLE IF NOT EXISTS daily_category_activity (" +
+                                "date TEXT NOT NULL," +
+                                "category TEXT NOT NULL," +
+                                "challenge_count INTEGER NOT NULL DEFAULT 0," +
+                                "PRIMARY KEY (date, category)" +
+                                ") WITHOUT ROWID",
+                        "INSERT INTO daily_activity (date, challenge_count, minutes) " +
+                                "SELECT substr(completed_challenges.completion_date, 1, 10), COUNT(*), " +
+                                "COALESCE(SUM(challenges.duration_minutes), 0) FROM completed_challenges " +
+                                "LEFT JOIN challenges ON completed_challenges.challenge_id = challenges.id GROUP BY 1",
+                        "INSERT INTO daily_category_activity (date, category, challenge_count) " +
+                                "SELECT substr(completed_challenges.completion_date, 1, 10), challenges.category, COUNT(*) " +
+                                "FROM completed_challenges JOIN challenges ON completed_challenges.challenge_id = challenges.id " +
+                                "GROUP BY 1, 2"),
+
+                // Último reto completado incluido en user_stats, para recuperar las estadísticas que no llegaron a
+                // escribirse. Hasta ahora las estadísticas se escribían con cada completación, así que están al día.
+                Migration.sql(6, "track completions included in user stats",
+                        "ALTER TABLE user_stats ADD COLUMN last_completion_id INTEGER NOT NULL DEFAULT 0",
+                        "UPDATE user_stats SET last_completion_id = COALESCE((SELECT MAX(id) FROM completed_challenges), 0)"),
+
+                // Perfiles de usuario. Los datos existentes pasan al perfil predeterminado (ID 1) y los índices y
+                // resúmenes empiezan por user_id, así que cada consulta de un perfil solo recorre sus propias filas.
+                Migration.sql(7, "add user profiles",
+                        "CREATE TABLE IF NOT EXISTS users (" +
+                                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                                "name TEXT NOT NULL UNIQUE," +
+                                "created_at TEXT NOT NULL" +
+                                ")",
+                        "INSERT OR IGNORE INTO users (id, name, created_at) " +
+                                "VALUES (1, 'Predeterminado', strftime('%Y-%m-%dT%H:%M:%S', 'now', 'localtime'))",
+                        "ALTER TABLE completed_challenges ADD COLUMN user_id INTEGER NOT NULL DEFAULT 1 REFERENCES users(id)",
+                        "DROP INDEX IF EXISTS idx_completed_challenges_completion_date",
+                        "DROP INDEX IF EXISTS idx_completed_challenges_challenge_id",
+                        "CREATE INDEX IF NOT EXISTS idx_completed_challenges_user_date " +
+                                "ON completed_challenges (user_id, completion_date)",
+                        "CREATE INDEX IF NOT EXISTS idx_completed_challenges_user_challenge " +
+                                "ON completed_challenges (user_id, challenge_id, completion_date)",
+                        "DELETE FROM user_stats WHERE id <> 1",
+                        "ALTER TABLE user_stats ADD COLUMN user_id INTEGER NOT NULL DEFAULT 1 REFERENCES users(id)",
+                        "CREATE UNIQUE INDEX IF NOT EXISTS idx_user_stats_user_id ON user_stats (user_id)",
+                        // Los resúmenes diarios se derivan del historial: se recrean con user_id en la clave
+                        "DROP TABLE IF EXISTS daily_activity",
+                        "DROP TABLE IF EXISTS daily_category_activity",
+                        "CREATE TABLE daily_activity (" +
+                                "user_id INTEGER NOT NULL," +
+                                "date TEXT NOT NULL," +
+                                "challenge_count INTEGER NOT NULL DEFAULT 0," +
+                                "minutes INTEGER NOT NULL DEFAULT 0," +
+                                "PRIMARY KEY (user_id, date)" +
+                                ") WITHOUT ROWID",
+                        "CREATE TABLE daily_category_activity (" +
+                                "user_id INTEGER NOT NULL," +
+                                "date TEXT NOT NULL," +
+                                "category TEXT NOT NULL," +
+                                "challenge_count INTEGER NOT NULL DEFAULT 0," +
+                                "PRIMARY KEY (user_id, date, category)" +
+                                ") WITHOUT ROWID",
+                        "INSERT INTO daily_activity (user_id, date, challenge_count, minutes) " +
+                                "SELECT completed_challenges.user_id, substr(completed_challenges.completion_date, 1, 10), COUNT(*), " +
+                                "COALESCE(SUM(challenges.duration_minutes), 0) FROM completed_challenges " +
+                                "LEFT JOIN challenges ON completed_challenges.challenge_id = challenges.id GROUP BY 1, 2",
+                        "INSERT INTO daily_category_activity (user_id, date, category, challenge_count) " +
+                                "SELECT completed_challenges.user_id, substr(completed_challenges.completion_date, 1, 10), " +
+                                "challenges.category, COUNT(*) " +
+                                "FROM completed_challenges JOIN challenges ON completed_challenges.challenge_id = challenges.id " +
+                                "GROUP BY 1, 2, 3")
+        );
+    }
+}
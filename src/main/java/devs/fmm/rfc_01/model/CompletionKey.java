@@ -0,0 +1,70 @@
+package devs.fmm.rfc_01.model;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Posición de un reto completado en el historial, ordenado de más reciente a más antiguo por fecha y, a igualdad
+ * de fecha, por ID. Sirve como cursor para paginar el historial sin OFFSET: la página siguiente empieza justo
+ * después de la clave del último elemento de la anterior.
+ */
+public class CompletionKey {
+    private final LocalDateTime completionDate;
+    private final int id;
+
+    /**
+     * Constructor.
+     *
+     * @param completionDate La fecha y hora de completado
+     * @param id El ID del reto completado
+     */
+    public CompletionKey(LocalDateTime completionDate, int id) {
+        this.completionDate = Objects.requireNonNull(completionDate);
+        this.id = id;
+    }
+
+    /**
+     * Obtiene la clave de un reto completado.
+     *
+     * @param completedChallenge El reto completado
+     * @return Su clave en el historial
+     */
+    public static CompletionKey of(CompletedChallenge completedChallenge) {
+        return new CompletionKey(completedChallenge.getCompletionDate(), completedChallenge.getId());
+    }
+
+    // Getters
+
+    public LocalDateTime getCompletionDate() {
+        return completionDate;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CompletionKey)) {
+            return false;
+        }
+        CompletionKey that = (CompletionKey) o;
+        return id == that.id && completionDate.equals(that.completionDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(completionDate, id);
+    }
+
+    @Override
+    public String toString() {
+        return "CompletionKey{" +
+                "completionDate=" + completionDate +
+                ", id=" + id +
+                '}';
+    }
+}
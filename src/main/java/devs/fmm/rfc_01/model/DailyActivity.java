@@ -0,0 +1,116 @@
+package devs.fmm.rfc_01.model;
+
+import java.time.LocalDate;
+
+/**
+ * Actividad diaria en un rango de fechas: retos completados y minutos de ejercicio por día.
+ * <p>
+ * Los valores se guardan en arrays primitivos con una posición por día, empezando en la fecha de inicio;
+ * los días sin actividad valen 0.
+ */
+public class DailyActivity {
+    private final LocalDate startDate;
+    private final int[] challengeCounts;
+    private final int[] minutes;
+
+    /**
+     * Constructor.
+     *
+     * @param startDate La fecha del primer día
+     * @param challengeCounts Los retos completados por día
+     * @param minutes Los minutos de ejercicio por día, con la misma longitud que challengeCounts
+     */
+    public DailyActivity(LocalDate startDate, int[] challengeCounts, int[] minutes) {
+        if (challengeCounts.length != minutes.length) {
+            throw new IllegalArgumentException("Counts and minutes must cover the same days");
+        }
+        this.startDate = startDate;
+        this.challengeCounts = challengeCounts;
+        this.minutes = minutes;
+    }
+
+    /**
+     * Obtiene el número de días del rango.
+     *
+     * @return El número de días
+     */
+    public int getDayCount() {
+        return challengeCounts.length;
+    }
+
+    /**
+     * Obtiene la fecha de un día del rango.
+     *
+     * @param day La posición del día, desde 0
+     * @return La fecha
+     */
+    public LocalDate getDate(int day) {
+        return startDate.plusDays(day);
+    }
+
+    /**
+     * Obtiene los retos completados en un día.
+     *
+     * @param day La posición del día, desde 0
+     * @return El número de retos completados
+     */
+    public int getChallengeCount(int day) {
+        return challengeCounts[day];
+    }
+
+    /**
+     * Obtiene los minutos de ejercicio de un día.
+     *
+     * @param day La posición del día, desde 0
+     * @return Los minutos de ejercicio
+     */
+    public int getMinutes(int day) {
+        return minutes[day];
+    }
+
+    /**
+     * Obtiene el mayor número de retos completados en un mismo día.
+     *
+     * @return El máximo diario de retos, o 0 si no hay actividad
+     */
+    public int getMaxChallengeCount() {
+        return max(challengeCounts);
+    }
+
+    /**
+     * Obtiene el mayor número de minutos de ejercicio en un mismo día.
+     *
+     * @return El máximo diario de minutos, o 0 si no hay actividad
+     */
+    public int getMaxMinutes() {
+        return max(minutes);
+    }
+
+    private static int max(int[] values) {
+        int max = 0;
+        for (int value : values) {
+            if (value > max) {
+                max = value;
+            }
+        }
+        return max;
+    }
+
+    // Getters
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return startDate.plusDays(challengeCounts.length - 1L);
+    }
+
+    @Override
+    public String toString() {
+        return "DailyActivity{" +
+                "startDate=" + startDate +
+                ", days=" + challengeCounts.length +
+                '}';
+    }
+}
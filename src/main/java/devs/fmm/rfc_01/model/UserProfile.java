@@ -0,0 +1,93 @@
+package devs.fmm.rfc_01.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Representa un perfil de usuario. Cada perfil tiene su propio historial de retos completados y sus propias
+ * estadísticas, de modo que varias personas pueden compartir una misma instalación.
+ */
+public class UserProfile {
+
+    /**
+     * ID del perfil predeterminado, que siempre existe y al que pertenecen los datos anteriores a los perfiles.
+     */
+    public static final int DEFAULT_ID = 1;
+
+    private int id;
+    private String name;
+    private LocalDateTime createdAt;
+
+    /**
+     * Constructor por defecto.
+     */
+    public UserProfile() {
+    }
+
+    /**
+     * Constructor con todos los campos excepto id.
+     *
+     * @param name El nombre del perfil
+     * @param createdAt La fecha y hora de creación
+     */
+    public UserProfile(String name, LocalDateTime createdAt) {
+        this.name = name;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Constructor con todos los campos.
+     *
+     * @param id El identificador único
+     * @param name El nombre del perfil
+     * @param createdAt La fecha y hora de creación
+     */
+    public UserProfile(int id, String name, LocalDateTime createdAt) {
+        this.id = id;
+        this.name = name;
+        this.createdAt = createdAt;
+    }
+
+    // Getters y setters
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Indica si es el perfil predeterminado.
+     *
+     * @return true si es el perfil predeterminado, false en caso contrario
+     */
+    public boolean isDefault() {
+        return id == DEFAULT_ID;
+    }
+
+    @Override
+    public String toString() {
+        return "UserProfile{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
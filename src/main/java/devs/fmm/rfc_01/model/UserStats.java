@@ -11,6 +11,7 @@ public class UserStats {
     private int totalMinutesExercised;
     private int streakDays;
     private LocalDate lastChallengeDate;
+    private int lastCompletionId;
 
     /**
      * Constructor por defecto.
@@ -92,6 +93,14 @@ public class UserStats {
         this.lastChallengeDate = lastChallengeDate;
     }
 
+    public int getLastCompletionId() {
+        return lastCompletionId;
+    }
+
+    public void setLastCompletionId(int lastCompletionId) {
+        this.lastCompletionId = lastCompletionId;
+    }
+
     /**
      * Actualiza la racha basada en la fecha actual y la fecha del último reto.
      *
@@ -123,6 +132,7 @@ public class UserStats {
                 ", totalMinutesExercised=" + totalMinutesExercised +
                 ", streakDays=" + streakDays +
                 ", lastChallengeDate=" + lastChallengeDate +
+                ", lastCompletionId=" + lastCompletionId +
                 '}';
     }
 }
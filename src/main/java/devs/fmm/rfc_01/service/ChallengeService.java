@@ -2,8 +2,11 @@ package devs.fmm.rfc_01.service;
 
 import devs.fmm.rfc_01.model.Challenge;
 import devs.fmm.rfc_01.model.CompletedChallenge;
+import devs.fmm.rfc_01.model.CompletionKey;
+import devs.fmm.rfc_01.model.DailyActivity;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,7 +24,7 @@ public interface ChallengeService {
 
     /**
      * Obtiene un reto aleatorio que no se ha mostrado en el ciclo actual.
-     * Una vez que se han mostrado todos los retos, el ciclo se reinicia.
+     * Una vez que se han mostrado todos los retos, el ciclo se reinicia. El ciclo se conserva entre reinicios de la aplicación.
      *
      * @return Un Optional que contiene un reto aleatorio, o vacío si no existen retos
      */
@@ -58,6 +61,14 @@ public interface ChallengeService {
      */
     CompletedChallenge completeChallenge(int challengeId);
 
+    /**
+     * Elimina un reto completado del historial del perfil activo.
+     *
+     * @param completedChallengeId El ID del reto completado a eliminar
+     * @return true si la eliminación fue exitosa, false en caso contrario
+     */
+    boolean deleteCompletedChallenge(int completedChallengeId);
+
     /**
      * Obtiene todos los retos completados.
      *
@@ -65,6 +76,53 @@ public interface ChallengeService {
      */
     List<CompletedChallenge> getAllCompletedChallenges();
 
+    /**
+     * Obtiene una página del historial de retos completados, de más reciente a más antiguo.
+     *
+     * @param after La clave del último elemento de la página anterior, o null para la primera página
+     * @param limit El número máximo de elementos
+     * @return Los retos completados de la página
+     */
+    List<CompletedChallenge> getCompletedChallengePage(CompletionKey after, int limit);
+
+    /**
+     * Obtiene la clave del elemento que ocupa una posición del historial.
+     *
+     * @param offset La posición, desde 0
+     * @return Un Optional con la clave, o vacío si la posición está fuera del historial
+     */
+    Optional<CompletionKey> getCompletionKeyAt(int offset);
+
+    /**
+     * Obtiene la fecha del primer reto completado.
+     *
+     * @return Un Optional con la fecha y hora más antigua, o vacío si no hay retos completados
+     */
+    Optional<LocalDateTime> getEarliestCompletionDate();
+
+    /**
+     * Obtiene la fecha del último reto completado.
+     *
+     * @return Un Optional con la fecha y hora más reciente, o vacío si no hay retos completados
+     */
+    Optional<LocalDateTime> getLatestCompletionDate();
+
+    /**
+     * Obtiene el número total de retos completados.
+     *
+     * @return El número de retos completados
+     */
+    int getCompletedChallengeCount();
+
+    /**
+     * Obtiene el número de retos completados en un rango de fechas.
+     *
+     * @param startDate La fecha de inicio (inclusiva)
+     * @param endDate La fecha de fin (inclusiva)
+     * @return El número de retos completados en el rango
+     */
+    int getCompletedChallengeCount(LocalDate startDate, LocalDate endDate);
+
     /**
      * Obtiene retos completados para un rango de fechas específico.
      *
@@ -106,4 +164,14 @@ public interface ChallengeService {
      * @return Una lista de pares fecha-minutos
      */
     List<Object[]> getExerciseMinutesByDate(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Obtiene los retos completados y los minutos de ejercicio de cada día de un rango de fechas,
+     * incluidos los días sin actividad.
+     *
+     * @param startDate La fecha de inicio (inclusiva)
+     * @param endDate La fecha de fin (inclusiva)
+     * @return La actividad diaria del rango
+     */
+    DailyActivity getDailyActivity(LocalDate startDate, LocalDate endDate);
 }
@@ -1,5 +1,8 @@
 package devs.fmm.rfc_01.service;
 
+import java.time.Instant;
+import java.util.Optional;
+
 /**
  * Interfaz de servicio para operaciones relacionadas con notificaciones.
  */
@@ -22,6 +25,28 @@ public interface NotificationService {
      */
     void stopScheduler();
 
+    /**
+     * Obtiene el momento del próximo recordatorio programado.
+     *
+     * @return El próximo recordatorio, o vacío si no hay ninguno programado
+     */
+    Optional<Instant> getNextNotificationTime();
+
+    /**
+     * Obtiene el comienzo de la espera del próximo recordatorio, como el último aviso o el momento en que se aplazó,
+     * para mostrar el progreso de la espera.
+     *
+     * @return El comienzo de la espera, o vacío si no hay ningún recordatorio programado
+     */
+    Optional<Instant> getNotificationWaitStart();
+
+    /**
+     * Aplaza los recordatorios: se avisa una vez pasados los minutos indicados y ninguna regla avisa antes.
+     *
+     * @param minutes Los minutos de aplazamiento
+     */
+    void snooze(int minutes);
+
     /**
      * Envía una notificación inmediatamente.
      *
@@ -37,6 +62,14 @@ public interface NotificationService {
      */
     boolean isNotificationSupported();
 
+    /**
+     * Vuelve a comprobar qué formas de mostrar notificaciones hay disponibles, por ejemplo tras instalar libnotify.
+     * La comprobación se hace una sola vez al arrancar; solo se repite al llamar a este método.
+     *
+     * @return true si las notificaciones son compatibles tras la comprobación, false en caso contrario
+     */
+    boolean reprobeTransports();
+
     /**
      * Obtiene el intervalo actual de notificaciones en minutos.
      *
@@ -45,7 +78,8 @@ public interface NotificationService {
     int getNotificationInterval();
 
     /**
-     * Establece el intervalo de notificaciones en minutos.
+     * Establece el intervalo de notificaciones en minutos. Si las notificaciones están habilitadas, los
+     * recordatorios se reprograman cuando el intervalo deja de cambiar.
      *
      * @param intervalMinutes El intervalo de notificaciones en minutos
      */
@@ -64,4 +98,9 @@ public interface NotificationService {
      * @param enabled true para habilitar notificaciones, false para deshabilitar
      */
     void setNotificationEnabled(boolean enabled);
+
+    /**
+     * Detiene el programador y el envío de notificaciones. Las notificaciones pendientes se descartan.
+     */
+    void shutdown();
 }
@@ -0,0 +1,61 @@
+package devs.fmm.rfc_01.service;
+
+import devs.fmm.rfc_01.model.UserProfile;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Interfaz de servicio para los perfiles de usuario.
+ * <p>
+ * En cada momento hay un perfil activo; los servicios de retos y estadísticas leen y escriben el historial y las
+ * estadísticas de ese perfil.
+ */
+public interface ProfileService {
+
+    /**
+     * Obtiene todos los perfiles ordenados por nombre.
+     *
+     * @return Una lista de todos los perfiles
+     */
+    List<UserProfile> getProfiles();
+
+    /**
+     * Crea un perfil nuevo con las estadísticas a cero.
+     *
+     * @param name El nombre del perfil, que debe ser único
+     * @return Un Optional con el perfil creado, o vacío si el nombre está vacío, ya existe o la operación falla
+     */
+    Optional<UserProfile> createProfile(String name);
+
+    /**
+     * Elimina un perfil con todo su historial y sus estadísticas. Si es el perfil activo, pasa a estar activo el
+     * predeterminado. El perfil predeterminado no se puede eliminar.
+     *
+     * @param id El ID del perfil a eliminar
+     * @return true si la eliminación fue exitosa, false en caso contrario
+     */
+    boolean deleteProfile(int id);
+
+    /**
+     * Obtiene el perfil activo.
+     *
+     * @return El perfil activo
+     */
+    UserProfile getCurrentProfile();
+
+    /**
+     * Obtiene el ID del perfil activo sin acceder a la base de datos.
+     *
+     * @return El ID del perfil activo
+     */
+    int getCurrentProfileId();
+
+    /**
+     * Cambia el perfil activo.
+     *
+     * @param id El ID del perfil que pasa a estar activo
+     * @return true si el cambio fue exitoso, false si el perfil no existe
+     */
+    boolean switchProfile(int id);
+}
@@ -2,6 +2,8 @@ package devs.fmm.rfc_01.service;
 
 import devs.fmm.rfc_01.model.UserStats;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.Optional;
 
 /**
@@ -33,6 +35,17 @@ public interface StatsService {
      */
     boolean recordCompletedChallenge(int challengeId, int durationMinutes);
 
+    /**
+     * Registra un reto completado y actualiza las estadísticas del usuario. El reto completado y el resumen diario
+     * se guardan en una única transacción; las estadísticas pueden escribirse más tarde, pero se recuperan del
+     * historial si la aplicación termina antes.
+     *
+     * @param challengeId El ID del reto completado
+     * @param durationMinutes Los minutos ejercitados
+     * @return Un Optional con las estadísticas resultantes, o vacío si el reto no existe o la operación falla
+     */
+    Optional<UserStats> recordCompletion(int challengeId, int durationMinutes);
+
     /**
      * Reinicia todas las estadísticas del usuario.
      *
@@ -41,12 +54,53 @@ public interface StatsService {
     boolean resetStats();
 
     /**
-     * Obtiene la racha actual en días.
+     * Recalcula el resumen de actividad diaria a partir del historial completo de retos completados.
+     * Útil tras editar la duración o la categoría de retos ya completados.
+     *
+     * @return true si la reconstrucción fue exitosa, false en caso contrario
+     */
+    boolean rebuildDailyActivity();
+
+    /**
+     * Obtiene la racha actual en días: los días consecutivos con algún reto completado que terminan hoy, o ayer si
+     * hoy aún no se ha completado ninguno. Se calcula a partir del historial, no del contador guardado.
      *
      * @return La racha actual en días
      */
     int getCurrentStreak();
 
+    /**
+     * Obtiene la racha más larga en días de todo el historial.
+     *
+     * @return La racha más larga en días
+     */
+    int getLongestStreak();
+
+    /**
+     * Cuenta los días con al menos un reto completado en un rango de fechas.
+     *
+     * @param startDate La fecha de inicio (inclusiva)
+     * @param endDate La fecha de fin (inclusiva)
+     * @return El número de días activos
+     */
+    int getActiveDays(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Cuenta los días activos de la semana, de lunes a domingo, que contiene una fecha.
+     *
+     * @param date Una fecha de la semana
+     * @return El número de días activos de la semana
+     */
+    int getActiveDaysInWeek(LocalDate date);
+
+    /**
+     * Cuenta los días activos de un mes.
+     *
+     * @param month El mes
+     * @return El número de días activos del mes
+     */
+    int getActiveDaysInMonth(YearMonth month);
+
     /**
      * Obtiene el número total de retos completados.
      *
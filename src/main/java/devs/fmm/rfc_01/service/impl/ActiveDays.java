@@ -0,0 +1,189 @@
+package devs.fmm.rfc_01.service.impl;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Conjunto de días con actividad guardado como un bitset de días epoch: un bit por día, 64 días por palabra.
+ * <p>
+ * El bit {@code i} de la palabra {@code w} corresponde al día {@code origin + w * 64 + i}, así que dentro de cada
+ * palabra los bits bajos son los días más antiguos. El rango crece en ambos sentidos según se añaden días, y las
+ * consultas de rachas y conteos recorren las palabras con operaciones de bits en lugar de día a día.
+ * <p>
+ * No es seguro para hilos; quien lo comparta debe sincronizar el acceso.
+ */
+final class ActiveDays {
+
+    private static final int WORD_BITS = 64;
+
+    // Día epoch del bit 0 de la primera palabra; siempre múltiplo de 64
+    private long origin;
+    private long[] words = new long[0];
+
+    /**
+     * Marca un día como activo.
+     *
+     * @param date El día
+     */
+    void add(LocalDate date) {
+        long day = date.toEpochDay();
+        ensureCovers(day);
+        long index = day - origin;
+        words[(int) (index >>> 6)] |= 1L << index;
+    }
+
+    /**
+     * Marca un día como inactivo.
+     *
+     * @param date El día
+     */
+    void remove(LocalDate date) {
+        long index = date.toEpochDay() - origin;
+        if (index >= 0 && index < (long) words.length * WORD_BITS) {
+            words[(int) (index >>> 6)] &= ~(1L << index);
+        }
+    }
+
+    /**
+     * Indica si un día está activo.
+     *
+     * @param date El día
+     * @return true si el día tiene actividad, false en caso contrario
+     */
+    boolean contains(LocalDate date) {
+        return contains(date.toEpochDay());
+    }
+
+    /**
+     * Obtiene la racha actual: los días activos consecutivos que terminan hoy, o ayer si hoy aún no hay actividad.
+     *
+     * @param today La fecha actual
+     * @return La racha actual en días, o 0 si ni hoy ni ayer hubo actividad
+     */
+    int currentStreak(LocalDate today) {
+        long day = today.toEpochDay();
+        if (!contains(day)) {
+            day--;
+            if (!contains(day)) {
+                return 0;
+            }
+        }
+
+        long index = day - origin;
+        int word = (int) (index >>> 6);
+        int bit = (int) (index & (WORD_BITS - 1));
+
+        // Llevar el día al bit más alto: los unos iniciales son los días consecutivos hasta él
+        int streak = Long.numberOfLeadingZeros(~(words[word] << (WORD_BITS - 1 - bit)));
+        if (streak <= bit) {
+            return streak;
+        }
+        for (word--; word >= 0 && words[word] == -1L; word--) {
+            streak += WORD_BITS;
+        }
+        if (word >= 0) {
+            streak += Long.numberOfLeadingZeros(~words[word]);
+        }
+        return streak;
+    }
+
+    /**
+     * Obtiene la racha más larga de días activos consecutivos.
+     *
+     * @return La racha más larga en días
+     */
+    int longestStreak() {
+        int longest = 0;
+        // Racha que llega hasta el final de la palabra anterior
+        int current = 0;
+
+        for (long word : words) {
+            if (word == -1L) {
+                current += WORD_BITS;
+                continue;
+            }
+
+            // Los unos del principio continúan la racha anterior
+            int prefix = Long.numberOfTrailingZeros(~word);
+            current += prefix;
+            longest = Math.max(longest, current);
+
+            // El resto de rachas de la palabra, de la más antigua a la más reciente
+            long rest = word >>> prefix;
+            current = 0;
+            while (rest != 0) {
+                rest >>>= Long.numberOfTrailingZeros(rest);
+                current = Long.numberOfTrailingZeros(~rest);
+                longest = Math.max(longest, current);
+                rest >>>= current;
+            }
+
+            // Solo sigue a la palabra siguiente la racha que acaba en el último bit
+            if (word >= 0) {
+                current = 0;
+            }
+        }
+
+        return Math.max(longest, current);
+    }
+
+    /**
+     * Cuenta los días activos de un rango.
+     *
+     * @param startDate La fecha de inicio (inclusiva)
+     * @param endDate La fecha de fin (inclusiva)
+     * @return El número de días con actividad
+     */
+    int count(LocalDate startDate, LocalDate endDate) {
+        long first = Math.max(startDate.toEpochDay() - origin, 0);
+        long last = Math.min(endDate.toEpochDay() - origin, (long) words.length * WORD_BITS - 1);
+        if (first > last) {
+            return 0;
+        }
+
+        int firstWord = (int) (first >>> 6);
+        int lastWord = (int) (last >>> 6);
+        long firstMask = -1L << first;
+        long lastMask = -1L >>> (WORD_BITS - 1 - (last & (WORD_BITS - 1)));
+
+        if (firstWord == lastWord) {
+            return Long.bitCount(words[firstWord] & firstMask & lastMask);
+        }
+        int count = Long.bitCount(words[firstWord] & firstMask);
+        for (int word = firstWord + 1; word < lastWord; word++) {
+            count += Long.bitCount(words[word]);
+        }
+        return count + Long.bitCount(words[lastWord] & lastMask);
+    }
+
+    private boolean contains(long day) {
+        long index = day - origin;
+        return index >= 0 && index < (long) words.length * WORD_BITS
+                && (words[(int) (index >>> 6)] & (1L << index)) != 0;
+    }
+
+    /**
+     * Amplía el bitset, por delante o por detrás, para que incluya un día.
+     */
+    private void ensureCovers(long day) {
+        long wordStart = Math.floorDiv(day, WORD_BITS) * WORD_BITS;
+        if (words.length == 0) {
+            origin = wordStart;
+            words = new long[1];
+            return;
+        }
+
+        if (day < origin) {
+            int extra = (int) ((origin - wordStart) / WORD_BITS);
+            long[] grown = new long[words.length + extra];
+            System.arraycopy(words, 0, grown, extra, words.length);
+            words = grown;
+            origin = wordStart;
+        } else {
+            int needed = (int) ((day - origin) / WORD_BITS) + 1;
+            if (needed > words.length) {
+                words = Arrays.copyOf(words, Math.max(needed, words.length * 2));
+            }
+        }
+    }
+}
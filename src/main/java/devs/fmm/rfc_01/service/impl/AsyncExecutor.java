@@ -0,0 +1,152 @@
+package devs.fmm.rfc_01.service.impl;
+
+import devs.fmm.rfc_01.db.DatabaseManager;
+import javafx.application.Platform;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta llamadas a servicios y DAOs fuera del hilo de JavaFX y entrega sus resultados de vuelta en él.
+ * <p>
+ * Cada tarea corre en su propio hilo virtual, pero como mucho hay tantas en marcha como conexiones tienen los pools
+ * de la base de datos; las demás esperan su turno sin ocupar un hilo de plataforma ni una conexión. Los futuros
+ * devueltos se completan a través de {@link Platform#runLater(Runnable)}, así que las acciones encadenadas con los
+ * métodos sin sufijo Async ({@code thenAccept}, {@code whenComplete}...) se ejecutan en el hilo de JavaFX y pueden
+ * actualizar la interfaz directamente.
+ */
+public class AsyncExecutor {
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    private static AsyncExecutor instance;
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final Executor callbackExecutor;
+
+    /**
+     * Constructor. Limita la concurrencia al tamaño total de los pools de conexiones y entrega los resultados en el
+     * hilo de JavaFX.
+     */
+    public AsyncExecutor() {
+        this(connectionCount(), Platform::runLater);
+    }
+
+    /**
+     * Constructor con el límite de concurrencia y el ejecutor en el que se completan los futuros.
+     *
+     * @param maxConcurrentTasks El número máximo de tareas en marcha a la vez
+     * @param callbackExecutor El ejecutor en el que se completan los futuros
+     */
+    public AsyncExecutor(int maxConcurrentTasks, Executor callbackExecutor) {
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("rfc-async-", 0).factory());
+        this.permits = new Semaphore(maxConcurrentTasks, true);
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * Obtiene la instancia compartida por todos los controladores.
+     *
+     * @return La instancia compartida
+     */
+    public static synchronized AsyncExecutor getInstance() {
+        if (instance == null) {
+            instance = new AsyncExecutor();
+        }
+        return instance;
+    }
+
+    /**
+     * Ejecuta una tarea en segundo plano.
+     *
+     * @param task La tarea, normalmente una llamada a un servicio o un DAO
+     * @param <T> El tipo del resultado
+     * @return Un futuro que se completa en el hilo de JavaFX con el resultado de la tarea, o con su excepción
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    complete(future, null, e);
+                    return;
+                }
+
+                T result;
+                try {
+                    result = task.get();
+                } catch (Throwable t) {
+                    // También los Error: el futuro no debe quedarse sin completar
+                    System.err.println("Error in background task: " + t);
+                    complete(future, null, t);
+                    return;
+                } finally {
+                    permits.release();
+                }
+                complete(future, result, null);
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Ejecuta una tarea sin resultado en segundo plano.
+     *
+     * @param task La tarea
+     * @return Un futuro que se completa en el hilo de JavaFX cuando termina la tarea
+     */
+    public CompletableFuture<Void> run(Runnable task) {
+        return supply(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Deja de aceptar tareas y espera un tiempo limitado a que terminen las que están en marcha, para que no se
+     * corten escrituras a medias al cerrar la base de datos.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                System.err.println("Background tasks still running after " + SHUTDOWN_TIMEOUT_SECONDS + " s");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> void complete(CompletableFuture<T> future, T result, Throwable error) {
+        Runnable completion = () -> {
+            if (error == null) {
+                future.complete(result);
+            } else {
+                future.completeExceptionally(error);
+            }
+        };
+        try {
+            callbackExecutor.execute(completion);
+        } catch (IllegalStateException e) {
+            // JavaFX ya se ha cerrado: completar aquí para no dejar el futuro pendiente
+            completion.run();
+        }
+    }
+
+    private static int connectionCount() {
+        DatabaseManager dbManager = DatabaseManager.getInstance();
+        return dbManager.getWriterPoolStats().getMaxSize() + dbManager.getReaderPoolStats().getMaxSize();
+    }
+}
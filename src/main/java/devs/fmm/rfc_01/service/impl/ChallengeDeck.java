@@ -0,0 +1,199 @@
+package devs.fmm.rfc_01.service.impl;
+
+import devs.fmm.rfc_01.dao.ChallengeDao;
+import devs.fmm.rfc_01.dao.ShownChallengeDao;
+import devs.fmm.rfc_01.dao.impl.CachingChallengeDao;
+import devs.fmm.rfc_01.dao.impl.ShownChallengeDaoImpl;
+import devs.fmm.rfc_01.db.DatabaseManager;
+import devs.fmm.rfc_01.model.Challenge;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Baraja de IDs de reto para elegir retos sin repetición.
+ * <p>
+ * Los IDs se guardan en un array dividido por un cursor: a la izquierda los ya mostrados en el ciclo actual y a la
+ * derecha los pendientes. Cada extracción aplica un paso de Fisher-Yates (intercambia un pendiente al azar con el
+ * del cursor y avanza), así que sacar un reto es O(1) y el orden resultante es una permutación uniforme.
+ * Cuando no quedan pendientes se empieza un ciclo nuevo.
+ * <p>
+ * Los retos mostrados se guardan en la base de datos, de modo que al reiniciar la aplicación la baraja se
+ * reconstruye con los que faltaban por salir.
+ */
+class ChallengeDeck implements CachingChallengeDao.CatalogListener {
+
+    /**
+     * No hay ningún reto que sacar.
+     */
+    static final int NO_ID = -1;
+
+    private final ChallengeDao challengeDao;
+    private final ShownChallengeDao shownChallengeDao;
+    private final Random random = new Random();
+
+    private int[] ids = new int[16];
+    private int size = 0;
+    private int cursor = 0;
+    private final Map<Integer, Integer> positions = new HashMap<>();
+    private boolean loaded = false;
+
+    /**
+     * Constructor.
+     *
+     * @param challengeDao El DAO del que se lee el catálogo
+     * @param shownChallengeDao El DAO en el que se guardan los retos mostrados
+     */
+    ChallengeDeck(ChallengeDao challengeDao, ShownChallengeDao shownChallengeDao) {
+        this.challengeDao = challengeDao;
+        this.shownChallengeDao = shownChallengeDao;
+    }
+
+    /**
+     * Obtiene la baraja compartida, que sigue los cambios del catálogo cacheado.
+     *
+     * @return La baraja compartida
+     */
+    static ChallengeDeck getInstance() {
+        return forDatabase(DatabaseManager.getInstance());
+    }
+
+    /**
+     * Obtiene la baraja compartida de una base de datos, que sigue los cambios de su catálogo cacheado.
+     *
+     * @param dbManager El gestor de la base de datos
+     * @return La baraja de esa base de datos
+     */
+    static ChallengeDeck forDatabase(DatabaseManager dbManager) {
+        return dbManager.getShared(ChallengeDeck.class, manager -> {
+            CachingChallengeDao catalog = CachingChallengeDao.forDatabase(manager);
+            ChallengeDeck deck = new ChallengeDeck(catalog, new ShownChallengeDaoImpl(manager));
+            catalog.addListener(deck);
+            return deck;
+        });
+    }
+
+    /**
+     * Saca el siguiente reto del ciclo y lo marca como mostrado.
+     *
+     * @return El ID del reto, o {@link #NO_ID} si no hay retos
+     */
+    synchronized int next() {
+        ensureLoaded();
+        if (size == 0) {
+            return NO_ID;
+        }
+
+        // Se han mostrado todos: empezar un ciclo nuevo
+        if (cursor == size) {
+            cursor = 0;
+            shownChallengeDao.deleteAll();
+        }
+
+        swap(cursor, cursor + random.nextInt(size - cursor));
+        int id = ids[cursor++];
+        shownChallengeDao.markShown(id);
+        return id;
+    }
+
+    /**
+     * Descarta la baraja; la próxima extracción la reconstruye desde el catálogo y los retos mostrados guardados.
+     */
+    synchronized void invalidate() {
+        loaded = false;
+        size = 0;
+        cursor = 0;
+        positions.clear();
+    }
+
+    @Override
+    public synchronized void challengeAdded(Challenge challenge) {
+        if (loaded && !positions.containsKey(challenge.getId())) {
+            // Se añade a los pendientes; la posición da igual porque cada extracción elige al azar
+            append(challenge.getId());
+        }
+    }
+
+    @Override
+    public synchronized void challengeRemoved(int id) {
+        if (loaded) {
+            remove(id);
+        }
+        shownChallengeDao.deleteById(id);
+    }
+
+    @Override
+    public void catalogInvalidated() {
+        invalidate();
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+
+        List<Challenge> challenges = challengeDao.findAll();
+        Set<Integer> shownIds = new HashSet<>();
+        for (int id : shownChallengeDao.findAllIds()) {
+            shownIds.add(id);
+        }
+
+        size = 0;
+        positions.clear();
+        // Primero los ya mostrados para que queden a la izquierda del cursor
+        for (Challenge challenge : challenges) {
+            if (shownIds.contains(challenge.getId())) {
+                append(challenge.getId());
+            }
+        }
+        cursor = size;
+        for (Challenge challenge : challenges) {
+            if (!shownIds.contains(challenge.getId())) {
+                append(challenge.getId());
+            }
+        }
+        loaded = true;
+    }
+
+    private void append(int id) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        positions.put(id, size);
+        ids[size++] = id;
+    }
+
+    private void remove(int id) {
+        Integer position = positions.get(id);
+        if (position == null) {
+            return;
+        }
+
+        int index = position;
+        if (index < cursor) {
+            // Estaba entre los mostrados: llevarlo al final de esa zona y encoger el cursor
+            swap(index, cursor - 1);
+            index = --cursor;
+        }
+        swap(index, size - 1);
+        positions.remove(id);
+        size--;
+    }
+
+    private void swap(int i, int j) {
+        if (i == j) {
+            return;
+        }
+        int a = ids[i];
+        int b = ids[j];
+        ids[i] = b;
+        ids[j] = a;
+        positions.put(b, i);
+        positions.put(a, j);
+    }
+}
@@ -2,21 +2,25 @@ package devs.fmm.rfc_01.service.impl;
 
 import devs.fmm.rfc_01.dao.ChallengeDao;
 import devs.fmm.rfc_01.dao.CompletedChallengeDao;
-import devs.fmm.rfc_01.dao.impl.ChallengeDaoImpl;
+import devs.fmm.rfc_01.dao.ShownChallengeDao;
+import devs.fmm.rfc_01.dao.impl.CachingChallengeDao;
 import devs.fmm.rfc_01.dao.impl.CompletedChallengeDaoImpl;
+import devs.fmm.rfc_01.db.DatabaseManager;
 import devs.fmm.rfc_01.model.Challenge;
 import devs.fmm.rfc_01.model.CompletedChallenge;
+import devs.fmm.rfc_01.model.CompletionKey;
+import devs.fmm.rfc_01.model.DailyActivity;
 import devs.fmm.rfc_01.service.ChallengeService;
+import devs.fmm.rfc_01.service.ProfileService;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.Random;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Implementation of the ChallengeService interface.
@@ -25,28 +29,50 @@ public class ChallengeServiceImpl implements ChallengeService {
 
     private final ChallengeDao challengeDao;
     private final CompletedChallengeDao completedChallengeDao;
-
-    // Variables para el sistema de retos sin repetición
-    private final Set<Integer> shownChallengeIds = new HashSet<>();
-    private final Random random = new Random();
+    private final ChallengeDeck challengeDeck;
+    private final ProfileService profileService;
+    private final StreakEngine streakEngine;
 
     /**
      * Constructor.
      */
     public ChallengeServiceImpl() {
-        this.challengeDao = new ChallengeDaoImpl();
-        this.completedChallengeDao = new CompletedChallengeDaoImpl();
+        this(DatabaseManager.getInstance());
     }
 
     /**
-     * Constructor with DAO dependencies.
+     * Constructor over a specific database. The catalog cache, deck, active profile and streaks are the ones
+     * shared by every service on that database.
+     *
+     * @param dbManager The database manager
+     */
+    public ChallengeServiceImpl(DatabaseManager dbManager) {
+        this(CachingChallengeDao.forDatabase(dbManager), new CompletedChallengeDaoImpl(dbManager),
+                ChallengeDeck.forDatabase(dbManager), ProfileServiceImpl.forDatabase(dbManager),
+                StreakEngine.forDatabase(dbManager));
+    }
+
+    /**
+     * Constructor with DAO dependencies and the service that tells the active profile.
      *
      * @param challengeDao The ChallengeDao implementation
      * @param completedChallengeDao The CompletedChallengeDao implementation
+     * @param shownChallengeDao The ShownChallengeDao implementation where the deck is kept
+     * @param profileService The ProfileService implementation
      */
-    public ChallengeServiceImpl(ChallengeDao challengeDao, CompletedChallengeDao completedChallengeDao) {
+    public ChallengeServiceImpl(ChallengeDao challengeDao, CompletedChallengeDao completedChallengeDao,
+                                ShownChallengeDao shownChallengeDao, ProfileService profileService) {
+        this(challengeDao, completedChallengeDao, new ChallengeDeck(challengeDao, shownChallengeDao), profileService,
+                new StreakEngine(completedChallengeDao));
+    }
+
+    ChallengeServiceImpl(ChallengeDao challengeDao, CompletedChallengeDao completedChallengeDao,
+                         ChallengeDeck challengeDeck, ProfileService profileService, StreakEngine streakEngine) {
         this.challengeDao = challengeDao;
         this.completedChallengeDao = completedChallengeDao;
+        this.challengeDeck = challengeDeck;
+        this.profileService = profileService;
+        this.streakEngine = streakEngine;
     }
 
     @Override
@@ -56,38 +82,20 @@ public class ChallengeServiceImpl implements ChallengeService {
 
     @Override
     public Optional<Challenge> getRandomChallengeWithoutRepetition() {
-        // Obtener todos los retos disponibles
-        List<Challenge> allChallenges = challengeDao.findAll();
-
-        // Si no hay retos, devolver Optional vacío
-        if (allChallenges.isEmpty()) {
+        int challengeId = challengeDeck.next();
+        if (challengeId == ChallengeDeck.NO_ID) {
             return Optional.empty();
         }
 
-        // Si ya hemos mostrado todos los retos, reiniciar el ciclo
-        if (shownChallengeIds.size() >= allChallenges.size()) {
-            shownChallengeIds.clear();
+        Optional<Challenge> challenge = challengeDao.findById(challengeId);
+        if (challenge.isEmpty()) {
+            // El reto se borró sin que la baraja se enterase: reconstruirla y volver a intentarlo una vez
+            challengeDeck.invalidate();
+            challengeId = challengeDeck.next();
+            challenge = challengeId == ChallengeDeck.NO_ID ? Optional.empty() : challengeDao.findById(challengeId);
         }
 
-        // Filtrar los retos que aún no se han mostrado en este ciclo
-        List<Challenge> availableChallenges = allChallenges.stream()
-                .filter(challenge -> !shownChallengeIds.contains(challenge.getId()))
-                .collect(Collectors.toList());
-
-        // Si por alguna razón no hay retos disponibles (no debería ocurrir), reiniciar y usar todos
-        if (availableChallenges.isEmpty()) {
-            shownChallengeIds.clear();
-            availableChallenges = allChallenges;
-        }
-
-        // Seleccionar un reto aleatorio de los disponibles
-        int randomIndex = random.nextInt(availableChallenges.size());
-        Challenge selectedChallenge = availableChallenges.get(randomIndex);
-
-        // Marcar este reto como mostrado
-        shownChallengeIds.add(selectedChallenge.getId());
-
-        return Optional.of(selectedChallenge);
+        return challenge;
     }
 
     @Override
@@ -128,78 +136,122 @@ public class ChallengeServiceImpl implements ChallengeService {
             completedChallenge.setChallengeId(challengeId);
             completedChallenge.setCompletionDate(LocalDateTime.now());
 
-            return completedChallengeDao.save(completedChallenge);
+            int userId = profileService.getCurrentProfileId();
+            CompletedChallenge saved = completedChallengeDao.forUser(userId).save(completedChallenge);
+            if (saved.getId() > 0) {
+                streakEngine.completionAdded(userId, saved.getCompletionDate().toLocalDate());
+            }
+            return saved;
         }
 
         return null;
     }
 
+    @Override
+    public boolean deleteCompletedChallenge(int completedChallengeId) {
+        int userId = profileService.getCurrentProfileId();
+        CompletedChallengeDao completedChallenges = completedChallengeDao.forUser(userId);
+
+        // The date is needed afterwards to tell whether the day is still active
+        Optional<CompletedChallenge> completed = completedChallenges.findById(completedChallengeId);
+        if (completed.isEmpty() || !completedChallenges.deleteById(completedChallengeId)) {
+            return false;
+        }
+
+        streakEngine.completionRemoved(userId, completed.get().getCompletionDate().toLocalDate());
+        return true;
+    }
+
     @Override
     public List<CompletedChallenge> getAllCompletedChallenges() {
-        return completedChallengeDao.findAll();
+        return completedChallenges().findAll();
+    }
+
+    @Override
+    public List<CompletedChallenge> getCompletedChallengePage(CompletionKey after, int limit) {
+        return completedChallenges().findPage(after, limit);
+    }
+
+    @Override
+    public Optional<CompletionKey> getCompletionKeyAt(int offset) {
+        return completedChallenges().findKeyAt(offset);
+    }
+
+    @Override
+    public Optional<LocalDateTime> getEarliestCompletionDate() {
+        return completedChallenges().findEarliestCompletionDate();
+    }
+
+    @Override
+    public Optional<LocalDateTime> getLatestCompletionDate() {
+        return completedChallenges().findLatestCompletionDate();
+    }
+
+    @Override
+    public int getCompletedChallengeCount() {
+        return completedChallenges().countAll();
+    }
+
+    @Override
+    public int getCompletedChallengeCount(LocalDate startDate, LocalDate endDate) {
+        return completedChallenges().countByDateRange(startDate, endDate);
     }
 
     @Override
     public List<CompletedChallenge> getCompletedChallengesByDateRange(LocalDate startDate, LocalDate endDate) {
-        return completedChallengeDao.findByDateRange(startDate, endDate);
+        return completedChallenges().findByDateRange(startDate, endDate);
     }
 
     @Override
     public List<CompletedChallenge> getCompletedChallengesByDate(LocalDate date) {
-        return completedChallengeDao.findByDate(date);
+        return completedChallenges().findByDate(date);
     }
 
     @Override
     public List<Object[]> getCompletedChallengeCountsByCategory() {
-        return completedChallengeDao.getCompletedChallengeCountsByCategory();
+        return completedChallenges().getCompletedChallengeCountsByCategory();
     }
 
     @Override
     public List<Object[]> getCompletedChallengeCountsByDate(LocalDate startDate, LocalDate endDate) {
-        return completedChallengeDao.getCompletedChallengeCountsByDate(startDate, endDate);
+        return completedChallenges().getCompletedChallengeCountsByDate(startDate, endDate);
     }
 
     @Override
     public List<Object[]> getExerciseMinutesByDate(LocalDate startDate, LocalDate endDate) {
-        // Obtener todos los retos completados en el rango de fechas
-        List<CompletedChallenge> completedChallenges = getCompletedChallengesByDateRange(startDate, endDate);
-
-        // Crear un mapa para almacenar los minutos por día
-        java.util.Map<LocalDate, Integer> minutesByDate = new java.util.HashMap<>();
+        DailyActivity activity = getDailyActivity(startDate, endDate);
 
-        // Inicializar el mapa con todas las fechas en el rango
-        LocalDate currentDate = startDate;
-        while (!currentDate.isAfter(endDate)) {
-            minutesByDate.put(currentDate, 0);
-            currentDate = currentDate.plusDays(1);
+        // Convertir a una lista de pares [fecha, minutos] ordenada por fecha
+        List<Object[]> result = new ArrayList<>(activity.getDayCount());
+        for (int day = 0; day < activity.getDayCount(); day++) {
+            result.add(new Object[]{activity.getDate(day), activity.getMinutes(day)});
         }
 
-        // Sumar los minutos de cada reto completado
-        for (CompletedChallenge completedChallenge : completedChallenges) {
-            // Obtener el reto
-            Optional<Challenge> challengeOpt = challengeDao.findById(completedChallenge.getChallengeId());
-
-            if (challengeOpt.isPresent()) {
-                Challenge challenge = challengeOpt.get();
-
-                // Obtener la fecha de completado
-                LocalDate completionDate = completedChallenge.getCompletionDate().toLocalDate();
-
-                // Sumar los minutos al total del día
-                int currentMinutes = minutesByDate.getOrDefault(completionDate, 0);
-                minutesByDate.put(completionDate, currentMinutes + challenge.getDurationMinutes());
-            }
-        }
+        return result;
+    }
 
-        // Convertir el mapa a una lista de pares [fecha, minutos]
-        List<Object[]> result = new ArrayList<>();
-        for (java.util.Map.Entry<LocalDate, Integer> entry : minutesByDate.entrySet()) {
-            result.add(new Object[]{entry.getKey(), entry.getValue()});
+    @Override
+    public DailyActivity getDailyActivity(LocalDate startDate, LocalDate endDate) {
+        int dayCount = Math.max(0, (int) ChronoUnit.DAYS.between(startDate, endDate) + 1);
+        int[] counts = new int[dayCount];
+        int[] minutes = new int[dayCount];
+
+        // La consulta solo devuelve los días con actividad; el resto se queda a 0
+        for (Object[] row : completedChallenges().getDailyActivity(startDate, endDate)) {
+            int day = (int) ChronoUnit.DAYS.between(startDate, (LocalDate) row[0]);
+            counts[day] = (int) row[1];
+            minutes[day] = (int) row[2];
         }
 
-        // Ordenar por fecha
-        result.sort((a, b) -> ((LocalDate)a[0]).compareTo((LocalDate)b[0]));
+        return new DailyActivity(startDate, counts, minutes);
+    }
 
-        return result;
+    /**
+     * Gets the completion history DAO of the active profile.
+     *
+     * @return The DAO of the active profile
+     */
+    private CompletedChallengeDao completedChallenges() {
+        return completedChallengeDao.forUser(profileService.getCurrentProfileId());
     }
 }
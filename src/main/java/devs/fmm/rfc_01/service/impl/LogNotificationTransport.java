@@ -0,0 +1,26 @@
+package devs.fmm.rfc_01.service.impl;
+
+/**
+ * Transporte que solo escribe las notificaciones en la salida estándar. Siempre está disponible, pero nunca se elige
+ * automáticamente; sirve para ejecuciones sin escritorio, como las pruebas.
+ */
+final class LogNotificationTransport implements NotificationTransport {
+
+    static final String NAME = "log";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean probe() {
+        return true;
+    }
+
+    @Override
+    public boolean send(String title, String message, long timeoutMillis) {
+        System.out.println("Notification: " + title + " - " + message);
+        return true;
+    }
+}
@@ -0,0 +1,226 @@
+package devs.fmm.rfc_01.service.impl;
+
+import java.util.Iterator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Envía las notificaciones desde un hilo propio, de modo que ni el hilo de JavaFX ni el del programador esperan a
+ * que termine un envío.
+ * <p>
+ * Las notificaciones se encolan en una cola acotada; si está llena, la nueva se descarta, ya que un recordatorio
+ * que llega tarde no aporta nada a los que ya esperan. Cada envío tiene un tiempo máximo, pasado el cual se da por
+ * fallido. Las métricas de latencia (desde que se encola hasta que termina el envío), fallos y profundidad de la
+ * cola se consultan con {@link #stats()}.
+ * <p>
+ * Con {@link #execute(Runnable)} se pueden ejecutar otras tareas en el mismo hilo, entre un envío y el siguiente;
+ * por ejemplo, cerrar un transporte sustituido cuando ya no queda ningún envío en curso con él.
+ */
+final class NotificationDispatcher {
+
+    /**
+     * Forma de hacer llegar una notificación al usuario.
+     */
+    @FunctionalInterface
+    interface Delivery {
+
+        /**
+         * Envía una notificación sin superar el tiempo máximo.
+         *
+         * @param title El título de la notificación
+         * @param message El mensaje de la notificación
+         * @param timeoutMillis El tiempo máximo del envío
+         * @return true si se ha entregado, false si ha fallado
+         * @throws TimeoutException Si el envío no termina a tiempo
+         * @throws Exception Si ocurre cualquier otro error
+         */
+        boolean deliver(String title, String message, long timeoutMillis) throws Exception;
+    }
+
+    // Marca de fin de cola
+    private static final Pending STOP = new Pending(null, null, null);
+
+    private final Delivery delivery;
+    private final long timeoutMillis;
+    private final int capacity;
+    // Las tareas y la marca de fin no ocupan plazas: el límite solo cuenta las notificaciones
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final AtomicInteger queuedNotifications = new AtomicInteger();
+    private final Thread thread;
+    private volatile boolean shutDown;
+
+    private final AtomicLong totalSubmitted = new AtomicLong();
+    private final AtomicLong totalDelivered = new AtomicLong();
+    private final AtomicLong totalFailed = new AtomicLong();
+    private final AtomicLong totalTimedOut = new AtomicLong();
+    private final AtomicLong totalDropped = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+    /**
+     * Constructor. Arranca el hilo de envío.
+     *
+     * @param delivery La forma de enviar cada notificación
+     * @param capacity El número máximo de notificaciones en espera
+     * @param timeoutMillis El tiempo máximo de cada envío
+     */
+    NotificationDispatcher(Delivery delivery, int capacity, long timeoutMillis) {
+        this.delivery = delivery;
+        this.capacity = Math.max(1, capacity);
+        this.timeoutMillis = timeoutMillis;
+        this.thread = new Thread(this::run, "rfc-notifications");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Encola una notificación sin esperar a que se envíe.
+     *
+     * @param title El título de la notificación
+     * @param message El mensaje de la notificación
+     * @return true si se ha encolado, false si la cola estaba llena o el envío ya se ha detenido
+     */
+    boolean submit(String title, String message) {
+        if (shutDown) {
+            return false;
+        }
+        totalSubmitted.incrementAndGet();
+
+        int depth = queuedNotifications.incrementAndGet();
+        if (depth > capacity) {
+            queuedNotifications.decrementAndGet();
+            totalDropped.incrementAndGet();
+            System.err.println("Notification queue full, dropping: " + title);
+            return false;
+        }
+        queue.add(new Pending(title, message, null));
+        maxQueueDepth.accumulateAndGet(depth, Math::max);
+        return true;
+    }
+
+    /**
+     * Ejecuta una tarea en el hilo de envío, después de las notificaciones ya encoladas y nunca a la vez que un
+     * envío. Las tareas no se descartan al detener el envío: se ejecutan antes de que termine el hilo.
+     *
+     * @param task La tarea
+     * @return true si se ha encolado, false si el envío ya se ha detenido
+     */
+    synchronized boolean execute(Runnable task) {
+        if (shutDown) {
+            return false;
+        }
+        queue.add(new Pending(null, null, task));
+        return true;
+    }
+
+    /**
+     * Descarta las notificaciones en espera, deja terminar el envío en curso y las tareas pendientes y detiene el
+     * hilo.
+     */
+    void shutdown() {
+        synchronized (this) {
+            if (shutDown) {
+                return;
+            }
+            shutDown = true;
+        }
+        int discarded = 0;
+        for (Iterator<Pending> it = queue.iterator(); it.hasNext(); ) {
+            if (it.next().task == null) {
+                it.remove();
+                discarded++;
+            }
+        }
+        queuedNotifications.addAndGet(-discarded);
+        queue.add(STOP);
+        try {
+            thread.join(timeoutMillis + 1_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Obtiene las métricas de envío.
+     *
+     * @return Las métricas actuales
+     */
+    NotificationStats stats() {
+        long finished = totalDelivered.get() + totalFailed.get() + totalTimedOut.get();
+        return new NotificationStats(queuedNotifications.get(), capacity, maxQueueDepth.get(), totalSubmitted.get(),
+                totalDelivered.get(), totalFailed.get(), totalTimedOut.get(), totalDropped.get(),
+                finished == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalLatencyNanos.get() / finished),
+                TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get()));
+    }
+
+    private void run() {
+        while (true) {
+            Pending pending;
+            try {
+                pending = queue.take();
+            } catch (InterruptedException e) {
+                // Solo la marca de fin detiene el hilo
+                continue;
+            }
+            if (pending == STOP) {
+                return;
+            }
+            if (pending.task != null) {
+                runTask(pending.task);
+            } else {
+                queuedNotifications.decrementAndGet();
+                deliver(pending);
+            }
+        }
+    }
+
+    private static void runTask(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            System.err.println("Error running a notification task: " + e.getMessage());
+        }
+    }
+
+    private void deliver(Pending pending) {
+        try {
+            if (delivery.deliver(pending.title, pending.message, timeoutMillis)) {
+                totalDelivered.incrementAndGet();
+            } else {
+                totalFailed.incrementAndGet();
+                System.err.println("Notification not delivered: " + pending.title);
+            }
+        } catch (TimeoutException e) {
+            totalTimedOut.incrementAndGet();
+            System.err.println("Notification timed out after " + timeoutMillis + " ms: " + e.getMessage());
+        } catch (Exception e) {
+            totalFailed.incrementAndGet();
+            System.err.println("Error sending notification: " + e.getMessage());
+        }
+
+        long latency = System.nanoTime() - pending.enqueuedAt;
+        totalLatencyNanos.addAndGet(latency);
+        maxLatencyNanos.accumulateAndGet(latency, Math::max);
+    }
+
+    /**
+     * Una notificación o una tarea en espera.
+     */
+    private static final class Pending {
+        private final String title;
+        private final String message;
+        private final Runnable task;
+        private final long enqueuedAt = System.nanoTime();
+
+        private Pending(String title, String message, Runnable task) {
+            this.title = title;
+            this.message = message;
+            this.task = task;
+        }
+    }
+}
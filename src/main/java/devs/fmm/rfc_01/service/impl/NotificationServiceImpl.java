@@ -1,203 +1,333 @@
 package devs.fmm.rfc_01.service.impl;
 
 import devs.fmm.rfc_01.service.NotificationService;
-import javafx.application.Platform;
-
-import java.awt.*;
-import java.awt.TrayIcon.MessageType;
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.util.Timer;
-import java.util.TimerTask;
+
+import java.time.Clock;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.prefs.Preferences;
 
 /**
  * Implementation of the NotificationService interface.
+ * <p>
+ * Notifications are shown through a {@link NotificationTransport}. The transports are probed once, the first time
+ * they are needed, and the first available one is kept until {@link #reprobeTransports()} is called. By default
+ * notify-send is preferred on Linux and the system tray elsewhere; {@code rfc.notifications.transport} selects a
+ * transport, or a comma-separated list in order of preference ({@code notify-send}, {@code tray}, {@code log}).
+ * <p>
+ * Notifications are handed to a {@link NotificationDispatcher} and delivered on its own thread, so neither the
+ * JavaFX thread nor the scheduler waits for the transport. The queue size and the delivery timeout can be tuned with
+ * {@code rfc.notifications.queueCapacity} and {@code rfc.notifications.timeoutMillis}.
+ * <p>
+ * Reminders are driven by a {@link ReminderScheduler}. Besides the interval from the settings, reminders can be sent
+ * at fixed times ({@code rfc.reminders.times=09:00,13:30}), limited to some weekdays
+ * ({@code rfc.reminders.days=MON,TUE,WED,THU,FRI}) and kept out of quiet hours
+ * ({@code rfc.reminders.quietHours=22:00-07:00}).
+ * <p>
+ * Settings go through a {@link SettingsStore}: they are cached in memory and saved to the preferences in the
+ * background once they stop changing. A new interval only reschedules the reminders after it has settled.
  */
 public class NotificationServiceImpl implements NotificationService {
 
     private static final String PREF_NOTIFICATION_INTERVAL = "notificationInterval";
     private static final String PREF_NOTIFICATION_ENABLED = "notificationEnabled";
     private static final int DEFAULT_INTERVAL_MINUTES = 60; // Default to 1 hour
-
-    private final Preferences prefs;
-    private SystemTray systemTray;
-    private TrayIcon trayIcon;
-    private Timer notificationTimer;
-    private boolean initialized = false;
+    private static final int QUEUE_CAPACITY = Integer.getInteger("rfc.notifications.queueCapacity", 16);
+    private static final long DELIVERY_TIMEOUT_MILLIS = Long.getLong("rfc.notifications.timeoutMillis", 5_000L);
+    private static final String REMINDER_TITLE = "Time for a fitness challenge!";
+    private static final String REMINDER_MESSAGE = "Take a break and complete a quick fitness challenge.";
+
+    private final SettingsStore settings;
+    private final NotificationDispatcher dispatcher;
+    private final ReminderScheduler scheduler;
+    private final List<NotificationTransport> transports;
+    private volatile NotificationTransport transport;
+    private volatile boolean initialized = false;
+    private boolean detected = false;
 
     /**
-     * Constructor.
+     * Constructor. Los transportes se eligen según {@code rfc.notifications.transport}.
      */
     public NotificationServiceImpl() {
-        this.prefs = Preferences.userNodeForPackage(NotificationServiceImpl.class);
+        this(defaultTransports());
+    }
+
+    /**
+     * Constructor con inyección de dependencias.
+     *
+     * @param transports Los transportes candidatos, en orden de preferencia
+     */
+    public NotificationServiceImpl(List<NotificationTransport> transports) {
+        this.settings = new SettingsStore(Preferences.userNodeForPackage(NotificationServiceImpl.class));
+        this.transports = List.copyOf(transports);
+        this.dispatcher = new NotificationDispatcher(this::deliver, QUEUE_CAPACITY, DELIVERY_TIMEOUT_MILLIS);
+        this.scheduler = new ReminderScheduler(Clock.systemDefaultZone(),
+                () -> sendNotification(REMINDER_TITLE, REMINDER_MESSAGE));
+        this.settings.addListener(keys -> {
+            if (keys.contains(PREF_NOTIFICATION_INTERVAL)) {
+                rescheduleIfEnabled();
+            }
+        });
     }
 
     @Override
     public void initialize() {
-        // En Linux, verificamos si notify-send está disponible
-        if (isLinux()) {
-            if (isNotifySendAvailable()) {
-                initialized = true;
-                System.out.println("Notificaciones Linux inicializadas correctamente");
-
-                // Iniciar el programador si las notificaciones están habilitadas
-                if (isNotificationEnabled()) {
-                    startScheduler(getNotificationInterval());
-                }
-            } else {
-                System.err.println("notify-send no está disponible. Las notificaciones no funcionarán en este sistema Linux.");
-                System.err.println("Instale libnotify-bin para habilitar las notificaciones: sudo apt-get install libnotify-bin");
-            }
-        }
-        // En otros sistemas, usamos SystemTray
-        else if (SystemTray.isSupported()) {
-            try {
-                // Load the tray icon image
-                Image image = Toolkit.getDefaultToolkit().getImage(getClass().getResource("/devs/fmm/rfc_01/images/app-icon.png"));
-
-                // Create the tray icon
-                systemTray = SystemTray.getSystemTray();
-                trayIcon = new TrayIcon(image, "Random Fitness Challenge");
-                trayIcon.setImageAutoSize(true);
-
-                // Add the icon to the system tray
-                systemTray.add(trayIcon);
-
-                initialized = true;
-                System.out.println("Notificaciones SystemTray inicializadas correctamente");
-
-                // Start the scheduler if notifications are enabled
-                if (isNotificationEnabled()) {
-                    startScheduler(getNotificationInterval());
-                }
-            } catch (AWTException e) {
-                System.err.println("Error initializing system tray: " + e.getMessage());
-            } catch (Exception e) {
-                System.err.println("Error loading tray icon image: " + e.getMessage());
-            }
+        ensureTransportDetected();
+        initialized = transport != null;
+
+        if (initialized) {
+            System.out.println("Notificaciones inicializadas correctamente (" + transport.getName() + ")");
+
+            // Iniciar el programador si las notificaciones están habilitadas
+            rescheduleIfEnabled();
+        } else if (isLinux()) {
+            System.err.println("notify-send no está disponible. Las notificaciones no funcionarán en este sistema Linux.");
+            System.err.println("Instale libnotify-bin para habilitar las notificaciones: sudo apt-get install libnotify-bin");
         } else {
             System.err.println("Las notificaciones no están soportadas en este sistema.");
         }
     }
 
+    @Override
+    public boolean reprobeTransports() {
+        detectTransport();
+        initialized = transport != null;
+
+        if (initialized) {
+            rescheduleIfEnabled();
+        } else {
+            stopScheduler();
+        }
+        return initialized;
+    }
+
     @Override
     public void startScheduler(int intervalMinutes) {
         if (!isNotificationSupported() || !initialized) {
             return;
         }
 
-        // Detener cualquier programador existente
-        stopScheduler();
-
-        // Guardar el intervalo
+        // Solo se guarda: el listener de los ajustes reprograma los recordatorios cuando el valor se asienta
         setNotificationInterval(intervalMinutes);
+    }
 
-        // Solo iniciar el temporizador si las notificaciones están habilitadas
-        if (isNotificationEnabled()) {
-            // Crear un nuevo temporizador
-            notificationTimer = new Timer(true);
-
-            // Programar la tarea de notificación
-            notificationTimer.scheduleAtFixedRate(new TimerTask() {
-                @Override
-                public void run() {
-                    Platform.runLater(() -> {
-                        sendNotification("Time for a fitness challenge!",
-                                "Take a break and complete a quick fitness challenge.");
-                    });
-                }
-            }, intervalMinutes * 60 * 1000, intervalMinutes * 60 * 1000);
+    /**
+     * Vuelve a programar los recordatorios con el intervalo guardado, si las notificaciones están habilitadas. Las
+     * reglas que no cambian conservan su próximo aviso.
+     */
+    private void rescheduleIfEnabled() {
+        if (initialized && isNotificationEnabled()) {
+            scheduler.setRules(buildReminderRules(getNotificationInterval()));
         }
     }
 
     @Override
     public void stopScheduler() {
-        if (notificationTimer != null) {
-            notificationTimer.cancel();
-            notificationTimer = null;
-        }
+        scheduler.setRules(List.of());
     }
 
     @Override
-    public void sendNotification(String title, String message) {
-        // Si no está inicializado y no es Linux, salimos
-        if (!initialized && !isLinux()) {
-            return;
+    public Optional<Instant> getNextNotificationTime() {
+        return scheduler.getNextFireTime();
+    }
+
+    @Override
+    public Optional<Instant> getNotificationWaitStart() {
+        return scheduler.getWaitStart();
+    }
+
+    @Override
+    public void snooze(int minutes) {
+        scheduler.snooze(Duration.ofMinutes(minutes));
+    }
+
+    /**
+     * Construye las reglas de recordatorio a partir del intervalo y de las propiedades {@code rfc.reminders.*}.
+     *
+     * @param intervalMinutes El intervalo entre recordatorios en minutos
+     * @return Las reglas de recordatorio
+     */
+    private List<ReminderRule> buildReminderRules(int intervalMinutes) {
+        List<ReminderRule> rules = new ArrayList<>();
+        rules.add(ReminderRule.every("interval", Duration.ofMinutes(intervalMinutes)));
+
+        String times = System.getProperty("rfc.reminders.times");
+        if (times != null && !times.isBlank()) {
+            try {
+                rules.add(ReminderRule.at("times",
+                        Arrays.stream(times.split(",")).map(String::trim).map(LocalTime::parse).toList()));
+            } catch (DateTimeException e) {
+                System.err.println("Ignoring invalid rfc.reminders.times '" + times + "': " + e.getMessage());
+            }
         }
 
-        // En sistemas Linux, intentamos usar notify-send
-        if (isLinux()) {
-            sendLinuxNotification(title, message);
-        } else {
-            // En otros sistemas, usamos SystemTray
-            if (trayIcon != null) {
-                trayIcon.displayMessage(title, message, MessageType.INFO);
+        String days = System.getProperty("rfc.reminders.days");
+        if (days != null && !days.isBlank()) {
+            Set<DayOfWeek> allowed = parseDays(days);
+            rules.replaceAll(rule -> rule.onDays(allowed));
+        }
+
+        String quietHours = System.getProperty("rfc.reminders.quietHours");
+        if (quietHours != null && !quietHours.isBlank()) {
+            try {
+                String[] range = quietHours.split("-");
+                LocalTime start = LocalTime.parse(range[0].trim());
+                LocalTime end = LocalTime.parse(range[1].trim());
+                rules.replaceAll(rule -> rule.withQuietHours(start, end));
+            } catch (DateTimeException | ArrayIndexOutOfBoundsException e) {
+                System.err.println("Ignoring invalid rfc.reminders.quietHours '" + quietHours + "'");
             }
         }
+        return rules;
     }
 
     /**
-     * Envía una notificación usando el comando notify-send en sistemas Linux.
+     * Interpreta una lista de días separados por comas, por su nombre en inglés o sus tres primeras letras.
+     */
+    private static Set<DayOfWeek> parseDays(String days) {
+        Set<DayOfWeek> result = EnumSet.noneOf(DayOfWeek.class);
+        for (String token : days.split(",")) {
+            String day = token.trim().toUpperCase();
+            Arrays.stream(DayOfWeek.values())
+                    .filter(value -> day.length() >= 3 && value.name().startsWith(day))
+                    .findFirst()
+                    .ifPresentOrElse(result::add,
+                            () -> System.err.println("Ignoring unknown day in rfc.reminders.days: " + token));
+        }
+        return result;
+    }
+
+    @Override
+    public void sendNotification(String title, String message) {
+        if (!initialized) {
+            return;
+        }
+        dispatcher.submit(title, message);
+    }
+
+    /**
+     * Envía una notificación desde el hilo del {@link NotificationDispatcher}.
      *
      * @param title El título de la notificación
      * @param message El mensaje de la notificación
+     * @param timeoutMillis El tiempo máximo del envío
      * @return true si la notificación se envió correctamente, false en caso contrario
      */
-    private boolean sendLinuxNotification(String title, String message) {
-        try {
-            // Verificar si notify-send está disponible
-            if (!isNotifySendAvailable()) {
-                System.err.println("notify-send no está disponible en este sistema");
-                return false;
-            }
+    private boolean deliver(String title, String message, long timeoutMillis) throws Exception {
+        NotificationTransport current = transport;
+        return current != null && current.send(title, message, timeoutMillis);
+    }
 
-            // Construir el comando
-            String[] cmd = {
-                "notify-send",
-                "--icon=dialog-information",
-                "--app-name=RandomFitnessChallenge",
-                title,
-                message
-            };
+    @Override
+    public boolean isNotificationSupported() {
+        ensureTransportDetected();
+        return transport != null;
+    }
 
-            // Ejecutar el comando
-            Process process = Runtime.getRuntime().exec(cmd);
-            int exitCode = process.waitFor();
+    /**
+     * Obtiene el transporte con el que se muestran las notificaciones.
+     *
+     * @return El nombre del transporte, o vacío si no hay ninguno disponible
+     */
+    public Optional<String> getTransportName() {
+        NotificationTransport current = transport;
+        return current != null ? Optional.of(current.getName()) : Optional.empty();
+    }
 
-            return exitCode == 0;
-        } catch (IOException | InterruptedException e) {
-            System.err.println("Error al enviar notificación Linux: " + e.getMessage());
-            return false;
+    private synchronized void ensureTransportDetected() {
+        if (!detected) {
+            detectTransport();
         }
     }
 
     /**
-     * Verifica si el comando notify-send está disponible en el sistema.
+     * Comprueba los transportes en orden de preferencia y se queda con el primero disponible.
+     * <p>
+     * El nuevo transporte sustituye al anterior antes de cerrarlo, y el anterior se cierra en el hilo de envío, de
+     * modo que ningún envío en curso lo usa ya cerrado. Si el elegido es el mismo, se conserva abierto.
+     */
+    private synchronized void detectTransport() {
+        NotificationTransport previous = transport;
+        NotificationTransport selected = null;
+
+        for (NotificationTransport candidate : transports) {
+            if (!candidate.probe()) {
+                continue;
+            }
+            if (candidate == previous) {
+                selected = candidate;
+                break;
+            }
+            try {
+                candidate.open();
+                selected = candidate;
+                break;
+            } catch (Exception e) {
+                System.err.println("Error opening notification transport " + candidate.getName() + ": " + e.getMessage());
+            }
+        }
+
+        transport = selected;
+        detected = true;
+        if (previous != null && previous != selected && !dispatcher.execute(previous::close)) {
+            // El envío ya se ha detenido, así que no hay envíos en curso
+            previous.close();
+        }
+    }
+
+    /**
+     * Obtiene los transportes candidatos según {@code rfc.notifications.transport}, o los predeterminados del sistema.
      *
-     * @return true si notify-send está disponible, false en caso contrario
+     * @return Los transportes en orden de preferencia
      */
-    private boolean isNotifySendAvailable() {
-        try {
-            Process process = Runtime.getRuntime().exec("which notify-send");
-            BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-            String line = reader.readLine();
-            return line != null && !line.isEmpty();
-        } catch (IOException e) {
-            return false;
+    private static List<NotificationTransport> defaultTransports() {
+        String selection = System.getProperty("rfc.notifications.transport", "auto").trim();
+        if (selection.isEmpty() || selection.equalsIgnoreCase("auto")) {
+            return isLinux()
+                    ? List.of(new NotifySendTransport(), new SystemTrayTransport())
+                    : List.of(new SystemTrayTransport(), new NotifySendTransport());
+        }
+
+        List<NotificationTransport> selected = new ArrayList<>();
+        for (String name : selection.split(",")) {
+            switch (name.trim().toLowerCase()) {
+                case NotifySendTransport.NAME -> selected.add(new NotifySendTransport());
+                case SystemTrayTransport.NAME -> selected.add(new SystemTrayTransport());
+                case LogNotificationTransport.NAME -> selected.add(new LogNotificationTransport());
+                default -> System.err.println("Ignoring unknown notification transport: " + name.trim());
+            }
         }
+        return selected;
     }
 
     @Override
-    public boolean isNotificationSupported() {
-        // En Linux, consideramos que las notificaciones están soportadas si notify-send está disponible
-        if (isLinux()) {
-            return isNotifySendAvailable();
+    public void shutdown() {
+        scheduler.shutdown();
+        dispatcher.shutdown();
+        settings.shutdown();
+        NotificationTransport current = transport;
+        if (current != null) {
+            current.close();
         }
-        // En otros sistemas, usamos SystemTray
-        return SystemTray.isSupported();
+        System.out.println("Notifications at shutdown: " + dispatcher.stats());
+    }
+
+    /**
+     * Obtiene las métricas de envío de notificaciones: latencia, fallos, tiempos agotados y profundidad de la cola.
+     *
+     * @return Las métricas actuales
+     */
+    public NotificationStats getDeliveryStats() {
+        return dispatcher.stats();
     }
 
     /**
@@ -205,24 +335,25 @@ public class NotificationServiceImpl implements NotificationService {
      *
      * @return true si el sistema operativo es Linux, false en caso contrario
      */
-    private boolean isLinux() {
+    private static boolean isLinux() {
         String os = System.getProperty("os.name").toLowerCase();
         return os.contains("linux");
     }
 
     @Override
     public int getNotificationInterval() {
-        return prefs.getInt(PREF_NOTIFICATION_INTERVAL, DEFAULT_INTERVAL_MINUTES);
+        return settings.getInt(PREF_NOTIFICATION_INTERVAL, DEFAULT_INTERVAL_MINUTES);
     }
 
     @Override
     public void setNotificationInterval(int intervalMinutes) {
-        prefs.putInt(PREF_NOTIFICATION_INTERVAL, intervalMinutes);
+        // Los recordatorios se reprograman cuando el valor se asienta
+        settings.putInt(PREF_NOTIFICATION_INTERVAL, intervalMinutes);
     }
 
     @Override
     public boolean isNotificationEnabled() {
-        return prefs.getBoolean(PREF_NOTIFICATION_ENABLED, false);
+        return settings.getBoolean(PREF_NOTIFICATION_ENABLED, false);
     }
 
     @Override
@@ -235,12 +366,12 @@ public class NotificationServiceImpl implements NotificationService {
         }
 
         // Save the preference first
-        prefs.putBoolean(PREF_NOTIFICATION_ENABLED, enabled);
+        settings.putBoolean(PREF_NOTIFICATION_ENABLED, enabled);
 
         // Then handle the timer based on the new state
         if (enabled) {
             // Start the scheduler with the current interval
-            startScheduler(getNotificationInterval());
+            rescheduleIfEnabled();
         } else {
             // Always stop the scheduler when disabling notifications
             stopScheduler();
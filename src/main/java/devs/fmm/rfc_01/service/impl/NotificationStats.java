@@ -0,0 +1,89 @@
+package devs.fmm.rfc_01.service.impl;
+
+/**
+ * Instantánea inmutable de las métricas de envío de notificaciones.
+ */
+public class NotificationStats {
+    private final int queueDepth;
+    private final int queueCapacity;
+    private final int maxQueueDepth;
+    private final long totalSubmitted;
+    private final long totalDelivered;
+    private final long totalFailed;
+    private final long totalTimedOut;
+    private final long totalDropped;
+    private final long averageLatencyMillis;
+    private final long maxLatencyMillis;
+
+    public NotificationStats(int queueDepth, int queueCapacity, int maxQueueDepth, long totalSubmitted,
+                             long totalDelivered, long totalFailed, long totalTimedOut, long totalDropped,
+                             long averageLatencyMillis, long maxLatencyMillis) {
+        this.queueDepth = queueDepth;
+        this.queueCapacity = queueCapacity;
+        this.maxQueueDepth = maxQueueDepth;
+        this.totalSubmitted = totalSubmitted;
+        this.totalDelivered = totalDelivered;
+        this.totalFailed = totalFailed;
+        this.totalTimedOut = totalTimedOut;
+        this.totalDropped = totalDropped;
+        this.averageLatencyMillis = averageLatencyMillis;
+        this.maxLatencyMillis = maxLatencyMillis;
+    }
+
+    // Getters
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    public long getTotalSubmitted() {
+        return totalSubmitted;
+    }
+
+    public long getTotalDelivered() {
+        return totalDelivered;
+    }
+
+    public long getTotalFailed() {
+        return totalFailed;
+    }
+
+    public long getTotalTimedOut() {
+        return totalTimedOut;
+    }
+
+    public long getTotalDropped() {
+        return totalDropped;
+    }
+
+    public long getAverageLatencyMillis() {
+        return averageLatencyMillis;
+    }
+
+    public long getMaxLatencyMillis() {
+        return maxLatencyMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "NotificationStats{" +
+                "queue=" + queueDepth + "/" + queueCapacity +
+                ", maxQueue=" + maxQueueDepth +
+                ", submitted=" + totalSubmitted +
+                ", delivered=" + totalDelivered +
+                ", failed=" + totalFailed +
+                ", timedOut=" + totalTimedOut +
+                ", dropped=" + totalDropped +
+                ", avgLatencyMs=" + averageLatencyMillis +
+                ", maxLatencyMs=" + maxLatencyMillis +
+                '}';
+    }
+}
@@ -0,0 +1,51 @@
+package devs.fmm.rfc_01.service.impl;
+
+/**
+ * Forma de mostrar las notificaciones al usuario (notify-send, bandeja del sistema, registro...).
+ * <p>
+ * {@link NotificationServiceImpl} comprueba los transportes una sola vez al arrancar, o cuando se le pide volver a
+ * comprobarlos, y usa el primero disponible; los envíos nunca vuelven a comprobar la disponibilidad.
+ */
+public interface NotificationTransport {
+
+    /**
+     * Obtiene el nombre del transporte, el que se usa en la propiedad {@code rfc.notifications.transport}.
+     *
+     * @return El nombre del transporte
+     */
+    String getName();
+
+    /**
+     * Comprueba si el transporte puede usarse en este sistema. Puede ser costoso; solo se llama al detectar los
+     * transportes.
+     *
+     * @return true si el transporte está disponible, false en caso contrario
+     */
+    boolean probe();
+
+    /**
+     * Prepara el transporte una vez elegido.
+     *
+     * @throws Exception Si no se puede preparar; el transporte se descarta
+     */
+    default void open() throws Exception {
+    }
+
+    /**
+     * Muestra una notificación. Se llama desde el hilo de envío de notificaciones.
+     *
+     * @param title El título de la notificación
+     * @param message El mensaje de la notificación
+     * @param timeoutMillis El tiempo máximo del envío
+     * @return true si se ha mostrado, false si ha fallado
+     * @throws java.util.concurrent.TimeoutException Si el envío no termina a tiempo
+     * @throws Exception Si ocurre cualquier otro error
+     */
+    boolean send(String title, String message, long timeoutMillis) throws Exception;
+
+    /**
+     * Libera los recursos del transporte cuando deja de usarse.
+     */
+    default void close() {
+    }
+}
@@ -0,0 +1,58 @@
+package devs.fmm.rfc_01.service.impl;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Transporte que usa el comando {@code notify-send} de libnotify, disponible en la mayoría de escritorios Linux.
+ */
+final class NotifySendTransport implements NotificationTransport {
+
+    static final String NAME = "notify-send";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Busca el ejecutable en el PATH sin lanzar ningún proceso.
+     */
+    @Override
+    public boolean probe() {
+        String path = System.getenv("PATH");
+        if (path == null) {
+            return false;
+        }
+        for (String dir : path.split(File.pathSeparator)) {
+            if (!dir.isEmpty() && new File(dir, NAME).canExecute()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean send(String title, String message, long timeoutMillis) throws Exception {
+        // Construir el comando
+        String[] cmd = {
+            NAME,
+            "--icon=dialog-information",
+            "--app-name=RandomFitnessChallenge",
+            title,
+            message
+        };
+
+        // Ejecutar el comando sin esperar más de lo permitido
+        Process process = new ProcessBuilder(cmd)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        if (!process.waitFor(timeoutMillis, TimeUnit.MILLISECONDS)) {
+            process.destroyForcibly();
+            throw new TimeoutException("notify-send did not exit");
+        }
+        return process.exitValue() == 0;
+    }
+}
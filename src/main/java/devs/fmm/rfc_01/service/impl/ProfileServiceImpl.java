@@ -0,0 +1,146 @@
+package devs.fmm.rfc_01.service.impl;
+
+import devs.fmm.rfc_01.dao.UserProfileDao;
+import devs.fmm.rfc_01.dao.UserStatsDao;
+import devs.fmm.rfc_01.dao.impl.UserProfileDaoImpl;
+import devs.fmm.rfc_01.dao.impl.WriteBehindUserStatsDao;
+import devs.fmm.rfc_01.db.DatabaseManager;
+import devs.fmm.rfc_01.model.UserProfile;
+import devs.fmm.rfc_01.service.ProfileService;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Implementation of the ProfileService interface.
+ * <p>
+ * El perfil activo se guarda en memoria, así que los demás servicios pueden consultarlo en cada operación sin
+ * coste. Cambiar de perfil solo lee la fila del perfil y sus estadísticas, ambas por clave primaria.
+ */
+public class ProfileServiceImpl implements ProfileService {
+
+    private final UserProfileDao userProfileDao;
+    private final UserStatsDao userStatsDao;
+    private final StreakEngine streakEngine;
+
+    private volatile UserProfile currentProfile;
+    private volatile int currentProfileId = UserProfile.DEFAULT_ID;
+
+    /**
+     * Constructor.
+     */
+    public ProfileServiceImpl() {
+        this(DatabaseManager.getInstance());
+    }
+
+    /**
+     * Constructor sobre una base de datos concreta. Usa sus estadísticas en diferido y sus rachas compartidas.
+     *
+     * @param dbManager El gestor de la base de datos
+     */
+    public ProfileServiceImpl(DatabaseManager dbManager) {
+        this(new UserProfileDaoImpl(dbManager), WriteBehindUserStatsDao.forDatabase(dbManager),
+                StreakEngine.forDatabase(dbManager));
+    }
+
+    /**
+     * Constructor con dependencias DAO. Sin motor de rachas, eliminar un perfil solo descarta sus estadísticas.
+     *
+     * @param userProfileDao La implementación de UserProfileDao
+     * @param userStatsDao La implementación de UserStatsDao
+     */
+    public ProfileServiceImpl(UserProfileDao userProfileDao, UserStatsDao userStatsDao) {
+        this(userProfileDao, userStatsDao, null);
+    }
+
+    ProfileServiceImpl(UserProfileDao userProfileDao, UserStatsDao userStatsDao, StreakEngine streakEngine) {
+        this.userProfileDao = userProfileDao;
+        this.userStatsDao = userStatsDao;
+        this.streakEngine = streakEngine;
+    }
+
+    /**
+     * Obtiene la instancia compartida por toda la aplicación, de modo que todos los servicios ven el mismo
+     * perfil activo.
+     *
+     * @return La instancia compartida
+     */
+    public static ProfileServiceImpl getInstance() {
+        return forDatabase(DatabaseManager.getInstance());
+    }
+
+    /**
+     * Obtiene la instancia compartida por los servicios de una base de datos.
+     *
+     * @param dbManager El gestor de la base de datos
+     * @return La instancia de esa base de datos
+     */
+    public static ProfileServiceImpl forDatabase(DatabaseManager dbManager) {
+        return dbManager.getShared(ProfileServiceImpl.class, ProfileServiceImpl::new);
+    }
+
+    @Override
+    public List<UserProfile> getProfiles() {
+        return userProfileDao.findAll();
+    }
+
+    @Override
+    public Optional<UserProfile> createProfile(String name) {
+        if (name == null || name.isBlank()) {
+            return Optional.empty();
+        }
+        String trimmedName = name.trim();
+        if (userProfileDao.findByName(trimmedName).isPresent()) {
+            return Optional.empty();
+        }
+        return userProfileDao.save(new UserProfile(trimmedName, null));
+    }
+
+    @Override
+    public boolean deleteProfile(int id) {
+        if (id == UserProfile.DEFAULT_ID || !userProfileDao.deleteById(id)) {
+            return false;
+        }
+
+        // Sus estadísticas en memoria ya no tienen fila en la que escribirse
+        userStatsDao.discardProfile(id);
+        if (streakEngine != null) {
+            streakEngine.invalidate(id);
+        }
+        if (currentProfileId == id) {
+            switchProfile(UserProfile.DEFAULT_ID);
+        }
+        return true;
+    }
+
+    @Override
+    public UserProfile getCurrentProfile() {
+        UserProfile profile = currentProfile;
+        if (profile == null || profile.getId() != currentProfileId) {
+            int id = currentProfileId;
+            profile = userProfileDao.findById(id).orElseGet(() -> new UserProfile(id, null, null));
+            currentProfile = profile;
+        }
+        return profile;
+    }
+
+    @Override
+    public int getCurrentProfileId() {
+        return currentProfileId;
+    }
+
+    @Override
+    public boolean switchProfile(int id) {
+        Optional<UserProfile> profile = userProfileDao.findById(id);
+        if (profile.isEmpty()) {
+            return false;
+        }
+
+        // Cargar ya sus estadísticas para que la primera vista del perfil no tenga que esperar
+        userStatsDao.forUser(id);
+
+        currentProfile = profile.get();
+        currentProfileId = id;
+        return true;
+    }
+}
@@ -0,0 +1,194 @@
+package devs.fmm.rfc_01.service.impl;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Regla de recordatorio inmutable: cada cierto intervalo o a unas horas fijas, opcionalmente limitada a algunos días
+ * de la semana y fuera de unas horas de silencio.
+ * <p>
+ * Un recordatorio que caiga en un día no permitido o en horas de silencio se aplaza al primer momento permitido.
+ */
+final class ReminderRule {
+
+    private final String id;
+    private final Duration interval;
+    private final List<LocalTime> times;
+    private final Set<DayOfWeek> days;
+    private final LocalTime quietStart;
+    private final LocalTime quietEnd;
+
+    private ReminderRule(String id, Duration interval, List<LocalTime> times, Set<DayOfWeek> days,
+                         LocalTime quietStart, LocalTime quietEnd) {
+        this.id = id;
+        this.interval = interval;
+        this.times = times;
+        this.days = days;
+        this.quietStart = quietStart;
+        this.quietEnd = quietEnd;
+    }
+
+    /**
+     * Crea una regla que se repite cada cierto intervalo, contado desde el último recordatorio.
+     *
+     * @param id El identificador de la regla
+     * @param interval El intervalo entre recordatorios
+     * @return La regla
+     */
+    static ReminderRule every(String id, Duration interval) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Reminder interval must be positive: " + interval);
+        }
+        return new ReminderRule(id, interval, List.of(), EnumSet.allOf(DayOfWeek.class), null, null);
+    }
+
+    /**
+     * Crea una regla que se repite todos los días a las horas indicadas.
+     *
+     * @param id El identificador de la regla
+     * @param times Las horas del día
+     * @return La regla
+     */
+    static ReminderRule at(String id, Collection<LocalTime> times) {
+        if (times.isEmpty()) {
+            throw new IllegalArgumentException("A fixed-time reminder needs at least one time");
+        }
+        List<LocalTime> sorted = new ArrayList<>(times);
+        sorted.sort(null);
+        return new ReminderRule(id, null, List.copyOf(sorted), EnumSet.allOf(DayOfWeek.class), null, null);
+    }
+
+    /**
+     * Devuelve una copia limitada a los días de la semana indicados.
+     *
+     * @param days Los días permitidos
+     * @return La regla limitada
+     */
+    ReminderRule onDays(Set<DayOfWeek> days) {
+        return new ReminderRule(id, interval, times, days.isEmpty() ? EnumSet.noneOf(DayOfWeek.class) : EnumSet.copyOf(days),
+                quietStart, quietEnd);
+    }
+
+    /**
+     * Devuelve una copia que no avisa entre las horas indicadas. Si {@code end} es anterior a {@code start}, el
+     * silencio cruza la medianoche.
+     *
+     * @param start El comienzo del silencio
+     * @param end El final del silencio
+     * @return La regla con horas de silencio
+     */
+    ReminderRule withQuietHours(LocalTime start, LocalTime end) {
+        return new ReminderRule(id, interval, times, days, start, end);
+    }
+
+    /**
+     * Calcula el próximo recordatorio posterior a {@code now}.
+     *
+     * @param anchor El último recordatorio de la regla, o el momento en que se programó
+     * @param now El momento actual
+     * @param zone La zona horaria de las horas fijas, los días y el silencio
+     * @return El próximo recordatorio, o null si la regla no puede volver a avisar
+     */
+    Instant nextFire(Instant anchor, Instant now, ZoneId zone) {
+        LocalDateTime candidate;
+        if (interval != null) {
+            // Si el intervalo ya ha pasado (por ejemplo, tras suspender el equipo) se avisa una sola vez, ahora
+            Instant next = anchor.plus(interval);
+            candidate = LocalDateTime.ofInstant(next.isAfter(now) ? next : now, zone);
+        } else {
+            candidate = nextTime(LocalDateTime.ofInstant(now, zone));
+            // En un día no permitido se pasa a la primera hora del siguiente día permitido, no a su medianoche
+            for (int i = 0; i < 7 && !days.contains(candidate.getDayOfWeek()); i++) {
+                candidate = candidate.toLocalDate().plusDays(1).atTime(times.get(0));
+            }
+        }
+        return firstAllowed(candidate, zone);
+    }
+
+    /**
+     * Calcula el primer momento a partir de {@code at} en que la regla puede avisar, con los mismos ajustes que
+     * {@link #nextFire(Instant, Instant, ZoneId)}.
+     *
+     * @param at El momento deseado
+     * @param zone La zona horaria de los días y el silencio
+     * @return {@code at} si está permitido, el primer momento permitido posterior, o null si no hay ninguno
+     */
+    Instant firstAllowed(Instant at, ZoneId zone) {
+        return firstAllowed(LocalDateTime.ofInstant(at, zone), zone);
+    }
+
+    private Instant firstAllowed(LocalDateTime candidate, ZoneId zone) {
+        // Cada ajuste avanza al menos hasta el día siguiente o al final del silencio, así que basta con una semana
+        for (int i = 0; i < 16; i++) {
+            if (!days.contains(candidate.getDayOfWeek())) {
+                candidate = candidate.toLocalDate().plusDays(1).atStartOfDay();
+            } else if (isQuiet(candidate.toLocalTime())) {
+                LocalDate endDay = quietStart.isAfter(quietEnd) && !candidate.toLocalTime().isBefore(quietStart)
+                        ? candidate.toLocalDate().plusDays(1)
+                        : candidate.toLocalDate();
+                candidate = endDay.atTime(quietEnd);
+            } else {
+                return candidate.atZone(zone).toInstant();
+            }
+        }
+        return null;
+    }
+
+    private LocalDateTime nextTime(LocalDateTime after) {
+        for (LocalTime time : times) {
+            if (time.isAfter(after.toLocalTime())) {
+                return after.toLocalDate().atTime(time);
+            }
+        }
+        return after.toLocalDate().plusDays(1).atTime(times.get(0));
+    }
+
+    private boolean isQuiet(LocalTime time) {
+        if (quietStart == null || quietStart.equals(quietEnd)) {
+            return false;
+        }
+        if (quietStart.isBefore(quietEnd)) {
+            return !time.isBefore(quietStart) && time.isBefore(quietEnd);
+        }
+        return !time.isBefore(quietStart) || time.isBefore(quietEnd);
+    }
+
+    String getId() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ReminderRule)) return false;
+        ReminderRule that = (ReminderRule) o;
+        return id.equals(that.id) && Objects.equals(interval, that.interval) && times.equals(that.times)
+                && days.equals(that.days) && Objects.equals(quietStart, that.quietStart)
+                && Objects.equals(quietEnd, that.quietEnd);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, interval, times, days, quietStart, quietEnd);
+    }
+
+    @Override
+    public String toString() {
+        return "ReminderRule{" + id +
+                (interval != null ? ", every=" + interval : ", at=" + times) +
+                ", days=" + days +
+                (quietStart != null ? ", quiet=" + quietStart + "-" + quietEnd : "") +
+                '}';
+    }
+}
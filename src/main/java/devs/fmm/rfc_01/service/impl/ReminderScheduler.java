@@ -0,0 +1,241 @@
+package devs.fmm.rfc_01.service.impl;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Motor de recordatorios basado en reglas.
+ * <p>
+ * Los próximos avisos de todas las reglas se guardan en una única cola ordenada por fecha y el ejecutor solo tiene
+ * programada una tarea, la del primero; sin avisos pendientes no hay ninguna. Así el hilo solo se despierta cuando
+ * toca avisar, salvo una vez por hora como mucho: el ejecutor mide el tiempo con un reloj que no avanza mientras el
+ * equipo está suspendido, y esa espera máxima evita que un aviso a hora fija llegue horas tarde tras reanudar.
+ * <p>
+ * Los avisos que coinciden en el tiempo se agrupan en una sola llamada al listener. Cambiar las reglas conserva el
+ * último aviso de las que siguen existiendo, así que cambiar el intervalo no reinicia la cuenta.
+ */
+final class ReminderScheduler {
+
+    private static final long MAX_SLEEP_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    // Identificador de la entrada de un aplazamiento
+    private static final String SNOOZE = "snooze";
+
+    private final Clock clock;
+    private final Runnable listener;
+    private final ScheduledThreadPoolExecutor executor;
+
+    private final PriorityQueue<Entry> pending = new PriorityQueue<>(Comparator.comparing((Entry e) -> e.fireAt));
+    private final Map<String, ReminderRule> rules = new HashMap<>();
+    private final Map<String, Instant> anchors = new HashMap<>();
+    private ScheduledFuture<?> armed;
+    private Instant snoozedUntil;
+    private Instant lastFired;
+
+    /**
+     * Constructor.
+     *
+     * @param clock El reloj con el que se calculan los avisos
+     * @param listener La acción que se ejecuta en cada aviso, en el hilo del motor
+     */
+    ReminderScheduler(Clock clock, Runnable listener) {
+        this.clock = clock;
+        this.listener = listener;
+        this.executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "rfc-reminders");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Sustituye las reglas activas. Las reglas que no cambian conservan su próximo aviso; las que cambian lo
+     * recalculan a partir de su último aviso, y las nuevas empiezan a contar ahora.
+     *
+     * @param newRules Las nuevas reglas; una lista vacía detiene los recordatorios
+     */
+    synchronized void setRules(List<ReminderRule> newRules) {
+        Instant now = clock.instant();
+        Map<String, ReminderRule> previous = new HashMap<>(rules);
+        rules.clear();
+        for (ReminderRule rule : newRules) {
+            rules.put(rule.getId(), rule);
+        }
+        anchors.keySet().retainAll(rules.keySet());
+        if (rules.isEmpty()) {
+            snoozedUntil = null;
+        }
+
+        pending.removeIf(entry -> {
+            if (SNOOZE.equals(entry.ruleId)) {
+                return rules.isEmpty();
+            }
+            ReminderRule rule = rules.get(entry.ruleId);
+            return rule == null || !rule.equals(previous.get(entry.ruleId));
+        });
+        for (ReminderRule rule : rules.values()) {
+            if (pending.stream().noneMatch(entry -> entry.ruleId.equals(rule.getId()))) {
+                anchors.putIfAbsent(rule.getId(), now);
+                schedule(rule, now);
+            }
+        }
+        arm();
+    }
+
+    /**
+     * Aplaza los recordatorios: avisa una vez pasado el tiempo indicado y ninguna regla avisa antes. Si el
+     * aplazamiento termina en un momento en que ninguna regla puede avisar (días no permitidos u horas de silencio),
+     * el aviso se retrasa al primero en que alguna puede.
+     *
+     * @param delay El tiempo de aplazamiento
+     */
+    synchronized void snooze(Duration delay) {
+        if (rules.isEmpty()) {
+            return;
+        }
+        Instant now = clock.instant();
+        Instant wanted = now.plus(delay);
+        Instant fireAt = null;
+        for (ReminderRule rule : rules.values()) {
+            Instant allowed = rule.firstAllowed(wanted, clock.getZone());
+            if (allowed != null && (fireAt == null || allowed.isBefore(fireAt))) {
+                fireAt = allowed;
+            }
+        }
+        if (fireAt == null) {
+            // Ninguna regla puede volver a avisar
+            return;
+        }
+        snoozedUntil = fireAt;
+
+        pending.removeIf(entry -> SNOOZE.equals(entry.ruleId) || entry.fireAt.isBefore(snoozedUntil));
+        pending.add(new Entry(SNOOZE, now, snoozedUntil));
+        for (ReminderRule rule : rules.values()) {
+            if (pending.stream().noneMatch(entry -> entry.ruleId.equals(rule.getId()))) {
+                schedule(rule, now);
+            }
+        }
+        arm();
+    }
+
+    /**
+     * Obtiene el momento del próximo recordatorio.
+     *
+     * @return El próximo recordatorio, o vacío si no hay ninguno pendiente
+     */
+    synchronized Optional<Instant> getNextFireTime() {
+        Entry next = pending.peek();
+        return next != null ? Optional.of(next.fireAt) : Optional.empty();
+    }
+
+    /**
+     * Obtiene el comienzo de la espera del próximo recordatorio: el último aviso, el último aviso de su regla (que
+     * se conserva al cambiar las reglas), el momento en que se programó la regla o el momento en que se aplazó, el
+     * más reciente. Junto con {@link #getNextFireTime()} permite mostrar el progreso de la espera, también cuando
+     * no dura un intervalo exacto (horas fijas, aplazamientos, silencios o días no permitidos).
+     *
+     * @return El comienzo de la espera, o vacío si no hay ningún recordatorio pendiente
+     */
+    synchronized Optional<Instant> getWaitStart() {
+        Entry next = pending.peek();
+        if (next == null) {
+            return Optional.empty();
+        }
+        Instant start = lastFired != null && lastFired.isAfter(next.startedAt) ? lastFired : next.startedAt;
+        return Optional.of(start.isAfter(next.fireAt) ? next.fireAt : start);
+    }
+
+    /**
+     * Detiene el motor y descarta los recordatorios pendientes.
+     */
+    synchronized void shutdown() {
+        pending.clear();
+        rules.clear();
+        anchors.clear();
+        lastFired = null;
+        executor.shutdownNow();
+    }
+
+    private void schedule(ReminderRule rule, Instant now) {
+        // Durante un aplazamiento ninguna regla avisa antes de que termine
+        Instant after = snoozedUntil != null && snoozedUntil.isAfter(now) ? snoozedUntil : now;
+        Instant anchor = anchors.getOrDefault(rule.getId(), now);
+        Instant fireAt = rule.nextFire(anchor, after, clock.getZone());
+        if (fireAt != null) {
+            pending.add(new Entry(rule.getId(), anchor, fireAt));
+        }
+    }
+
+    private void arm() {
+        if (armed != null) {
+            armed.cancel(false);
+            armed = null;
+        }
+        Entry next = pending.peek();
+        if (next == null || executor.isShutdown()) {
+            return;
+        }
+        long delay = Math.max(0, Duration.between(clock.instant(), next.fireAt).toMillis());
+        armed = executor.schedule(this::fireDue, Math.min(delay, MAX_SLEEP_MILLIS), TimeUnit.MILLISECONDS);
+    }
+
+    private void fireDue() {
+        boolean fire;
+        synchronized (this) {
+            Instant now = clock.instant();
+            List<Entry> due = new ArrayList<>();
+            while (!pending.isEmpty() && !pending.peek().fireAt.isAfter(now)) {
+                due.add(pending.poll());
+            }
+            for (Entry entry : due) {
+                if (SNOOZE.equals(entry.ruleId)) {
+                    snoozedUntil = null;
+                    continue;
+                }
+                ReminderRule rule = rules.get(entry.ruleId);
+                anchors.put(rule.getId(), now);
+                schedule(rule, now);
+            }
+            fire = !due.isEmpty();
+            if (fire) {
+                lastFired = now;
+            }
+            arm();
+        }
+
+        if (fire) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                System.err.println("Error running reminder: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Un aviso pendiente y el momento desde el que se espera.
+     */
+    private static final class Entry {
+        private final String ruleId;
+        private final Instant startedAt;
+        private final Instant fireAt;
+
+        private Entry(String ruleId, Instant startedAt, Instant fireAt) {
+            this.ruleId = ruleId;
+            this.startedAt = startedAt;
+            this.fireAt = fireAt;
+        }
+    }
+}
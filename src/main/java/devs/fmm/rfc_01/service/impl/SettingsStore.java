@@ -0,0 +1,174 @@
+package devs.fmm.rfc_01.service.impl;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.prefs.BackingStoreException;
+import java.util.prefs.Preferences;
+
+/**
+ * Caché en memoria de un nodo de {@link Preferences} que agrupa las escrituras.
+ * <p>
+ * Las lecturas salen de la caché y las escrituras se aplican en ella al momento. Los cambios se guardan en segundo
+ * plano cuando dejan de llegar durante {@code rfc.settings.settleMillis} (750 ms por defecto), o como mucho cinco
+ * veces ese tiempo después del primero, en un solo lote y con un único {@link Preferences#flush()}. Tras cada lote se
+ * avisa a los listeners con las claves que han cambiado, de modo que solo reaccionan a los valores ya asentados y no
+ * a cada paso de un spinner.
+ */
+final class SettingsStore {
+
+    private static final long SETTLE_MILLIS = Long.getLong("rfc.settings.settleMillis", 750L);
+
+    private final Preferences prefs;
+    private final long settleMillis;
+    private final long maxDelayMillis;
+    private final ScheduledThreadPoolExecutor executor;
+    private final Map<String, Object> cache = new ConcurrentHashMap<>();
+    private final List<Consumer<Set<String>>> listeners = new CopyOnWriteArrayList<>();
+
+    // Protegidos por this
+    private final Map<String, Object> pending = new HashMap<>();
+    private ScheduledFuture<?> flushTask;
+    private long firstPendingAt;
+    private boolean shutDown;
+
+    /**
+     * Constructor.
+     *
+     * @param prefs El nodo de preferencias donde se guardan los valores
+     */
+    SettingsStore(Preferences prefs) {
+        this(prefs, SETTLE_MILLIS);
+    }
+
+    /**
+     * Constructor con el tiempo de espera explícito.
+     *
+     * @param prefs El nodo de preferencias donde se guardan los valores
+     * @param settleMillis El tiempo sin cambios tras el que se guardan
+     */
+    SettingsStore(Preferences prefs, long settleMillis) {
+        this.prefs = prefs;
+        this.settleMillis = settleMillis;
+        this.maxDelayMillis = settleMillis * 5;
+        this.executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "rfc-settings");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    int getInt(String key, int defaultValue) {
+        return (Integer) cache.computeIfAbsent(key, k -> prefs.getInt(k, defaultValue));
+    }
+
+    boolean getBoolean(String key, boolean defaultValue) {
+        return (Boolean) cache.computeIfAbsent(key, k -> prefs.getBoolean(k, defaultValue));
+    }
+
+    void putInt(String key, int value) {
+        put(key, value);
+    }
+
+    void putBoolean(String key, boolean value) {
+        put(key, value);
+    }
+
+    /**
+     * Registra un listener que recibe las claves de cada lote guardado, desde el hilo del almacén.
+     *
+     * @param listener El listener
+     */
+    void addListener(Consumer<Set<String>> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Detiene el hilo, esperando al lote en curso, y guarda los cambios pendientes. No se avisa a los listeners.
+     */
+    void shutdown() {
+        synchronized (this) {
+            if (shutDown) {
+                return;
+            }
+            shutDown = true;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush(false);
+    }
+
+    private void put(String key, Object value) {
+        synchronized (this) {
+            // Dentro del bloqueo, para que el valor de la caché y el último pendiente nunca se crucen
+            Object previous = cache.put(key, value);
+            if (Objects.equals(previous, value) && !pending.containsKey(key)) {
+                return;
+            }
+            pending.put(key, value);
+            if (!shutDown) {
+                long now = System.currentTimeMillis();
+                if (flushTask == null) {
+                    firstPendingAt = now;
+                } else {
+                    flushTask.cancel(false);
+                }
+                // Cada cambio retrasa el guardado, pero sin pasar del retraso máximo desde el primero
+                long delay = Math.min(settleMillis, Math.max(0, firstPendingAt + maxDelayMillis - now));
+                flushTask = executor.schedule(() -> flush(true), delay, TimeUnit.MILLISECONDS);
+                return;
+            }
+        }
+        // Tras cerrar se escribe directamente
+        flush(false);
+    }
+
+    private void flush(boolean notify) {
+        Map<String, Object> batch;
+        synchronized (this) {
+            batch = new HashMap<>(pending);
+            pending.clear();
+            flushTask = null;
+            notify = notify && !shutDown;
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        batch.forEach((key, value) -> {
+            if (value instanceof Integer) {
+                prefs.putInt(key, (Integer) value);
+            } else {
+                prefs.putBoolean(key, (Boolean) value);
+            }
+        });
+        try {
+            prefs.flush();
+        } catch (BackingStoreException e) {
+            System.err.println("Error saving settings: " + e.getMessage());
+        }
+
+        if (notify) {
+            for (Consumer<Set<String>> listener : listeners) {
+                try {
+                    listener.accept(batch.keySet());
+                } catch (RuntimeException e) {
+                    System.err.println("Error applying settings: " + e.getMessage());
+                }
+            }
+        }
+    }
+}
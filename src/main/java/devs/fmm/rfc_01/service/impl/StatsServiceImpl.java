@@ -3,19 +3,23 @@ package devs.fmm.rfc_01.service.impl;
 import devs.fmm.rfc_01.dao.ChallengeDao;
 import devs.fmm.rfc_01.dao.CompletedChallengeDao;
 import devs.fmm.rfc_01.dao.UserStatsDao;
-import devs.fmm.rfc_01.dao.impl.ChallengeDaoImpl;
+import devs.fmm.rfc_01.dao.impl.CachingChallengeDao;
 import devs.fmm.rfc_01.dao.impl.CompletedChallengeDaoImpl;
-import devs.fmm.rfc_01.dao.impl.UserStatsDaoImpl;
+import devs.fmm.rfc_01.dao.impl.WriteBehindUserStatsDao;
 import devs.fmm.rfc_01.db.DatabaseInitializer;
-import devs.fmm.rfc_01.model.Challenge;
+import devs.fmm.rfc_01.db.DatabaseManager;
 import devs.fmm.rfc_01.model.CompletedChallenge;
 import devs.fmm.rfc_01.model.UserStats;
 import devs.fmm.rfc_01.service.NotificationService;
+import devs.fmm.rfc_01.service.ProfileService;
 import devs.fmm.rfc_01.service.StatsService;
 import devs.fmm.rfc_01.RandomFitnessChallengeApp;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.TemporalAdjusters;
 import java.util.Optional;
 
 /**
@@ -26,102 +30,141 @@ public class StatsServiceImpl implements StatsService {
     private final UserStatsDao userStatsDao;
     private final ChallengeDao challengeDao;
     private final CompletedChallengeDao completedChallengeDao;
+    private final ProfileService profileService;
+    private final StreakEngine streakEngine;
+    private final DatabaseManager dbManager;
 
     /**
      * Constructor.
      */
     public StatsServiceImpl() {
-        this.userStatsDao = new UserStatsDaoImpl();
-        this.challengeDao = new ChallengeDaoImpl();
-        this.completedChallengeDao = new CompletedChallengeDaoImpl();
+        this(DatabaseManager.getInstance());
     }
 
     /**
-     * Constructor con dependencias DAO.
+     * Constructor sobre una base de datos concreta. Las estadísticas en diferido, el catálogo cacheado, el perfil
+     * activo y las rachas son los que comparten todos los servicios de esa base de datos.
+     *
+     * @param dbManager El gestor de la base de datos
+     */
+    public StatsServiceImpl(DatabaseManager dbManager) {
+        this(WriteBehindUserStatsDao.forDatabase(dbManager), CachingChallengeDao.forDatabase(dbManager),
+                new CompletedChallengeDaoImpl(dbManager), ProfileServiceImpl.forDatabase(dbManager),
+                StreakEngine.forDatabase(dbManager), dbManager);
+    }
+
+    /**
+     * Constructor con dependencias DAO y el servicio que indica el perfil activo.
      *
      * @param userStatsDao La implementación de UserStatsDao
      * @param challengeDao La implementación de ChallengeDao
      * @param completedChallengeDao La implementación de CompletedChallengeDao
+     * @param profileService El servicio de perfiles
+     * @param dbManager El gestor de la base de datos en la que se restauran los retos predeterminados
      */
-    public StatsServiceImpl(UserStatsDao userStatsDao, ChallengeDao challengeDao, CompletedChallengeDao completedChallengeDao) {
+    public StatsServiceImpl(UserStatsDao userStatsDao, ChallengeDao challengeDao, CompletedChallengeDao completedChallengeDao,
+                            ProfileService profileService, DatabaseManager dbManager) {
+        this(userStatsDao, challengeDao, completedChallengeDao, profileService, new StreakEngine(completedChallengeDao),
+                dbManager);
+    }
+
+    StatsServiceImpl(UserStatsDao userStatsDao, ChallengeDao challengeDao, CompletedChallengeDao completedChallengeDao,
+                     ProfileService profileService, StreakEngine streakEngine, DatabaseManager dbManager) {
         this.userStatsDao = userStatsDao;
         this.challengeDao = challengeDao;
         this.completedChallengeDao = completedChallengeDao;
+        this.profileService = profileService;
+        this.streakEngine = streakEngine;
+        this.dbManager = dbManager;
     }
 
     @Override
     public Optional<UserStats> getUserStats() {
-        return userStatsDao.getUserStats();
+        int userId = profileService.getCurrentProfileId();
+        return withCurrentStreak(userId, userStatsDao.forUser(userId).getUserStats());
     }
 
     @Override
     public boolean updateUserStats(UserStats userStats) {
-        return userStatsDao.updateUserStats(userStats);
+        return userStats().updateUserStats(userStats);
     }
 
     @Override
     public boolean recordCompletedChallenge(int challengeId, int durationMinutes) {
-        // Get the challenge
-        Optional<Challenge> challengeOpt = challengeDao.findById(challengeId);
-
-        if (challengeOpt.isPresent()) {
-            // Create and save the completed challenge
-            CompletedChallenge completedChallenge = new CompletedChallenge();
-            completedChallenge.setChallengeId(challengeId);
-            completedChallenge.setCompletionDate(LocalDateTime.now());
-            completedChallengeDao.save(completedChallenge);
-
-            // Update user stats
-            Optional<UserStats> userStatsOpt = userStatsDao.getUserStats();
-
-            if (userStatsOpt.isPresent()) {
-                UserStats userStats = userStatsOpt.get();
-                userStats.setTotalChallengesCompleted(userStats.getTotalChallengesCompleted() + 1);
-                userStats.setTotalMinutesExercised(userStats.getTotalMinutesExercised() + durationMinutes);
-                userStats.updateStreak(LocalDate.now());
-
-                return userStatsDao.updateUserStats(userStats);
-            } else {
-                // Create new user stats if not found
-                UserStats userStats = new UserStats();
-                userStats.setTotalChallengesCompleted(1);
-                userStats.setTotalMinutesExercised(durationMinutes);
-                userStats.setStreakDays(1);
-                userStats.setLastChallengeDate(LocalDate.now());
-
-                return userStatsDao.updateUserStats(userStats);
-            }
+        return recordCompletion(challengeId, durationMinutes).isPresent();
+    }
+
+    @Override
+    public Optional<UserStats> recordCompletion(int challengeId, int durationMinutes) {
+        // Resolver el perfil una sola vez: ambas escrituras deben ir al mismo aunque se cambie entre medias
+        int userId = profileService.getCurrentProfileId();
+        UserStatsDao userStats = userStatsDao.forUser(userId);
+
+        // Inserción y resumen diario en una sola transacción sobre una sola conexión
+        LocalDateTime completionDate = LocalDateTime.now();
+        Optional<CompletedChallenge> completed = completedChallengeDao.forUser(userId)
+                .recordCompletion(challengeId, completionDate);
+        if (completed.isEmpty()) {
+            return Optional.empty();
         }
 
-        return false;
+        // Totales y racha; si no llegan a escribirse se recuperan del historial en el siguiente arranque
+        if (!userStats.recordCompletion(completed.get().getId(), completionDate.toLocalDate(), durationMinutes)) {
+            System.err.println("Completed challenge " + completed.get().getId() + " recorded without updating user stats");
+        }
+        streakEngine.completionAdded(userId, completionDate.toLocalDate());
+        return withCurrentStreak(userId, userStats.getUserStats());
     }
 
     @Override
     public boolean resetStats() {
-        // Primero borramos todos los retos completados
-        boolean completedChallengesDeleted = completedChallengeDao.deleteAll();
+        int userId = profileService.getCurrentProfileId();
+
+        // Primero borramos todos los retos completados del perfil
+        boolean completedChallengesDeleted = completedChallengeDao.forUser(userId).deleteAll();
+        streakEngine.invalidate(userId);
 
-        // Luego reseteamos las estadísticas del usuario
-        boolean userStatsReset = userStatsDao.resetStats();
+        // Luego reseteamos las estadísticas del perfil
+        boolean userStatsReset = userStatsDao.forUser(userId).resetStats();
 
         // Ambas operaciones deben ser exitosas
         return completedChallengesDeleted && userStatsReset;
     }
 
+    @Override
+    public boolean rebuildDailyActivity() {
+        return completedChallengeDao.rebuildDailyActivity();
+    }
+
     @Override
     public int getCurrentStreak() {
-        Optional<UserStats> userStatsOpt = userStatsDao.getUserStats();
+        return streakEngine.getCurrentStreak(profileService.getCurrentProfileId(), LocalDate.now());
+    }
 
-        if (userStatsOpt.isPresent()) {
-            return userStatsOpt.get().getStreakDays();
-        }
+    @Override
+    public int getLongestStreak() {
+        return streakEngine.getLongestStreak(profileService.getCurrentProfileId());
+    }
 
-        return 0;
+    @Override
+    public int getActiveDays(LocalDate startDate, LocalDate endDate) {
+        return streakEngine.countActiveDays(profileService.getCurrentProfileId(), startDate, endDate);
+    }
+
+    @Override
+    public int getActiveDaysInWeek(LocalDate date) {
+        LocalDate monday = date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        return getActiveDays(monday, monday.plusDays(6));
+    }
+
+    @Override
+    public int getActiveDaysInMonth(YearMonth month) {
+        return getActiveDays(month.atDay(1), month.atEndOfMonth());
     }
 
     @Override
     public int getTotalChallengesCompleted() {
-        Optional<UserStats> userStatsOpt = userStatsDao.getUserStats();
+        Optional<UserStats> userStatsOpt = userStats().getUserStats();
 
         if (userStatsOpt.isPresent()) {
             return userStatsOpt.get().getTotalChallengesCompleted();
@@ -132,7 +175,7 @@ public class StatsServiceImpl implements StatsService {
 
     @Override
     public int getTotalMinutesExercised() {
-        Optional<UserStats> userStatsOpt = userStatsDao.getUserStats();
+        Optional<UserStats> userStatsOpt = userStats().getUserStats();
 
         if (userStatsOpt.isPresent()) {
             return userStatsOpt.get().getTotalMinutesExercised();
@@ -146,17 +189,18 @@ public class StatsServiceImpl implements StatsService {
         // Reiniciar estadísticas y retos completados
         boolean statsReset = resetStats();
 
-        // Reiniciar configuraciones de notificación
+        // Reiniciar configuraciones de notificación; fuera de la aplicación (benchmarks, pruebas) no hay servicio
         NotificationService notificationService = RandomFitnessChallengeApp.getNotificationService();
+        if (notificationService != null) {
+            // Reiniciar intervalo de notificación a predeterminado (60 minutos)
+            notificationService.setNotificationInterval(60);
 
-        // Reiniciar intervalo de notificación a predeterminado (60 minutos)
-        notificationService.setNotificationInterval(60);
-
-        // Deshabilitar notificaciones
-        notificationService.setNotificationEnabled(false);
+            // Deshabilitar notificaciones
+            notificationService.setNotificationEnabled(false);
 
-        // Detener cualquier programador de notificaciones activo
-        notificationService.stopScheduler();
+            // Detener cualquier programador de notificaciones activo
+            notificationService.stopScheduler();
+        }
 
         // Reiniciar retos a predeterminados
         boolean challengesReset = false;
@@ -166,10 +210,36 @@ public class StatsServiceImpl implements StatsService {
 
         // Luego reinicializar retos predeterminados
         if (challengesDeleted) {
-            challengesReset = DatabaseInitializer.reinitializeDefaultChallenges();
+            challengesReset = DatabaseInitializer.reinitializeDefaultChallenges(dbManager);
+            // Los retos predeterminados se insertan sin pasar por el DAO: descartar el catálogo cacheado
+            if (challengeDao instanceof CachingChallengeDao) {
+                ((CachingChallengeDao) challengeDao).invalidate();
+            }
         }
 
         // Retornar true solo si tanto las estadísticas como los retos se reiniciaron exitosamente
         return statsReset && challengesReset;
     }
+
+    /**
+     * Sustituye la racha guardada por la calculada a partir del historial, que también tiene en cuenta los retos
+     * registrados o eliminados en días pasados y los días sin actividad desde el último reto.
+     *
+     * @param userId El ID del perfil
+     * @param userStats Las estadísticas leídas del DAO
+     * @return Las mismas estadísticas con la racha actual
+     */
+    private Optional<UserStats> withCurrentStreak(int userId, Optional<UserStats> userStats) {
+        userStats.ifPresent(stats -> stats.setStreakDays(streakEngine.getCurrentStreak(userId, LocalDate.now())));
+        return userStats;
+    }
+
+    /**
+     * Obtiene el DAO de estadísticas del perfil activo.
+     *
+     * @return El DAO del perfil activo
+     */
+    private UserStatsDao userStats() {
+        return userStatsDao.forUser(profileService.getCurrentProfileId());
+    }
 }
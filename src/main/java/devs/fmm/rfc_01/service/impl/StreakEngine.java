@@ -0,0 +1,188 @@
+package devs.fmm.rfc_01.service.impl;
+
+import devs.fmm.rfc_01.dao.CompletedChallengeDao;
+import devs.fmm.rfc_01.dao.impl.CompletedChallengeDaoImpl;
+import devs.fmm.rfc_01.db.DatabaseManager;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Calcula rachas y días activos de cada perfil a partir de un bitset de días en memoria (ver {@link ActiveDays}).
+ * <p>
+ * El bitset de un perfil se construye la primera vez que se consulta, leyendo una fila por día activo del resumen
+ * diario, y a partir de ahí se mantiene con cada reto completado o eliminado. Así la racha siempre se deriva del
+ * historial, también cuando se registra o se borra un reto de un día pasado.
+ * <p>
+ * Las lecturas de la base de datos nunca se hacen dentro de una operación del mapa, que bloquearía a los demás
+ * perfiles del mismo segmento. La carga se hace fuera y se publica con {@code putIfAbsent}; si mientras tanto, o
+ * justo antes de publicarla, ha cambiado algún historial, la carga puede haberse perdido ese cambio: se retira del
+ * mapa y se repite.
+ */
+final class StreakEngine {
+
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+
+    private final CompletedChallengeDao completedChallengeDao;
+    private final Map<Integer, ActiveDays> profiles = new ConcurrentHashMap<>();
+
+    // Cuenta los cambios de historial, para detectar los que llegan durante una carga
+    private final AtomicLong changes = new AtomicLong();
+
+    /**
+     * Constructor.
+     *
+     * @param completedChallengeDao El DAO del que se leen los días activos de cada perfil
+     */
+    StreakEngine(CompletedChallengeDao completedChallengeDao) {
+        this.completedChallengeDao = completedChallengeDao;
+    }
+
+    /**
+     * Obtiene la instancia compartida por los servicios, de modo que todos ven los mismos días activos.
+     *
+     * @return La instancia compartida
+     */
+    static StreakEngine getInstance() {
+        return forDatabase(DatabaseManager.getInstance());
+    }
+
+    /**
+     * Obtiene la instancia compartida por los servicios de una base de datos.
+     *
+     * @param dbManager El gestor de la base de datos
+     * @return La instancia de esa base de datos
+     */
+    static StreakEngine forDatabase(DatabaseManager dbManager) {
+        return dbManager.getShared(StreakEngine.class, manager -> new StreakEngine(new CompletedChallengeDaoImpl(manager)));
+    }
+
+    /**
+     * Obtiene la racha actual de un perfil.
+     *
+     * @param userId El ID del perfil
+     * @param today La fecha actual
+     * @return Los días activos consecutivos que terminan hoy, o ayer si hoy aún no hay actividad
+     */
+    int getCurrentStreak(int userId, LocalDate today) {
+        ActiveDays activeDays = activeDays(userId);
+        synchronized (activeDays) {
+            return activeDays.currentStreak(today);
+        }
+    }
+
+    /**
+     * Obtiene la racha más larga de un perfil.
+     *
+     * @param userId El ID del perfil
+     * @return La racha más larga en días
+     */
+    int getLongestStreak(int userId) {
+        ActiveDays activeDays = activeDays(userId);
+        synchronized (activeDays) {
+            return activeDays.longestStreak();
+        }
+    }
+
+    /**
+     * Cuenta los días con actividad de un perfil en un rango.
+     *
+     * @param userId El ID del perfil
+     * @param startDate La fecha de inicio (inclusiva)
+     * @param endDate La fecha de fin (inclusiva)
+     * @return El número de días con al menos un reto completado
+     */
+    int countActiveDays(int userId, LocalDate startDate, LocalDate endDate) {
+        ActiveDays activeDays = activeDays(userId);
+        synchronized (activeDays) {
+            return activeDays.count(startDate, endDate);
+        }
+    }
+
+    /**
+     * Anota un reto completado ya guardado.
+     *
+     * @param userId El ID del perfil
+     * @param date El día en que se completó
+     */
+    void completionAdded(int userId, LocalDate date) {
+        // Antes de tocar el mapa, para que una carga en curso sepa que puede haberse perdido el cambio
+        changes.incrementAndGet();
+        // Si el perfil aún no se ha cargado, la carga ya leerá este día
+        ActiveDays activeDays = profiles.get(userId);
+        if (activeDays != null) {
+            synchronized (activeDays) {
+                activeDays.add(date);
+            }
+        }
+    }
+
+    /**
+     * Anota un reto completado ya eliminado. El día solo deja de estar activo si no le quedan otros retos.
+     *
+     * @param userId El ID del perfil
+     * @param date El día en que se había completado
+     */
+    void completionRemoved(int userId, LocalDate date) {
+        changes.incrementAndGet();
+        ActiveDays activeDays = profiles.get(userId);
+        if (activeDays == null) {
+            return;
+        }
+        // Con el bitset bloqueado, un reto del mismo día guardado mientras tanto se anota después de comprobarlo
+        synchronized (activeDays) {
+            if (completedChallengeDao.forUser(userId).countByDateRange(date, date) == 0) {
+                activeDays.remove(date);
+            }
+        }
+    }
+
+    /**
+     * Descarta los días activos de un perfil, que se volverán a leer en la siguiente consulta. Se usa cuando su
+     * historial cambia de golpe, como al reiniciar las estadísticas o eliminar el perfil.
+     *
+     * @param userId El ID del perfil
+     */
+    void invalidate(int userId) {
+        changes.incrementAndGet();
+        profiles.remove(userId);
+    }
+
+    private ActiveDays activeDays(int userId) {
+        ActiveDays activeDays = profiles.get(userId);
+        if (activeDays != null) {
+            return activeDays;
+        }
+
+        for (int attempt = 0; attempt < MAX_LOAD_ATTEMPTS; attempt++) {
+            long before = changes.get();
+            ActiveDays loaded = load(userId);
+            activeDays = loaded;
+            if (changes.get() != before) {
+                continue;
+            }
+            ActiveDays previous = profiles.putIfAbsent(userId, loaded);
+            if (previous != null) {
+                return previous;
+            }
+            // Un cambio que llegó entre la comprobación y la publicación no encontró el bitset en el mapa; los
+            // posteriores a esta segunda comprobación ya lo encuentran y se anotan en él
+            if (changes.get() == before) {
+                return loaded;
+            }
+            profiles.remove(userId, loaded);
+        }
+        // Con escrituras continuas se usa la última carga sin guardarla; la siguiente consulta lo vuelve a intentar
+        return activeDays;
+    }
+
+    private ActiveDays load(int userId) {
+        ActiveDays activeDays = new ActiveDays();
+        for (LocalDate date : completedChallengeDao.forUser(userId).getActiveDates()) {
+            activeDays.add(date);
+        }
+        return activeDays;
+    }
+}
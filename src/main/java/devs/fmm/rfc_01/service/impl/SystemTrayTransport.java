@@ -0,0 +1,58 @@
+package devs.fmm.rfc_01.service.impl;
+
+import java.awt.*;
+import java.awt.TrayIcon.MessageType;
+
+/**
+ * Transporte que muestra las notificaciones como mensajes del icono de la aplicación en la bandeja del sistema.
+ * <p>
+ * El icono se crea y se retira bajo el bloqueo de la instancia, así que un envío nunca ve uno a medio cerrar.
+ */
+final class SystemTrayTransport implements NotificationTransport {
+
+    static final String NAME = "tray";
+
+    private SystemTray systemTray;
+    private TrayIcon trayIcon;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean probe() {
+        return SystemTray.isSupported();
+    }
+
+    @Override
+    public synchronized void open() throws AWTException {
+        // Load the tray icon image
+        Image image = Toolkit.getDefaultToolkit().getImage(getClass().getResource("/devs/fmm/rfc_01/images/app-icon.png"));
+
+        // Create the tray icon
+        systemTray = SystemTray.getSystemTray();
+        trayIcon = new TrayIcon(image, "Random Fitness Challenge");
+        trayIcon.setImageAutoSize(true);
+
+        // Add the icon to the system tray
+        systemTray.add(trayIcon);
+    }
+
+    @Override
+    public synchronized boolean send(String title, String message, long timeoutMillis) {
+        if (trayIcon == null) {
+            return false;
+        }
+        trayIcon.displayMessage(title, message, MessageType.INFO);
+        return true;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (systemTray != null && trayIcon != null) {
+            systemTray.remove(trayIcon);
+            trayIcon = null;
+        }
+    }
+}
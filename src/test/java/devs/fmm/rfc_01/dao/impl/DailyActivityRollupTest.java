@@ -0,0 +1,168 @@
+package devs.fmm.rfc_01.dao.impl;
+
+import devs.fmm.rfc_01.db.DatabaseManager;
+import devs.fmm.rfc_01.model.Challenge;
+import devs.fmm.rfc_01.model.CompletedChallenge;
+import devs.fmm.rfc_01.model.UserProfile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de que los resúmenes {@code daily_activity} y {@code daily_category_activity} que mantiene
+ * {@link DailyActivityRollup} coinciden siempre con agrupar {@code completed_challenges}, con varios perfiles y
+ * retos a ambos lados de la medianoche.
+ */
+class DailyActivityRollupTest {
+
+    private static final LocalDateTime MIDNIGHT = LocalDateTime.of(2026, 10, 17, 0, 0);
+
+    // Lo que deberían contener los resúmenes, calculado directamente del historial
+    private static final String EXPECTED_DAYS_SQL = "SELECT c.user_id, date(c.completion_date), COUNT(*), " +
+            "COALESCE(SUM(ch.duration_minutes), 0) FROM completed_challenges c " +
+            "LEFT JOIN challenges ch ON ch.id = c.challenge_id GROUP BY 1, 2 ORDER BY 1, 2";
+    private static final String EXPECTED_CATEGORIES_SQL = "SELECT c.user_id, date(c.completion_date), ch.category, " +
+            "COUNT(*) FROM completed_challenges c JOIN challenges ch ON ch.id = c.challenge_id " +
+            "GROUP BY 1, 2, 3 ORDER BY 1, 2, 3";
+    private static final String DAYS_SQL = "SELECT user_id, date, challenge_count, minutes FROM daily_activity " +
+            "ORDER BY 1, 2";
+    private static final String CATEGORIES_SQL = "SELECT user_id, date, category, challenge_count " +
+            "FROM daily_category_activity ORDER BY 1, 2, 3";
+
+    private DatabaseManager dbManager;
+    private CompletedChallengeDaoImpl defaultUser;
+    private CompletedChallengeDaoImpl otherUser;
+    private Challenge first;
+    private Challenge second;
+
+    @BeforeEach
+    void setUp() {
+        dbManager = new DatabaseManager(DatabaseManager.IN_MEMORY);
+        int otherId = new UserProfileDaoImpl(dbManager)
+                .save(new UserProfile("Otro", MIDNIGHT.minusDays(30))).orElseThrow().getId();
+        defaultUser = new CompletedChallengeDaoImpl(dbManager);
+        otherUser = new CompletedChallengeDaoImpl(dbManager, otherId);
+
+        // Dos retos de categorías distintas, para que el resumen por categoría tenga más de una fila por día
+        List<Challenge> challenges = new ChallengeDaoImpl(dbManager).findAll();
+        first = challenges.get(0);
+        second = challenges.stream()
+                .filter(challenge -> !challenge.getCategory().equals(first.getCategory()))
+                .findFirst().orElseThrow();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dbManager.shutdown();
+    }
+
+    @Test
+    void recordedCompletionsAreAddedToTheirDay() throws SQLException {
+        recordAcrossMidnight();
+
+        assertRollupsMatchHistory();
+        // El segundo antes de medianoche y la medianoche caen en días distintos
+        assertEquals(List.of(
+                        List.of("1", "2026-10-16", "2", String.valueOf(first.getDurationMinutes() + second.getDurationMinutes())),
+                        List.of("1", "2026-10-17", "2", String.valueOf(2 * first.getDurationMinutes()))),
+                query(DAYS_SQL).subList(0, 2));
+    }
+
+    @Test
+    void deletedCompletionsAreSubtractedAndEmptyDaysPruned() throws SQLException {
+        List<Integer> ids = recordAcrossMidnight();
+
+        // El único reto de la segunda categoría del día 16 y todo el día 17 del perfil predeterminado
+        assertTrue(defaultUser.deleteById(ids.get(1)));
+        assertTrue(defaultUser.deleteById(ids.get(2)));
+        assertTrue(defaultUser.deleteById(ids.get(3)));
+        // Un ID de otro perfil no se borra ni resta nada
+        assertFalse(defaultUser.deleteById(ids.get(4)));
+
+        assertRollupsMatchHistory();
+        assertTrue(query(DAYS_SQL).stream().noneMatch(row -> row.get(0).equals("1") && row.get(1).equals("2026-10-17")));
+    }
+
+    @Test
+    void deleteAllClearsOnlyThatProfile() throws SQLException {
+        recordAcrossMidnight();
+
+        assertTrue(otherUser.deleteAll());
+
+        assertRollupsMatchHistory();
+        assertTrue(query(DAYS_SQL).stream().allMatch(row -> row.get(0).equals("1")));
+        assertFalse(query(DAYS_SQL).isEmpty());
+    }
+
+    @Test
+    void rebuildRestoresTheRollupsFromTheHistory() throws SQLException {
+        recordAcrossMidnight();
+        // Resúmenes desfasados, como tras escribir en el historial sin pasar por los DAO
+        dbManager.write(conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("DELETE FROM daily_category_activity WHERE user_id = 1");
+                stmt.executeUpdate("UPDATE daily_activity SET challenge_count = 99");
+                return stmt.executeUpdate("INSERT INTO completed_challenges (user_id, challenge_id, completion_date) " +
+                        "VALUES (1, " + second.getId() + ", '2026-10-15T12:00:00')");
+            }
+        });
+        assertNotEquals(query(EXPECTED_DAYS_SQL), query(DAYS_SQL));
+
+        assertTrue(defaultUser.rebuildDailyActivity());
+
+        assertRollupsMatchHistory();
+    }
+
+    /**
+     * Registra retos de los dos perfiles a ambos lados de la medianoche, por las dos vías de alta.
+     *
+     * @return Los IDs, en el orden en que se registraron
+     */
+    private List<Integer> recordAcrossMidnight() {
+        List<Integer> ids = new ArrayList<>();
+        ids.add(defaultUser.recordCompletion(first.getId(), MIDNIGHT.minusSeconds(1)).orElseThrow().getId());
+        ids.add(defaultUser.save(new CompletedChallenge(second.getId(), MIDNIGHT.minusHours(3))).getId());
+        ids.add(defaultUser.recordCompletion(first.getId(), MIDNIGHT).orElseThrow().getId());
+        ids.add(defaultUser.recordCompletion(first.getId(), MIDNIGHT.plusHours(23).plusMinutes(59)).orElseThrow().getId());
+        ids.add(otherUser.recordCompletion(second.getId(), MIDNIGHT.minusSeconds(1)).orElseThrow().getId());
+        ids.add(otherUser.recordCompletion(second.getId(), MIDNIGHT.plusSeconds(1)).orElseThrow().getId());
+        return ids;
+    }
+
+    private void assertRollupsMatchHistory() throws SQLException {
+        assertEquals(query(EXPECTED_DAYS_SQL), query(DAYS_SQL));
+        assertEquals(query(EXPECTED_CATEGORIES_SQL), query(CATEGORIES_SQL));
+    }
+
+    private List<List<String>> query(String sql) throws SQLException {
+        Connection conn = dbManager.getReadConnection();
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            ResultSetMetaData metaData = rs.getMetaData();
+            List<List<String>> rows = new ArrayList<>();
+            while (rs.next()) {
+                List<String> row = new ArrayList<>();
+                for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                    row.add(rs.getString(i));
+                }
+                rows.add(row);
+            }
+            return rows;
+        } finally {
+            dbManager.closeConnection(conn);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package devs.fmm.rfc_01.dao.impl;
+
+import devs.fmm.rfc_01.db.DatabaseManager;
+import devs.fmm.rfc_01.model.Challenge;
+import devs.fmm.rfc_01.model.CompletedChallenge;
+import devs.fmm.rfc_01.model.UserStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de la recuperación de {@link WriteBehindUserStatsDao} a partir de la marca {@code last_completion_id}, como
+ * tras un cierre inesperado con cambios sin escribir, y de los retos que se suman en distinto orden que sus IDs.
+ */
+class WriteBehindUserStatsDaoTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 17, 12, 0);
+
+    private DatabaseManager dbManager;
+    private CompletedChallengeDaoImpl completedChallengeDao;
+    private Challenge challenge;
+    private final List<WriteBehindUserStatsDao> opened = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        dbManager = new DatabaseManager(DatabaseManager.IN_MEMORY);
+        completedChallengeDao = new CompletedChallengeDaoImpl(dbManager);
+        List<Challenge> challenges = new ChallengeDaoImpl(dbManager).findAll();
+        assertFalse(challenges.isEmpty(), "The migrations should seed the default challenges");
+        challenge = challenges.get(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        opened.forEach(WriteBehindUserStatsDao::shutdown);
+        dbManager.shutdown();
+    }
+
+    @Test
+    void recoversCompletionsMissingFromTheStats() {
+        // Guardados en el historial, pero el proceso "terminó" antes de sumarlos a las estadísticas
+        complete(NOW.minusDays(1));
+        complete(NOW.minusDays(1).plusHours(1));
+        int lastId = complete(NOW);
+
+        UserStats stats = open().getUserStats().orElseThrow();
+
+        assertEquals(3, stats.getTotalChallengesCompleted());
+        assertEquals(3 * challenge.getDurationMinutes(), stats.getTotalMinutesExercised());
+        assertEquals(lastId, stats.getLastCompletionId());
+        assertEquals(2, stats.getStreakDays());
+
+        // La recuperación se escribe en el acto, con la nueva marca
+        UserStats stored = new UserStatsDaoImpl(dbManager).getUserStats().orElseThrow();
+        assertEquals(3, stored.getTotalChallengesCompleted());
+        assertEquals(lastId, stored.getLastCompletionId());
+    }
+
+    @Test
+    void recoveryDoesNotCountCompletionsTwice() {
+        complete(NOW.minusHours(2));
+        complete(NOW);
+        open().getUserStats();
+
+        WriteBehindUserStatsDao reopened = open();
+
+        assertEquals(2, reopened.getUserStats().orElseThrow().getTotalChallengesCompleted());
+        assertEquals(0, reopened.getPendingUpdateCount());
+    }
+
+    @Test
+    void recoversOnlyCompletionsAfterTheWatermark() {
+        WriteBehindUserStatsDao dao = open();
+        int firstId = complete(NOW.minusDays(1));
+        dao.recordCompletion(firstId, NOW.minusDays(1).toLocalDate(), challenge.getDurationMinutes());
+        dao.flush();
+
+        // Dos más que no llegan a sumarse
+        complete(NOW.minusHours(1));
+        int lastId = complete(NOW);
+
+        UserStats stats = open().getUserStats().orElseThrow();
+
+        assertEquals(3, stats.getTotalChallengesCompleted());
+        assertEquals(lastId, stats.getLastCompletionId());
+    }
+
+    @Test
+    void ignoresCompletionsAlreadyIncluded() {
+        int id = complete(NOW);
+        WriteBehindUserStatsDao dao = open();
+
+        // La carga ya la ha recuperado del historial
+        dao.recordCompletion(id, NOW.toLocalDate(), challenge.getDurationMinutes());
+
+        assertEquals(1, dao.getUserStats().orElseThrow().getTotalChallengesCompleted());
+    }
+
+    @Test
+    void countsCompletionsRecordedOutOfOrder() {
+        WriteBehindUserStatsDao dao = open();
+        int first = complete(NOW.minusMinutes(1));
+        int second = complete(NOW);
+
+        // Dos hilos que registran en paralelo pueden sumar antes el ID mayor
+        dao.recordCompletion(second, NOW.toLocalDate(), challenge.getDurationMinutes());
+        dao.recordCompletion(first, NOW.toLocalDate(), challenge.getDurationMinutes());
+        dao.flush();
+
+        UserStats stats = dao.getUserStats().orElseThrow();
+        assertEquals(2, stats.getTotalChallengesCompleted());
+        assertEquals(second, stats.getLastCompletionId());
+        assertEquals(2, open().getUserStats().orElseThrow().getTotalChallengesCompleted());
+    }
+
+    @Test
+    void databaseStatsCountCompletionsRecordedOutOfOrder() {
+        UserStatsDaoImpl dao = new UserStatsDaoImpl(dbManager);
+        int first = complete(NOW.minusMinutes(1));
+        int second = complete(NOW);
+
+        assertTrue(dao.recordCompletion(second, NOW.toLocalDate(), challenge.getDurationMinutes()));
+        assertTrue(dao.recordCompletion(first, NOW.toLocalDate(), challenge.getDurationMinutes()));
+
+        UserStats stats = dao.getUserStats().orElseThrow();
+        assertEquals(2, stats.getTotalChallengesCompleted());
+        assertEquals(second, stats.getLastCompletionId());
+    }
+
+    /**
+     * Abre una instancia nueva, como al arrancar la aplicación, sin escrituras periódicas durante la prueba.
+     */
+    private WriteBehindUserStatsDao open() {
+        WriteBehindUserStatsDao dao = new WriteBehindUserStatsDao(new UserStatsDaoImpl(dbManager),
+                new CompletedChallengeDaoImpl(dbManager), 3_600, 1_000);
+        opened.add(dao);
+        return dao;
+    }
+
+    private int complete(LocalDateTime dateTime) {
+        CompletedChallenge completed = completedChallengeDao.recordCompletion(challenge.getId(), dateTime).orElseThrow();
+        return completed.getId();
+    }
+}
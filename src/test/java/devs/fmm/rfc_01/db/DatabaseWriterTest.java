@@ -0,0 +1,158 @@
+package devs.fmm.rfc_01.db;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de la confirmación en grupo y de los SAVEPOINT de {@link DatabaseWriter} sobre una base de datos en memoria.
+ */
+class DatabaseWriterTest {
+
+    private ConnectionPool pool;
+    private DatabaseWriter writer;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        // Una sola conexión, que se conserva en el pool y mantiene viva la base de datos en memoria
+        pool = new ConnectionPool("writer", "jdbc:sqlite::memory:", 1, 5_000, 60_000, false, conn -> { });
+        try (Connection conn = pool.borrow(); Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE t (x INTEGER)");
+        }
+        writer = new DatabaseWriter(pool, 64, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.shutdown();
+        pool.close();
+    }
+
+    @Test
+    void queuedWritesShareOneCommit() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Integer> blocker = writer.submit(conn -> {
+            started.countDown();
+            await(release);
+            return insert(conn, 0);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Mientras el escritor está ocupado, las siguientes se acumulan en la cola
+        List<CompletableFuture<Integer>> queued = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            int value = i;
+            queued.add(writer.submit(conn -> insert(conn, value)));
+        }
+        release.countDown();
+
+        blocker.get(5, TimeUnit.SECONDS);
+        for (CompletableFuture<Integer> future : queued) {
+            assertEquals(1, future.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(11, writer.getTotalWrites());
+        assertEquals(2, writer.getTotalCommits());
+        assertEquals(11, count());
+    }
+
+    @Test
+    void failedWriteRollsBackOnlyItsSavepoint() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Integer> blocker = writer.submit(conn -> {
+            await(release);
+            return insert(conn, 0);
+        });
+        CompletableFuture<Integer> before = writer.submit(conn -> insert(conn, 1));
+        CompletableFuture<Integer> failing = writer.submit(conn -> {
+            insert(conn, 2);
+            throw new SQLException("boom");
+        });
+        CompletableFuture<Integer> after = writer.submit(conn -> insert(conn, 3));
+        release.countDown();
+
+        blocker.get(5, TimeUnit.SECONDS);
+        assertEquals(1, before.get(5, TimeUnit.SECONDS));
+        assertEquals(1, after.get(5, TimeUnit.SECONDS));
+        ExecutionException error = assertThrows(ExecutionException.class, () -> failing.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(SQLException.class, error.getCause());
+
+        assertEquals(3, count());
+        assertEquals(0, count("x = 2"));
+    }
+
+    @Test
+    void errorsFailTheirWriteAndKeepTheWriterRunning() throws Exception {
+        CompletableFuture<Integer> failing = writer.submit(conn -> {
+            insert(conn, 1);
+            throw new AssertionError("boom");
+        });
+        ExecutionException error = assertThrows(ExecutionException.class, () -> failing.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(AssertionError.class, error.getCause());
+
+        assertEquals(1, writer.submit(conn -> insert(conn, 2)).get(5, TimeUnit.SECONDS));
+        assertEquals(1, count());
+    }
+
+    @Test
+    void shutdownCommitsQueuedWritesAndRejectsNewOnes() throws Exception {
+        List<CompletableFuture<Integer>> queued = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            int value = i;
+            queued.add(writer.submit(conn -> insert(conn, value)));
+        }
+        writer.shutdown();
+
+        for (CompletableFuture<Integer> future : queued) {
+            assertTrue(future.isDone());
+            assertEquals(1, future.get());
+        }
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> writer.submit(conn -> insert(conn, 9)).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(SQLException.class, error.getCause());
+        assertEquals(5, count());
+    }
+
+    private static void await(CountDownLatch latch) throws SQLException {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException(e);
+        }
+    }
+
+    private static int insert(Connection conn, int value) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            return stmt.executeUpdate("INSERT INTO t (x) VALUES (" + value + ")");
+        }
+    }
+
+    private int count() throws SQLException {
+        return count("1 = 1");
+    }
+
+    private int count(String condition) throws SQLException {
+        try (Connection conn = pool.borrow();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM t WHERE " + condition)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package devs.fmm.rfc_01.db.migration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas del versionado de {@link MigrationRunner} con {@code PRAGMA user_version} sobre una base de datos en memoria.
+ */
+class MigrationRunnerTest {
+
+    private Connection conn;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    void appliesPendingMigrationsInVersionOrder() throws SQLException {
+        List<Integer> applied = new ArrayList<>();
+        MigrationRunner runner = new MigrationRunner(List.of(
+                recording(3, applied),
+                recording(1, applied),
+                recording(2, applied)));
+
+        assertEquals(3, runner.getLatestVersion());
+        assertEquals(3, runner.migrate(conn));
+        assertEquals(List.of(1, 2, 3), applied);
+        assertEquals(3, MigrationRunner.getCurrentVersion(conn));
+    }
+
+    @Test
+    void skipsMigrationsAlreadyApplied() throws SQLException {
+        List<Integer> applied = new ArrayList<>();
+        new MigrationRunner(List.of(recording(1, applied), recording(2, applied))).migrate(conn);
+        applied.clear();
+
+        MigrationRunner runner = new MigrationRunner(List.of(
+                recording(1, applied), recording(2, applied), recording(3, applied)));
+
+        assertEquals(1, runner.migrate(conn));
+        assertEquals(List.of(3), applied);
+        assertEquals(0, runner.migrate(conn));
+        assertEquals(3, MigrationRunner.getCurrentVersion(conn));
+    }
+
+    @Test
+    void failedMigrationRollsBackAndStopsTheRun() throws SQLException {
+        List<Integer> applied = new ArrayList<>();
+        MigrationRunner runner = new MigrationRunner(List.of(
+                Migration.sql(1, "create table", "CREATE TABLE t (x INTEGER)"),
+                Migration.sql(2, "broken", "INSERT INTO t (x) VALUES (1)", "INSERT INTO missing VALUES (1)"),
+                recording(3, applied)));
+
+        assertThrows(SQLException.class, () -> runner.migrate(conn));
+
+        assertEquals(1, MigrationRunner.getCurrentVersion(conn));
+        assertTrue(applied.isEmpty());
+        assertTrue(conn.getAutoCommit());
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM t")) {
+            assertTrue(rs.next());
+            assertEquals(0, rs.getInt(1));
+        }
+    }
+
+    @Test
+    void leavesNewerSchemasUntouched() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA user_version = 5");
+        }
+        List<Integer> applied = new ArrayList<>();
+
+        assertEquals(0, new MigrationRunner(List.of(recording(1, applied))).migrate(conn));
+        assertTrue(applied.isEmpty());
+        assertEquals(5, MigrationRunner.getCurrentVersion(conn));
+    }
+
+    @Test
+    void rejectsDuplicateAndNonPositiveVersions() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new MigrationRunner(List.of(recording(1, new ArrayList<>()), recording(1, new ArrayList<>()))));
+        assertThrows(IllegalArgumentException.class, () -> Migration.sql(0, "zero"));
+    }
+
+    @Test
+    void bundledMigrationsHaveIncreasingVersions() {
+        List<Migration> all = Migrations.all();
+        assertFalse(all.isEmpty());
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(all.get(i).getVersion() > all.get(i - 1).getVersion(), "Out of order: " + all.get(i));
+        }
+    }
+
+    private static Migration recording(int version, List<Integer> applied) {
+        return new Migration(version, "v" + version, conn -> applied.add(version));
+    }
+}
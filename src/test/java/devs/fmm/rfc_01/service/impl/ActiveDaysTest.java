@@ -0,0 +1,104 @@
+package devs.fmm.rfc_01.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de las rachas y conteos de {@link ActiveDays}, incluidos los que cruzan palabras del bitset.
+ */
+class ActiveDaysTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 17);
+
+    @Test
+    void emptySetHasNoStreaks() {
+        ActiveDays days = new ActiveDays();
+
+        assertEquals(0, days.currentStreak(TODAY));
+        assertEquals(0, days.longestStreak());
+        assertEquals(0, days.count(TODAY.minusDays(30), TODAY));
+        assertFalse(days.contains(TODAY));
+    }
+
+    @Test
+    void currentStreakEndsTodayOrYesterday() {
+        ActiveDays days = new ActiveDays();
+        addRange(days, TODAY.minusDays(4), TODAY.minusDays(1));
+
+        // Hoy aún no hay actividad: la racha termina ayer
+        assertEquals(4, days.currentStreak(TODAY));
+
+        days.add(TODAY);
+        assertEquals(5, days.currentStreak(TODAY));
+
+        // Dos días sin actividad rompen la racha
+        assertEquals(0, days.currentStreak(TODAY.plusDays(2)));
+    }
+
+    @Test
+    void streaksSpanSeveralWords() {
+        ActiveDays days = new ActiveDays();
+        // Se añade hacia atrás para que el bitset crezca también por delante
+        for (int i = 0; i < 200; i++) {
+            days.add(TODAY.minusDays(i));
+        }
+
+        assertEquals(200, days.currentStreak(TODAY));
+        assertEquals(200, days.longestStreak());
+        assertEquals(200, days.count(TODAY.minusDays(1_000), TODAY));
+    }
+
+    @Test
+    void longestStreakIgnoresShorterRuns() {
+        ActiveDays days = new ActiveDays();
+        addRange(days, TODAY.minusDays(300), TODAY.minusDays(231));
+        addRange(days, TODAY.minusDays(100), TODAY.minusDays(91));
+        days.add(TODAY);
+
+        assertEquals(70, days.longestStreak());
+        assertEquals(1, days.currentStreak(TODAY));
+    }
+
+    @Test
+    void removingADaySplitsTheStreak() {
+        ActiveDays days = new ActiveDays();
+        addRange(days, TODAY.minusDays(9), TODAY);
+
+        days.remove(TODAY.minusDays(3));
+
+        assertFalse(days.contains(TODAY.minusDays(3)));
+        assertEquals(3, days.currentStreak(TODAY));
+        assertEquals(6, days.longestStreak());
+
+        // Quitar un día fuera del rango no hace nada
+        days.remove(TODAY.plusYears(5));
+        assertEquals(9, days.count(TODAY.minusDays(9), TODAY));
+    }
+
+    @Test
+    void countIsInclusiveAndClampedToTheRange() {
+        ActiveDays days = new ActiveDays();
+        days.add(TODAY.minusDays(70));
+        days.add(TODAY.minusDays(64));
+        days.add(TODAY.minusDays(1));
+        days.add(TODAY);
+
+        assertEquals(4, days.count(TODAY.minusDays(70), TODAY));
+        assertEquals(2, days.count(TODAY.minusDays(70), TODAY.minusDays(64)));
+        assertEquals(1, days.count(TODAY, TODAY));
+        assertEquals(0, days.count(TODAY.minusDays(63), TODAY.minusDays(2)));
+        assertEquals(0, days.count(TODAY, TODAY.minusDays(1)));
+        assertTrue(days.contains(TODAY.minusDays(64)));
+    }
+
+    private static void addRange(ActiveDays days, LocalDate from, LocalDate to) {
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            days.add(date);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package devs.fmm.rfc_01.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Pruebas del cálculo del próximo aviso de {@link ReminderRule}: intervalos, horas fijas, días permitidos y horas
+ * de silencio. El 16 de octubre de 2026 es viernes.
+ */
+class ReminderRuleTest {
+
+    private static final ZoneId ZONE = ZoneOffset.UTC;
+
+    @Test
+    void intervalCountsFromTheAnchor() {
+        ReminderRule rule = ReminderRule.every("interval", Duration.ofMinutes(30));
+
+        assertEquals(at(16, 12, 30), rule.nextFire(at(16, 12, 0), at(16, 12, 10), ZONE));
+        // El intervalo ya pasó, por ejemplo tras suspender el equipo: se avisa ahora
+        assertEquals(at(16, 14, 0), rule.nextFire(at(16, 12, 0), at(16, 14, 0), ZONE));
+    }
+
+    @Test
+    void fixedTimesPickTheNextOneOfTheDay() {
+        ReminderRule rule = ReminderRule.at("fixed", List.of(LocalTime.of(18, 0), LocalTime.of(9, 0)));
+
+        assertEquals(at(16, 18, 0), rule.nextFire(at(16, 8, 0), at(16, 12, 0), ZONE));
+        // A la hora exacta ya ha avisado: la siguiente es la primera del día siguiente
+        assertEquals(at(17, 9, 0), rule.nextFire(at(16, 18, 0), at(16, 18, 0), ZONE));
+    }
+
+    @Test
+    void quietHoursCrossingMidnightDeferToTheirEnd() {
+        ReminderRule rule = ReminderRule.every("interval", Duration.ofHours(1))
+                .withQuietHours(LocalTime.of(22, 0), LocalTime.of(7, 0));
+
+        assertEquals(at(16, 21, 30), rule.nextFire(at(16, 20, 30), at(16, 20, 30), ZONE));
+        // Antes de medianoche el silencio termina al día siguiente...
+        assertEquals(at(17, 7, 0), rule.nextFire(at(16, 21, 30), at(16, 21, 30), ZONE));
+        assertEquals(at(17, 7, 0), rule.firstAllowed(at(16, 22, 0), ZONE));
+        // ...y después, el mismo día
+        assertEquals(at(17, 7, 0), rule.nextFire(at(17, 0, 30), at(17, 0, 30), ZONE));
+        assertEquals(at(17, 7, 0), rule.firstAllowed(at(17, 7, 0), ZONE));
+    }
+
+    @Test
+    void disallowedDaysMoveToTheNextAllowedOne() {
+        ReminderRule rule = ReminderRule.at("fixed", List.of(LocalTime.of(9, 0)))
+                .onDays(EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY));
+
+        assertEquals(at(16, 9, 0), rule.nextFire(at(16, 8, 0), at(16, 8, 0), ZONE));
+        // Viernes por la tarde: el siguiente es el lunes
+        assertEquals(at(19, 9, 0), rule.nextFire(at(16, 9, 0), at(16, 10, 0), ZONE));
+        assertEquals(at(19, 0, 0), rule.firstAllowed(at(17, 12, 0), ZONE));
+    }
+
+    @Test
+    void daysAndQuietHoursCombine() {
+        // Silencio del viernes por la noche al lunes: primero se salta el fin de semana y luego el silencio
+        ReminderRule rule = ReminderRule.every("interval", Duration.ofHours(2))
+                .onDays(EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY))
+                .withQuietHours(LocalTime.of(22, 0), LocalTime.of(7, 0));
+
+        assertEquals(at(19, 7, 0), rule.nextFire(at(16, 21, 0), at(16, 21, 0), ZONE));
+    }
+
+    @Test
+    void ruleWithoutAllowedDaysNeverFires() {
+        ReminderRule rule = ReminderRule.every("interval", Duration.ofHours(1)).onDays(Set.of());
+
+        assertNull(rule.nextFire(at(16, 12, 0), at(16, 12, 0), ZONE));
+        assertNull(rule.firstAllowed(at(16, 12, 0), ZONE));
+    }
+
+    private static Instant at(int dayOfOctober, int hour, int minute) {
+        return LocalDateTime.of(2026, 10, dayOfOctober, hour, minute).atZone(ZONE).toInstant();
+    }
+}
@@ -0,0 +1,162 @@
+package devs.fmm.rfc_01.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Pruebas de la programación de {@link ReminderScheduler} con un reloj controlado. Los avisos quedan siempre en el
+ * futuro del reloj, así que el motor nunca llega a avisar durante las pruebas. El 16 de octubre de 2026 es viernes.
+ */
+class ReminderSchedulerTest {
+
+    private final TestClock clock = new TestClock(at(16, 12, 0));
+    private final ReminderScheduler scheduler = new ReminderScheduler(clock, () -> { });
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void newRulesStartCountingNow() {
+        assertEquals(Optional.empty(), scheduler.getNextFireTime());
+        assertEquals(Optional.empty(), scheduler.getWaitStart());
+
+        scheduler.setRules(List.of(ReminderRule.every("interval", Duration.ofMinutes(30))));
+
+        assertEquals(Optional.of(at(16, 12, 30)), scheduler.getNextFireTime());
+        assertEquals(Optional.of(at(16, 12, 0)), scheduler.getWaitStart());
+    }
+
+    @Test
+    void changingRulesKeepsTheirAnchors() {
+        scheduler.setRules(List.of(ReminderRule.every("interval", Duration.ofMinutes(30))));
+        clock.advance(Duration.ofMinutes(10));
+
+        // Acortar el intervalo no reinicia la cuenta
+        scheduler.setRules(List.of(ReminderRule.every("interval", Duration.ofMinutes(20))));
+        assertEquals(Optional.of(at(16, 12, 20)), scheduler.getNextFireTime());
+        assertEquals(Optional.of(at(16, 12, 0)), scheduler.getWaitStart());
+
+        // Una regla nueva cuenta desde ahora y no cambia las demás
+        scheduler.setRules(List.of(
+                ReminderRule.every("interval", Duration.ofMinutes(20)),
+                ReminderRule.at("fixed", List.of(LocalTime.of(12, 15)))));
+        assertEquals(Optional.of(at(16, 12, 15)), scheduler.getNextFireTime());
+        assertEquals(Optional.of(at(16, 12, 10)), scheduler.getWaitStart());
+    }
+
+    @Test
+    void stoppingForgetsTheAnchors() {
+        scheduler.setRules(List.of(ReminderRule.every("interval", Duration.ofMinutes(30))));
+        clock.advance(Duration.ofMinutes(10));
+        scheduler.setRules(List.of());
+
+        assertEquals(Optional.empty(), scheduler.getNextFireTime());
+
+        scheduler.setRules(List.of(ReminderRule.every("interval", Duration.ofMinutes(30))));
+        assertEquals(Optional.of(at(16, 12, 40)), scheduler.getNextFireTime());
+        assertEquals(Optional.of(at(16, 12, 10)), scheduler.getWaitStart());
+    }
+
+    @Test
+    void snoozeDelaysEveryRuleAndStartsANewWait() {
+        scheduler.setRules(List.of(ReminderRule.every("interval", Duration.ofMinutes(30))));
+        clock.advance(Duration.ofMinutes(5));
+
+        scheduler.snooze(Duration.ofMinutes(40));
+
+        assertEquals(Optional.of(at(16, 12, 45)), scheduler.getNextFireTime());
+        assertEquals(Optional.of(at(16, 12, 5)), scheduler.getWaitStart());
+    }
+
+    @Test
+    void snoozeEndingInQuietHoursIsClampedToTheirEnd() {
+        clock.set(at(16, 21, 0));
+        scheduler.setRules(List.of(ReminderRule.every("interval", Duration.ofMinutes(30))
+                .withQuietHours(LocalTime.of(22, 0), LocalTime.of(7, 0))));
+        assertEquals(Optional.of(at(16, 21, 30)), scheduler.getNextFireTime());
+
+        // Terminaría a las 22:00, en pleno silencio, que cruza la medianoche
+        scheduler.snooze(Duration.ofHours(1));
+
+        assertEquals(Optional.of(at(17, 7, 0)), scheduler.getNextFireTime());
+        assertEquals(Optional.of(at(16, 21, 0)), scheduler.getWaitStart());
+    }
+
+    @Test
+    void snoozeEndingOnADisallowedDayIsClampedToTheNextAllowedOne() {
+        scheduler.setRules(List.of(ReminderRule.at("fixed", List.of(LocalTime.of(9, 0)))
+                .onDays(EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY))));
+        // Viernes a mediodía: el siguiente aviso es el lunes
+        assertEquals(Optional.of(at(19, 9, 0)), scheduler.getNextFireTime());
+
+        scheduler.snooze(Duration.ofDays(1));
+
+        // El sábado no se puede avisar: el aplazamiento termina al empezar el lunes
+        assertEquals(Optional.of(at(19, 0, 0)), scheduler.getNextFireTime());
+    }
+
+    @Test
+    void waitForAFixedTimeStartsWhenTheRuleIsScheduled() {
+        clock.set(at(16, 8, 0));
+        scheduler.setRules(List.of(ReminderRule.at("fixed", List.of(LocalTime.of(18, 0)))
+                .withQuietHours(LocalTime.of(17, 0), LocalTime.of(19, 0))));
+
+        // La espera no dura ningún intervalo: va de la programación al final del silencio
+        assertEquals(Optional.of(at(16, 19, 0)), scheduler.getNextFireTime());
+        assertEquals(Optional.of(at(16, 8, 0)), scheduler.getWaitStart());
+    }
+
+    private static Instant at(int dayOfOctober, int hour, int minute) {
+        return LocalDateTime.of(2026, 10, dayOfOctober, hour, minute).toInstant(ZoneOffset.UTC);
+    }
+
+    /**
+     * Reloj que solo avanza cuando lo indica la prueba.
+     */
+    private static final class TestClock extends Clock {
+        private volatile Instant now;
+
+        private TestClock(Instant now) {
+            this.now = now;
+        }
+
+        void set(Instant instant) {
+            now = instant;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package devs.fmm.rfc_01.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.prefs.AbstractPreferences;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas del guardado agrupado de {@link SettingsStore} sobre unas preferencias en memoria que cuentan los
+ * {@code flush()}.
+ */
+class SettingsStoreTest {
+
+    private final CountingPreferences prefs = new CountingPreferences();
+    private final BlockingQueue<Set<String>> notified = new LinkedBlockingQueue<>();
+    private SettingsStore store;
+
+    @AfterEach
+    void tearDown() {
+        if (store != null) {
+            store.shutdown();
+        }
+    }
+
+    @Test
+    void rapidPutsAreSavedAndNotifiedOnce() throws InterruptedException {
+        open(100);
+
+        for (int minutes = 1; minutes <= 10; minutes++) {
+            store.putInt("interval", minutes);
+        }
+        store.putBoolean("enabled", true);
+
+        // Los valores se leen al momento, antes de guardarse
+        assertEquals(10, store.getInt("interval", 0));
+
+        assertEquals(Set.of("interval", "enabled"), notified.poll(5, TimeUnit.SECONDS));
+        assertNull(notified.poll(300, TimeUnit.MILLISECONDS));
+        assertEquals(1, prefs.flushes.get());
+        assertEquals(10, prefs.getInt("interval", 0));
+        assertTrue(prefs.getBoolean("enabled", false));
+    }
+
+    @Test
+    void unchangedValuesAreNotSaved() throws InterruptedException {
+        prefs.putInt("interval", 20);
+        open(50);
+
+        store.putInt("interval", store.getInt("interval", 0));
+
+        assertNull(notified.poll(300, TimeUnit.MILLISECONDS));
+        assertEquals(0, prefs.flushes.get());
+    }
+
+    @Test
+    void continuousChangesAreSavedWithinTheMaximumDelay() throws InterruptedException {
+        // Sin pausas de 100 ms nunca se asienta: solo guarda el límite de 5 x 100 ms desde el primer cambio
+        open(100);
+
+        long start = System.nanoTime();
+        Set<String> first = null;
+        for (int i = 0; i < 100 && first == null; i++) {
+            store.putInt("interval", i);
+            first = notified.poll(20, TimeUnit.MILLISECONDS);
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertNotNull(first, "Changes kept arriving and the batch was never saved");
+        assertEquals(Set.of("interval"), first);
+        assertTrue(elapsedMillis < 1_500, "Saved after " + elapsedMillis + " ms");
+        assertEquals(1, prefs.flushes.get());
+    }
+
+    @Test
+    void shutdownSavesPendingValuesWithoutNotifying() {
+        open(60_000);
+        store.putInt("interval", 45);
+        assertEquals(0, prefs.flushes.get());
+
+        store.shutdown();
+
+        assertEquals(1, prefs.flushes.get());
+        assertEquals(45, prefs.getInt("interval", 0));
+
+        // Después de cerrar se guarda en el acto, también sin avisar
+        store.putBoolean("enabled", true);
+        assertEquals(2, prefs.flushes.get());
+        assertTrue(prefs.getBoolean("enabled", false));
+        assertTrue(notified.isEmpty());
+    }
+
+    private void open(long settleMillis) {
+        store = new SettingsStore(prefs, settleMillis);
+        store.addListener(notified::add);
+    }
+
+    /**
+     * Nodo raíz de preferencias en memoria que cuenta los {@code flush()}.
+     */
+    private static final class CountingPreferences extends AbstractPreferences {
+        private final Map<String, String> values = new HashMap<>();
+        private final AtomicInteger flushes = new AtomicInteger();
+
+        private CountingPreferences() {
+            super(null, "");
+        }
+
+        @Override
+        protected void putSpi(String key, String value) {
+            values.put(key, value);
+        }
+
+        @Override
+        protected String getSpi(String key) {
+            return values.get(key);
+        }
+
+        @Override
+        protected void removeSpi(String key) {
+            values.remove(key);
+        }
+
+        @Override
+        protected void removeNodeSpi() {
+            values.clear();
+        }
+
+        @Override
+        protected String[] keysSpi() {
+            return values.keySet().toArray(new String[0]);
+        }
+
+        @Override
+        protected String[] childrenNamesSpi() {
+            return new String[0];
+        }
+
+        @Override
+        protected AbstractPreferences childSpi(String name) {
+            throw new UnsupportedOperationException("No child nodes in tests");
+        }
+
+        @Override
+        protected void syncSpi() {
+        }
+
+        @Override
+        protected void flushSpi() {
+            flushes.incrementAndGet();
+        }
+    }
+}